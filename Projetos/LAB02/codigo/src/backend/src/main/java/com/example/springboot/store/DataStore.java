@@ -6,6 +6,14 @@ import java.util.concurrent.ConcurrentHashMap;
 import com.example.springboot.model.Pedido;
 import com.example.springboot.model.Veiculo;
 
+/**
+ * Armazenamento em memória do MVP (ClientController/AgentController, rotas /api/client e /api/agent).
+ *
+ * Este pacote fica fora do component scan da aplicação (com.projeto.Application): os dois
+ * controllers não são registrados e as rotas respondem 404. Os dados persistentes de pedidos e
+ * veículos estão em /pedidos e /automoveis (JPA + Flyway). Persistir este mapa só faz sentido se
+ * as rotas legadas voltarem a ser servidas.
+ */
 public class DataStore {
     public static final Map<String, Pedido> pedidos = new ConcurrentHashMap<>();
     public static final Map<String, Veiculo> veiculos = new ConcurrentHashMap<>();
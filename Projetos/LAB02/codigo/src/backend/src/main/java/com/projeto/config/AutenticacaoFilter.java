@@ -0,0 +1,60 @@
+package com.projeto.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.projeto.dto.UsuarioPrincipal;
+import com.projeto.service.TokenService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Lê "Authorization: Bearer ..." e, se o token confere, deixa o UsuarioPrincipal na requisição.
+ * Sem cabeçalho a chamada segue anônima (as rotas ainda não exigem login); token presente
+ * mas inválido, expirado ou revogado responde 401 na hora. O login não olha o cabeçalho:
+ * um token vencido guardado pelo cliente não pode impedir que ele entre de novo.
+ */
+@Component
+public class AutenticacaoFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXO = "Bearer ";
+    private static final String LOGIN = "/usuarios/login";
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && LOGIN.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecalho == null || !cabecalho.regionMatches(true, 0, PREFIXO, 0, PREFIXO.length())
+                || "OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        UsuarioPrincipal principal = tokenService.verificar(cabecalho.substring(PREFIXO.length()).trim());
+        if (principal == null) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"erro\":\"Token inválido ou expirado\",\"code\":\"TOKEN_INVALIDO\"}");
+            return;
+        }
+        request.setAttribute(UsuarioPrincipal.ATRIBUTO, principal);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,102 @@
+package com.projeto.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate, criadas aqui (Caffeine via JCache) com
+ * tamanho e TTL lidos de cache.regiao.{nome}.maximo / .ttl, caindo em cache.regiao.padrao.*.
+ * O CacheManager pronto é entregue ao Hibernate, que falha na subida se uma entidade
+ * apontar para uma região que não está nesta lista.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String AUTOMOVEL = "automovel";
+    public static final String USUARIO = "usuario";
+    public static final String ENTIDADE_EMPREGADORA = "entidade-empregadora";
+    public static final String CREDITO = "credito";
+    public static final String AGENTE_CREDITOS = "agente-creditos";
+    public static final String CONSULTAS = "consultas";
+
+    // Regiões de entidade/coleção/consulta configuráveis; a de timestamps fica fora (não pode expirar)
+    public static final List<String> REGIOES = List.of(
+            AUTOMOVEL, USUARIO, ENTIDADE_EMPREGADORA, CREDITO, AGENTE_CREDITOS, CONSULTAS,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerHibernate(Environment env) {
+        // URI própria por contexto: o CacheManager padrão do provider é um singleton da JVM, e dois
+        // contextos Spring (ex.: testes com propriedades diferentes) destruiriam as regiões um do outro
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cm = provider.getCacheManager(
+                URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        long maximoPadrao = env.getProperty("cache.regiao.padrao.maximo", Long.class, 10_000L);
+        String ttlPadrao = env.getProperty("cache.regiao.padrao.ttl", "30m");
+        for (String regiao : REGIOES) {
+            long maximo = env.getProperty("cache.regiao." + regiao + ".maximo", Long.class, maximoPadrao);
+            Duration ttl = DurationStyle.detectAndParse(env.getProperty("cache.regiao." + regiao + ".ttl", ttlPadrao));
+            criar(cm, regiao, maximo, ttl);
+        }
+        // Marca de tempo por tabela que invalida o cache de consultas: sem TTL e folgada no tamanho
+        criar(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 100_000L, null);
+        return cm;
+    }
+
+    private static void criar(CacheManager cm, String nome, long maximo, Duration ttl) {
+        CaffeineConfiguration<Object, Object> cfg = new CaffeineConfiguration<>();
+        cfg.setMaximumSize(OptionalLong.of(maximo));
+        if (ttl != null && !ttl.isZero()) cfg.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        // Hibernate já guarda entradas desmontadas e imutáveis; copiar a cada get só custaria CPU
+        cfg.setStoreByValue(false);
+        cfg.setNativeStatisticsEnabled(true);
+        cm.createCache(nome, cfg);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheHibernate(CacheManager cacheManagerHibernate) {
+        return props -> {
+            props.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+            props.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /** Contadores do Caffeine por região (hits, misses, evictions, tamanho estimado). */
+    public static Map<String, Object> estatisticas(CacheManager cm) {
+        Map<String, Object> regioes = new LinkedHashMap<>();
+        for (String nome : cm.getCacheNames()) {
+            javax.cache.Cache<Object, Object> cache = cm.getCache(nome);
+            com.github.benmanes.caffeine.cache.Cache<?, ?> nativo = cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+            CacheStats s = nativo.stats();
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("tamanho", nativo.estimatedSize());
+            r.put("hits", s.hitCount());
+            r.put("misses", s.missCount());
+            r.put("evictions", s.evictionCount());
+            r.put("taxaAcerto", s.requestCount() == 0 ? 0.0 : Math.round(s.hitRate() * 1000) / 1000.0);
+            regioes.put(nome, r);
+        }
+        return regioes;
+    }
+}
@@ -0,0 +1,399 @@
+package com.projeto.config;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.projeto.model.Agente;
+import com.projeto.model.Contrato;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.service.SenhaService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Gerador de dados sintéticos do profile "carga".
+ *
+ * Insere direto por JDBC em lotes (um commit por lote), com ids atribuídos aqui, e no fim acerta
+ * as identidades/sequências e esvazia o cache de segundo nível. Roda antes do ApplicationReadyEvent,
+ * então os índices em memória (fila, score, busca, disponibilidade) já sobem com os dados.
+ *
+ * Distribuições: clientes e automóveis escolhidos por Zipf (poucos concentram muitos pedidos),
+ * marcas por popularidade, volume de pedidos crescendo ao longo de dois anos, pendentes
+ * concentrados nas últimas semanas, rendas log-normais. Não faz nada se já houver pedidos.
+ */
+@Component
+@Profile("carga")
+public class CargaDataLoader implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaDataLoader.class);
+
+    private static final int DIAS = 730;
+    private static final String[][] CATALOGO = {
+        { "Fiat", "Strada" }, { "Volkswagen", "Polo" }, { "Chevrolet", "Onix" }, { "Hyundai", "HB20" },
+        { "Fiat", "Argo" }, { "Volkswagen", "T-Cross" }, { "Jeep", "Renegade" }, { "Toyota", "Corolla" },
+        { "Fiat", "Mobi" }, { "Chevrolet", "Tracker" }, { "Volkswagen", "Gol" }, { "Renault", "Kwid" },
+        { "Hyundai", "Creta" }, { "Jeep", "Compass" }, { "Toyota", "Hilux" }, { "Honda", "HR-V" },
+        { "Nissan", "Kicks" }, { "Fiat", "Toro" }, { "Chevrolet", "S10" }, { "Renault", "Duster" },
+        { "Honda", "Civic" }, { "Toyota", "Yaris" }, { "Peugeot", "208" }, { "Citroën", "C3" },
+        { "Volkswagen", "Nivus" }, { "Caoa Chery", "Tiggo 5x" }, { "BYD", "Dolphin" }, { "Ford", "Ranger" },
+        { "Mitsubishi", "L200" }, { "BMW", "320i" }
+    };
+    private static final String[] PROFISSOES = { "Analista", "Professor", "Enfermeiro", "Engenheiro", "Vendedor",
+        "Motorista", "Advogado", "Médico", "Autônomo", "Servidor Público", "Estudante", "Técnico" };
+    private static final int[] PRAZOS = { 12, 24, 36, 48, 60 };
+
+    @Value("${carga.semente:42}")
+    private long semente;
+
+    @Value("${carga.entidades:5000}")
+    private int entidades;
+
+    @Value("${carga.agentes:2000}")
+    private int agentes;
+
+    @Value("${carga.clientes:200000}")
+    private int clientes;
+
+    @Value("${carga.automoveis:300000}")
+    private int automoveis;
+
+    @Value("${carga.pedidos:1000000}")
+    private int pedidos;
+
+    @Value("${carga.creditos:20000}")
+    private int creditos;
+
+    @Value("${carga.lote:5000}")
+    private int lote;
+
+    @Value("${carga.senha:carga123}")
+    private String senha;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transacao;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SenhaService senhaService;
+
+    /**
+     * CPF (com dígitos verificadores válidos) do i-ésimo cliente gerado; o driver de carga usa o
+     * mesmo cálculo para fazer login. Agentes usam a faixa logo acima dos clientes.
+     */
+    public static String cpf(long i) {
+        String base = String.format("%09d", 100_000_000L + i);
+        int d1 = digito(base, 10);
+        int d2 = digito(base + d1, 11);
+        return base + d1 + d2;
+    }
+
+    private static int digito(String s, int peso) {
+        int soma = 0;
+        for (int k = 0; k < s.length(); k++) soma += (s.charAt(k) - '0') * (peso - k);
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    @FunctionalInterface
+    private interface Linha {
+        void preencher(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    @Override
+    public void run(String... args) {
+        Long existentes = jdbc.queryForObject("select count(*) from pedido", Long.class);
+        if (existentes != null && existentes > 0) {
+            log.info("[CARGA] Banco já tem {} pedidos; geração ignorada", existentes);
+            return;
+        }
+        long inicio = System.nanoTime();
+        SplittableRandom r = new SplittableRandom(semente);
+        LocalDate hoje = LocalDate.now();
+        LocalDate primeiroDia = hoje.minusDays(DIAS);
+        String hashSenha = senhaService.hash(senha);
+
+        long baseEntidade = proximoId("entidadeempregadora");
+        long baseUsuario = proximoId("usuario");
+        long baseAutomovel = proximoId("automovel");
+        long baseCredito = proximoId("credito");
+        long baseRendimento = proximoId("rendimento");
+        long baseContrato = proximoId("contrato");
+        long basePedido = proximoId("pedido");
+        // Usuários: agentes primeiro (metade bancos, metade empresas locadoras), depois clientes
+        long baseAgente = baseUsuario;
+        long baseCliente = baseUsuario + agentes;
+        int bancos = Math.max(1, agentes / 2);
+
+        inserir("insert into entidadeempregadora (id, nome) values (?, ?)", entidades, (ps, i) -> {
+            ps.setLong(1, baseEntidade + i);
+            ps.setString(2, "Empresa " + (i + 1) + (i % 7 == 0 ? " S.A." : " Ltda"));
+        });
+
+        inserir("insert into usuario (id, nome, cpf, rg, endereco, profissao, senha, tipo_usuario) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                agentes + clientes, (ps, i) -> {
+            boolean agente = i < agentes;
+            ps.setLong(1, baseUsuario + i);
+            ps.setString(2, agente ? (i < bancos ? "Banco " : "Locadora ") + (i + 1) : "Cliente " + (i - agentes + 1));
+            ps.setString(3, agente ? cpf(clientes + (long) i) : cpf(i - agentes));
+            ps.setString(4, "MG-" + (10_000_000 + i));
+            ps.setString(5, "Rua " + (1 + r.nextInt(800)) + ", " + (1 + r.nextInt(3000)));
+            ps.setString(6, agente ? "Agente" : PROFISSOES[r.nextInt(PROFISSOES.length)]);
+            ps.setString(7, hashSenha);
+            ps.setString(8, (agente ? Usuario.TipoUsuario.Agente : Usuario.TipoUsuario.Cliente).name());
+        });
+        inserir("insert into agente (id, nome_agente, tipo_agente) values (?, ?, ?)", agentes, (ps, i) -> {
+            ps.setLong(1, baseAgente + i);
+            ps.setString(2, (i < bancos ? "Banco " : "Locadora ") + (i + 1));
+            ps.setString(3, (i < bancos ? Agente.TipoAgente.Banco : Agente.TipoAgente.Empresa).name());
+        });
+        inserir("insert into cliente (id) values (?)", clientes, (ps, i) -> ps.setLong(1, baseCliente + i));
+
+        // Rendas: 0 a 3 vínculos por cliente, grandes empregadores concentram vínculos
+        Zipf empregador = new Zipf(entidades, 1.0);
+        int[] vinculos = new int[clientes];
+        int totalRendimentos = 0;
+        for (int c = 0; c < clientes; c++) {
+            int sorteio = r.nextInt(100);
+            vinculos[c] = sorteio < 10 ? 0 : sorteio < 65 ? 1 : sorteio < 90 ? 2 : 3;
+            totalRendimentos += vinculos[c];
+        }
+        int[] rendaCliente = new int[totalRendimentos];
+        int[] rendaEntidade = new int[totalRendimentos];
+        for (int c = 0, k = 0; c < clientes; c++) {
+            for (int v = 0; v < vinculos[c]; v++, k++) {
+                rendaCliente[k] = c;
+                int e = empregador.sortear(r);
+                // o mesmo empregador duas vezes para o mesmo cliente vira outro
+                rendaEntidade[k] = v > 0 && e == rendaEntidade[k - 1] ? (e + 1) % entidades : e;
+            }
+        }
+        inserir("insert into rendimento (id, valor, empregador, usuario_id) values (?, ?, ?, ?)", totalRendimentos, (ps, i) -> {
+            ps.setLong(1, baseRendimento + i);
+            ps.setDouble(2, Math.round(Math.exp(8.0 + 0.6 * gaussiano(r)) * 100.0) / 100.0);
+            ps.setString(3, "Empresa " + (rendaEntidade[i] + 1) + (rendaEntidade[i] % 7 == 0 ? " S.A." : " Ltda"));
+            ps.setLong(4, baseCliente + rendaCliente[i]);
+        });
+        inserir("insert into cliente_entidadeempregadora (idcliente, identidade) values (?, ?)", totalRendimentos, (ps, i) -> {
+            ps.setLong(1, baseCliente + rendaCliente[i]);
+            ps.setLong(2, baseEntidade + rendaEntidade[i]);
+        });
+
+        Zipf banco = new Zipf(bancos, 1.2);
+        inserir("insert into credito (id, banco, valor_aprovado, prazo_pagamento, taxa_juros) values (?, ?, ?, ?, ?)", creditos, (ps, i) -> {
+            ps.setLong(1, baseCredito + i);
+            ps.setLong(2, baseAgente + banco.sortear(r));
+            ps.setDouble(3, Math.round(Math.exp(10.6 + 0.5 * gaussiano(r)) / 100.0) * 100.0);
+            ps.setInt(4, PRAZOS[r.nextInt(PRAZOS.length)]);
+            ps.setDouble(5, Math.round((0.9 + r.nextDouble() * 2.6) * 100.0) / 100.0);
+        });
+
+        // Frota das locadoras; modelos populares e carros recentes predominam
+        Zipf modelo = new Zipf(CATALOGO.length, 1.1);
+        int locadoras = Math.max(1, agentes - bancos);
+        Zipf locadora = new Zipf(locadoras, 1.0);
+        inserir("insert into automovel (id, placa, matricula, ano, marca, modelo, proprietario_id) values (?, ?, ?, ?, ?, ?, ?)",
+                automoveis, (ps, i) -> {
+            String[] m = CATALOGO[modelo.sortear(r)];
+            ps.setLong(1, baseAutomovel + i);
+            ps.setString(2, placa(i));
+            ps.setString(3, String.format("RNV%08d", i));
+            ps.setInt(4, hoje.getYear() - (int) Math.min(20, Math.abs(gaussiano(r)) * 5));
+            ps.setString(5, m[0]);
+            ps.setString(6, m[1]);
+            ps.setLong(7, baseAgente + (agentes > bancos ? bancos + locadora.sortear(r) : 0));
+        });
+
+        // Pedidos em ordem de data (ids crescentes = mais recentes, como a paginação por id supõe)
+        Zipf cliente = new Zipf(clientes, 0.9);
+        Zipf automovel = new Zipf(automoveis, 0.8);
+        int[] pedidoCliente = new int[pedidos];
+        int[] pedidoAutomovel = new int[pedidos];
+        int[] pedidoDia = new int[pedidos];
+        byte[] pedidoStatus = new byte[pedidos];
+        Pedido.StatusPedido[] status = Pedido.StatusPedido.values();
+        for (int i = 0; i < pedidos; i++) {
+            pedidoCliente[i] = cliente.sortear(r);
+            pedidoAutomovel[i] = automovel.sortear(r);
+            int dia = (int) (DIAS * Math.sqrt((double) i / pedidos));
+            pedidoDia[i] = dia;
+            int sorteio = r.nextInt(100);
+            Pedido.StatusPedido s;
+            if (DIAS - dia <= 14) {
+                s = sorteio < 70 ? Pedido.StatusPedido.Em_analise : sorteio < 88 ? Pedido.StatusPedido.Aprovado
+                        : sorteio < 96 ? Pedido.StatusPedido.Rejeitado : Pedido.StatusPedido.Cancelado;
+            } else {
+                s = sorteio < 3 ? Pedido.StatusPedido.Em_analise : sorteio < 63 ? Pedido.StatusPedido.Aprovado
+                        : sorteio < 88 ? Pedido.StatusPedido.Rejeitado : Pedido.StatusPedido.Cancelado;
+            }
+            pedidoStatus[i] = (byte) s.ordinal();
+        }
+        inserir("insert into pedido (id, cliente_id, automovel_id, status, data_pedido, versao) values (?, ?, ?, ?, ?, ?)",
+                pedidos, (ps, i) -> {
+            Pedido.StatusPedido s = status[pedidoStatus[i]];
+            ps.setLong(1, basePedido + i);
+            ps.setLong(2, baseCliente + pedidoCliente[i]);
+            ps.setLong(3, baseAutomovel + pedidoAutomovel[i]);
+            ps.setString(4, s.name());
+            ps.setDate(5, Date.valueOf(primeiroDia.plusDays(pedidoDia[i])));
+            ps.setLong(6, s == Pedido.StatusPedido.Em_analise ? 0 : 1);
+        });
+
+        // Um contrato por pedido aprovado, sem sobrepor períodos do mesmo automóvel
+        int[] livreApartir = new int[automoveis];
+        int[] contratoPedido = new int[pedidos];
+        int[] contratoInicio = new int[pedidos];
+        int[] contratoDuracao = new int[pedidos];
+        int totalContratos = 0;
+        for (int i = 0; i < pedidos; i++) {
+            if (status[pedidoStatus[i]] != Pedido.StatusPedido.Aprovado) continue;
+            int a = pedidoAutomovel[i];
+            int inicioContrato = Math.max(pedidoDia[i] + 1 + r.nextInt(7), livreApartir[a]);
+            int duracao = 3 + (int) Math.min(360, Math.abs(gaussiano(r)) * 60);
+            livreApartir[a] = inicioContrato + duracao + 1;
+            contratoPedido[totalContratos] = i;
+            contratoInicio[totalContratos] = inicioContrato;
+            contratoDuracao[totalContratos] = duracao;
+            totalContratos++;
+        }
+        inserir("insert into contrato (id, pedido, tipo_contrato, valor, data_inicio, data_fim, automovel) values (?, ?, ?, ?, ?, ?, ?)",
+                totalContratos, (ps, i) -> {
+            int p = contratoPedido[i];
+            int sorteio = r.nextInt(100);
+            ps.setLong(1, baseContrato + i);
+            ps.setLong(2, basePedido + p);
+            ps.setString(3, (sorteio < 80 ? Contrato.TipoContrato.Cliente
+                    : sorteio < 95 ? Contrato.TipoContrato.Empresa : Contrato.TipoContrato.Banco).name());
+            ps.setDouble(4, Math.round(contratoDuracao[i] * (60.0 + r.nextDouble() * 140.0) * 100.0) / 100.0);
+            ps.setDate(5, Date.valueOf(primeiroDia.plusDays(contratoInicio[i])));
+            ps.setDate(6, Date.valueOf(primeiroDia.plusDays(contratoInicio[i] + contratoDuracao[i])));
+            ps.setLong(7, baseAutomovel + pedidoAutomovel[p]);
+        });
+
+        reiniciarIdentidade("entidadeempregadora", baseEntidade + entidades);
+        reiniciarIdentidade("usuario", baseUsuario + agentes + clientes);
+        reiniciarIdentidade("rendimento", baseRendimento + totalRendimentos);
+        reiniciarIdentidade("credito", baseCredito + creditos);
+        reiniciarIdentidade("automovel", baseAutomovel + automoveis);
+        reiniciarIdentidade("contrato", baseContrato + totalContratos);
+        // pedido_seq usa o otimizador pooled (allocationSize 50): o próximo valor é o topo do bloco
+        reiniciarSequencia("pedido_seq", basePedido + pedidos + 50);
+
+        // Tudo foi gravado por baixo do Hibernate
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        log.info("[CARGA] {} entidades, {} agentes, {} clientes, {} rendimentos, {} créditos, {} automóveis, {} pedidos, {} contratos em {} ms (semente {})",
+                entidades, agentes, clientes, totalRendimentos, creditos, automoveis, pedidos, totalContratos,
+                (System.nanoTime() - inicio) / 1_000_000, semente);
+    }
+
+    private void inserir(String sql, int total, Linha linha) {
+        for (int de = 0; de < total; de += lote) {
+            int inicio = de, tamanho = Math.min(lote, total - de);
+            transacao.executeWithoutResult(s -> jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int j) throws SQLException {
+                    linha.preencher(ps, inicio + j);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return tamanho;
+                }
+            }));
+        }
+    }
+
+    private long proximoId(String tabela) {
+        Long max = jdbc.queryForObject("select max(id) from " + tabela, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private boolean postgres() {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) (Connection c) ->
+                c.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")));
+    }
+
+    private void reiniciarIdentidade(String tabela, long proximo) {
+        if (postgres()) {
+            jdbc.queryForObject("select setval(pg_get_serial_sequence(?, 'id'), ?, false)", Long.class, tabela, proximo);
+        } else {
+            jdbc.execute("alter table " + tabela + " alter column id restart with " + proximo);
+        }
+    }
+
+    private void reiniciarSequencia(String sequencia, long proximo) {
+        if (postgres()) {
+            jdbc.queryForObject("select setval(?, ?, false)", Long.class, sequencia, proximo);
+        } else {
+            jdbc.execute("alter sequence " + sequencia + " restart with " + proximo);
+        }
+    }
+
+    // Placa no padrão Mercosul (LLLNLNN), única por índice
+    private static String placa(int i) {
+        char[] p = new char[7];
+        p[6] = (char) ('0' + i % 10); i /= 10;
+        p[5] = (char) ('0' + i % 10); i /= 10;
+        p[4] = (char) ('A' + i % 26); i /= 26;
+        p[3] = (char) ('0' + i % 10); i /= 10;
+        p[2] = (char) ('A' + i % 26); i /= 26;
+        p[1] = (char) ('A' + i % 26); i /= 26;
+        p[0] = (char) ('A' + i % 26);
+        return new String(p);
+    }
+
+    // Box-Muller explícito: a sequência gerada não depende da implementação de nextGaussian do JDK
+    private static double gaussiano(SplittableRandom r) {
+        double u = 1.0 - r.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * r.nextDouble());
+    }
+
+    /** Zipf sobre [0, n) por CDF acumulada e busca binária; o driver de carga sorteia com a mesma. */
+    public static final class Zipf {
+        private final double[] cdf;
+
+        public Zipf(int n, double expoente) {
+            cdf = new double[n];
+            double soma = 0.0;
+            for (int k = 0; k < n; k++) {
+                soma += 1.0 / Math.pow(k + 1, expoente);
+                cdf[k] = soma;
+            }
+            for (int k = 0; k < n; k++) cdf[k] /= soma;
+        }
+
+        public int sortear(SplittableRandom r) {
+            double u = r.nextDouble();
+            int lo = 0, hi = cdf.length - 1;
+            while (lo < hi) {
+                int meio = (lo + hi) >>> 1;
+                if (cdf[meio] < u) lo = meio + 1;
+                else hi = meio;
+            }
+            return lo;
+        }
+    }
+}
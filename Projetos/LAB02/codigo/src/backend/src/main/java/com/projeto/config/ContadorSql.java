@@ -0,0 +1,106 @@
+package com.projeto.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Conta os comandos SQL executados na thread da requisição, no nível do JDBC: entram os do
+ * Hibernate e os do JdbcTemplate (outbox, histórico, idempotência). Cada execute* conta um; um
+ * executeBatch conta um, como a ida ao banco que ele é.
+ *
+ * O MetricasRequisicaoFilter abre e fecha a contagem. Só as conexões pegas com a contagem aberta
+ * ganham o proxy; as das threads de fundo saem direto do pool.
+ */
+public class ContadorSql extends DelegatingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    public ContadorSql(DataSource alvo) {
+        super(alvo);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return contando(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String senha) throws SQLException {
+        return contando(super.getConnection(usuario, senha));
+    }
+
+    // O Spring infere o destroy-method pela instância: sem isto o pool envolvido não fecharia
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable alvo) alvo.close();
+    }
+
+    static void iniciar() {
+        CONTAGEM.set(new int[1]);
+    }
+
+    static int encerrar() {
+        int[] c = CONTAGEM.get();
+        CONTAGEM.remove();
+        return c == null ? 0 : c[0];
+    }
+
+    private static Connection contando(Connection conexao) {
+        if (CONTAGEM.get() == null) return conexao;
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[] { ConnectionProxy.class },
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "getTargetConnection":
+                            return conexao;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object resultado = invocar(conexao, metodo, args);
+                    // createStatement, prepareStatement, prepareCall
+                    if (resultado instanceof Statement comando && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                        return contando(comando, metodo.getReturnType());
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Object contando(Statement comando, Class<?> tipo) {
+        return Proxy.newProxyInstance(ContadorSql.class.getClassLoader(), new Class<?>[] { tipo },
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (metodo.getName().startsWith("execute")) {
+                        int[] c = CONTAGEM.get();
+                        if (c != null) c[0]++;
+                    }
+                    return invocar(comando, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.projeto.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.projeto.service.IdempotenciaService;
+import com.projeto.service.IdempotenciaService.Reserva;
+import com.projeto.service.IdempotenciaService.Resposta;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * "Idempotency-Key" nos POST de criação (idempotencia.rotas): o cliente pode repetir a chamada
+ * depois de um timeout sem criar o pedido/usuário duas vezes. Sem o cabeçalho nada muda.
+ *
+ * A chave vale por rota e por cabeçalho Authorization. Repetição durante a execução espera até
+ * idempotencia.espera-ms pelo mesmo resultado (depois, 409 com Retry-After); repetição posterior
+ * recebe a resposta gravada com "Idempotent-Replayed: true"; mesma chave com outro corpo, 422.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String REPETIDA = "Idempotent-Replayed";
+    private static final int TAMANHO_MAXIMO = 255;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Value("${idempotencia.rotas:/pedidos,/usuarios}")
+    private List<String> rotas;
+
+    @Value("${idempotencia.espera-ms:10000}")
+    private long esperaMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(CABECALHO) == null
+                || !rotas.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String chave = request.getHeader(CABECALHO).trim();
+        if (chave.isEmpty() || chave.length() > TAMANHO_MAXIMO) {
+            erro(response, HttpStatus.BAD_REQUEST, "Idempotency-Key inválida",
+                    "Deve ter de 1 a " + TAMANHO_MAXIMO + " caracteres", "IDEMPOTENCY_KEY_INVALIDA");
+            return;
+        }
+        byte[] corpo = request.getInputStream().readAllBytes();
+        String escopo = escopo(request, chave);
+        Reserva reserva = idempotenciaService.reservar(escopo, sha256(corpo));
+        switch (reserva.situacao()) {
+            case NOVA:
+                executar(new CorpoLido(request, corpo), response, chain, escopo, reserva);
+                return;
+            case REPETIDA:
+                repetir(response, reserva);
+                return;
+            case CORPO_DIFERENTE:
+                erro(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key já usada com outro corpo",
+                        "Use uma chave nova para uma requisição diferente", "IDEMPOTENCY_KEY_REUTILIZADA");
+                return;
+            default:
+                emAndamento(response);
+        }
+    }
+
+    // "POST /pedidos chave", mais um resumo do Authorization quando houver
+    static String escopo(HttpServletRequest request, String chave) {
+        String escopo = request.getMethod() + " " + request.getRequestURI() + " " + chave;
+        String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (autorizacao == null) return escopo;
+        return escopo + " @" + sha256(autorizacao.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    private void executar(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                          String escopo, Reserva reserva) throws ServletException, IOException {
+        ContentCachingResponseWrapper gravada = new ContentCachingResponseWrapper(response);
+        Resposta resposta = null;
+        try {
+            chain.doFilter(request, gravada);
+            resposta = new Resposta(gravada.getStatus(), gravada.getContentType(),
+                    gravada.getHeader(HttpHeaders.LOCATION), gravada.getContentAsByteArray());
+        } finally {
+            idempotenciaService.concluir(escopo, reserva, resposta);
+        }
+        gravada.copyBodyToResponse();
+    }
+
+    private void repetir(HttpServletResponse response, Reserva reserva) throws IOException {
+        Resposta resposta;
+        try {
+            resposta = reserva.resultado().get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            resposta = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resposta = null;
+        }
+        if (resposta == null) {
+            emAndamento(response);
+            return;
+        }
+        response.setStatus(resposta.status());
+        if (resposta.tipoConteudo() != null) response.setContentType(resposta.tipoConteudo());
+        if (resposta.location() != null) response.setHeader(HttpHeaders.LOCATION, resposta.location());
+        response.setHeader(REPETIDA, "true");
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+
+    private static void emAndamento(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        erro(response, HttpStatus.CONFLICT, "Requisição com esta Idempotency-Key ainda em andamento",
+                "Repita a chamada em instantes", "IDEMPOTENCY_KEY_EM_ANDAMENTO");
+    }
+
+    private static void erro(HttpServletResponse response, HttpStatus status, String erro, String detalhe, String code)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"erro\":\"" + erro + "\",\"detalhe\":\"" + detalhe + "\",\"code\":\"" + code + "\"}");
+    }
+
+    private static String sha256(byte[] dados) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(dados));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // O corpo já foi lido para a impressão; o controller lê de novo desta cópia
+    private static final class CorpoLido extends HttpServletRequestWrapper {
+        private final byte[] corpo;
+
+        CorpoLido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Leitura assíncrona não suportada: o corpo já foi lido pelo IdempotenciaFilter");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.projeto.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource com um semáforo justo na frente do pool: no máximo N conexões emprestadas ao mesmo
+ * tempo, e quem passa disso espera estacionado no semáforo (barato para thread virtual) em vez de
+ * disputar a fila interna do Hikari. A permissão volta no close() da conexão.
+ *
+ * Esgotado o tempo de espera, falha com SQLTransientConnectionException, que chega ao
+ * ApiExceptionHandler como CannotCreateTransactionException (503).
+ */
+public class LimiteConexoesDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permissoes;
+    private final long esperaMs;
+
+    public LimiteConexoesDataSource(DataSource alvo, int maximo, long esperaMs) {
+        super(alvo);
+        this.permissoes = new Semaphore(maximo, true);
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return devolvendoNoClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String senha) throws SQLException {
+        adquirir();
+        try {
+            return devolvendoNoClose(super.getConnection(usuario, senha));
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    // O bean DataSource passa a ser este: o Spring infere o destroy-method por ele, e sem close()
+    // o Hikari envolvido não fecharia no encerramento do contexto
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable alvo) alvo.close();
+    }
+
+    public int disponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    public int aguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Nenhuma conexão livre em " + esperaMs + " ms ("
+                        + permissoes.getQueueLength() + " aguardando)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        }
+    }
+
+    // close() pode ser chamado mais de uma vez; a permissão só volta na primeira
+    private Connection devolvendoNoClose(Connection conexao) {
+        AtomicBoolean devolvida = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[] { ConnectionProxy.class },
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "close":
+                            try {
+                                conexao.close();
+                            } finally {
+                                if (devolvida.compareAndSet(false, true)) permissoes.release();
+                            }
+                            return null;
+                        case "getTargetConnection":
+                            return conexao;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return metodo.invoke(conexao, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
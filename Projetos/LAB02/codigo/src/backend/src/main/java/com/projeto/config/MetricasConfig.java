@@ -0,0 +1,78 @@
+package com.projeto.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.projeto.service.FilaAprovacaoService;
+import com.projeto.service.SenhaService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+/**
+ * Métricas da aplicação além das que o actuator já publica (http.server.requests,
+ * spring.data.repository.invocations, hikaricp.*, hibernate.*). Percentis e histogramas
+ * ficam em application.properties.
+ */
+@Configuration
+public class MetricasConfig {
+
+    // static: BeanPostProcessor precisa existir antes dos beans que ele envolve. Ordered roda antes
+    // do semáforo de ThreadsVirtuaisConfig, que fica por fora e continua sendo o bean DataSource
+    @Bean
+    public static BeanPostProcessor contadorSql() {
+        return new ContadorSqlPostProcessor();
+    }
+
+    private static final class ContadorSqlPostProcessor implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String nome) {
+            return bean instanceof DataSource ds && !(bean instanceof ContadorSql) ? new ContadorSql(ds) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+
+    // Mesmo com a uri sempre como padrão de rota, um teto por métrica: passou disso, descarta
+    @Bean
+    public MeterFilter limiteUriSql(@Value("${metricas.uri.maximo:100}") int maximo) {
+        return MeterFilter.maximumAllowableTags("http.server.sql.statements", "uri", maximo, MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterFilter limiteUriTamanho(@Value("${metricas.uri.maximo:100}") int maximo) {
+        return MeterFilter.maximumAllowableTags("http.server.response.size", "uri", maximo, MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterBinder metricasSenha(SenhaService senhaService) {
+        return registry -> {
+            Gauge.builder("senha.hash.fila", senhaService, SenhaService::tamanhoFila)
+                    .description("Verificações de senha aguardando no pool de hash")
+                    .register(registry);
+            Gauge.builder("senha.hash.ativas", senhaService, SenhaService::ativas)
+                    .description("Threads do pool de hash calculando agora")
+                    .register(registry);
+            FunctionCounter.builder("senha.hash.rejeitadas", senhaService, SenhaService::rejeitadas)
+                    .description("Hashes recusados com a fila cheia (503)")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasFila(FilaAprovacaoService fila) {
+        return registry -> Gauge.builder("pedidos.fila.pendentes", fila, FilaAprovacaoService::tamanho)
+                .description("Pedidos em análise na fila de aprovação")
+                .register(registry);
+    }
+}
@@ -0,0 +1,149 @@
+package com.projeto.config;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Por requisição: quantos comandos SQL rodaram e quantos bytes o corpo da resposta teve.
+ * A latência já vem do http.server.requests do Spring; aqui entram os dois números que ele
+ * não mede, com as mesmas tags (method, uri como padrão da rota, status).
+ * Respostas assíncronas (SSE, /exportar) ficam de fora: o filtro termina antes delas.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class MetricasRequisicaoFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RespostaContada contada = new RespostaContada(response);
+        ContadorSql.iniciar();
+        int comandos = 0;
+        try {
+            chain.doFilter(request, contada);
+            contada.fechar();
+        } finally {
+            comandos = ContadorSql.encerrar();
+            if (!request.isAsyncStarted()) {
+                String uri = uri(request, response.getStatus());
+                String method = request.getMethod();
+                String status = String.valueOf(response.getStatus());
+                DistributionSummary.builder("http.server.sql.statements")
+                        .description("Comandos SQL por requisição")
+                        .tags("method", method, "uri", uri, "status", status)
+                        .register(registry)
+                        .record(comandos);
+                DistributionSummary.builder("http.server.response.size")
+                        .description("Bytes no corpo da resposta")
+                        .baseUnit("bytes")
+                        .tags("method", method, "uri", uri, "status", status)
+                        .register(registry)
+                        .record(contada.bytes);
+            }
+        }
+    }
+
+    // Padrão da rota (/pedidos/{id}), nunca a URL crua; sem rota, um valor fixo como o Spring faz.
+    // Caminho desconhecido cai no handler de recursos estáticos ("/**") e sai 404: conta como NOT_FOUND
+    static String uri(HttpServletRequest request, int status) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (padrao != null && !(status == 404 && "/**".equals(padrao.toString()))) return padrao.toString();
+        if (status == 404) return "NOT_FOUND";
+        if (status >= 300 && status < 400) return "REDIRECTION";
+        return "UNKNOWN";
+    }
+
+    private static final class RespostaContada extends HttpServletResponseWrapper {
+        long bytes;
+        private ServletOutputStream saida;
+        private PrintWriter writer;
+
+        RespostaContada(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (saida == null) {
+                ServletOutputStream real = super.getOutputStream();
+                saida = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        real.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        real.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        real.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        real.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return real.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        real.setWriteListener(listener);
+                    }
+                };
+            }
+            return saida;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                String enc = getCharacterEncoding();
+                Charset cs = enc != null ? Charset.forName(enc) : StandardCharsets.ISO_8859_1;
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), cs));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            super.flushBuffer();
+        }
+
+        void fechar() {
+            if (writer != null) writer.flush();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.projeto.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Detecta thread virtual presa à thread portadora (bloqueio dentro de synchronized ou em código
+ * nativo) pelo evento JFR jdk.VirtualThreadPinned, em streaming dentro do próprio processo.
+ *
+ * Cada ocorrência conta em threads.virtuais.pinadas; a pilha é logada uma vez por ponto de
+ * origem (primeiro frame com.projeto, ou o topo da pilha), para não inundar o log.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class MonitorPinagem {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorPinagem.class);
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int FRAMES_NO_LOG = 15;
+
+    @Value("${threads.virtuais.pinagem.limite-ms:20}")
+    private long limiteMs;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Set<String> origensLogadas = ConcurrentHashMap.newKeySet();
+    private Counter pinagens;
+    private RecordingStream stream;
+
+    @PostConstruct
+    void iniciar() {
+        pinagens = Counter.builder("threads.virtuais.pinadas")
+                .description("Threads virtuais que ficaram presas à portadora por mais que o limite")
+                .register(registry);
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(Duration.ofMillis(limiteMs)).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("[Pinagem] monitor JFR ativo (limite {} ms)", limiteMs);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        stream.close();
+    }
+
+    private void registrar(RecordedEvent evento) {
+        pinagens.increment();
+        if (evento.getStackTrace() == null) return;
+        List<RecordedFrame> frames = evento.getStackTrace().getFrames();
+        String origem = frames.stream()
+                .map(MonitorPinagem::descrever)
+                .filter(f -> f.startsWith("com.projeto."))
+                .findFirst()
+                .orElse(frames.isEmpty() ? "?" : descrever(frames.get(0)));
+        if (origensLogadas.add(origem)) {
+            log.warn("[Pinagem] thread virtual presa por {} ms em {}:\n\t{}", evento.getDuration().toMillis(), origem,
+                    frames.stream().limit(FRAMES_NO_LOG).map(MonitorPinagem::descrever).collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static String descrever(RecordedFrame f) {
+        return f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+    }
+}
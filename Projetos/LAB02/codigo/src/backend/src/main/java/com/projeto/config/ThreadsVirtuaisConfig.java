@@ -0,0 +1,69 @@
+package com.projeto.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Modo de execução em threads virtuais (spring.threads.virtual.enabled=true, ou THREADS_VIRTUAIS=true).
+ *
+ * O próprio Spring Boot passa a atender o Tomcat, o @Async e os agendamentos em threads virtuais;
+ * aqui entra o que muda com isso: sem o teto de threads do Tomcat, o único limite de concorrência
+ * no banco é o pool, então o Hikari ganha um semáforo na frente (LimiteConexoesDataSource).
+ * Os pools de CPU (BCrypt, simulação de crédito) continuam em threads de plataforma.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    // static: BeanPostProcessor precisa existir antes dos beans que ele envolve
+    @Bean
+    public static BeanPostProcessor limiteConexoes(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nome) {
+                if (!(bean instanceof DataSource ds) || bean instanceof LimiteConexoesDataSource) return bean;
+                HikariDataSource hikari = hikari(ds);
+                if (hikari == null) return bean;
+                int maximo = env.getProperty("conexoes.limite.maximo", Integer.class, 0);
+                long esperaMs = env.getProperty("conexoes.limite.espera-ms", Long.class, 0L);
+                return new LimiteConexoesDataSource(ds,
+                        maximo > 0 ? maximo : hikari.getMaximumPoolSize(),
+                        esperaMs > 0 ? esperaMs : hikari.getConnectionTimeout());
+            }
+        };
+    }
+
+    // O Hikari pode já vir envolvido pelo ContadorSql (MetricasConfig)
+    private static HikariDataSource hikari(DataSource ds) {
+        try {
+            return ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Bean
+    public MeterBinder metricasLimiteConexoes(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof LimiteConexoesDataSource limite)) return;
+            Gauge.builder("conexoes.limite.aguardando", limite, LimiteConexoesDataSource::aguardando)
+                    .description("Threads esperando permissão para pegar conexão do pool")
+                    .register(registry);
+            Gauge.builder("conexoes.limite.disponiveis", limite, LimiteConexoesDataSource::disponiveis)
+                    .description("Permissões livres no semáforo do pool")
+                    .register(registry);
+        };
+    }
+}
@@ -4,11 +4,17 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.projeto.service.ConflitoException;
+import com.projeto.service.LimiteExcedidoException;
+
 @ControllerAdvice
 public class ApiExceptionHandler {
 
@@ -24,4 +30,45 @@ public class ApiExceptionHandler {
         body.put("detalhe", message);
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(ConflitoException.class)
+    public ResponseEntity<Map<String,Object>> handleConflito(ConflitoException ex) {
+        Map<String,Object> body = new HashMap<>();
+        body.put("erro", "Conflito de estado");
+        body.put("detalhe", ex.getMessage());
+        body.put("code", ex.getCode());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // @Version em Pedido: duas escritas concorrentes pelo caminho JPA (ex.: PUT /pedidos/{id})
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String,Object>> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        Map<String,Object> body = new HashMap<>();
+        body.put("erro", "Registro alterado por outra requisição");
+        body.put("code", "CONFLITO_CONCORRENCIA");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // 429 (throttle de login) e 503 (pool de hash saturado)
+    @ExceptionHandler(LimiteExcedidoException.class)
+    public ResponseEntity<Map<String,Object>> handleLimite(LimiteExcedidoException ex) {
+        Map<String,Object> body = new HashMap<>();
+        body.put("erro", ex.getMessage());
+        body.put("code", ex.getCode());
+        body.put("retryAfter", ex.getRetryAfterSegundos());
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfterSegundos())))
+                .body(body);
+    }
+
+    // Sem conexão no prazo (pool ou semáforo de LimiteConexoesDataSource esgotado, banco fora do ar)
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Map<String,Object>> handleSemConexao(CannotCreateTransactionException ex) {
+        Map<String,Object> body = new HashMap<>();
+        body.put("erro", "Banco de dados sobrecarregado; tente novamente");
+        body.put("code", "CONEXOES_ESGOTADAS");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+}
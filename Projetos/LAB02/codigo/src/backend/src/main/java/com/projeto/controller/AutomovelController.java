@@ -1,11 +1,19 @@
 package com.projeto.controller;
 
+import com.projeto.dto.AutomovelResumo;
+import com.projeto.dto.PaginaBusca;
 import com.projeto.model.Automovel;
 import com.projeto.service.AutomovelService;
+import com.projeto.service.BuscaAutomovelService;
+import com.projeto.service.DisponibilidadeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -16,16 +24,63 @@ public class AutomovelController {
     @Autowired
     private AutomovelService automovelService;
 
+    @Autowired
+    private DisponibilidadeService disponibilidadeService;
+
+    @Autowired
+    private BuscaAutomovelService buscaAutomovelService;
+
     @PostMapping
     public ResponseEntity<Automovel> criarAutomovel(@RequestBody Automovel automovel) {
         Automovel novoAutomovel = automovelService.salvar(automovel);
         return ResponseEntity.ok(novoAutomovel);
     }
 
+    // view=summary devolve AutomovelResumo (sem proprietário); sem view mantém a entidade
     @GetMapping
-    public ResponseEntity<List<Automovel>> listarTodos() {
-        List<Automovel> automoveis = automovelService.listarTodos();
-        return ResponseEntity.ok(automoveis);
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) String view) {
+        if (view == null || view.isBlank()) return ResponseEntity.ok(automovelService.listarTodos());
+        if (!"summary".equalsIgnoreCase(view.trim())) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(automovelService.listarResumos());
+    }
+
+    // Automóveis sem contrato que intercepte [inicio, fim] (datas inclusivas, ISO yyyy-MM-dd)
+    @GetMapping("/disponiveis")
+    public ResponseEntity<List<AutomovelResumo>> listarDisponiveis(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        if (fim.isBefore(inicio)) return ResponseEntity.badRequest().build();
+        List<AutomovelResumo> disponiveis = buscaAutomovelService.todos().stream()
+                .filter(a -> disponibilidadeService.disponivel(a.id(), inicio, fim))
+                .sorted(Comparator.comparing(AutomovelResumo::id))
+                .toList();
+        return ResponseEntity.ok(disponiveis);
+    }
+
+    // Busca no índice em memória: q casa por prefixo (ou com um erro de digitação) em marca, modelo e placa
+    @GetMapping("/busca")
+    public ResponseEntity<PaginaBusca<AutomovelResumo>> buscar(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String modelo,
+            @RequestParam(required = false) String placa,
+            @RequestParam(required = false) Integer anoMin,
+            @RequestParam(required = false) Integer anoMax,
+            @RequestParam(defaultValue = "id") String ordenar,
+            @RequestParam(defaultValue = "asc") String direcao,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamanho) {
+        boolean decrescente = "desc".equalsIgnoreCase(direcao);
+        return ResponseEntity.ok(buscaAutomovelService.buscar(q, marca, modelo, placa, anoMin, anoMax,
+                ordenar, decrescente, pagina, tamanho));
+    }
+
+    @GetMapping("/{id}/disponibilidade")
+    public ResponseEntity<Map<String, Object>> disponibilidade(@PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        if (fim.isBefore(inicio)) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(Map.of("automovelId", id, "disponivel", disponibilidadeService.disponivel(id, inicio, fim)));
     }
 
     @GetMapping("/{id}")
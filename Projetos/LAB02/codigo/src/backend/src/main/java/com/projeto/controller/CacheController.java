@@ -0,0 +1,29 @@
+package com.projeto.controller;
+
+import java.util.Map;
+
+import javax.cache.CacheManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.projeto.config.CacheConfig;
+
+@RestController
+@RequestMapping("/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManagerHibernate;
+
+    // Hits/misses/evictions por região do cache de segundo nível
+    @GetMapping("/estatisticas")
+    public ResponseEntity<Map<String, Object>> estatisticas() {
+        return ResponseEntity.ok(CacheConfig.estatisticas(cacheManagerHibernate));
+    }
+}
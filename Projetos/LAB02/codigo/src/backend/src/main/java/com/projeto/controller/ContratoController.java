@@ -1,11 +1,22 @@
 package com.projeto.controller;
 
+import com.projeto.dto.RelatorioReceita;
 import com.projeto.model.Contrato;
 import com.projeto.service.ContratoService;
+import com.projeto.service.ExportacaoService;
+import com.projeto.service.ReceitaContratoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -15,6 +26,12 @@ public class ContratoController {
     @Autowired
     private ContratoService contratoService;
 
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private ReceitaContratoService receitaContratoService;
+
     @PostMapping
     public ResponseEntity<Contrato> criarContrato(@RequestBody Contrato contrato) {
         Contrato novoContrato = contratoService.salvar(contrato);
@@ -27,6 +44,58 @@ public class ContratoController {
         return ResponseEntity.ok(contratos);
     }
 
+    // Tabela inteira, sem paginação: NDJSON (padrão) ou CSV, escrita à medida que sai do banco
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceitaCodificacao) {
+        return RespostaExportacao.de(exportacaoService, ExportacaoService.Tabela.CONTRATOS, formato, aceitaCodificacao);
+    }
+
+    // Receita pré-agregada em memória: granularidade dia|mes (padrão mes), dimensao total|tipo|automovel
+    // (padrão total), de/ate como 2025-03 ou 2025-03-14 (padrão: últimos 12 meses ou 30 dias)
+    @GetMapping("/relatorio")
+    public ResponseEntity<RelatorioReceita> relatorio(@RequestParam(required = false) String granularidade,
+            @RequestParam(required = false) String dimensao,
+            @RequestParam(required = false) String de,
+            @RequestParam(required = false) String ate) {
+        ReceitaContratoService.Granularidade g = opcao(ReceitaContratoService.Granularidade.class, granularidade,
+                ReceitaContratoService.Granularidade.MES, "granularidade");
+        ReceitaContratoService.Dimensao d = opcao(ReceitaContratoService.Dimensao.class, dimensao,
+                ReceitaContratoService.Dimensao.TOTAL, "dimensao");
+        LocalDate fim = data(ate, true, LocalDate.now());
+        LocalDate inicio = data(de, false, g == ReceitaContratoService.Granularidade.MES
+                ? fim.minusMonths(11).withDayOfMonth(1) : fim.minusDays(29));
+        try {
+            return ResponseEntity.ok(receitaContratoService.consultar(g, d, inicio, fim));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static <E extends Enum<E>> E opcao(Class<E> tipo, String valor, E padrao, String nome) {
+        if (valor == null || valor.isBlank()) return padrao;
+        try {
+            return Enum.valueOf(tipo, valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, nome + " inválido: " + valor);
+        }
+    }
+
+    // "2025-03" vale pelo primeiro (de) ou último (ate) dia do mês
+    private static LocalDate data(String valor, boolean fimDoMes, LocalDate padrao) {
+        if (valor == null || valor.isBlank()) return padrao;
+        try {
+            String v = valor.trim();
+            if (v.length() == 7) {
+                YearMonth mes = YearMonth.parse(v);
+                return fimDoMes ? mes.atEndOfMonth() : mes.atDay(1);
+            }
+            return LocalDate.parse(v);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "data inválida: " + valor + " (use 2025-03 ou 2025-03-14)");
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Contrato> buscarPorId(@PathVariable Long id) {
         Optional<Contrato> contrato = contratoService.buscarPorId(id);
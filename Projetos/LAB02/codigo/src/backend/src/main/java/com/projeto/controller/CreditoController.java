@@ -1,7 +1,9 @@
 package com.projeto.controller;
 
+import com.projeto.dto.SimulacaoCredito;
 import com.projeto.model.Credito;
 import com.projeto.service.CreditoService;
+import com.projeto.service.SimulacaoCreditoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,12 +17,27 @@ public class CreditoController {
     @Autowired
     private CreditoService creditoService;
 
+    @Autowired
+    private SimulacaoCreditoService simulacaoCreditoService;
+
     @PostMapping
     public ResponseEntity<Credito> criarCredito(@RequestBody Credito credito) {
         Credito novoCredito = creditoService.salvar(credito);
         return ResponseEntity.ok(novoCredito);
     }
 
+    // Tabela Price/SAC de um crédito cadastrado ou de valores avulsos; com "grade", resumo de cada combinação
+    @PostMapping("/simular")
+    public ResponseEntity<?> simular(@RequestBody SimulacaoCredito req) {
+        if (req.grade() != null) {
+            return ResponseEntity.ok(simulacaoCreditoService.simularGrade(req.sistema(), req.grade()));
+        }
+        if (req.creditoId() != null) {
+            return ResponseEntity.ok(simulacaoCreditoService.simularCredito(req.creditoId(), req.sistema()));
+        }
+        return ResponseEntity.ok(simulacaoCreditoService.simular(req.sistema(), req.valor(), req.prazo(), req.taxa()));
+    }
+
     @GetMapping
     public ResponseEntity<List<Credito>> listarTodos() {
         List<Credito> creditos = creditoService.listarTodos();
@@ -0,0 +1,37 @@
+package com.projeto.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.projeto.dto.PaginaCursor;
+import com.projeto.dto.PedidoResumo;
+import com.projeto.service.FilaAprovacaoService;
+
+// Fila de pedidos pendentes para o dashboard do agente (substitui o polling de GET /pedidos)
+@RestController
+@RequestMapping("/agentes/fila")
+@CrossOrigin(origins = "*")
+public class FilaAprovacaoController {
+
+    @Autowired
+    private FilaAprovacaoService filaAprovacaoService;
+
+    @GetMapping
+    public ResponseEntity<PaginaCursor<PedidoResumo>> pagina(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(filaAprovacaoService.pagina(cursor, limite));
+    }
+
+    // Eventos "fila" com { tipo: ENTRADA|ATUALIZACAO|SAIDA, pedido }
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return filaAprovacaoService.inscrever();
+    }
+}
@@ -1,9 +1,22 @@
 package com.projeto.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,12 +26,29 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.projeto.dto.HistoricoPedido;
+import com.projeto.dto.PaginaCursor;
+import com.projeto.dto.PedidoDetalhe;
+import com.projeto.dto.PedidoResumo;
+import com.projeto.dto.ResultadoLote;
+import com.projeto.dto.ScoreCredito;
 import com.projeto.model.Pedido;
 import com.projeto.repository.PedidoRepository;
+import com.projeto.service.ExportacaoService;
+import com.projeto.service.HistoricoPedidoService;
 import com.projeto.service.PedidoService;
+import com.projeto.service.ScoreCreditoService;
 
 @RestController
 @RequestMapping("/pedidos")
@@ -31,23 +61,123 @@ public class PedidoController {
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ScoreCreditoService scoreCreditoService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private HistoricoPedidoService historicoPedidoService;
+
     @PostMapping
     public ResponseEntity<Pedido> criarPedido(@RequestBody Pedido pedido) {
         Pedido novoPedido = pedidoService.salvar(pedido);
         return ResponseEntity.ok(novoPedido);
     }
 
+    // Importação em lote: array JSON ou NDJSON (um pedido por linha), até PedidoService.LOTE_MAXIMO itens
+    @PostMapping(path = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> criarLote(InputStream corpo) throws IOException {
+        List<Pedido> pedidos = new ArrayList<>();
+        try (MappingIterator<Pedido> it = objectMapper.readerFor(Pedido.class).readValues(corpo)) {
+            while (it.hasNextValue()) {
+                if (pedidos.size() == PedidoService.LOTE_MAXIMO) {
+                    Map<String,Object> err = new HashMap<>();
+                    err.put("erro", "Lote muito grande");
+                    err.put("detalhe", "Máximo de " + PedidoService.LOTE_MAXIMO + " pedidos por requisição");
+                    err.put("code", "LOTE_EXCEDIDO");
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(err);
+                }
+                pedidos.add(it.nextValue());
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            Map<String,Object> err = new HashMap<>();
+            err.put("erro", "Lote inválido");
+            err.put("detalhe", "Item " + pedidos.size() + ": " + e.getMessage());
+            err.put("code", "LOTE_INVALIDO");
+            return ResponseEntity.badRequest().body(err);
+        }
+        ResultadoLote resultado = pedidoService.salvarLote(pedidos);
+        return ResponseEntity.ok(resultado);
+    }
+
+    // view=summary|full devolve projeções (PedidoResumo/PedidoDetalhe); sem view mantém a entidade
+    private enum Visao { ENTIDADE, SUMMARY, FULL }
+
+    private static Visao visao(String view) {
+        if (view == null || view.isBlank()) return Visao.ENTIDADE;
+        switch (view.trim().toLowerCase(java.util.Locale.ROOT)) {
+            case "summary": return Visao.SUMMARY;
+            case "full": return Visao.FULL;
+            default: throw new IllegalArgumentException("view inválida: " + view);
+        }
+    }
+
+    // Sem parâmetros mantém a lista completa (compatível com o frontend atual).
+    // Com qualquer filtro, cursor ou limite responde paginado: { itens, nextCursor }.
     @GetMapping
-    public ResponseEntity<List<Pedido>> listarTodos() {
-        List<Pedido> pedidos = pedidoService.listarTodos();
-        return ResponseEntity.ok(pedidos);
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) String view,
+                                         @RequestParam(required = false) String status,
+                                         @RequestParam(required = false) Long clienteId,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limite) {
+        Visao v;
+        Pedido.StatusPedido filtroStatus;
+        Long cursorId;
+        try {
+            v = visao(view);
+            filtroStatus = status != null ? Pedido.StatusPedido.fromString(status) : null;
+            cursorId = cursor != null && !cursor.isBlank() ? Long.valueOf(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (status == null && clienteId == null && de == null && ate == null && cursor == null && limite == null) {
+            switch (v) {
+                case SUMMARY: return ResponseEntity.ok(pedidoService.listarResumos(null));
+                case FULL: return ResponseEntity.ok(pedidoService.listarDetalhes(null));
+                default: return ResponseEntity.ok(pedidoService.listarTodos());
+            }
+        }
+        PaginaCursor<Pedido> pagina = pedidoService.listarPagina(filtroStatus, clienteId, de, ate, cursorId, limite);
+        switch (v) {
+            case SUMMARY:
+                return ResponseEntity.ok(new PaginaCursor<>(pagina.itens().stream().map(PedidoResumo::de).toList(), pagina.nextCursor()));
+            case FULL:
+                return ResponseEntity.ok(new PaginaCursor<>(pagina.itens().stream().map(PedidoDetalhe::de).toList(), pagina.nextCursor()));
+            default:
+                return ResponseEntity.ok(pagina);
+        }
     }
 
     // Listar pedidos de um cliente específico (para dashboard do cliente)
     @GetMapping("/cliente/{clienteId}")
-    public ResponseEntity<List<Pedido>> listarPorCliente(@PathVariable Long clienteId) {
-        List<Pedido> pedidos = pedidoRepository.findByClienteId(clienteId); // retorna lista vazia se nenhum
-        return ResponseEntity.ok(pedidos);
+    public ResponseEntity<?> listarPorCliente(@PathVariable Long clienteId, @RequestParam(required = false) String view) {
+        Visao v;
+        try {
+            v = visao(view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        switch (v) {
+            case SUMMARY: return ResponseEntity.ok(pedidoService.listarResumos(clienteId));
+            case FULL: return ResponseEntity.ok(pedidoService.listarDetalhes(clienteId));
+            default:
+                List<Pedido> pedidos = pedidoRepository.findByClienteId(clienteId); // retorna lista vazia se nenhum
+                return ResponseEntity.ok(pedidos);
+        }
+    }
+
+    // Tabela inteira, sem paginação: NDJSON (padrão) ou CSV, escrita à medida que sai do banco
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceitaCodificacao) {
+        return RespostaExportacao.de(exportacaoService, ExportacaoService.Tabela.PEDIDOS, formato, aceitaCodificacao);
     }
 
     @GetMapping("/{id}")
@@ -57,6 +187,40 @@ public class PedidoController {
                      .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Eventos do pedido e o estado que eles produzem; asOf (ISO-8601, ex. 2025-03-01T12:00:00Z ou
+    // 2025-03-01T09:00:00-03:00) volta no tempo. Continua respondendo depois que o pedido é removido.
+    @GetMapping("/{id}/historico")
+    public ResponseEntity<HistoricoPedido> historico(@PathVariable Long id, @RequestParam(required = false) String asOf) {
+        Instant instante;
+        try {
+            instante = asOf == null || asOf.isBlank() ? null : OffsetDateTime.parse(asOf.trim()).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "asOf deve ser data e hora ISO-8601 com fuso");
+        }
+        HistoricoPedido historico = historicoPedidoService.consultar(id, instante);
+        return historico != null ? ResponseEntity.ok(historico) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/score")
+    public ResponseEntity<ScoreCredito> score(@PathVariable Long id) {
+        return scoreCreditoService.pontuar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Corpo: lista de ids de pedido. Sem corpo (ou lista vazia) pontua a fila de aprovação inteira.
+    @PostMapping("/score")
+    public ResponseEntity<?> scoreEmLote(@RequestBody(required = false) List<Long> ids) {
+        if (ids != null && ids.size() > PedidoService.LOTE_MAXIMO) {
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Lote acima de " + PedidoService.LOTE_MAXIMO + " pedidos");
+            erro.put("code", "LOTE_EXCEDIDO");
+            return ResponseEntity.badRequest().body(erro);
+        }
+        List<ScoreCredito> scores = scoreCreditoService.pontuar(ids);
+        return ResponseEntity.ok(scores);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Pedido> atualizarPedido(@PathVariable Long id, @RequestBody Pedido pedido) {
         Optional<Pedido> pedidoAtualizado = pedidoService.atualizar(id, pedido);
@@ -64,21 +228,27 @@ public class PedidoController {
                                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    // Atualização simplificada de status (aprovar/rejeitar/cancelar) usada pelo dashboard do agente
+    // Atualização simplificada de status (aprovar/rejeitar/cancelar) usada pelo dashboard do agente.
+    // Aceita "versao" opcional; transição inválida ou corrida perdida respondem 409.
     @PatchMapping("/{id}/status")
     public ResponseEntity<Pedido> atualizarStatus(@PathVariable Long id, @RequestBody java.util.Map<String,String> payload) {
         String statusStr = payload.get("status");
-        Optional<Pedido> existente = pedidoService.buscarPorId(id);
-        if (existente.isEmpty()) return ResponseEntity.notFound().build();
+        Pedido.StatusPedido novo;
         try {
-            Pedido.StatusPedido novo = Pedido.StatusPedido.fromString(statusStr);
-            Pedido p = existente.get();
-            p.setStatus(novo);
-            Pedido salvo = pedidoService.salvar(p); // reutiliza validações e defaults
-            return ResponseEntity.ok(salvo);
+            novo = Pedido.StatusPedido.fromString(statusStr);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
+        if (novo == null) return ResponseEntity.badRequest().build();
+        Long versao;
+        try {
+            versao = payload.get("versao") != null ? Long.valueOf(payload.get("versao")) : null;
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return pedidoService.atualizarStatus(id, novo, versao)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,69 @@
+package com.projeto.controller;
+
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.projeto.service.ExportacaoService;
+import com.projeto.service.ExportacaoService.Formato;
+import com.projeto.service.ExportacaoService.Tabela;
+
+/**
+ * Monta a resposta dos GET /.../exportar: cabeçalhos na hora e o corpo escrito depois, fora da
+ * thread da requisição. Com "Accept-Encoding: gzip" o corpo sai comprimido.
+ * Um erro no meio do caminho não tem mais como virar status HTTP: a conexão é encerrada e o
+ * arquivo chega truncado (sem a última linha completa).
+ */
+final class RespostaExportacao {
+
+    private RespostaExportacao() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> de(ExportacaoService exportacaoService, Tabela tabela,
+                                                    String formato, String aceitaCodificacao) {
+        Formato f;
+        try {
+            f = Formato.fromString(formato);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "formato deve ser ndjson ou csv");
+        }
+        boolean gzip = aceitaGzip(aceitaCodificacao);
+        StreamingResponseBody corpo = saida -> {
+            if (gzip) {
+                GZIPOutputStream comprimida = new GZIPOutputStream(saida, 8192);
+                exportacaoService.exportar(tabela, f, comprimida);
+                comprimida.finish();
+            } else {
+                exportacaoService.exportar(tabela, f, saida);
+            }
+        };
+        String arquivo = tabela.name().toLowerCase(Locale.ROOT) + "." + f.extensao();
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(f.tipoConteudo() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + arquivo + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return resposta.body(corpo);
+    }
+
+    // "gzip" na lista, a menos que venha com q=0
+    static boolean aceitaGzip(String aceitaCodificacao) {
+        if (aceitaCodificacao == null) return false;
+        for (String item : aceitaCodificacao.split(",")) {
+            String[] partes = item.trim().toLowerCase(Locale.ROOT).split(";");
+            if (!partes[0].trim().equals("gzip")) continue;
+            for (int i = 1; i < partes.length; i++) {
+                String p = partes[i].replace(" ", "");
+                if (p.startsWith("q=") && p.substring(2).matches("0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+}
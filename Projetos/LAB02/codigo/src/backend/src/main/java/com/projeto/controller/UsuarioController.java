@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,14 +15,24 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.projeto.dto.UsuarioPrincipal;
 import com.projeto.model.Rendimento;
 import com.projeto.model.Usuario;
+import com.projeto.service.ExportacaoService;
+import com.projeto.service.LoginThrottle;
+import com.projeto.service.TokenService;
 import com.projeto.service.UsuarioService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/usuarios")
 @CrossOrigin(origins = "*")
@@ -30,11 +41,20 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
     @PostMapping
     public ResponseEntity<?> criarUsuario(@RequestBody Usuario usuario) {
         Map<String,Object> body = new HashMap<>();
         if (usuario.getCpf() != null) {
-            usuario.setCpf(usuario.getCpf().replaceAll("\\D", ""));
+            usuario.setCpf(normalizarCpf(usuario.getCpf()));
         }
         if (usuario.getCpf() == null || usuario.getCpf().length() != 11) {
             body.put("erro", "CPF inválido");
@@ -60,10 +80,16 @@ public class UsuarioController {
         }
     }
 
+    // view=summary devolve UsuarioResumo (id, nome, cpf, tipo); sem view mantém a entidade
     @GetMapping("/{id}")
-    public ResponseEntity<Usuario> buscarUsuarioPorId(@PathVariable Long id) {
+    public ResponseEntity<?> buscarUsuarioPorId(@PathVariable Long id, @RequestParam(required = false) String view) {
+        if (view != null && !view.isBlank()) {
+            if (!"summary".equalsIgnoreCase(view.trim())) return ResponseEntity.badRequest().build();
+            return usuarioService.buscarResumo(id).<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
         Optional<Usuario> usuario = usuarioService.buscarPorId(id);
-        return usuario.map(ResponseEntity::ok)
+        return usuario.<ResponseEntity<?>>map(ResponseEntity::ok)
                       .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -73,6 +99,13 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarios);
     }
 
+    // Tabela inteira, sem paginação: NDJSON (padrão) ou CSV, escrita à medida que sai do banco
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceitaCodificacao) {
+        return RespostaExportacao.de(exportacaoService, ExportacaoService.Tabela.USUARIOS, formato, aceitaCodificacao);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Usuario> atualizarUsuario(@PathVariable Long id, @RequestBody Usuario usuario) {
         Optional<Usuario> usuarioAtualizado = usuarioService.atualizar(id, usuario);
@@ -106,10 +139,10 @@ public class UsuarioController {
 
     // Login endpoint (adicionando corpo de erro simples + normalização de CPF)
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> loginData) {
+    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> loginData, HttpServletRequest request) {
         String cpf = loginData.get("cpf");
         String senha = loginData.get("senha");
-        if (cpf != null) cpf = cpf.replaceAll("\\D", "");
+        cpf = normalizarCpf(cpf);
 
         if (cpf == null || senha == null || cpf.length() != 11 || senha.isBlank()) {
             Map<String,Object> err = new HashMap<>();
@@ -119,7 +152,10 @@ public class UsuarioController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
         }
 
-        Optional<Usuario> usuario = usuarioService.buscarPorCpfESenha(cpf, senha);
+        // Throttle antes de qualquer consulta ou hash; estourado responde 429 com Retry-After.
+        // getRemoteAddr() já é o cliente quando o proxy manda X-Forwarded-For (forward-headers-strategy)
+        loginThrottle.consumir(cpf, request.getRemoteAddr());
+        Optional<Usuario> usuario = usuarioService.autenticar(cpf, senha);
         if (usuario.isEmpty()) {
             Map<String,Object> err = new HashMap<>();
             err.put("erro", "CPF ou senha incorretos");
@@ -127,6 +163,7 @@ public class UsuarioController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(err);
         }
 
+        loginThrottle.sucesso(cpf);
         Map<String, Object> response = new HashMap<>();
         Usuario u = usuario.get();
         try { // evitar expor senha
@@ -134,6 +171,49 @@ public class UsuarioController {
         } catch (Exception ignored) {}
         response.put("usuario", u);
         response.put("tipo", u.getTipoUsuario().toString());
+        TokenService.Emitido token = tokenService.emitir(u);
+        response.put("token", token.token());
+        response.put("expiraEm", token.expiraEm().toString());
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Identidade do token, sem ir ao banco
+    @GetMapping("/me")
+    public ResponseEntity<UsuarioPrincipal> eu(
+            @RequestAttribute(name = UsuarioPrincipal.ATRIBUTO, required = false) UsuarioPrincipal principal) {
+        if (principal == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(principal);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestAttribute(name = UsuarioPrincipal.ATRIBUTO, required = false) UsuarioPrincipal principal) {
+        if (principal == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        tokenService.revogar(principal);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Mantém só os dígitos ASCII do CPF (mesmo efeito de replaceAll("\\D", "")), sem compilar
+     * regex a cada chamada e sem alocar quando o CPF já chega só com dígitos.
+     */
+    public static String normalizarCpf(String cpf) {
+        if (cpf == null) return null;
+        int n = cpf.length();
+        int i = 0;
+        while (i < n && eDigito(cpf.charAt(i))) i++;
+        if (i == n) return cpf;
+        char[] digitos = new char[n];
+        cpf.getChars(0, i, digitos, 0);
+        int k = i;
+        for (i++; i < n; i++) {
+            char c = cpf.charAt(i);
+            if (eDigito(c)) digitos[k++] = c;
+        }
+        return new String(digitos, 0, k);
+    }
+
+    private static boolean eDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,10 @@
+package com.projeto.dto;
+
+import com.projeto.model.Automovel;
+
+public record AutomovelResumo(Long id, String placa, String matricula, Integer ano, String marca, String modelo) {
+
+    public static AutomovelResumo de(Automovel a) {
+        return a == null ? null : new AutomovelResumo(a.getId(), a.getPlaca(), a.getMatricula(), a.getAno(), a.getMarca(), a.getModelo());
+    }
+}
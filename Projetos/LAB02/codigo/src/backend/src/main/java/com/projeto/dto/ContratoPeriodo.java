@@ -0,0 +1,7 @@
+package com.projeto.dto;
+
+import java.util.Date;
+
+// Período ocupado por um contrato, usado para reconstruir a agenda de disponibilidade
+public record ContratoPeriodo(Long contratoId, Long automovelId, Date dataInicio, Date dataFim) {
+}
@@ -0,0 +1,71 @@
+package com.projeto.dto;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+
+/**
+ * GET /pedidos/{id}/historico: os eventos do pedido até asOf (em ordem) e o estado que eles
+ * produzem. estado.removido indica que o pedido já tinha sido apagado naquele instante.
+ */
+public record HistoricoPedido(Long pedidoId, Instant asOf, Estado estado, List<Evento> eventos) {
+
+    /** tipo: CRIADO, STATUS_ALTERADO, AUTOMOVEL_ALTERADO, REMOVIDO ou IMPORTADO (pedido anterior ao histórico). */
+    public record Evento(
+            Long id,
+            String tipo,
+            Pedido.StatusPedido status,
+            Pedido.StatusPedido statusAnterior,
+            Long clienteId,
+            Long automovelId,
+            Long automovelAnteriorId,
+            Date dataPedido,
+            Long autorId,
+            Usuario.TipoUsuario autorTipo,
+            Instant ocorridoEm) {
+    }
+
+    /** Estado depois do evento ultimoEventoId; alteradoPor é o autor dele (null se anônimo). */
+    public record Estado(
+            Long pedidoId,
+            Pedido.StatusPedido status,
+            Long clienteId,
+            Long automovelId,
+            Date dataPedido,
+            boolean removido,
+            int eventos,
+            Long ultimoEventoId,
+            Instant alteradoEm,
+            Long alteradoPor,
+            Usuario.TipoUsuario alteradoPorTipo) {
+
+        public static Estado inicial(Long pedidoId) {
+            return new Estado(pedidoId, null, null, null, null, false, 0, null, null, null, null);
+        }
+
+        public Estado aplicar(Evento e) {
+            Pedido.StatusPedido s = status;
+            Long c = clienteId;
+            Long a = automovelId;
+            Date d = dataPedido;
+            boolean r = removido;
+            switch (e.tipo()) {
+                case "CRIADO", "IMPORTADO" -> {
+                    s = e.status();
+                    c = e.clienteId();
+                    a = e.automovelId();
+                    d = e.dataPedido();
+                    r = false;
+                }
+                case "STATUS_ALTERADO" -> s = e.status();
+                case "AUTOMOVEL_ALTERADO" -> a = e.automovelId();
+                case "REMOVIDO" -> r = true;
+                default -> { }
+            }
+            return new Estado(pedidoId, s, c, a, d, r, eventos + 1, e.id(), e.ocorridoEm(), e.autorId(), e.autorTipo());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.projeto.dto;
+
+import java.util.List;
+
+// Página numerada (a partir de 0) com o total de resultados da busca
+public record PaginaBusca<T>(List<T> itens, int total, int pagina, int tamanho) {
+}
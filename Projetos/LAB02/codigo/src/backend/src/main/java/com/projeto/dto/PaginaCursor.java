@@ -0,0 +1,10 @@
+package com.projeto.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados paginada por cursor (keyset).
+ * nextCursor é null quando não há mais registros.
+ */
+public record PaginaCursor<T>(List<T> itens, String nextCursor) {
+}
@@ -0,0 +1,32 @@
+package com.projeto.dto;
+
+import java.util.Date;
+
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+
+/**
+ * Visão completa de um pedido (view=full): cliente e automóvel resumidos,
+ * sem coleções lazy nem o proprietário do automóvel.
+ */
+public record PedidoDetalhe(
+        Long id,
+        Pedido.StatusPedido status,
+        Date dataPedido,
+        UsuarioResumo cliente,
+        AutomovelResumo automovel) {
+
+    // Construtor "achatado" usado pelas expressões JPQL (select new ...)
+    public PedidoDetalhe(Long id, Pedido.StatusPedido status, Date dataPedido,
+                         Long clienteId, String clienteNome, String clienteCpf, Usuario.TipoUsuario clienteTipo,
+                         Long automovelId, String placa, String matricula, Integer ano, String marca, String modelo) {
+        this(id, status, dataPedido,
+                clienteId != null ? new UsuarioResumo(clienteId, clienteNome, clienteCpf, clienteTipo) : null,
+                automovelId != null ? new AutomovelResumo(automovelId, placa, matricula, ano, marca, modelo) : null);
+    }
+
+    public static PedidoDetalhe de(Pedido p) {
+        return new PedidoDetalhe(p.getId(), p.getStatus(), p.getDataPedido(),
+                UsuarioResumo.de(p.getCliente()), AutomovelResumo.de(p.getAutomovel()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.projeto.dto;
+
+import java.util.Date;
+
+import com.projeto.model.Pedido;
+
+/**
+ * Visão resumida de um pedido (view=summary): apenas colunas escalares,
+ * sem carregar as entidades Usuario/Automovel.
+ */
+public record PedidoResumo(
+        Long id,
+        Pedido.StatusPedido status,
+        Date dataPedido,
+        Long clienteId,
+        String clienteNome,
+        Long automovelId,
+        String automovelPlaca,
+        String automovelMarca,
+        String automovelModelo) {
+
+    public static PedidoResumo de(Pedido p) {
+        return new PedidoResumo(p.getId(), p.getStatus(), p.getDataPedido(),
+                p.getCliente() != null ? p.getCliente().getId() : null,
+                p.getCliente() != null ? p.getCliente().getNome() : null,
+                p.getAutomovel() != null ? p.getAutomovel().getId() : null,
+                p.getAutomovel() != null ? p.getAutomovel().getPlaca() : null,
+                p.getAutomovel() != null ? p.getAutomovel().getMarca() : null,
+                p.getAutomovel() != null ? p.getAutomovel().getModelo() : null);
+    }
+}
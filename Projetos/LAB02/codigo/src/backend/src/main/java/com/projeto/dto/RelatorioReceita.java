@@ -0,0 +1,16 @@
+package com.projeto.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Receita de contratos (Contrato.valor, pela dataInicio) de {@code de} a {@code ate}, por período
+ * e, conforme a dimensão, por tipo de contrato ou automóvel. Só períodos com contrato aparecem.
+ */
+public record RelatorioReceita(String granularidade, String dimensao, LocalDate de, LocalDate ate, List<Linha> linhas) {
+
+    /** periodo: "2025-03" (mês) ou "2025-03-14" (dia). */
+    public record Linha(String periodo, String tipoContrato, Long automovelId,
+                        long quantidade, double soma, double minimo, double maximo, double media) {
+    }
+}
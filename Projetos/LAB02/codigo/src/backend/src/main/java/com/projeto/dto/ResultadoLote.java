@@ -0,0 +1,20 @@
+package com.projeto.dto;
+
+import java.util.List;
+
+/**
+ * Relatório de POST /pedidos/lote: um item por linha recebida, na mesma ordem.
+ */
+public record ResultadoLote(int total, int criados, int erros, List<Item> itens) {
+
+    public record Item(int indice, Long id, String status, String erro) {
+
+        public static Item criado(int indice, Long id) {
+            return new Item(indice, id, "CRIADO", null);
+        }
+
+        public static Item erro(int indice, String erro) {
+            return new Item(indice, null, "ERRO", erro);
+        }
+    }
+}
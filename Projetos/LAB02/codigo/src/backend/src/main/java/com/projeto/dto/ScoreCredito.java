@@ -0,0 +1,9 @@
+package com.projeto.dto;
+
+/**
+ * Avaliação de renda de um pedido. score vai de 0 a 1000 (maior = menor risco);
+ * maiorParticipacao é a fração da renda que vem do maior empregador.
+ */
+public record ScoreCredito(Long pedidoId, Long clienteId, double rendaTotal, int fontesRenda,
+                           double maiorParticipacao, int score, String risco, double parcelaMaxima) {
+}
@@ -0,0 +1,26 @@
+package com.projeto.dto;
+
+import java.util.List;
+
+/**
+ * Corpo de POST /creditos/simular. Informe creditoId (usa valor, prazo e taxa do crédito),
+ * ou valor/prazo/taxa avulsos, ou uma grade com listas para o produto cartesiano.
+ * Taxa em % por período (1.5 = 1,5% a.m.).
+ */
+public record SimulacaoCredito(String sistema, Long creditoId, Double valor, Integer prazo, Double taxa, Grade grade) {
+
+    public record Grade(List<Double> valores, List<Integer> prazos, List<Double> taxas) {
+    }
+
+    // Uma tabela completa, em colunas: cada array tem uma posição por parcela
+    public record Tabela(String sistema, double valor, int prazo, double taxa,
+                         double[] parcela, double[] amortizacao, double[] juros, double[] saldo,
+                         double totalPago, double totalJuros) {
+    }
+
+    // Resultado da grade, também em colunas: posição i é o cenário i (valor varia mais devagar, taxa mais rápido)
+    public record Resultado(String sistema, int cenarios, long parcelasCalculadas,
+                            double[] valor, int[] prazo, double[] taxa,
+                            double[] primeiraParcela, double[] ultimaParcela, double[] totalPago, double[] totalJuros) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.projeto.dto;
+
+import com.projeto.model.Usuario;
+
+/**
+ * Identidade extraída do token pelo AutenticacaoFilter, sem consulta ao banco.
+ * Fica no atributo ATRIBUTO da requisição; ausente quando a chamada veio sem token.
+ */
+public record UsuarioPrincipal(Long id, Usuario.TipoUsuario tipo, long jti, long expiraEm) {
+
+    public static final String ATRIBUTO = "com.projeto.dto.UsuarioPrincipal";
+}
@@ -0,0 +1,10 @@
+package com.projeto.dto;
+
+import com.projeto.model.Usuario;
+
+public record UsuarioResumo(Long id, String nome, String cpf, Usuario.TipoUsuario tipoUsuario) {
+
+    public static UsuarioResumo de(Usuario u) {
+        return u == null ? null : new UsuarioResumo(u.getId(), u.getNome(), u.getCpf(), u.getTipoUsuario());
+    }
+}
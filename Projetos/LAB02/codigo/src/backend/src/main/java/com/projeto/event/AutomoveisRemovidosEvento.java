@@ -0,0 +1,10 @@
+package com.projeto.event;
+
+import java.util.List;
+
+/**
+ * Automóveis apagados em cascata com o proprietário (UsuarioService, ClienteService, AgenteService),
+ * sem passar pelo AutomovelService. Os ids são lidos antes da exclusão.
+ */
+public record AutomoveisRemovidosEvento(Long proprietarioId, List<Long> automovelIds) {
+}
@@ -0,0 +1,24 @@
+package com.projeto.event;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Vencimento de contrato tratado pelo CicloContratoService, publicado depois da gravação.
+ * RENOVADO traz o novo fim; EXPIRADO, não.
+ */
+public record ContratoEvento(Tipo tipo, Long contratoId, LocalDate dataFim, LocalDate novaDataFim, Instant ocorridoEm) {
+
+    public enum Tipo {
+        EXPIRADO,
+        RENOVADO
+    }
+
+    public static ContratoEvento expirado(Long contratoId, LocalDate dataFim) {
+        return new ContratoEvento(Tipo.EXPIRADO, contratoId, dataFim, null, Instant.now());
+    }
+
+    public static ContratoEvento renovado(Long contratoId, LocalDate dataFim, LocalDate novaDataFim) {
+        return new ContratoEvento(Tipo.RENOVADO, contratoId, dataFim, novaDataFim, Instant.now());
+    }
+}
@@ -0,0 +1,31 @@
+package com.projeto.event;
+
+import java.util.Date;
+
+import com.projeto.model.Contrato;
+
+/**
+ * Valor de contrato que entrou ou saiu da receita, publicado pelo ContratoService. Uma
+ * atualização vira SAIDA do contrato como estava seguida de ENTRADA do novo.
+ */
+public record ContratoValorEvento(Tipo tipo, Long contratoId, Date dataInicio,
+        Contrato.TipoContrato tipoContrato, Long automovelId, Double valor) {
+
+    public enum Tipo {
+        ENTRADA,
+        SAIDA
+    }
+
+    public static ContratoValorEvento entrada(Contrato c) {
+        return de(Tipo.ENTRADA, c);
+    }
+
+    public static ContratoValorEvento saida(Contrato c) {
+        return de(Tipo.SAIDA, c);
+    }
+
+    private static ContratoValorEvento de(Tipo tipo, Contrato c) {
+        return new ContratoValorEvento(tipo, c.getId(), c.getDataInicio(), c.getTipoContrato(),
+                c.getAutomovel() != null ? c.getAutomovel().getId() : null, c.getValor());
+    }
+}
@@ -0,0 +1,21 @@
+package com.projeto.event;
+
+import java.time.Instant;
+
+/**
+ * Linha da outbox de pedidos como os destinos recebem: payload é o PedidoEvento em JSON.
+ * id cresce com a ordem de gravação e serve para o consumidor descartar entregas repetidas.
+ */
+public record EventoOutbox(
+        Long id,
+        Long pedidoId,
+        PedidoEvento.Tipo tipo,
+        String payload,
+        Instant criadoEm) {
+
+    /** {"outboxId":..,"pedidoId":..,"tipo":..,"evento":{...}}: o formato do arquivo e do webhook. */
+    public String envelope() {
+        return "{\"outboxId\":" + id + ",\"pedidoId\":" + pedidoId + ",\"tipo\":\"" + tipo.name()
+                + "\",\"evento\":" + payload + "}";
+    }
+}
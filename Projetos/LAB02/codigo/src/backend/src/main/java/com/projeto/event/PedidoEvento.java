@@ -0,0 +1,46 @@
+package com.projeto.event;
+
+import java.time.Instant;
+
+import com.projeto.dto.PedidoResumo;
+import com.projeto.model.Pedido;
+
+/**
+ * Mudança no ciclo de vida de um pedido, publicada pelo PedidoService dentro da transação da escrita.
+ * pedido é o estado depois da mudança (para REMOVIDO, o último estado conhecido).
+ */
+public record PedidoEvento(
+        Tipo tipo,
+        PedidoResumo pedido,
+        Pedido.StatusPedido statusAnterior,
+        Long automovelAnteriorId,
+        Instant ocorridoEm) {
+
+    public enum Tipo {
+        CRIADO,
+        STATUS_ALTERADO,
+        AUTOMOVEL_ALTERADO,
+        REMOVIDO
+    }
+
+    public static PedidoEvento criado(Pedido p) {
+        return new PedidoEvento(Tipo.CRIADO, PedidoResumo.de(p), null, null, Instant.now());
+    }
+
+    public static PedidoEvento statusAlterado(Pedido p, Pedido.StatusPedido anterior) {
+        return new PedidoEvento(Tipo.STATUS_ALTERADO, PedidoResumo.de(p), anterior, null, Instant.now());
+    }
+
+    public static PedidoEvento automovelAlterado(Pedido p, Long automovelAnteriorId) {
+        return new PedidoEvento(Tipo.AUTOMOVEL_ALTERADO, PedidoResumo.de(p), null, automovelAnteriorId, Instant.now());
+    }
+
+    public static PedidoEvento removido(Pedido p) {
+        return removido(PedidoResumo.de(p));
+    }
+
+    /** Pedido apagado em cascata com o cliente, lido como resumo antes da exclusão. */
+    public static PedidoEvento removido(PedidoResumo p) {
+        return new PedidoEvento(Tipo.REMOVIDO, p, p.status(), null, Instant.now());
+    }
+}
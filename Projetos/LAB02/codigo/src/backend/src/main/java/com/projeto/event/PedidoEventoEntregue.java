@@ -0,0 +1,9 @@
+package com.projeto.event;
+
+/**
+ * PedidoEvento entregue pela outbox (destino "eventos"), publicado no contexto do Spring para
+ * @EventListener. Diferente do PedidoEvento, chega mesmo depois de um reinício, mas pode chegar
+ * mais de uma vez: outboxId identifica a repetição.
+ */
+public record PedidoEventoEntregue(long outboxId, PedidoEvento evento) {
+}
@@ -0,0 +1,26 @@
+package com.projeto.event;
+
+/**
+ * Variação na renda de um usuário, publicada pelo RendimentoService/UsuarioService.
+ * Uma atualização vira SAIDA do valor antigo seguida de ENTRADA do novo.
+ */
+public record RendimentoEvento(Tipo tipo, Long usuarioId, String empregador, Double valor) {
+
+    public enum Tipo {
+        ENTRADA,
+        SAIDA,
+        USUARIO_REMOVIDO
+    }
+
+    public static RendimentoEvento entrada(Long usuarioId, String empregador, Double valor) {
+        return new RendimentoEvento(Tipo.ENTRADA, usuarioId, empregador, valor);
+    }
+
+    public static RendimentoEvento saida(Long usuarioId, String empregador, Double valor) {
+        return new RendimentoEvento(Tipo.SAIDA, usuarioId, empregador, valor);
+    }
+
+    public static RendimentoEvento usuarioRemovido(Long usuarioId) {
+        return new RendimentoEvento(Tipo.USUARIO_REMOVIDO, usuarioId, null, null);
+    }
+}
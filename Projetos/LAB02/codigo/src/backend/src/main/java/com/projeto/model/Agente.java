@@ -2,6 +2,10 @@ package com.projeto.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.projeto.config.CacheConfig;
 import java.util.List;
 
 @Entity
@@ -20,6 +24,7 @@ public class Agente extends Usuario {
 
     @OneToMany(mappedBy = "banco", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference("agente-creditos")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.AGENTE_CREDITOS)
     private List<Credito> creditos;
 
     public Agente() {
@@ -2,9 +2,15 @@ package com.projeto.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.projeto.config.CacheConfig;
 
 @Entity
 @Table(name = "Automovel")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.AUTOMOVEL)
 public class Automovel {
 
     @Id
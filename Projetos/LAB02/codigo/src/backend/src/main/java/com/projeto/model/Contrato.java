@@ -12,6 +12,12 @@ public class Contrato {
         Banco
     }
 
+    // Expirado: passou de dataFim sem renovação (ver CicloContratoService)
+    public enum SituacaoContrato {
+        Ativo,
+        Expirado
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,6 +45,13 @@ public class Contrato {
     @JoinColumn(name = "automovel")
     private Automovel automovel;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "situacao", nullable = false)
+    private SituacaoContrato situacao = SituacaoContrato.Ativo;
+
+    @Column(name = "renovacao_automatica", nullable = false)
+    private boolean renovacaoAutomatica;
+
     public Contrato() {
     }
 
@@ -107,4 +120,20 @@ public class Contrato {
     public void setAutomovel(Automovel automovel) {
         this.automovel = automovel;
     }
+
+    public SituacaoContrato getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(SituacaoContrato situacao) {
+        this.situacao = situacao;
+    }
+
+    public boolean isRenovacaoAutomatica() {
+        return renovacaoAutomatica;
+    }
+
+    public void setRenovacaoAutomatica(boolean renovacaoAutomatica) {
+        this.renovacaoAutomatica = renovacaoAutomatica;
+    }
 }
\ No newline at end of file
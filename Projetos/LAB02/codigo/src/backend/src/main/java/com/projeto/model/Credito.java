@@ -1,11 +1,17 @@
 package com.projeto.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.projeto.config.CacheConfig;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 
 @Entity
 @Table(name = "credito")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.CREDITO)
 public class Credito {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
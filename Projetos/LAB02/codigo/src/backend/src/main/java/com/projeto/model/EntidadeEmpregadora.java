@@ -2,10 +2,16 @@ package com.projeto.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.projeto.config.CacheConfig;
 import java.util.List;
 
 @Entity
 @Table(name = "entidadeempregadora")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.ENTIDADE_EMPREGADORA)
 public class EntidadeEmpregadora {
 
     @Id
@@ -1,5 +1,12 @@
 package com.projeto.model;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.annotations.ColumnDefault;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
@@ -11,14 +18,22 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "pedido") // Tabela "pedidos" no banco de dados
+@Table(name = "pedido", indexes = { // Tabela "pedidos" no banco de dados
+    // Índices compostos terminando em id sustentam a paginação keyset de GET /pedidos
+    @Index(name = "idx_pedido_status_id", columnList = "status, id"),
+    @Index(name = "idx_pedido_cliente_id", columnList = "cliente_id, id"),
+    @Index(name = "idx_pedido_data_pedido", columnList = "data_pedido, id")
+})
 public class Pedido {
     public enum StatusPedido {
         Em_analise,
@@ -49,6 +64,23 @@ public class Pedido {
             }
         }
 
+        // Transições permitidas: pendente pode ser decidido ou cancelado; aprovado só pode ser cancelado
+        private static final Map<StatusPedido, Set<StatusPedido>> TRANSICOES = new EnumMap<>(StatusPedido.class);
+        static {
+            TRANSICOES.put(Em_analise, Collections.unmodifiableSet(EnumSet.of(Aprovado, Rejeitado, Cancelado)));
+            TRANSICOES.put(Aprovado, Collections.unmodifiableSet(EnumSet.of(Cancelado)));
+            TRANSICOES.put(Rejeitado, Collections.unmodifiableSet(EnumSet.noneOf(StatusPedido.class)));
+            TRANSICOES.put(Cancelado, Collections.unmodifiableSet(EnumSet.noneOf(StatusPedido.class)));
+        }
+
+        public Set<StatusPedido> proximosPermitidos() {
+            return TRANSICOES.get(this);
+        }
+
+        public boolean podeIrPara(StatusPedido destino) {
+            return TRANSICOES.get(this).contains(destino);
+        }
+
         // Control JSON serialization to match frontend expectations
         @JsonValue
         public String toJson() {
@@ -57,8 +89,11 @@ public class Pedido {
         }
     }
 
+    // Sequência com otimizador pooled (allocationSize) em vez de IDENTITY, para que os inserts
+    // possam ser agrupados em lotes JDBC (POST /pedidos/lote)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedido_seq")
+    @SequenceGenerator(name = "pedido_seq", sequenceName = "pedido_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -77,6 +112,12 @@ public class Pedido {
     @Column(name = "data_pedido")
     private Date dataPedido;
 
+    // Controle de concorrência otimista; PATCH /status compara também esta versão
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     // Construtores
     public Pedido() {
     }
@@ -129,4 +170,12 @@ public class Pedido {
     public void setDataPedido(Date dataPedido) {
         this.dataPedido = dataPedido;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
\ No newline at end of file
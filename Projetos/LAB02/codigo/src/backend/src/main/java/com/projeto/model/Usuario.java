@@ -3,7 +3,13 @@ package com.projeto.model;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.projeto.config.CacheConfig;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -20,6 +26,9 @@ import jakarta.persistence.Table;
 @Entity
 @Table(name = "usuario")
 @Inheritance(strategy = InheritanceType.JOINED)
+// O Hibernate só aceita cache na raiz da hierarquia: Agente, Cliente e Usuario dividem a região
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USUARIO)
 public class Usuario {
     public enum TipoUsuario {
         Cliente,
@@ -37,6 +46,8 @@ public class Usuario {
     private String rg;
     private String endereco;
     private String profissao;
+    // Hash BCrypt; aceito na entrada, nunca devolvido nas respostas
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String senha;
 
     @Enumerated(EnumType.STRING)
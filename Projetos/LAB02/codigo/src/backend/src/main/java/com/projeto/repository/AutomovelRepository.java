@@ -1,9 +1,34 @@
 package com.projeto.repository;
 
+import com.projeto.config.CacheConfig;
+import com.projeto.dto.AutomovelResumo;
 import com.projeto.model.Automovel;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AutomovelRepository extends JpaRepository<Automovel, Long> {
-}
\ No newline at end of file
+
+    // proprietario é EAGER; carregá-lo no mesmo select evita uma consulta por automóvel
+    @Override
+    @EntityGraph(attributePaths = "proprietario")
+    List<Automovel> findAllById(Iterable<Long> ids);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS)
+    })
+    @Query("select new com.projeto.dto.AutomovelResumo(a.id, a.placa, a.matricula, a.ano, a.marca, a.modelo) from Automovel a order by a.id")
+    List<AutomovelResumo> listarResumos();
+
+    @Query("select a.id from Automovel a where a.proprietario.id = :proprietarioId")
+    List<Long> listarIdsPorProprietario(@Param("proprietarioId") Long proprietarioId);
+}
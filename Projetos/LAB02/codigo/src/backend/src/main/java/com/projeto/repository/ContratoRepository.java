@@ -1,9 +1,17 @@
 package com.projeto.repository;
 
+import com.projeto.dto.ContratoPeriodo;
 import com.projeto.model.Contrato;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ContratoRepository extends JpaRepository<Contrato, Long> {
-}
\ No newline at end of file
+
+    @Query("select new com.projeto.dto.ContratoPeriodo(c.id, a.id, c.dataInicio, c.dataFim)"
+            + " from Contrato c join c.automovel a where c.dataInicio is not null and c.dataFim is not null")
+    List<ContratoPeriodo> listarPeriodos();
+}
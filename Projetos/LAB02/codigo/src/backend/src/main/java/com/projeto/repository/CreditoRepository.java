@@ -1,9 +1,23 @@
 package com.projeto.repository;
 
+import com.projeto.config.CacheConfig;
 import com.projeto.model.Credito;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CreditoRepository extends JpaRepository<Credito, Long> {
-}
\ No newline at end of file
+
+    // Lista de referência, lida muito mais do que escrita: resultado no cache de consultas
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS)
+    })
+    List<Credito> findAll();
+}
@@ -1,11 +1,83 @@
 package com.projeto.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.projeto.dto.PedidoDetalhe;
+import com.projeto.dto.PedidoResumo;
 import com.projeto.model.Pedido;
 
 @Repository
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {
-	java.util.List<Pedido> findByClienteId(Long clienteId);
-}
\ No newline at end of file
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, JpaSpecificationExecutor<Pedido> {
+
+	// cliente e automovel na mesma consulta, evitando um select por linha
+	@Override
+	@EntityGraph(attributePaths = {"cliente", "automovel"})
+	List<Pedido> findAll();
+
+	// Filtro na coluna cliente_id do próprio pedido (idx_pedido_cliente_id); o nome derivado
+	// filtraria pelo id do usuário do join, que não usa o índice
+	@EntityGraph(attributePaths = {"cliente", "automovel"})
+	@Query("select p from Pedido p where p.cliente.id = :clienteId")
+	List<Pedido> findByClienteId(@Param("clienteId") Long clienteId);
+
+	@EntityGraph(attributePaths = {"cliente", "automovel", "automovel.proprietario"})
+	@Query("select p from Pedido p where p.id = :id")
+	Optional<Pedido> buscarComRelacionamentos(@Param("id") Long id);
+
+	// Só o status gravado, sem carregar a entidade (POST /pedidos com id)
+	@Query("select p.status from Pedido p where p.id = :id")
+	Optional<Pedido.StatusPedido> buscarStatus(@Param("id") Long id);
+
+	// Versão gravada, para o POST com id que não trouxe versao
+	@Query("select p.versao from Pedido p where p.id = :id")
+	Optional<Long> buscarVersao(@Param("id") Long id);
+
+	// Troca de status condicional: só afeta a linha se status e versão ainda forem os lidos
+	@Modifying(clearAutomatically = true)
+	@Query("update Pedido p set p.status = :novo, p.versao = p.versao + 1"
+			+ " where p.id = :id and p.status = :atual and p.versao = :versao")
+	int transicionarStatus(@Param("id") Long id, @Param("atual") Pedido.StatusPedido atual,
+			@Param("versao") Long versao, @Param("novo") Pedido.StatusPedido novo);
+
+	String CAMPOS_RESUMO = "select new com.projeto.dto.PedidoResumo(p.id, p.status, p.dataPedido, c.id, c.nome, a.id, a.placa, a.marca, a.modelo)";
+
+	String CAMPOS_DETALHE = "select new com.projeto.dto.PedidoDetalhe(p.id, p.status, p.dataPedido,"
+			+ " c.id, c.nome, c.cpf, c.tipoUsuario, a.id, a.placa, a.matricula, a.ano, a.marca, a.modelo)";
+
+	String RESUMO = CAMPOS_RESUMO + " from Pedido p left join p.cliente c left join p.automovel a";
+
+	String DETALHE = CAMPOS_DETALHE + " from Pedido p left join p.cliente c left join p.automovel a";
+
+	// Por cliente o join com usuario é interno: com left join o filtro c.id não chega ao
+	// idx_pedido_cliente_id e a tabela pedido é lida inteira
+	String DO_CLIENTE = " from Pedido p join p.cliente c left join p.automovel a where c.id = :clienteId";
+
+	@Query(RESUMO + " order by p.id desc")
+	List<PedidoResumo> listarResumos();
+
+	@Query(CAMPOS_RESUMO + DO_CLIENTE + " order by p.id desc")
+	List<PedidoResumo> listarResumosPorCliente(@Param("clienteId") Long clienteId);
+
+	// Status como literal no SQL: no Postgres só assim o plano pode usar o índice parcial idx_pedido_pendente
+	@Query(RESUMO + " where p.status = com.projeto.model.Pedido.StatusPedido.Em_analise order by p.id")
+	List<PedidoResumo> listarResumosPendentes();
+
+	@Query(RESUMO + " where p.id in :ids order by p.id")
+	List<PedidoResumo> listarResumosPorIds(@Param("ids") Collection<Long> ids);
+
+	@Query(DETALHE + " order by p.id desc")
+	List<PedidoDetalhe> listarDetalhes();
+
+	@Query(CAMPOS_DETALHE + DO_CLIENTE + " order by p.id desc")
+	List<PedidoDetalhe> listarDetalhesPorCliente(@Param("clienteId") Long clienteId);
+}
@@ -1,9 +1,23 @@
 package com.projeto.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.projeto.model.Rendimento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RendimentoRepository extends JpaRepository<Rendimento, Long> {
-}
\ No newline at end of file
+
+    // [usuarioId, empregador, soma, quantidade] — base dos agregados de renda do ScoreCreditoService
+    @Query("select r.usuario.id, r.empregador, sum(r.valor), count(r) from Rendimento r group by r.usuario.id, r.empregador")
+    List<Object[]> somarPorUsuarioEEmpregador();
+
+    // O mesmo, só para alguns usuários (releitura dos que mudaram durante a carga)
+    @Query("select r.usuario.id, r.empregador, sum(r.valor), count(r) from Rendimento r"
+            + " where r.usuario.id in :usuarioIds group by r.usuario.id, r.empregador")
+    List<Object[]> somarPorUsuarioEEmpregador(@Param("usuarioIds") Collection<Long> usuarioIds);
+}
@@ -3,10 +3,24 @@ package com.projeto.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.projeto.dto.UsuarioResumo;
 import com.projeto.model.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-    Optional<Usuario> findByCpfAndSenha(String cpf, String senha);
     Optional<Usuario> findByCpf(String cpf);
-}
\ No newline at end of file
+
+    // Só as colunas do resumo (GET /usuarios/{id}?view=summary), sem coleções lazy
+    @Query("select new com.projeto.dto.UsuarioResumo(u.id, u.nome, u.cpf, u.tipoUsuario) from Usuario u where u.id = :id")
+    Optional<UsuarioResumo> buscarResumo(@Param("id") Long id);
+
+    // Regrava o hash só se a senha não mudou desde a leitura (rehash de senha legada no login)
+    @Transactional
+    @Modifying
+    @Query("update Usuario u set u.senha = :novo where u.id = :id and u.senha = :anterior")
+    int trocarSenha(@Param("id") Long id, @Param("anterior") String anterior, @Param("novo") String novo);
+}
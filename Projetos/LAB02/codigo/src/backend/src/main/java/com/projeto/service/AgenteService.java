@@ -1,9 +1,17 @@
 package com.projeto.service;
 
+import com.projeto.dto.PedidoResumo;
+import com.projeto.event.AutomoveisRemovidosEvento;
+import com.projeto.event.PedidoEvento;
+import com.projeto.event.RendimentoEvento;
 import com.projeto.model.Agente;
 import com.projeto.repository.AgenteRepository;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,8 +22,26 @@ public class AgenteService {
     @Autowired
     private AgenteRepository agenteRepository;
 
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private SenhaService senhaService;
+
+    @Autowired
+    private CoalescedorLeituras coalescedor;
+
     public Agente salvar(Agente agente) {
-        return agenteRepository.save(agente);
+        agente.setSenha(senhaService.hash(agente.getSenha()));
+        Agente salvo = agenteRepository.save(agente);
+        coalescedor.invalidar("usuarios");
+        return salvo;
     }
 
     public List<Agente> listarTodos() {
@@ -31,13 +57,23 @@ public class AgenteService {
             .map(agenteExistente -> {
                 agenteExistente.setNomeAgente(agenteAtualizado.getNomeAgente());
                 agenteExistente.setTipoAgente(agenteAtualizado.getTipoAgente());
-                return agenteRepository.save(agenteExistente);
+                Agente salvo = agenteRepository.save(agenteExistente);
+                coalescedor.invalidar("usuarios", "pedidos");
+                return salvo;
             });
     }
 
+    @Transactional
     public boolean deletar(Long id) {
         if (agenteRepository.existsById(id)) {
+            List<Long> automoveis = automovelRepository.listarIdsPorProprietario(id);
+            List<PedidoResumo> pedidos = pedidoRepository.listarResumosPorCliente(id);
             agenteRepository.deleteById(id);
+            coalescedor.invalidar("usuarios", "automoveis", "pedidos");
+            // rendimentos, automóveis e pedidos saem em cascata, sem passar pelos serviços deles
+            eventos.publishEvent(RendimentoEvento.usuarioRemovido(id));
+            eventos.publishEvent(new AutomoveisRemovidosEvento(id, automoveis));
+            pedidos.forEach(p -> eventos.publishEvent(PedidoEvento.removido(p)));
             return true;
         }
         return false;
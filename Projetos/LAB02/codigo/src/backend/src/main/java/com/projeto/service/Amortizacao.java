@@ -0,0 +1,84 @@
+package com.projeto.service;
+
+/**
+ * Cálculo de tabelas Price e SAC sobre arrays primitivos.
+ *
+ * Valores em reais, arredondados a centavos parcela a parcela como no extrato do banco;
+ * o resíduo do arredondamento vai para a última parcela, que zera o saldo.
+ * Taxa em fração por período (1% a.m. = 0.01). Nada aqui aloca: quem chama fornece os arrays.
+ */
+public final class Amortizacao {
+
+    public enum Sistema { PRICE, SAC }
+
+    // Posições do vetor devolvido por resumir()
+    public static final int PRIMEIRA = 0;
+    public static final int ULTIMA = 1;
+    public static final int TOTAL_PAGO = 2;
+    public static final int TOTAL_JUROS = 3;
+    public static final int CAMPOS_RESUMO = 4;
+
+    private Amortizacao() {
+    }
+
+    public static double centavos(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+
+    /** Parcela fixa da tabela Price (PMT), já em centavos. */
+    public static double parcelaPrice(double valor, int prazo, double taxa) {
+        if (taxa == 0.0) return centavos(valor / prazo);
+        return centavos(valor * taxa / (1.0 - Math.pow(1.0 + taxa, -prazo)));
+    }
+
+    /**
+     * Preenche as posições [0, prazo) dos arrays. Qualquer um pode ser maior que o prazo
+     * (buffers reaproveitados entre simulações).
+     */
+    public static void tabela(Sistema sistema, double valor, int prazo, double taxa,
+                              double[] parcela, double[] amortizacao, double[] juros, double[] saldo) {
+        double devedor = valor;
+        double fixa = sistema == Sistema.PRICE ? parcelaPrice(valor, prazo, taxa) : centavos(valor / prazo);
+        int ultima = prazo - 1;
+        for (int k = 0; k < prazo; k++) {
+            double j = centavos(devedor * taxa);
+            double a;
+            if (k == ultima) {
+                a = devedor;
+            } else if (sistema == Sistema.PRICE) {
+                a = fixa - j;
+            } else {
+                a = fixa;
+            }
+            devedor = centavos(devedor - a);
+            juros[k] = j;
+            amortizacao[k] = a;
+            parcela[k] = centavos(a + j);
+            saldo[k] = devedor;
+        }
+    }
+
+    /**
+     * Percorre a mesma tabela sem guardá-la e escreve primeira/última parcela e totais em
+     * destino[offset .. offset + CAMPOS_RESUMO).
+     */
+    public static void resumir(Sistema sistema, double valor, int prazo, double taxa, double[] destino, int offset) {
+        double devedor = valor;
+        double fixa = sistema == Sistema.PRICE ? parcelaPrice(valor, prazo, taxa) : centavos(valor / prazo);
+        double totalPago = 0.0, totalJuros = 0.0, primeira = 0.0, p = 0.0;
+        int ultima = prazo - 1;
+        for (int k = 0; k < prazo; k++) {
+            double j = centavos(devedor * taxa);
+            double a = k == ultima ? devedor : (sistema == Sistema.PRICE ? fixa - j : fixa);
+            devedor = centavos(devedor - a);
+            p = centavos(a + j);
+            if (k == 0) primeira = p;
+            totalPago += p;
+            totalJuros += j;
+        }
+        destino[offset + PRIMEIRA] = primeira;
+        destino[offset + ULTIMA] = p;
+        destino[offset + TOTAL_PAGO] = centavos(totalPago);
+        destino[offset + TOTAL_JUROS] = centavos(totalJuros);
+    }
+}
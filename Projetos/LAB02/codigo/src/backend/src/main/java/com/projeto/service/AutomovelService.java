@@ -1,5 +1,6 @@
 package com.projeto.service;
 
+import com.projeto.dto.AutomovelResumo;
 import com.projeto.model.Automovel;
 import com.projeto.repository.AutomovelRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +15,27 @@ public class AutomovelService {
     @Autowired
     private AutomovelRepository automovelRepository;
 
+    @Autowired
+    private BuscaAutomovelService buscaAutomovelService;
+
+    @Autowired
+    private CoalescedorLeituras coalescedor;
+
     public Automovel salvar(Automovel automovel) {
-        return automovelRepository.save(automovel);
+        Automovel salvo = automovelRepository.save(automovel);
+        buscaAutomovelService.indexar(AutomovelResumo.de(salvo));
+        coalescedor.invalidar("automoveis", "pedidos");
+        return salvo;
     }
 
     public List<Automovel> listarTodos() {
         return automovelRepository.findAll();
     }
 
+    public List<AutomovelResumo> listarResumos() {
+        return coalescedor.executar("automoveis.resumos", null, automovelRepository::listarResumos);
+    }
+
     public Optional<Automovel> buscarPorId(Long id) {
         return automovelRepository.findById(id);
     }
@@ -35,13 +49,18 @@ public class AutomovelService {
                 automovelExistente.setMarca(automovelAtualizado.getMarca());
                 automovelExistente.setModelo(automovelAtualizado.getModelo());
                 automovelExistente.setProprietario(automovelAtualizado.getProprietario());
-                return automovelRepository.save(automovelExistente);
+                Automovel salvo = automovelRepository.save(automovelExistente);
+                buscaAutomovelService.indexar(AutomovelResumo.de(salvo));
+                coalescedor.invalidar("automoveis", "pedidos");
+                return salvo;
             });
     }
 
     public boolean deletar(Long id) {
         if (automovelRepository.existsById(id)) {
             automovelRepository.deleteById(id);
+            buscaAutomovelService.remover(id);
+            coalescedor.invalidar("automoveis", "pedidos");
             return true;
         }
         return false;
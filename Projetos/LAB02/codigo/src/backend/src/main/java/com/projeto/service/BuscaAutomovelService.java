@@ -0,0 +1,300 @@
+package com.projeto.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.projeto.dto.AutomovelResumo;
+import com.projeto.dto.PaginaBusca;
+import com.projeto.event.AutomoveisRemovidosEvento;
+import com.projeto.repository.AutomovelRepository;
+
+/**
+ * Índice invertido em memória do catálogo de automóveis (GET /automoveis/busca).
+ *
+ * Os termos ficam em um único TreeMap com o campo como prefixo ("m:" marca, "o:" modelo,
+ * "p:" placa), então a busca por prefixo é um subMap. Se um termo de marca/modelo não casa
+ * por prefixo, tenta-se distância de edição <= 1 sobre o vocabulário daquele campo, que é
+ * pequeno (marcas e modelos distintos). Ano tem um índice ordenado próprio para intervalos.
+ * Reconstruído do repositório na subida e mantido pelo AutomovelService a cada escrita; os que
+ * saem em cascata com o proprietário chegam por AutomoveisRemovidosEvento, depois do commit.
+ * Escritas que chegam enquanto a reconstrução lê o repositório valem sobre a foto lida.
+ */
+@Service
+public class BuscaAutomovelService {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscaAutomovelService.class);
+
+    public static final int TAMANHO_MAXIMO = 100;
+
+    private static final String MARCA = "m:";
+    private static final String MODELO = "o:";
+    private static final String PLACA = "p:";
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, AutomovelResumo> porId = new HashMap<>();
+    private final TreeMap<String, Set<Long>> termos = new TreeMap<>();
+    private final TreeMap<Integer, Set<Long>> porAno = new TreeMap<>();
+
+    // Uma reconstrução por vez
+    private final ReentrantLock carga = new ReentrantLock();
+
+    // Automóveis indexados (ou removidos: valor null) desde o início da reconstrução em andamento;
+    // null fora dela. Lido e escrito com a trava de escrita
+    private Map<Long, AutomovelResumo> alteradosNaCarga;
+
+    /**
+     * Lê o catálogo e refaz o índice. A leitura acontece fora da trava, então o que foi indexado ou
+     * removido durante ela fica como a escrita deixou, não como a foto trouxe.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        carga.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                alteradosNaCarga = new HashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<AutomovelResumo> todos;
+            try {
+                todos = automovelRepository.listarResumos();
+            } catch (RuntimeException e) {
+                // O índice atual continua valendo: as escritas seguiram sendo aplicadas nele
+                lock.writeLock().lock();
+                try {
+                    alteradosNaCarga = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            int alterados;
+            lock.writeLock().lock();
+            try {
+                porId.clear();
+                termos.clear();
+                porAno.clear();
+                for (AutomovelResumo a : todos) {
+                    if (!alteradosNaCarga.containsKey(a.id())) adicionar(a);
+                }
+                alteradosNaCarga.values().forEach(a -> { if (a != null) adicionar(a); });
+                alterados = alteradosNaCarga.size();
+                alteradosNaCarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("[BuscaAutomovel] índice reconstruído com {} automóveis e {} termos ({} escritos durante a leitura)",
+                    porId.size(), termos.size(), alterados);
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    public void indexar(AutomovelResumo automovel) {
+        if (automovel == null || automovel.id() == null) return;
+        lock.writeLock().lock();
+        try {
+            retirar(automovel.id());
+            adicionar(automovel);
+            if (alteradosNaCarga != null) alteradosNaCarga.put(automovel.id(), automovel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(Long id) {
+        lock.writeLock().lock();
+        try {
+            retirar(id);
+            if (alteradosNaCarga != null) alteradosNaCarga.put(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverProprietario(AutomoveisRemovidosEvento evento) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : evento.automovelIds()) {
+                retirar(id);
+                if (alteradosNaCarga != null) alteradosNaCarga.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<AutomovelResumo> todos() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(porId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param q       termos livres (todos devem casar, em marca, modelo ou placa)
+     * @param ordenar id | marca | modelo | ano | placa
+     */
+    public PaginaBusca<AutomovelResumo> buscar(String q, String marca, String modelo, String placa,
+                                               Integer anoMin, Integer anoMax,
+                                               String ordenar, boolean decrescente, int pagina, int tamanho) {
+        int tam = Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO));
+        int pag = Math.max(0, pagina);
+        List<AutomovelResumo> encontrados = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = null;
+            for (String termo : tokens(q)) {
+                Set<Long> casados = new HashSet<>();
+                casados.addAll(casar(MARCA, termo, true));
+                casados.addAll(casar(MODELO, termo, true));
+                casados.addAll(casar(PLACA, termo, false));
+                ids = intersecao(ids, casados);
+            }
+            for (String termo : tokens(marca)) ids = intersecao(ids, casar(MARCA, termo, true));
+            for (String termo : tokens(modelo)) ids = intersecao(ids, casar(MODELO, termo, true));
+            String p = normalizarPlaca(placa);
+            if (!p.isEmpty()) ids = intersecao(ids, casar(PLACA, p, false));
+            if (anoMin != null || anoMax != null) {
+                Set<Long> noIntervalo = new HashSet<>();
+                NavigableMap<Integer, Set<Long>> faixa = porAno;
+                if (anoMin != null) faixa = faixa.tailMap(anoMin, true);
+                if (anoMax != null) faixa = faixa.headMap(anoMax, true);
+                faixa.values().forEach(noIntervalo::addAll);
+                ids = intersecao(ids, noIntervalo);
+            }
+            Collection<Long> selecionados = ids != null ? ids : porId.keySet();
+            for (Long id : selecionados) encontrados.add(porId.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<AutomovelResumo> ordem = comparador(ordenar);
+        encontrados.sort(decrescente ? ordem.reversed() : ordem);
+        int de = Math.min(pag * tam, encontrados.size());
+        int ate = Math.min(de + tam, encontrados.size());
+        return new PaginaBusca<>(new ArrayList<>(encontrados.subList(de, ate)), encontrados.size(), pag, tam);
+    }
+
+    private Set<Long> casar(String campo, String termo, boolean aproximado) {
+        Set<Long> ids = new HashSet<>();
+        String chave = campo + termo;
+        termos.subMap(chave, true, chave + Character.MAX_VALUE, true).values().forEach(ids::addAll);
+        if (ids.isEmpty() && aproximado && termo.length() >= 3) {
+            for (Map.Entry<String, Set<Long>> e : termos.subMap(campo, true, campo + Character.MAX_VALUE, true).entrySet()) {
+                if (distanciaAteUm(e.getKey().substring(campo.length()), termo)) ids.addAll(e.getValue());
+            }
+        }
+        return ids;
+    }
+
+    private static Set<Long> intersecao(Set<Long> atual, Set<Long> novos) {
+        if (atual == null) return novos;
+        atual.retainAll(novos);
+        return atual;
+    }
+
+    private void adicionar(AutomovelResumo a) {
+        porId.put(a.id(), a);
+        for (String chave : chaves(a)) termos.computeIfAbsent(chave, k -> new HashSet<>()).add(a.id());
+        if (a.ano() != null) porAno.computeIfAbsent(a.ano(), k -> new HashSet<>()).add(a.id());
+    }
+
+    private void retirar(Long id) {
+        AutomovelResumo antigo = porId.remove(id);
+        if (antigo == null) return;
+        for (String chave : chaves(antigo)) {
+            Set<Long> ids = termos.get(chave);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) termos.remove(chave);
+        }
+        if (antigo.ano() != null) {
+            Set<Long> ids = porAno.get(antigo.ano());
+            if (ids != null && ids.remove(id) && ids.isEmpty()) porAno.remove(antigo.ano());
+        }
+    }
+
+    private static Set<String> chaves(AutomovelResumo a) {
+        Set<String> chaves = new HashSet<>();
+        for (String t : tokens(a.marca())) chaves.add(MARCA + t);
+        for (String t : tokens(a.modelo())) chaves.add(MODELO + t);
+        String placa = normalizarPlaca(a.placa());
+        if (!placa.isEmpty()) chaves.add(PLACA + placa);
+        return chaves;
+    }
+
+    private static List<String> tokens(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null) return tokens;
+        String n = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        for (String t : n.split("[^a-z0-9]+")) {
+            if (!t.isEmpty()) tokens.add(t);
+        }
+        return tokens;
+    }
+
+    // Placa sem separadores: "ABC-1234" e "abc1234" são o mesmo termo
+    private static String normalizarPlaca(String placa) {
+        return placa == null ? "" : placa.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    // Levenshtein limitado a 1 (inserção, remoção ou troca), sem matriz
+    static boolean distanciaAteUm(String a, String b) {
+        int la = a.length(), lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+        if (la > lb) return distanciaAteUm(b, a);
+        int i = 0, j = 0;
+        boolean editou = false;
+        while (i < la && j < lb) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (editou) return false;
+            editou = true;
+            if (la == lb) i++;
+            j++;
+        }
+        return true;
+    }
+
+    private static Comparator<AutomovelResumo> comparador(String ordenar) {
+        Comparator<String> texto = Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER);
+        Comparator<AutomovelResumo> porIdAsc = Comparator.comparing(AutomovelResumo::id);
+        if (ordenar == null) return porIdAsc;
+        switch (ordenar.toLowerCase(Locale.ROOT)) {
+            case "marca": return Comparator.comparing(AutomovelResumo::marca, texto).thenComparing(porIdAsc);
+            case "modelo": return Comparator.comparing(AutomovelResumo::modelo, texto).thenComparing(porIdAsc);
+            case "placa": return Comparator.comparing(AutomovelResumo::placa, texto).thenComparing(porIdAsc);
+            case "ano": return Comparator.comparing(AutomovelResumo::ano, Comparator.nullsLast(Comparator.<Integer>naturalOrder())).thenComparing(porIdAsc);
+            default: return porIdAsc;
+        }
+    }
+}
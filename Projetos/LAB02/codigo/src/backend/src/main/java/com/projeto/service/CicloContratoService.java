@@ -0,0 +1,314 @@
+package com.projeto.service;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.projeto.event.ContratoEvento;
+import com.projeto.model.Contrato;
+import com.projeto.repository.ContratoRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Vencimento de contratos. O prazo de cada contrato ativo (início do dia seguinte a dataFim, no
+ * fuso da JVM) fica numa RodaDeTempo em memória: milhões de prazos custam O(1) cada para agendar,
+ * mudar ou cancelar, e uma thread só avança a roda a cada contratos.ciclo.tick-ms.
+ *
+ * No vencimento o contrato expira (situacao = Expirado) ou, com renovacaoAutomatica, ganha outro
+ * período do mesmo tamanho, e sai um ContratoEvento. O ContratoService reagenda depois de cada
+ * gravação. O banco é a fonte: na subida todos os ativos com dataFim voltam para a roda, e os que
+ * venceram com a aplicação parada vencem no primeiro tick. Cada ação confere a linha antes
+ * (update condicional em situacao e data_fim), então prazo desatualizado na roda ou outra instância
+ * agindo no mesmo contrato não expira nada duas vezes nem antes da hora.
+ */
+@Service
+public class CicloContratoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CicloContratoService.class);
+
+    private static final int LOTE = 500;
+
+    private static final String EXPIRAR = "update contrato set situacao = 'Expirado'"
+            + " where id = ? and situacao = 'Ativo' and data_fim = ?";
+
+    private static final String RENOVAR = "update contrato set data_fim = ?"
+            + " where id = ? and situacao = 'Ativo' and data_fim = ?";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private DisponibilidadeService disponibilidadeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${contratos.ciclo.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${contratos.ciclo.espera-falha-ms:30000}")
+    private long esperaFalhaMs;
+
+    // ReentrantLock e não synchronized: chamado de requisições em threads virtuais
+    private final ReentrantLock trava = new ReentrantLock();
+    private final Semaphore acordar = new Semaphore(0);
+    private RodaDeTempo<Long> roda;
+    private Timer atraso;
+    private volatile boolean ativo;
+    private Thread thread;
+
+    private record Vencido(long id, LocalDate inicio, LocalDate fim, boolean renovar) {}
+
+    // Sai da gravação de reservar() quando o update condicional não acha a linha: nada é reservado
+    private static final class LinhaAlterada extends RuntimeException {
+        LinhaAlterada() {
+            super(null, null, false, false);
+        }
+    }
+
+    @PostConstruct
+    void iniciarRoda() {
+        roda = new RodaDeTempo<>(tickMs, System.currentTimeMillis());
+        atraso = Timer.builder("contratos.ciclo.atraso")
+                .description("Do vencimento do contrato até a expiração/renovação")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("contratos.ciclo.agendados", this, CicloContratoService::agendados)
+                .description("Contratos ativos com vencimento na roda")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        long inicio = System.nanoTime();
+        int total = carregar();
+        log.info("[CicloContrato] {} vencimentos agendados em {} ms", total,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        ativo = true;
+        thread = new Thread(this::executar, "contrato-ciclo");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    /** Agenda todos os contratos ativos com dataFim, lidos do banco em fluxo (sem montar lista). */
+    public int carregar() {
+        int[] total = {0};
+        jdbc.query(con -> {
+            var ps = con.prepareStatement("select id, data_fim from contrato where situacao = 'Ativo' and data_fim is not null");
+            ps.setFetchSize(1000);
+            return ps;
+        }, rs -> {
+            agendar(rs.getLong("id"), rs.getDate("data_fim").toLocalDate());
+            total[0]++;
+        });
+        return total[0];
+    }
+
+    /** Reagenda (ou tira da roda) conforme o contrato gravado; dentro de transação, só depois do commit. */
+    public void agendar(Contrato contrato) {
+        if (contrato == null || contrato.getId() == null) return;
+        Long id = contrato.getId();
+        LocalDate fim = contrato.getSituacao() == Contrato.SituacaoContrato.Ativo && contrato.getDataFim() != null
+                ? LocalDate.ofEpochDay(DisponibilidadeService.dia(contrato.getDataFim()))
+                : null;
+        aposCommit(() -> {
+            if (fim != null) agendar(id, fim);
+            else cancelar(id);
+        });
+    }
+
+    public void cancelar(Long contratoId) {
+        trava.lock();
+        try {
+            roda.cancelar(contratoId);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean agendado(Long contratoId) {
+        trava.lock();
+        try {
+            return roda.contem(contratoId);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private double agendados() {
+        trava.lock();
+        try {
+            return roda.tamanho();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void agendar(long id, LocalDate fim) {
+        long prazo = vencimento(fim);
+        trava.lock();
+        try {
+            roda.agendar(id, prazo);
+        } finally {
+            trava.unlock();
+        }
+        if (prazo <= System.currentTimeMillis()) acordar.release();
+    }
+
+    private static long vencimento(LocalDate fim) {
+        return fim.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private void executar() {
+        while (ativo) {
+            List<Long> vencidos;
+            trava.lock();
+            try {
+                vencidos = roda.avancar(System.currentTimeMillis());
+            } finally {
+                trava.unlock();
+            }
+            for (int i = 0; i < vencidos.size() && ativo; i += LOTE) {
+                List<Long> lote = vencidos.subList(i, Math.min(vencidos.size(), i + LOTE));
+                try {
+                    processar(lote);
+                } catch (RuntimeException e) {
+                    // Volta para a roda: o próximo vencimento relê do banco e decide de novo
+                    log.warn("[CicloContrato] {} vencimentos falharam, nova tentativa em {} ms: {}",
+                            lote.size(), esperaFalhaMs, e.toString());
+                    long novaTentativa = System.currentTimeMillis() + esperaFalhaMs;
+                    trava.lock();
+                    try {
+                        for (Long id : lote) if (!roda.contem(id)) roda.agendar(id, novaTentativa);
+                    } finally {
+                        trava.unlock();
+                    }
+                }
+            }
+            try {
+                acordar.tryAcquire(tickMs, TimeUnit.MILLISECONDS);
+                acordar.drainPermits();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Relê os contratos: dataFim adiada volta para a roda, renovação automática renova, o resto expira
+    private void processar(List<Long> ids) {
+        LocalDate hoje = LocalDate.now();
+        List<Vencido> lidos = jdbc.query("select id, data_inicio, data_fim, renovacao_automatica from contrato"
+                        + " where situacao = 'Ativo' and data_fim is not null and id in ("
+                        + String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+                (rs, i) -> new Vencido(rs.getLong("id"),
+                        rs.getDate("data_inicio") != null ? rs.getDate("data_inicio").toLocalDate() : null,
+                        rs.getDate("data_fim").toLocalDate(), rs.getBoolean("renovacao_automatica")),
+                ids.toArray());
+        List<Vencido> expirar = new ArrayList<>();
+        for (Vencido v : lidos) {
+            if (!v.fim().isBefore(hoje)) {
+                agendar(v.id(), v.fim()); // dataFim mudou depois de agendado
+                registry.counter("contratos.ciclo.acoes", "acao", "reagendado").increment();
+            } else if (!v.renovar() || !renovar(v, hoje)) {
+                expirar.add(v);
+            }
+        }
+        if (expirar.isEmpty()) return;
+        int[] alterados = jdbc.batchUpdate(EXPIRAR,
+                expirar.stream().map(v -> new Object[] { v.id(), Date.valueOf(v.fim()) }).toList());
+        for (int i = 0; i < alterados.length; i++) {
+            if (alterados[i] == 0) continue; // outra instância ou gravação chegou antes
+            Vencido v = expirar.get(i);
+            atraso.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - vencimento(v.fim()))));
+            registry.counter("contratos.ciclo.acoes", "acao", "expirado").increment();
+            log.info("[CicloContrato] contrato {} expirou (fim em {})", v.id(), v.fim());
+            eventos.publishEvent(ContratoEvento.expirado(v.id(), v.fim()));
+        }
+    }
+
+    /**
+     * Estende dataFim pelo tamanho do período até cobrir hoje (vários períodos se a aplicação
+     * ficou parada). Passa pela agenda do automóvel: se o novo período colide com outro contrato,
+     * não renova e o contrato expira (false). A gravação é o update condicional RENOVAR dentro
+     * da reserva; se a linha já não está como foi lida, não renova nem reserva nada.
+     */
+    private boolean renovar(Vencido v, LocalDate hoje) {
+        long dias = v.inicio() != null ? Math.max(1, v.fim().toEpochDay() - v.inicio().toEpochDay() + 1) : 1;
+        LocalDate novoFim = v.fim();
+        while (novoFim.isBefore(hoje)) novoFim = novoFim.plusDays(dias);
+        Contrato contrato = contratoRepository.findById(v.id()).orElse(null);
+        if (contrato == null || contrato.getSituacao() != Contrato.SituacaoContrato.Ativo
+                || contrato.getDataFim() == null || DisponibilidadeService.dia(contrato.getDataFim()) != v.fim().toEpochDay()) {
+            return true; // mudou desde a leitura: quem mudou já reagendou
+        }
+        contrato.setDataFim(Date.valueOf(novoFim));
+        LocalDate fim = novoFim;
+        try {
+            // Condicional como EXPIRAR: entre a leitura e a gravação outra instância ou um PUT pode ter agido
+            disponibilidadeService.reservar(contrato, () -> {
+                if (jdbc.update(RENOVAR, Date.valueOf(fim), v.id(), Date.valueOf(v.fim())) == 0) throw new LinhaAlterada();
+                return contrato;
+            });
+        } catch (LinhaAlterada e) {
+            return true; // quem mudou já reagendou
+        } catch (ConflitoException e) {
+            log.warn("[CicloContrato] contrato {} não renovado: {}", v.id(), e.getMessage());
+            return false;
+        }
+        atraso.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - vencimento(v.fim()))));
+        agendar(v.id(), novoFim);
+        registry.counter("contratos.ciclo.acoes", "acao", "renovado").increment();
+        log.info("[CicloContrato] contrato {} renovado até {}", v.id(), novoFim);
+        eventos.publishEvent(ContratoEvento.renovado(v.id(), v.fim(), novoFim));
+        return true;
+    }
+}
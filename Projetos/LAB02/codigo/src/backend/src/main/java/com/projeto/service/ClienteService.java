@@ -1,9 +1,17 @@
 package com.projeto.service;
 
+import com.projeto.dto.PedidoResumo;
+import com.projeto.event.AutomoveisRemovidosEvento;
+import com.projeto.event.PedidoEvento;
+import com.projeto.event.RendimentoEvento;
 import com.projeto.model.Cliente;
+import com.projeto.repository.AutomovelRepository;
 import com.projeto.repository.ClienteRepository;
+import com.projeto.repository.PedidoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,8 +22,26 @@ public class ClienteService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private SenhaService senhaService;
+
+    @Autowired
+    private CoalescedorLeituras coalescedor;
+
     public Cliente salvar(Cliente cliente) {
-        return clienteRepository.save(cliente);
+        cliente.setSenha(senhaService.hash(cliente.getSenha()));
+        Cliente salvo = clienteRepository.save(cliente);
+        coalescedor.invalidar("usuarios");
+        return salvo;
     }
 
     public List<Cliente> listarTodos() {
@@ -34,16 +60,28 @@ public class ClienteService {
                 clienteExistente.setRg(clienteAtualizado.getRg());
                 clienteExistente.setEndereco(clienteAtualizado.getEndereco());
                 clienteExistente.setProfissao(clienteAtualizado.getProfissao());
-                clienteExistente.setSenha(clienteAtualizado.getSenha());
+                if (clienteAtualizado.getSenha() != null && !clienteAtualizado.getSenha().isBlank()) {
+                    clienteExistente.setSenha(senhaService.hash(clienteAtualizado.getSenha()));
+                }
                 clienteExistente.setTipoUsuario(clienteAtualizado.getTipoUsuario());
                 clienteExistente.setEmpregadoras(clienteAtualizado.getEmpregadoras());
-                return clienteRepository.save(clienteExistente);
+                Cliente salvo = clienteRepository.save(clienteExistente);
+                coalescedor.invalidar("usuarios", "pedidos");
+                return salvo;
             });
     }
 
+    @Transactional
     public boolean deletar(Long id) {
         if (clienteRepository.existsById(id)) {
+            List<Long> automoveis = automovelRepository.listarIdsPorProprietario(id);
+            List<PedidoResumo> pedidos = pedidoRepository.listarResumosPorCliente(id);
             clienteRepository.deleteById(id);
+            coalescedor.invalidar("usuarios", "automoveis", "pedidos");
+            // rendimentos, automóveis e pedidos saem em cascata, sem passar pelos serviços deles
+            eventos.publishEvent(RendimentoEvento.usuarioRemovido(id));
+            eventos.publishEvent(new AutomoveisRemovidosEvento(id, automoveis));
+            pedidos.forEach(p -> eventos.publishEvent(PedidoEvento.removido(p)));
             return true;
         }
         return false;
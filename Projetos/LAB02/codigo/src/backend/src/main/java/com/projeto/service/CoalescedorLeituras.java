@@ -0,0 +1,129 @@
+package com.projeto.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Leituras idênticas e simultâneas viram uma só ida ao banco: a primeira chamada (líder) executa,
+ * as que chegam enquanto ela roda (seguidoras) esperam e recebem o mesmo resultado. Não é cache:
+ * terminada a leitura, a próxima chamada executa de novo.
+ *
+ * Operações se chamam "grupo.nome" (ex. pedidos.listar) e cada uma pode ser desligada com
+ * coalescencia.&lt;operacao&gt;=false. Escritas chamam {@link #invalidar} com o grupo: leituras
+ * em andamento deixam de receber novas seguidoras, agora e de novo no fim da transação.
+ *
+ * O resultado é compartilhado entre threads: só serve para métodos cujo retorno já vem com tudo
+ * que a resposta serializa carregado (sem proxy lazy) e que ninguém altera depois. Por isso só
+ * as projeções (pedidos.resumos, pedidos.detalhes, automoveis.resumos, usuarios.resumo) passam
+ * por aqui: entidades JPA pertencem à sessão da requisição líder (open-in-view), e uma seguidora
+ * que serializasse Agente.creditos carregaria a coleção por essa sessão, de outra thread ou já
+ * com ela fechada.
+ */
+@Component
+public class CoalescedorLeituras {
+
+    private record Chave(String operacao, Object argumento) {}
+
+    private final class Operacao {
+        final boolean habilitada;
+        final Counter lideres;
+        final Counter seguidores;
+
+        Operacao(String nome) {
+            habilitada = env.getProperty("coalescencia." + nome, Boolean.class, habilitadoPadrao);
+            lideres = registry.counter("coalescencia.leituras", "operacao", nome, "papel", "lider");
+            seguidores = registry.counter("coalescencia.leituras", "operacao", nome, "papel", "seguidor");
+            Gauge.builder("coalescencia.razao", this, Operacao::razao)
+                    .description("Fração das leituras atendidas por uma leitura já em andamento")
+                    .tag("operacao", nome)
+                    .register(registry);
+        }
+
+        double razao() {
+            double total = lideres.count() + seguidores.count();
+            return total == 0 ? 0 : seguidores.count() / total;
+        }
+    }
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${coalescencia.habilitado:true}")
+    private boolean habilitadoPadrao;
+
+    private final ConcurrentHashMap<Chave, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Operacao> operacoes = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T executar(String operacao, Object argumento, Supplier<T> leitura) {
+        Operacao op = operacoes.computeIfAbsent(operacao, Operacao::new);
+        if (!op.habilitada) return leitura.get();
+        Chave chave = new Chave(operacao, argumento);
+        CompletableFuture<Object> novo = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, novo);
+        if (existente != null) {
+            op.seguidores.increment();
+            return (T) aguardar(existente);
+        }
+        op.lideres.increment();
+        try {
+            T valor = leitura.get();
+            novo.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            novo.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, novo);
+        }
+    }
+
+    /** Chamado pelas escritas; dentro de uma transação vale também para o que começar até o commit. */
+    public void invalidar(String... grupos) {
+        soltar(grupos);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    soltar(grupos);
+                }
+            });
+        }
+    }
+
+    // Quem já segue a leitura recebe o resultado dela; quem chegar depois começa outra
+    private void soltar(String[] grupos) {
+        emAndamento.keySet().removeIf(c -> {
+            for (String g : grupos) {
+                if (c.operacao().startsWith(g + ".")) return true;
+            }
+            return false;
+        });
+    }
+
+    private static Object aguardar(CompletableFuture<Object> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
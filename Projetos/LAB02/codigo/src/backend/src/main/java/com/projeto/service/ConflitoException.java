@@ -0,0 +1,19 @@
+package com.projeto.service;
+
+/**
+ * Escrita recusada porque o estado atual do recurso não permite (transição inválida
+ * ou versão desatualizada). O ApiExceptionHandler responde 409 com o código informado.
+ */
+public class ConflitoException extends RuntimeException {
+
+    private final String code;
+
+    public ConflitoException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
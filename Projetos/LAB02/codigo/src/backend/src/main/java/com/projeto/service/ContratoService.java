@@ -1,8 +1,10 @@
 package com.projeto.service;
 
+import com.projeto.event.ContratoValorEvento;
 import com.projeto.model.Contrato;
 import com.projeto.repository.ContratoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,8 +16,24 @@ public class ContratoService {
     @Autowired
     private ContratoRepository contratoRepository;
 
+    @Autowired
+    private DisponibilidadeService disponibilidadeService;
+
+    @Autowired
+    private CicloContratoService cicloContratoService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    // Contratos com automóvel e período recusam sobreposição (409 AUTOMOVEL_INDISPONIVEL).
+    // Sem @Transactional aqui nem em atualizar: o save é confirmado dentro de reservar(), com a
+    // agenda do automóvel travada, e os eventos saem depois do commit.
     public Contrato salvar(Contrato contrato) {
-        return contratoRepository.save(contrato);
+        if (contrato.getSituacao() == null) contrato.setSituacao(Contrato.SituacaoContrato.Ativo);
+        Contrato salvo = disponibilidadeService.reservar(contrato, () -> contratoRepository.save(contrato));
+        cicloContratoService.agendar(salvo);
+        eventos.publishEvent(ContratoValorEvento.entrada(salvo));
+        return salvo;
     }
 
     public List<Contrato> listarTodos() {
@@ -29,21 +47,40 @@ public class ContratoService {
     public Optional<Contrato> atualizar(Long id, Contrato contratoAtualizado) {
         return contratoRepository.findById(id)
             .map(contratoExistente -> {
+                ContratoValorEvento saida = ContratoValorEvento.saida(contratoExistente);
                 contratoExistente.setPedido(contratoAtualizado.getPedido());
                 contratoExistente.setTipoContrato(contratoAtualizado.getTipoContrato());
                 contratoExistente.setValor(contratoAtualizado.getValor());
                 contratoExistente.setDataInicio(contratoAtualizado.getDataInicio());
+                // Novo fim reabre o contrato; se já passou, ele expira de novo no próximo tick
+                if (!mesmoDia(contratoExistente.getDataFim(), contratoAtualizado.getDataFim())) {
+                    contratoExistente.setSituacao(Contrato.SituacaoContrato.Ativo);
+                }
                 contratoExistente.setDataFim(contratoAtualizado.getDataFim());
                 contratoExistente.setAutomovel(contratoAtualizado.getAutomovel());
-                return contratoRepository.save(contratoExistente);
+                contratoExistente.setRenovacaoAutomatica(contratoAtualizado.isRenovacaoAutomatica());
+                Contrato salvo = disponibilidadeService.reservar(contratoExistente, () -> contratoRepository.save(contratoExistente));
+                cicloContratoService.agendar(salvo);
+                eventos.publishEvent(saida);
+                eventos.publishEvent(ContratoValorEvento.entrada(salvo));
+                return salvo;
             });
     }
 
     public boolean deletar(Long id) {
-        if (contratoRepository.existsById(id)) {
+        Optional<Contrato> existente = contratoRepository.findById(id);
+        if (existente.isPresent()) {
             contratoRepository.deleteById(id);
+            disponibilidadeService.liberar(id);
+            cicloContratoService.cancelar(id);
+            eventos.publishEvent(ContratoValorEvento.saida(existente.get()));
             return true;
         }
         return false;
     }
+
+    private static boolean mesmoDia(java.util.Date a, java.util.Date b) {
+        if (a == null || b == null) return a == b;
+        return DisponibilidadeService.dia(a) == DisponibilidadeService.dia(b);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.projeto.service;
+
+import java.util.List;
+
+import com.projeto.event.EventoOutbox;
+
+/**
+ * Destino dos eventos da outbox de pedidos; ligado por nome em outbox.destinos.
+ * Recebe um lote em ordem de id e só deve retornar depois de entregar tudo: exceção faz o lote
+ * inteiro ser repetido (entrega pelo menos uma vez).
+ */
+public interface DestinoOutbox {
+
+    String nome();
+
+    void entregar(List<EventoOutbox> lote) throws Exception;
+}
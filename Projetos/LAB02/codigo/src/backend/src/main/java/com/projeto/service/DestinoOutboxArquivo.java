@@ -0,0 +1,46 @@
+package com.projeto.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.projeto.event.EventoOutbox;
+
+/**
+ * Destino "arquivo": acrescenta um envelope JSON por linha (NDJSON) em outbox.arquivo.caminho e
+ * força o lote para o disco antes de confirmar. Se o processo cair entre a escrita e a
+ * confirmação, o lote aparece de novo no arquivo (mesmos outboxId).
+ */
+@Component
+public class DestinoOutboxArquivo implements DestinoOutbox {
+
+    @Value("${outbox.arquivo.caminho:outbox/pedidos.ndjson}")
+    private Path caminho;
+
+    @Override
+    public String nome() {
+        return "arquivo";
+    }
+
+    @Override
+    public synchronized void entregar(List<EventoOutbox> lote) throws IOException {
+        StringBuilder linhas = new StringBuilder(lote.size() * 256);
+        for (EventoOutbox e : lote) linhas.append(e.envelope()).append('\n');
+        Path pasta = caminho.toAbsolutePath().getParent();
+        if (pasta != null) Files.createDirectories(pasta);
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer dados = StandardCharsets.UTF_8.encode(linhas.toString());
+            while (dados.hasRemaining()) canal.write(dados);
+            canal.force(false);
+        }
+    }
+}
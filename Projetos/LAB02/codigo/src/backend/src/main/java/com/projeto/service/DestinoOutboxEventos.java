@@ -0,0 +1,39 @@
+package com.projeto.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projeto.event.EventoOutbox;
+import com.projeto.event.PedidoEvento;
+import com.projeto.event.PedidoEventoEntregue;
+
+/**
+ * Destino "eventos": publica PedidoEventoEntregue para os @EventListener da própria aplicação,
+ * na thread do relay. Exceção num listener repete o lote inteiro para todos eles.
+ */
+@Component
+public class DestinoOutboxEventos implements DestinoOutbox {
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String nome() {
+        return "eventos";
+    }
+
+    @Override
+    public void entregar(List<EventoOutbox> lote) throws IOException {
+        for (EventoOutbox e : lote) {
+            eventos.publishEvent(new PedidoEventoEntregue(e.id(), objectMapper.readValue(e.payload(), PedidoEvento.class)));
+        }
+    }
+}
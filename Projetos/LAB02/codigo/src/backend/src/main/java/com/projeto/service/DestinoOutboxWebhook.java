@@ -0,0 +1,56 @@
+package com.projeto.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.projeto.event.EventoOutbox;
+
+/**
+ * Destino "webhook": POST de um array JSON de envelopes em outbox.webhook.url. Qualquer resposta
+ * fora de 2xx (ou timeout) é falha e o mesmo lote volta na próxima tentativa; o receptor
+ * descarta repetições pelo outboxId.
+ */
+@Component
+public class DestinoOutboxWebhook implements DestinoOutbox {
+
+    @Value("${outbox.webhook.url:}")
+    private String url;
+
+    @Value("${outbox.webhook.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public String nome() {
+        return "webhook";
+    }
+
+    @Override
+    public void entregar(List<EventoOutbox> lote) throws IOException, InterruptedException {
+        if (url == null || url.isBlank()) throw new IllegalStateException("outbox.webhook.url não configurada");
+        String corpo = lote.stream().map(EventoOutbox::envelope).collect(Collectors.joining(",", "[", "]"));
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() / 100 != 2) {
+            throw new IOException("webhook respondeu " + resposta.statusCode());
+        }
+    }
+}
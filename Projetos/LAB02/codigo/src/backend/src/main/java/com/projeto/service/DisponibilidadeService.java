@@ -0,0 +1,245 @@
+package com.projeto.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.projeto.dto.ContratoPeriodo;
+import com.projeto.model.Contrato;
+import com.projeto.repository.ContratoRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Agenda de ocupação por automóvel, mantida em memória a partir dos contratos.
+ *
+ * Cada automóvel tem um TreeMap de intervalos [inicio, fim] (em dias desde a época, inclusivos)
+ * indexado pelo início. Como sobreposições são recusadas na gravação, os intervalos de um mesmo
+ * automóvel são disjuntos e só o intervalo com maior início <= fim consultado pode colidir:
+ * a verificação é um floorEntry, O(log k) para k contratos do automóvel.
+ *
+ * A agenda é carregada na criação do bean, antes de o conector HTTP aceitar requisições, e
+ * recarregada no ApplicationReadyEvent para pegar contratos gravados direto no banco pelos
+ * CommandLineRunner (carga). A recarga reconcilia com o banco sem desfazer reservas e liberações
+ * feitas enquanto a consulta rodava.
+ */
+@Service
+public class DisponibilidadeService {
+
+    private static final Logger log = LoggerFactory.getLogger(DisponibilidadeService.class);
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transacoes;
+
+    // Transação própria para a gravação de reservar(): o commit precisa acontecer antes de soltar a
+    // trava. Dentro da transação de quem chama, o contrato só ficaria visível depois do unlock.
+    private TransactionTemplate transacao;
+
+    private final Map<Long, Agenda> agendas = new ConcurrentHashMap<>();
+    private final Map<Long, Reserva> reservasPorContrato = new ConcurrentHashMap<>();
+
+    private record Reserva(long automovelId, long inicio, long fim) {}
+
+    // Uma carga por vez
+    private final ReentrantLock carga = new ReentrantLock();
+
+    // Contratos reservados ou liberados desde o início da carga em andamento (null fora de carga).
+    // Marcados com a trava da agenda ainda presa, e conferidos pela carga com a mesma trava
+    private volatile Set<Long> alteradosNaCarga;
+
+    // ReentrantLock e não synchronized: reservar() grava no banco com a agenda travada, e uma thread
+    // virtual bloqueada dentro de synchronized prende a thread portadora
+    private static final class Agenda {
+        // inicio -> { fim, contratoId }
+        private final TreeMap<Long, long[]> porInicio = new TreeMap<>();
+        private final ReentrantLock trava = new ReentrantLock();
+
+        boolean livre(long inicio, long fim, Long contratoIgnorado) {
+            for (Map.Entry<Long, long[]> e : porInicio.headMap(fim, true).descendingMap().entrySet()) {
+                long[] v = e.getValue();
+                if (contratoIgnorado != null && v[1] == contratoIgnorado) continue;
+                return v[0] < inicio;
+            }
+            return true;
+        }
+    }
+
+    @PostConstruct
+    void configurar() {
+        transacao = new TransactionTemplate(transacoes);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        carregar();
+    }
+
+    /**
+     * Lê os períodos do banco e reconcilia a agenda: entra o que está na foto, sai o que não está,
+     * exceto os contratos reservados ou liberados durante a consulta. Pode ser chamado de novo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        carga.lock();
+        try {
+            Set<Long> alterados = ConcurrentHashMap.newKeySet();
+            alteradosNaCarga = alterados;
+            try {
+                Map<Long, Reserva> foto = new HashMap<>();
+                for (ContratoPeriodo p : contratoRepository.listarPeriodos()) {
+                    foto.put(p.contratoId(), new Reserva(p.automovelId(), dia(p.dataInicio()), dia(p.dataFim())));
+                }
+                // Primeiro sai o que mudou ou sumiu, depois entra a foto: a troca de período de um
+                // mesmo contrato não colide com ele mesmo
+                reservasPorContrato.forEach((id, r) -> {
+                    if (!r.equals(foto.get(id))) aplicar(id, r, null, alterados);
+                });
+                foto.forEach((id, r) -> {
+                    if (!r.equals(reservasPorContrato.get(id))) aplicar(id, null, r, alterados);
+                });
+                log.info("[Disponibilidade] {} contratos carregados em {} agendas ({} alterados durante a carga ficaram como estavam)",
+                        foto.size(), agendas.size(), alterados.size());
+            } finally {
+                alteradosNaCarga = null;
+            }
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    // Com a trava da agenda: um contrato marcado já foi tratado por reservar/liberar depois da foto
+    private void aplicar(long contratoId, Reserva sai, Reserva entra, Set<Long> alterados) {
+        Reserva r = sai != null ? sai : entra;
+        Agenda agenda = agendas.computeIfAbsent(r.automovelId(), k -> new Agenda());
+        agenda.trava.lock();
+        try {
+            if (alterados.contains(contratoId)) return;
+            if (sai != null) {
+                remover(agenda, sai, contratoId);
+                reservasPorContrato.remove(contratoId, sai);
+            } else {
+                agenda.porInicio.put(entra.inicio(), new long[]{entra.fim(), contratoId});
+                reservasPorContrato.put(contratoId, entra);
+            }
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    private void marcarAlterado(Long contratoId) {
+        Set<Long> alterados = alteradosNaCarga;
+        if (alterados != null) alterados.add(contratoId);
+    }
+
+    public boolean disponivel(Long automovelId, LocalDate inicio, LocalDate fim) {
+        Agenda agenda = agendas.get(automovelId);
+        if (agenda == null) return true;
+        agenda.trava.lock();
+        try {
+            return agenda.livre(inicio.toEpochDay(), fim.toEpochDay(), null);
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    /**
+     * Grava o contrato com a agenda do automóvel bloqueada: verificação, gravação e registro
+     * acontecem sem que outro contrato para o mesmo automóvel possa passar no meio.
+     * Contratos sem automóvel ou sem datas não ocupam agenda e são gravados direto.
+     *
+     * gravar roda numa transação nova (REQUIRES_NEW), confirmada antes de a trava ser solta,
+     * mesmo que quem chama já esteja numa transação: a agenda nunca mostra um contrato que o
+     * banco ainda pode desfazer, e um rollback na gravação não deixa reserva para trás.
+     */
+    public Contrato reservar(Contrato contrato, Supplier<Contrato> gravar) {
+        Long automovelId = contrato.getAutomovel() != null ? contrato.getAutomovel().getId() : null;
+        if (automovelId == null || contrato.getDataInicio() == null || contrato.getDataFim() == null) {
+            Contrato salvo = transacao.execute(t -> gravar.get());
+            liberar(salvo.getId());
+            return salvo;
+        }
+        long inicio = dia(contrato.getDataInicio());
+        long fim = dia(contrato.getDataFim());
+        if (fim < inicio) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "dataFim anterior a dataInicio");
+        }
+        Reserva anterior = contrato.getId() != null ? reservasPorContrato.get(contrato.getId()) : null;
+        Agenda agenda = agendas.computeIfAbsent(automovelId, k -> new Agenda());
+        Contrato salvo;
+        agenda.trava.lock();
+        try {
+            if (!agenda.livre(inicio, fim, contrato.getId())) {
+                throw new ConflitoException("AUTOMOVEL_INDISPONIVEL",
+                        "Automóvel " + automovelId + " já possui contrato entre " + LocalDate.ofEpochDay(inicio) + " e " + LocalDate.ofEpochDay(fim));
+            }
+            salvo = transacao.execute(t -> gravar.get());
+            marcarAlterado(salvo.getId());
+            if (anterior != null && anterior.automovelId() == automovelId) {
+                remover(agenda, anterior, salvo.getId());
+            }
+            agenda.porInicio.put(inicio, new long[]{fim, salvo.getId()});
+            reservasPorContrato.put(salvo.getId(), new Reserva(automovelId, inicio, fim));
+        } finally {
+            agenda.trava.unlock();
+        }
+        // Troca de automóvel: a reserva antiga é liberada fora do bloqueio da nova agenda (evita deadlock)
+        if (anterior != null && anterior.automovelId() != automovelId) {
+            Agenda antiga = agendas.get(anterior.automovelId());
+            if (antiga != null) {
+                antiga.trava.lock();
+                try {
+                    remover(antiga, anterior, salvo.getId());
+                } finally {
+                    antiga.trava.unlock();
+                }
+            }
+        }
+        return salvo;
+    }
+
+    public void liberar(Long contratoId) {
+        if (contratoId == null) return;
+        marcarAlterado(contratoId);
+        Reserva r = reservasPorContrato.remove(contratoId);
+        if (r == null) return;
+        Agenda agenda = agendas.get(r.automovelId());
+        if (agenda == null) return;
+        agenda.trava.lock();
+        try {
+            remover(agenda, r, contratoId);
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    private static void remover(Agenda agenda, Reserva r, long contratoId) {
+        long[] v = agenda.porInicio.get(r.inicio());
+        if (v != null && v[1] == contratoId) agenda.porInicio.remove(r.inicio());
+    }
+
+    // java.sql.Date (lido do banco) não suporta toInstant(); converte pelo fuso da JVM, como o Hibernate
+    static long dia(Date data) {
+        if (data instanceof java.sql.Date sqlDate) return sqlDate.toLocalDate().toEpochDay();
+        return Instant.ofEpochMilli(data.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
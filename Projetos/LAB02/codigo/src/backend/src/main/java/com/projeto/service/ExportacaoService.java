@@ -0,0 +1,226 @@
+package com.projeto.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.projeto.model.Contrato;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Exporta uma tabela inteira em NDJSON ou CSV, escrevendo cada linha assim que ela sai do banco.
+ * A consulta roda numa transação só de leitura com fetch size (no Postgres vira cursor no
+ * servidor), sem passar pelo cache de segundo nível, e o contexto de persistência é limpo a cada
+ * lote: a memória não cresce com o número de linhas.
+ *
+ * No NDJSON cada linha é o mesmo objeto que o GET da coleção devolve; o CSV traz as colunas
+ * escalares, com os relacionamentos reduzidos a id e um ou dois campos legíveis.
+ */
+@Service
+public class ExportacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacaoService.class);
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String tipoConteudo;
+        private final String extensao;
+
+        Formato(String tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        public String tipoConteudo() { return tipoConteudo; }
+        public String extensao() { return extensao; }
+
+        public static Formato fromString(String valor) {
+            if (valor == null || valor.isBlank()) return NDJSON;
+            switch (valor.trim().toLowerCase(Locale.ROOT)) {
+                case "ndjson": case "jsonl": return NDJSON;
+                case "csv": return CSV;
+                default: throw new IllegalArgumentException("formato inválido: " + valor);
+            }
+        }
+    }
+
+    public enum Tabela { PEDIDOS, CONTRATOS, USUARIOS }
+
+    private record Coluna<T>(String nome, Function<T, Object> valor) {}
+
+    // Relacionamentos ManyToOne/OneToOne são EAGER: sem o join fetch cada linha dispararia selects
+    private static final String PEDIDOS = "select p from Pedido p left join fetch p.cliente"
+            + " left join fetch p.automovel a left join fetch a.proprietario order by p.id";
+
+    private static final String CONTRATOS = "select c from Contrato c left join fetch c.pedido p"
+            + " left join fetch p.cliente left join fetch p.automovel pa left join fetch pa.proprietario"
+            + " left join fetch c.automovel a left join fetch a.proprietario order by c.id";
+
+    private static final String USUARIOS = "select u from Usuario u order by u.id";
+
+    private static final List<Coluna<Pedido>> COLUNAS_PEDIDO = List.of(
+            new Coluna<>("id", Pedido::getId),
+            new Coluna<>("status", p -> p.getStatus() != null ? p.getStatus().toJson() : null),
+            new Coluna<>("dataPedido", Pedido::getDataPedido),
+            new Coluna<>("clienteId", p -> p.getCliente() != null ? p.getCliente().getId() : null),
+            new Coluna<>("clienteNome", p -> p.getCliente() != null ? p.getCliente().getNome() : null),
+            new Coluna<>("clienteCpf", p -> p.getCliente() != null ? p.getCliente().getCpf() : null),
+            new Coluna<>("automovelId", p -> p.getAutomovel() != null ? p.getAutomovel().getId() : null),
+            new Coluna<>("automovelPlaca", p -> p.getAutomovel() != null ? p.getAutomovel().getPlaca() : null),
+            new Coluna<>("automovelMarca", p -> p.getAutomovel() != null ? p.getAutomovel().getMarca() : null),
+            new Coluna<>("automovelModelo", p -> p.getAutomovel() != null ? p.getAutomovel().getModelo() : null));
+
+    private static final List<Coluna<Contrato>> COLUNAS_CONTRATO = List.of(
+            new Coluna<>("id", Contrato::getId),
+            new Coluna<>("tipoContrato", Contrato::getTipoContrato),
+            new Coluna<>("valor", Contrato::getValor),
+            new Coluna<>("dataInicio", Contrato::getDataInicio),
+            new Coluna<>("dataFim", Contrato::getDataFim),
+            new Coluna<>("pedidoId", c -> c.getPedido() != null ? c.getPedido().getId() : null),
+            new Coluna<>("clienteId", c -> c.getPedido() != null && c.getPedido().getCliente() != null
+                    ? c.getPedido().getCliente().getId() : null),
+            new Coluna<>("automovelId", c -> c.getAutomovel() != null ? c.getAutomovel().getId() : null),
+            new Coluna<>("automovelPlaca", c -> c.getAutomovel() != null ? c.getAutomovel().getPlaca() : null));
+
+    // Sem a senha, como no JSON
+    private static final List<Coluna<Usuario>> COLUNAS_USUARIO = List.of(
+            new Coluna<>("id", Usuario::getId),
+            new Coluna<>("tipoUsuario", Usuario::getTipoUsuario),
+            new Coluna<>("nome", Usuario::getNome),
+            new Coluna<>("cpf", Usuario::getCpf),
+            new Coluna<>("rg", Usuario::getRg),
+            new Coluna<>("endereco", Usuario::getEndereco),
+            new Coluna<>("profissao", Usuario::getProfissao));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${exportacao.fetch-size:500}")
+    private int fetchSize;
+
+    /** Escreve a tabela em {@code saida} (sem fechá-la) e devolve quantas linhas foram escritas. */
+    public long exportar(Tabela tabela, Formato formato, OutputStream saida) throws IOException {
+        switch (tabela) {
+            case PEDIDOS: return exportar("pedidos", PEDIDOS, Pedido.class, COLUNAS_PEDIDO, formato, saida);
+            case CONTRATOS: return exportar("contratos", CONTRATOS, Contrato.class, COLUNAS_CONTRATO, formato, saida);
+            default: return exportar("usuarios", USUARIOS, Usuario.class, COLUNAS_USUARIO, formato, saida);
+        }
+    }
+
+    private <T> long exportar(String nome, String jpql, Class<T> tipo, List<Coluna<T>> colunas, Formato formato,
+                              OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        Long linhas;
+        try {
+            linhas = tx.execute(status -> {
+                try (Stream<T> resultado = entityManager.createQuery(jpql, tipo)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                        .getResultStream()) {
+                    return escrever(resultado.iterator(), colunas, formato, saida);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("[Exportacao] {} em {}: {} linhas em {} ms", nome, formato, linhas, (System.nanoTime() - inicio) / 1_000_000);
+        return linhas;
+    }
+
+    private <T> long escrever(Iterator<T> linhas, List<Coluna<T>> colunas, Formato formato, OutputStream saida)
+            throws IOException {
+        Writer out = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+        JsonGenerator json = null;
+        // Sem flush a cada valor: quem empurra para o socket é o buffer da resposta
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (formato == Formato.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        } else {
+            for (int i = 0; i < colunas.size(); i++) {
+                if (i > 0) out.write(',');
+                out.write(colunas.get(i).nome());
+            }
+            out.write("\r\n");
+        }
+        long n = 0;
+        while (linhas.hasNext()) {
+            T linha = linhas.next();
+            if (json != null) {
+                escritor.writeValue(json, linha);
+                json.writeRaw('\n');
+            } else {
+                for (int i = 0; i < colunas.size(); i++) {
+                    if (i > 0) out.write(',');
+                    celula(out, colunas.get(i).valor().apply(linha));
+                }
+                out.write("\r\n");
+            }
+            // A linha já foi serializada: solta ela e o que veio junto (cliente, automóvel, coleções lazy)
+            if (++n % fetchSize == 0) entityManager.clear();
+        }
+        if (json != null) json.flush();
+        out.flush();
+        return n;
+    }
+
+    // RFC 4180: aspas só quando o valor tem separador, aspas ou quebra de linha
+    private static void celula(Writer out, Object valor) throws IOException {
+        if (valor == null) return;
+        String texto;
+        if (valor instanceof java.sql.Date || !(valor instanceof Date)) texto = valor.toString();
+        else texto = ((Date) valor).toInstant().toString();
+        boolean aspas = false;
+        for (int i = 0; i < texto.length() && !aspas; i++) {
+            char c = texto.charAt(i);
+            aspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            out.write(texto);
+            return;
+        }
+        out.write('"');
+        out.write(texto.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,213 @@
+package com.projeto.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.projeto.dto.PaginaCursor;
+import com.projeto.dto.PedidoResumo;
+import com.projeto.event.PedidoEvento;
+import com.projeto.model.Pedido;
+import com.projeto.repository.PedidoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fila de aprovação dos agentes: read model em memória com os pedidos Em_analise,
+ * ordenado por id (mais antigo primeiro), mantido pelos PedidoEvento publicados pelo
+ * PedidoService após o commit.
+ *
+ * O listener está inscrito desde a criação do bean; a carga do banco (na ApplicationReadyEvent,
+ * depois dos seeds) só é aplicada por cima: um pedido que recebeu evento enquanto a consulta
+ * rodava fica com o estado do evento, que é mais novo que a foto lida.
+ *
+ * A fila é local à instância: só vê os eventos das escritas feitas nela. Com mais de uma réplica,
+ * cada uma tem a sua fila e o seu stream SSE, e chamar carregar() de novo reconcilia com o banco.
+ */
+@Service
+public class FilaAprovacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(FilaAprovacaoService.class);
+
+    private static final long SSE_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private final ConcurrentSkipListMap<Long, PedidoResumo> pendentes = new ConcurrentSkipListMap<>();
+
+    // Serializa eventos e a aplicação da carga; a consulta ao banco roda fora dela
+    private final ReentrantLock trava = new ReentrantLock();
+
+    // Ids alterados por evento desde o início da carga em andamento (null fora de carga)
+    private Set<Long> alteradosNaCarga;
+
+    private final List<SseEmitter> inscritos = new CopyOnWriteArrayList<>();
+
+    // Envio SSE fora da thread que fez o commit, para não segurar a requisição de escrita
+    private final ExecutorService envio = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "fila-aprovacao-sse");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Lê os pendentes do banco e reconcilia a fila: entra o que está pendente na foto, sai o que
+     * não está, exceto os pedidos alterados por evento durante a consulta. Pode ser chamado de novo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        trava.lock();
+        try {
+            alteradosNaCarga = new HashSet<>();
+        } finally {
+            trava.unlock();
+        }
+        Map<Long, PedidoResumo> foto = null;
+        try {
+            Map<Long, PedidoResumo> lidos = new HashMap<>();
+            for (PedidoResumo p : pedidoRepository.listarResumosPendentes()) {
+                lidos.put(p.id(), p);
+            }
+            foto = lidos;
+        } finally {
+            aplicarCarga(foto);
+        }
+    }
+
+    // foto null: a consulta falhou e a fila fica como está
+    private void aplicarCarga(Map<Long, PedidoResumo> foto) {
+        int mantidos;
+        trava.lock();
+        try {
+            Set<Long> alterados = alteradosNaCarga;
+            alteradosNaCarga = null;
+            if (foto == null) return;
+            pendentes.keySet().removeIf(id -> !foto.containsKey(id) && !alterados.contains(id));
+            foto.forEach((id, p) -> {
+                if (!alterados.contains(id)) pendentes.put(id, p);
+            });
+            mantidos = alterados.size();
+        } finally {
+            trava.unlock();
+        }
+        log.info("[FilaAprovacao] {} pedidos pendentes carregados ({} alterados durante a carga ficaram com o evento)",
+                pendentes.size(), mantidos);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPedido(PedidoEvento evento) {
+        PedidoResumo p = evento.pedido();
+        if (p == null || p.id() == null) return;
+        boolean pendente = evento.tipo() != PedidoEvento.Tipo.REMOVIDO && p.status() == Pedido.StatusPedido.Em_analise;
+        String tipo;
+        trava.lock();
+        try {
+            if (alteradosNaCarga != null) alteradosNaCarga.add(p.id());
+            if (pendente) {
+                tipo = pendentes.put(p.id(), p) == null ? "ENTRADA" : "ATUALIZACAO";
+            } else {
+                if (pendentes.remove(p.id()) == null) return; // não estava na fila, nada a notificar
+                tipo = "SAIDA";
+            }
+        } finally {
+            trava.unlock();
+        }
+        notificar(tipo, p);
+    }
+
+    /** Página da fila a partir do cursor (último id visto); O(log n + limite). */
+    public PaginaCursor<PedidoResumo> pagina(Long cursor, Integer limite) {
+        int tamanho = limite == null ? PedidoService.LIMITE_PADRAO : Math.max(1, Math.min(limite, PedidoService.LIMITE_MAXIMO));
+        NavigableMap<Long, PedidoResumo> resto = cursor == null ? pendentes : pendentes.tailMap(cursor, false);
+        List<PedidoResumo> itens = new ArrayList<>(tamanho);
+        String proximo = null;
+        for (PedidoResumo p : resto.values()) {
+            if (itens.size() == tamanho) {
+                proximo = String.valueOf(itens.get(tamanho - 1).id());
+                break;
+            }
+            itens.add(p);
+        }
+        return new PaginaCursor<>(itens, proximo);
+    }
+
+    public int tamanho() {
+        return pendentes.size();
+    }
+
+    public List<PedidoResumo> resumosPendentes() {
+        return new ArrayList<>(pendentes.values());
+    }
+
+    public List<Long> idsPendentes() {
+        return new ArrayList<>(pendentes.keySet());
+    }
+
+    public SseEmitter inscrever() {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        emitter.onCompletion(() -> inscritos.remove(emitter));
+        emitter.onTimeout(() -> inscritos.remove(emitter));
+        emitter.onError(e -> inscritos.remove(emitter));
+        inscritos.add(emitter);
+        // Comentário SSE (ignorado pelo EventSource): envia os cabeçalhos já na inscrição, sem esperar o primeiro evento
+        try {
+            emitter.send(SseEmitter.event().comment("inscrito"));
+        } catch (IOException e) {
+            inscritos.remove(emitter);
+        }
+        return emitter;
+    }
+
+    private void notificar(String tipo, PedidoResumo pedido) {
+        if (inscritos.isEmpty()) return;
+        Map<String, Object> dados = Map.of("tipo", tipo, "pedido", pedido);
+        envio.execute(() -> {
+            for (SseEmitter emitter : inscritos) {
+                try {
+                    emitter.send(SseEmitter.event().name("fila").id(String.valueOf(pedido.id())).data(dados));
+                } catch (IOException | IllegalStateException e) {
+                    inscritos.remove(emitter);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fecha os streams no início do fechamento do contexto: o shutdown gracioso do servidor espera
+     * as requisições abertas, e um SSE inscrito só terminaria no timeout, depois do @PreDestroy.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void fecharInscritos() {
+        for (SseEmitter emitter : inscritos) {
+            inscritos.remove(emitter);
+            emitter.complete();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envio.shutdownNow();
+        fecharInscritos();
+    }
+}
@@ -0,0 +1,205 @@
+package com.projeto.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.projeto.dto.HistoricoPedido;
+import com.projeto.dto.HistoricoPedido.Estado;
+import com.projeto.dto.HistoricoPedido.Evento;
+import com.projeto.dto.UsuarioPrincipal;
+import com.projeto.event.PedidoEvento;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Histórico de pedido (event sourcing ao lado da tabela pedido, que continua sendo a fonte da
+ * leitura normal). Cada PedidoEvento vira uma linha de pedido_historico, gravada com os demais
+ * eventos da transação num único insert em lote antes do commit: na escrita só há insert, numa
+ * tabela com um índice.
+ *
+ * Snapshots saem fora da requisição: depois do commit o pedido entra numa fila, e uma thread
+ * grava o estado quando já há historico.snapshot-a-cada eventos desde o último. Reconstruir
+ * (com ou sem asOf) lê o snapshot mais recente até o instante e aplica só os eventos seguintes.
+ */
+@Service
+public class HistoricoPedidoService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoricoPedidoService.class);
+
+    private static final String COLUNAS_EVENTO = "id, tipo, status, status_anterior, cliente_id, automovel_id,"
+            + " automovel_anterior_id, data_pedido, autor_id, autor_tipo, ocorrido_em";
+
+    private static final String INSERIR = "insert into pedido_historico (pedido_id, tipo, status, status_anterior,"
+            + " cliente_id, automovel_id, automovel_anterior_id, data_pedido, autor_id, autor_tipo, ocorrido_em)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<Evento> EVENTO = (rs, i) -> new Evento(
+            rs.getLong("id"), rs.getString("tipo"), status(rs, "status"), status(rs, "status_anterior"),
+            longOuNull(rs, "cliente_id"), longOuNull(rs, "automovel_id"), longOuNull(rs, "automovel_anterior_id"),
+            rs.getDate("data_pedido"), longOuNull(rs, "autor_id"), tipoUsuario(rs, "autor_tipo"),
+            rs.getTimestamp("ocorrido_em").toInstant());
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${historico.snapshot-a-cada:50}")
+    private int snapshotACada;
+
+    private final Set<Long> aguardandoSnapshot = ConcurrentHashMap.newKeySet();
+
+    // Fila cheia descarta: o pedido volta a ser avaliado no próximo evento dele
+    private final ThreadPoolExecutor snapshots = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(10_000), r -> {
+                Thread t = new Thread(r, "historico-snapshot");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private record Linha(PedidoEvento evento, Long autorId, Usuario.TipoUsuario autorTipo) {}
+
+    private final LotePorTransacao<Linha> lote = new LotePorTransacao<>(this::gravar, this::agendarSnapshot);
+
+    /** Síncrono, na transação e na thread da requisição (de onde sai o autor). */
+    @EventListener
+    public void aoAlterarPedido(PedidoEvento evento) {
+        if (evento.pedido() == null || evento.pedido().id() == null) return;
+        UsuarioPrincipal autor = autorDaRequisicao();
+        Linha linha = new Linha(evento, autor != null ? autor.id() : null, autor != null ? autor.tipo() : null);
+        lote.adicionar(linha);
+    }
+
+    /** Eventos até asOf (null = agora) e o estado resultante; vazio se o pedido não tem histórico até lá. */
+    public HistoricoPedido consultar(Long pedidoId, Instant asOf) {
+        Instant ate = asOf != null ? asOf : Instant.now();
+        List<Evento> eventos = jdbc.query("select " + COLUNAS_EVENTO + " from pedido_historico"
+                + " where pedido_id = ? and ocorrido_em <= ? order by id", EVENTO, pedidoId, Timestamp.from(ate));
+        if (eventos.isEmpty()) return null;
+        return new HistoricoPedido(pedidoId, asOf, reconstruir(pedidoId, ate), eventos);
+    }
+
+    /** Estado em {@code ate}: snapshot mais recente até lá + eventos depois dele. */
+    public Estado reconstruir(Long pedidoId, Instant ate) {
+        Timestamp limite = Timestamp.from(ate);
+        List<Estado> snapshot = jdbc.query("select * from pedido_snapshot where pedido_id = ? and ocorrido_em <= ?"
+                + " order by ultimo_evento_id desc limit 1", (rs, i) -> new Estado(pedidoId, status(rs, "status"),
+                longOuNull(rs, "cliente_id"), longOuNull(rs, "automovel_id"), rs.getDate("data_pedido"),
+                rs.getBoolean("removido"), rs.getInt("eventos"), rs.getLong("ultimo_evento_id"),
+                rs.getTimestamp("ocorrido_em").toInstant(), longOuNull(rs, "autor_id"), tipoUsuario(rs, "autor_tipo")),
+                pedidoId, limite);
+        Estado estado = snapshot.isEmpty() ? Estado.inicial(pedidoId) : snapshot.get(0);
+        long desde = estado.ultimoEventoId() != null ? estado.ultimoEventoId() : 0L;
+        List<Evento> seguintes = jdbc.query("select " + COLUNAS_EVENTO + " from pedido_historico"
+                + " where pedido_id = ? and id > ? and ocorrido_em <= ? order by id", EVENTO, pedidoId, desde, limite);
+        registry.summary("historico.eventos.aplicados").record(seguintes.size());
+        for (Evento e : seguintes) estado = estado.aplicar(e);
+        return estado;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        snapshots.shutdownNow();
+    }
+
+    private void gravar(List<Linha> linhas) {
+        List<Object[]> valores = new ArrayList<>(linhas.size());
+        for (Linha l : linhas) {
+            PedidoEvento e = l.evento();
+            boolean completo = e.tipo() == PedidoEvento.Tipo.CRIADO;
+            boolean automovel = completo || e.tipo() == PedidoEvento.Tipo.AUTOMOVEL_ALTERADO;
+            boolean status = completo || e.tipo() == PedidoEvento.Tipo.STATUS_ALTERADO;
+            valores.add(new Object[] {
+                    e.pedido().id(), e.tipo().name(),
+                    status && e.pedido().status() != null ? e.pedido().status().name() : null,
+                    e.tipo() == PedidoEvento.Tipo.STATUS_ALTERADO && e.statusAnterior() != null ? e.statusAnterior().name() : null,
+                    completo ? e.pedido().clienteId() : null,
+                    automovel ? e.pedido().automovelId() : null,
+                    e.automovelAnteriorId(),
+                    completo && e.pedido().dataPedido() != null ? new java.sql.Date(e.pedido().dataPedido().getTime()) : null,
+                    l.autorId(), l.autorTipo() != null ? l.autorTipo().name() : null,
+                    Timestamp.from(e.ocorridoEm()) });
+        }
+        jdbc.batchUpdate(INSERIR, valores);
+    }
+
+    private void agendarSnapshot(List<Linha> linhas) {
+        for (Linha l : linhas) {
+            // Pedido recém-criado tem um evento só (importação em lote não agenda milhares de verificações)
+            if (l.evento().tipo() == PedidoEvento.Tipo.CRIADO && snapshotACada > 1) continue;
+            Long id = l.evento().pedido().id();
+            if (aguardandoSnapshot.add(id)) {
+                snapshots.execute(() -> {
+                    aguardandoSnapshot.remove(id);
+                    try {
+                        snapshotSeNecessario(id);
+                    } catch (RuntimeException e) {
+                        log.warn("[Historico] snapshot do pedido {} falhou: {}", id, e.getMessage());
+                    }
+                });
+            }
+        }
+    }
+
+    private void snapshotSeNecessario(Long pedidoId) {
+        Long ultimo = jdbc.queryForObject("select max(ultimo_evento_id) from pedido_snapshot where pedido_id = ?",
+                Long.class, pedidoId);
+        Long desde = jdbc.queryForObject("select count(*) from pedido_historico where pedido_id = ? and id > ?",
+                Long.class, pedidoId, ultimo != null ? ultimo : 0L);
+        if (desde == null || desde < snapshotACada) return;
+        Estado e = reconstruir(pedidoId, Instant.now());
+        jdbc.update("insert into pedido_snapshot (pedido_id, ultimo_evento_id, eventos, ocorrido_em, status, cliente_id,"
+                        + " automovel_id, data_pedido, removido, autor_id, autor_tipo) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                pedidoId, e.ultimoEventoId(), e.eventos(), Timestamp.from(e.alteradoEm()),
+                e.status() != null ? e.status().name() : null, e.clienteId(), e.automovelId(),
+                e.dataPedido() != null ? new java.sql.Date(e.dataPedido().getTime()) : null, e.removido(),
+                e.alteradoPor(), e.alteradoPorTipo() != null ? e.alteradoPorTipo().name() : null);
+        registry.counter("historico.snapshots").increment();
+    }
+
+    private static UsuarioPrincipal autorDaRequisicao() {
+        RequestAttributes req = RequestContextHolder.getRequestAttributes();
+        if (req == null) return null;
+        Object p = req.getAttribute(UsuarioPrincipal.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        return p instanceof UsuarioPrincipal u ? u : null;
+    }
+
+    private static Long longOuNull(ResultSet rs, String coluna) throws SQLException {
+        long v = rs.getLong(coluna);
+        return rs.wasNull() ? null : v;
+    }
+
+    private static Pedido.StatusPedido status(ResultSet rs, String coluna) throws SQLException {
+        String v = rs.getString(coluna);
+        return v != null ? Pedido.StatusPedido.valueOf(v) : null;
+    }
+
+    private static Usuario.TipoUsuario tipoUsuario(ResultSet rs, String coluna) throws SQLException {
+        String v = rs.getString(coluna);
+        return v != null ? Usuario.TipoUsuario.valueOf(v) : null;
+    }
+}
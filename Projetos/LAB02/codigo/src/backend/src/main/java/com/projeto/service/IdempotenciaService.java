@@ -0,0 +1,192 @@
+package com.projeto.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Respostas de POST com "Idempotency-Key". A primeira requisição com a chave executa; uma
+ * repetida enquanto ela roda espera o mesmo resultado, e uma que chega depois recebe a resposta
+ * gravada. O corpo da requisição é comparado pela impressão (SHA-256): mesma chave com outro
+ * corpo é erro do cliente, não repetição.
+ *
+ * Em memória: Caffeine com teto de chaves e validade contada da primeira requisição (o teto vale
+ * também para chaves em andamento). Com idempotencia.tabela=true cada chave também vira uma linha
+ * da tabela idempotencia, para valer depois de um reinício e entre instâncias: o insert é a
+ * reserva, e a chave primária decide quem executa.
+ *
+ * Resposta 5xx (ou exceção) não fica gravada: quem esperava recebe o mesmo resultado, mas a
+ * chave é liberada para uma nova tentativa.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    // Linhas vencidas da tabela são apagadas a cada tantas reservas
+    private static final int LIMPEZA_A_CADA = 256;
+
+    public enum Situacao { NOVA, REPETIDA, CORPO_DIFERENTE, EM_ANDAMENTO }
+
+    /** Resposta gravada; o corpo é texto UTF-8 (as rotas cobertas devolvem JSON). */
+    public record Resposta(int status, String tipoConteudo, String location, byte[] corpo) {}
+
+    /**
+     * NOVA: quem recebeu executa e chama {@link #concluir}. REPETIDA: {@code resultado} completa
+     * com a resposta da primeira execução, ou null se ela terminou em exceção.
+     */
+    public record Reserva(Situacao situacao, CompletableFuture<Resposta> resultado) {}
+
+    private record Registro(String impressao, CompletableFuture<Resposta> resultado) {
+        Registro(String impressao) {
+            this(impressao, new CompletableFuture<>());
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${idempotencia.maximo:10000}")
+    private long maximo;
+
+    @Value("${idempotencia.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotencia.tabela:false}")
+    private boolean tabela;
+
+    private Cache<String, Registro> registros;
+    private final AtomicLong reservas = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        registros = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .build();
+        registry.gauge("idempotencia.chaves", registros, c -> c.estimatedSize());
+    }
+
+    public Reserva reservar(String chave, String impressao) {
+        Registro novo = new Registro(impressao);
+        Registro atual = registros.asMap().putIfAbsent(chave, novo);
+        Reserva reserva;
+        if (atual != null) {
+            reserva = atual.impressao().equals(impressao)
+                    ? new Reserva(Situacao.REPETIDA, atual.resultado())
+                    : new Reserva(Situacao.CORPO_DIFERENTE, null);
+        } else {
+            Situacao situacao;
+            try {
+                situacao = tabela ? reservarNaTabela(chave, novo) : Situacao.NOVA;
+            } catch (DataAccessException e) {
+                // Sem a tabela a reserva não vale: solta a chave e quem já esperava nela (tente de novo)
+                registros.asMap().remove(chave, novo);
+                novo.resultado().complete(null);
+                throw e;
+            }
+            reserva = new Reserva(situacao, novo.resultado());
+        }
+        registry.counter("idempotencia.requisicoes", "resultado", reserva.situacao().name().toLowerCase(Locale.ROOT))
+                .increment();
+        return reserva;
+    }
+
+    /** Grava a resposta de uma reserva NOVA (null = a execução terminou em exceção) e libera quem esperava. */
+    public void concluir(String chave, Reserva reserva, Resposta resposta) {
+        boolean gravar = resposta != null && resposta.status() < 500;
+        if (!gravar) registros.asMap().computeIfPresent(chave, (k, r) -> r.resultado() == reserva.resultado() ? null : r);
+        if (tabela) {
+            try {
+                if (gravar) {
+                    jdbc.update("update idempotencia set status = ?, tipo_conteudo = ?, location = ?, corpo = ? where chave = ?",
+                            resposta.status(), resposta.tipoConteudo(), resposta.location(),
+                            new String(resposta.corpo(), StandardCharsets.UTF_8), chave);
+                } else {
+                    jdbc.update("delete from idempotencia where chave = ?", chave);
+                }
+            } catch (DataAccessException e) {
+                // A memória ainda cobre esta instância; as outras veem a chave em andamento até vencer
+                log.warn("[Idempotencia] falha ao gravar a chave na tabela: {}", e.getMessage());
+            }
+        }
+        reserva.resultado().complete(resposta);
+    }
+
+    // A reserva em memória já é nossa; falta a da tabela, que pode ser de outra instância
+    private Situacao reservarNaTabela(String chave, Registro registro) {
+        Instant agora = Instant.now();
+        Timestamp limite = Timestamp.from(agora.minus(ttl));
+        if (reservas.incrementAndGet() % LIMPEZA_A_CADA == 0) {
+            int apagadas = jdbc.update("delete from idempotencia where criado_em < ?", limite);
+            if (apagadas > 0) log.info("[Idempotencia] {} chaves vencidas apagadas", apagadas);
+        }
+        if (inserir(chave, registro.impressao(), agora)) return Situacao.NOVA;
+        // Linha vencida que a limpeza ainda não pegou: a chave vale de novo
+        if (jdbc.update("delete from idempotencia where chave = ? and criado_em < ?", chave, limite) > 0
+                && inserir(chave, registro.impressao(), agora)) {
+            return Situacao.NOVA;
+        }
+
+        List<Registro> linhas = jdbc.query("select impressao, status, tipo_conteudo, location, corpo from idempotencia where chave = ?",
+                (rs, i) -> {
+                    int status = rs.getInt("status");
+                    Registro r = new Registro(rs.getString("impressao"));
+                    if (!rs.wasNull()) {
+                        String corpo = rs.getString("corpo");
+                        r.resultado().complete(new Resposta(status, rs.getString("tipo_conteudo"), rs.getString("location"),
+                                corpo != null ? corpo.getBytes(StandardCharsets.UTF_8) : new byte[0]));
+                    }
+                    return r;
+                }, chave);
+        Situacao situacao;
+        if (linhas.isEmpty()) {
+            situacao = Situacao.EM_ANDAMENTO; // apagada entre o insert e o select (execução falhou): nova tentativa resolve
+        } else if (!linhas.get(0).impressao().equals(registro.impressao())) {
+            situacao = Situacao.CORPO_DIFERENTE;
+        } else if (linhas.get(0).resultado().isDone()) {
+            // Executada antes do reinício ou em outra instância: fica em memória como concluída
+            registro.resultado().complete(linhas.get(0).resultado().join());
+            return Situacao.REPETIDA;
+        } else {
+            situacao = Situacao.EM_ANDAMENTO;
+        }
+        // Quem já estava esperando na reserva em memória recebe null (tente de novo)
+        registros.asMap().remove(chave, registro);
+        registro.resultado().complete(null);
+        return situacao;
+    }
+
+    private boolean inserir(String chave, String impressao, Instant agora) {
+        try {
+            jdbc.update("insert into idempotencia (chave, impressao, criado_em) values (?, ?, ?)",
+                    chave, impressao, Timestamp.from(agora));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.projeto.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Requisição recusada por limite de uso (429) ou por saturação de um recurso interno (503).
+ * O ApiExceptionHandler responde com o status, o código e o cabeçalho Retry-After.
+ */
+public class LimiteExcedidoException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final String code;
+    private final long retryAfterSegundos;
+
+    public LimiteExcedidoException(HttpStatus status, String code, String message, long retryAfterSegundos) {
+        super(message);
+        this.status = status;
+        this.code = code;
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
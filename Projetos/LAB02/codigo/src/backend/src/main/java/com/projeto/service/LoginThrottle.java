@@ -0,0 +1,134 @@
+package com.projeto.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limite de tentativas de login por CPF e por IP (token bucket), checado antes de qualquer hash.
+ *
+ * Os baldes ficam em mapas particionados por hash da chave, cada partição com sua trava, para
+ * que logins de CPFs diferentes não disputem a mesma trava. Uma tentativa só passa se os dois
+ * baldes (CPF e IP) tiverem ficha; então consome das duas. Baldes cheios são descartados quando
+ * a partição cresce demais, já que equivalem a um balde novo.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int PARTICOES = 64;
+    private static final int LIMPAR_ACIMA_DE = 4096;
+
+    private final Particao[] particoes = new Particao[PARTICOES];
+
+    @Value("${login.limite.cpf.capacidade:5}")
+    private int capacidadeCpf;
+
+    @Value("${login.limite.cpf.por-minuto:5}")
+    private double porMinutoCpf;
+
+    @Value("${login.limite.ip.capacidade:30}")
+    private int capacidadeIp;
+
+    @Value("${login.limite.ip.por-minuto:60}")
+    private double porMinutoIp;
+
+    private static final class Particao {
+        final ReentrantLock trava = new ReentrantLock();
+        final Map<String, Balde> baldes = new HashMap<>();
+    }
+
+    private static final class Balde {
+        double fichas;
+        long ultimaRecarga;
+
+        Balde(double fichas, long agora) {
+            this.fichas = fichas;
+            this.ultimaRecarga = agora;
+        }
+
+        void recarregar(long agora, double capacidade, double porNano) {
+            fichas = Math.min(capacidade, fichas + (agora - ultimaRecarga) * porNano);
+            ultimaRecarga = agora;
+        }
+    }
+
+    public LoginThrottle() {
+        for (int i = 0; i < PARTICOES; i++) particoes[i] = new Particao();
+    }
+
+    /** Consome uma tentativa de cpf e de ip, ou lança 429 LOGIN_BLOQUEADO com o tempo de espera. */
+    public void consumir(String cpf, String ip) {
+        long agora = System.nanoTime();
+        String chaveCpf = "cpf:" + cpf, chaveIp = "ip:" + ip;
+        int ia = indice(chaveCpf), ib = indice(chaveIp);
+        Particao a = particoes[ia], b = particoes[ib];
+        // Trava sempre a partição de menor índice primeiro: duas tentativas cruzadas não se bloqueiam
+        Particao primeira = particoes[Math.min(ia, ib)];
+        Particao segunda = particoes[Math.max(ia, ib)];
+        primeira.trava.lock();
+        if (segunda != primeira) segunda.trava.lock();
+        try {
+            Balde bc = balde(a, chaveCpf, capacidadeCpf, porMinutoCpf, agora);
+            Balde bi = balde(b, chaveIp, capacidadeIp, porMinutoIp, agora);
+            if (bc.fichas < 1.0 || bi.fichas < 1.0) {
+                double espera = Math.max(espera(bc, porMinutoCpf), espera(bi, porMinutoIp));
+                throw new LimiteExcedidoException(HttpStatus.TOO_MANY_REQUESTS, "LOGIN_BLOQUEADO",
+                        "Muitas tentativas de login; aguarde antes de tentar de novo", (long) Math.ceil(espera));
+            }
+            bc.fichas -= 1.0;
+            bi.fichas -= 1.0;
+        } finally {
+            if (segunda != primeira) segunda.trava.unlock();
+            primeira.trava.unlock();
+        }
+    }
+
+    /** Login bem-sucedido devolve as fichas do CPF; o balde do IP segue como está. */
+    public void sucesso(String cpf) {
+        String chave = "cpf:" + cpf;
+        Particao p = particoes[indice(chave)];
+        p.trava.lock();
+        try {
+            p.baldes.remove(chave);
+        } finally {
+            p.trava.unlock();
+        }
+    }
+
+    private Balde balde(Particao p, String chave, double capacidade, double porMinuto, long agora) {
+        double porNano = porMinuto / 60e9;
+        Balde b = p.baldes.get(chave);
+        if (b == null) {
+            if (p.baldes.size() >= LIMPAR_ACIMA_DE) limpar(p, agora);
+            b = new Balde(capacidade, agora);
+            p.baldes.put(chave, b);
+        } else {
+            b.recarregar(agora, capacidade, porNano);
+        }
+        return b;
+    }
+
+    private void limpar(Particao p, long agora) {
+        for (Iterator<Map.Entry<String, Balde>> it = p.baldes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Balde> e = it.next();
+            boolean cpf = e.getKey().startsWith("cpf:");
+            double capacidade = cpf ? capacidadeCpf : capacidadeIp;
+            e.getValue().recarregar(agora, capacidade, (cpf ? porMinutoCpf : porMinutoIp) / 60e9);
+            if (e.getValue().fichas >= capacidade) it.remove();
+        }
+    }
+
+    // Segundos até o balde ter uma ficha inteira
+    private static double espera(Balde b, double porMinuto) {
+        return b.fichas >= 1.0 ? 0.0 : (1.0 - b.fichas) * 60.0 / porMinuto;
+    }
+
+    private static int indice(String chave) {
+        return (chave.hashCode() & 0x7fffffff) % PARTICOES;
+    }
+}
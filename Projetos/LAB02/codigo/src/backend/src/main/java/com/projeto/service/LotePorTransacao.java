@@ -0,0 +1,57 @@
+package com.projeto.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Junta os itens adicionados numa transação e grava todos de uma vez no beforeCommit, ainda dentro
+ * dela: a mudança e a gravação entram juntas ou nenhuma entra. Depois do commit a mesma lista vai
+ * para aoConfirmar. Fora de transação a escrita de quem chamou já foi confirmada, então grava e
+ * confirma na hora, só aquele item.
+ *
+ * A lista da transação fica presa ao TransactionSynchronizationManager com a própria instância
+ * como chave, e é solta no afterCompletion, com commit ou rollback.
+ */
+final class LotePorTransacao<T> {
+
+    private final Consumer<List<T>> gravar;
+    private final Consumer<List<T>> aoConfirmar;
+
+    LotePorTransacao(Consumer<List<T>> gravar, Consumer<List<T>> aoConfirmar) {
+        this.gravar = gravar;
+        this.aoConfirmar = aoConfirmar;
+    }
+
+    void adicionar(T item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<T> sozinho = List.of(item);
+            gravar.accept(sozinho);
+            aoConfirmar.accept(sozinho);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<T> pendentes = (List<T>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            List<T> daTransacao = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    gravar.accept(daTransacao);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LotePorTransacao.this);
+                    if (status == STATUS_COMMITTED) aoConfirmar.accept(daTransacao);
+                }
+            });
+            pendentes = daTransacao;
+        }
+        pendentes.add(item);
+    }
+}
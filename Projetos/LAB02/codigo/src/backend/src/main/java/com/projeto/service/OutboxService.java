@@ -0,0 +1,277 @@
+package com.projeto.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projeto.event.EventoOutbox;
+import com.projeto.event.PedidoEvento;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Outbox das mudanças de pedido. Os PedidoEvento publicados pelo PedidoService são gravados na
+ * tabela pedido_outbox antes do commit da mesma transação (um insert em lote por transação):
+ * a mudança e o evento entram juntos ou nenhum entra. A requisição não espera entrega nenhuma.
+ *
+ * Cada destino de outbox.destinos tem um relay numa thread própria que lê as linhas dele em ordem
+ * de id, entrega o lote e só então apaga. Falha repete o lote com espera crescente, sem deixar o
+ * destino passar à frente: a ordem por pedido se mantém, e um destino parado não atrasa os outros.
+ * O relay puxa um lote por vez, então um destino lento acumula linhas no banco, não em memória.
+ * Entre instâncias, uma concessão em pedido_outbox_relay deixa um relay ativo por destino
+ * (outbox.concessao-ms deve passar do tempo máximo de entrega de um lote).
+ *
+ * Métricas por destino: outbox.pendentes, outbox.atraso (idade da linha mais antiga não entregue),
+ * outbox.latencia (mudança até entrega), outbox.entregues e outbox.falhas.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final String INSERIR = "insert into pedido_outbox (destino, pedido_id, tipo, payload, criado_em) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private List<DestinoOutbox> disponiveis;
+
+    @Value("${outbox.destinos:eventos}")
+    private List<String> nomesDestinos;
+
+    @Value("${outbox.lote:100}")
+    private int tamanhoLote;
+
+    @Value("${outbox.intervalo-ms:500}")
+    private long intervaloMs;
+
+    @Value("${outbox.espera-maxima-ms:60000}")
+    private long esperaMaximaMs;
+
+    @Value("${outbox.concessao-ms:30000}")
+    private long concessaoMs;
+
+    private final String instancia = UUID.randomUUID().toString();
+    private final List<Relay> relays = new ArrayList<>();
+    private final LotePorTransacao<PedidoEvento> lote = new LotePorTransacao<>(this::gravar, eventos -> acordarRelays());
+
+    @PostConstruct
+    void iniciar() {
+        Map<String, DestinoOutbox> porNome = disponiveis.stream()
+                .collect(Collectors.toMap(DestinoOutbox::nome, Function.identity()));
+        for (String nome : nomesDestinos) {
+            if (nome.isBlank()) continue;
+            DestinoOutbox destino = porNome.get(nome.trim());
+            if (destino == null) {
+                throw new IllegalStateException("outbox.destinos: destino desconhecido '" + nome + "' (disponíveis: " + porNome.keySet() + ")");
+            }
+            relays.add(new Relay(destino));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarRelays() {
+        relays.forEach(Relay::iniciar);
+        if (!relays.isEmpty()) log.info("[Outbox] relays ativos: {}", relays.stream().map(r -> r.nome).toList());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        relays.forEach(Relay::parar);
+    }
+
+    /** Síncrono, dentro da transação de quem publicou: junta os eventos e grava no beforeCommit. */
+    @EventListener
+    public void aoAlterarPedido(PedidoEvento evento) {
+        if (relays.isEmpty() || evento.pedido() == null || evento.pedido().id() == null) return;
+        lote.adicionar(evento);
+    }
+
+    private void gravar(List<PedidoEvento> eventos) {
+        List<Object[]> linhas = new ArrayList<>(eventos.size() * relays.size());
+        for (PedidoEvento e : eventos) {
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(e);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("PedidoEvento não serializável", ex);
+            }
+            Timestamp criadoEm = Timestamp.from(e.ocorridoEm());
+            for (Relay r : relays) {
+                linhas.add(new Object[] { r.nome, e.pedido().id(), e.tipo().name(), payload, criadoEm });
+            }
+        }
+        jdbc.batchUpdate(INSERIR, linhas);
+    }
+
+    private void acordarRelays() {
+        for (Relay r : relays) r.acordar.release();
+    }
+
+    private final class Relay implements Runnable {
+        final DestinoOutbox destino;
+        final String nome;
+        final Semaphore acordar = new Semaphore(0);
+        final Counter entregues;
+        final Counter falhas;
+        final Timer latencia;
+        volatile long pendentes;
+        volatile Instant maisAntiga; // null = nada pendente
+        volatile boolean ativo;
+        Thread thread;
+
+        Relay(DestinoOutbox destino) {
+            this.destino = destino;
+            this.nome = destino.nome();
+            entregues = registry.counter("outbox.entregues", "destino", nome);
+            falhas = registry.counter("outbox.falhas", "destino", nome);
+            latencia = Timer.builder("outbox.latencia")
+                    .description("Da mudança no pedido até a entrega no destino")
+                    .tag("destino", nome)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            Gauge.builder("outbox.pendentes", this, r -> r.pendentes)
+                    .description("Eventos gravados e ainda não entregues")
+                    .tag("destino", nome)
+                    .register(registry);
+            Gauge.builder("outbox.atraso", this, Relay::atrasoSegundos)
+                    .description("Idade do evento mais antigo ainda não entregue")
+                    .tag("destino", nome)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+
+        double atrasoSegundos() {
+            Instant m = maisAntiga;
+            return m == null ? 0 : Math.max(0, Duration.between(m, Instant.now()).toMillis() / 1000.0);
+        }
+
+        void iniciar() {
+            ativo = true;
+            thread = new Thread(this, "outbox-" + nome);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void parar() {
+            ativo = false;
+            if (thread == null) return;
+            thread.interrupt();
+            try {
+                thread.join(5000);
+                jdbc.update("update pedido_outbox_relay set valido_ate = ? where destino = ? and dono = ?",
+                        Timestamp.from(Instant.EPOCH), nome, instancia);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.debug("[Outbox] concessão de {} não liberada: {}", nome, e.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            long espera = 0;
+            while (ativo) {
+                boolean cheio = false;
+                try {
+                    cheio = concessao() && ciclo();
+                    espera = 0;
+                } catch (Exception e) {
+                    if (!ativo) return;
+                    falhas.increment();
+                    espera = espera == 0 ? Math.max(intervaloMs, 100) : Math.min(espera * 2, esperaMaximaMs);
+                    log.warn("[Outbox] destino {}: entrega falhou, nova tentativa em {} ms: {}", nome, espera, e.toString());
+                }
+                try {
+                    if (espera > 0) {
+                        Thread.sleep(espera); // sem atalho por commit novo: o destino está com problema
+                    } else if (!cheio) {
+                        acordar.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                        acordar.drainPermits();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        // Renova a concessão deste destino; false = outra instância está entregando
+        private boolean concessao() {
+            Instant agora = Instant.now();
+            Timestamp ate = Timestamp.from(agora.plusMillis(concessaoMs));
+            if (jdbc.update("update pedido_outbox_relay set dono = ?, valido_ate = ? where destino = ? and (dono = ? or valido_ate < ?)",
+                    instancia, ate, nome, instancia, Timestamp.from(agora)) == 1) {
+                return true;
+            }
+            try {
+                jdbc.update("insert into pedido_outbox_relay (destino, dono, valido_ate) values (?, ?, ?)", nome, instancia, ate);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+
+        // Entrega um lote; true se ele veio cheio (há mais para ler agora)
+        private boolean ciclo() throws Exception {
+            List<EventoOutbox> lote = jdbc.query(
+                    "select id, pedido_id, tipo, payload, criado_em from pedido_outbox where destino = ? order by id limit ?",
+                    (rs, i) -> new EventoOutbox(rs.getLong("id"), rs.getLong("pedido_id"),
+                            PedidoEvento.Tipo.valueOf(rs.getString("tipo")), rs.getString("payload"),
+                            rs.getTimestamp("criado_em").toInstant()),
+                    nome, tamanhoLote);
+            if (lote.isEmpty()) {
+                pendentes = 0;
+                maisAntiga = null;
+                return false;
+            }
+            boolean cheio = lote.size() == tamanhoLote;
+            pendentes = cheio
+                    ? jdbc.queryForObject("select count(*) from pedido_outbox where destino = ?", Long.class, nome)
+                    : lote.size();
+            maisAntiga = lote.get(0).criadoEm();
+
+            destino.entregar(lote);
+
+            jdbc.batchUpdate("delete from pedido_outbox where id = ?",
+                    lote.stream().map(e -> new Object[] { e.id() }).toList());
+            Instant agora = Instant.now();
+            for (EventoOutbox e : lote) latencia.record(Duration.between(e.criadoEm(), agora));
+            entregues.increment(lote.size());
+            pendentes = Math.max(0, pendentes - lote.size());
+            if (!cheio) maisAntiga = null;
+            return cheio;
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package com.projeto.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.projeto.dto.PaginaCursor;
+import com.projeto.dto.PedidoDetalhe;
+import com.projeto.dto.PedidoResumo;
+import com.projeto.dto.ResultadoLote;
+import com.projeto.event.PedidoEvento;
 import com.projeto.model.Automovel;
 import com.projeto.model.Pedido;
 import com.projeto.model.Usuario;
@@ -20,11 +36,18 @@ import com.projeto.repository.AutomovelRepository;
 import com.projeto.repository.PedidoRepository;
 import com.projeto.repository.UsuarioRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 @Service
 public class PedidoService {
 
     private static final Logger log = LoggerFactory.getLogger(PedidoService.class);
 
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+    public static final int LOTE_MAXIMO = 10_000;
+
     @Autowired
     private PedidoRepository pedidoRepository;
 
@@ -37,6 +60,18 @@ public class PedidoService {
     @Autowired
     private Environment env;
 
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private CoalescedorLeituras coalescedor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanhoLoteJdbc;
+
     @Transactional
     public Pedido salvar(Pedido pedido) {
         boolean isDev = java.util.Arrays.asList(env.getActiveProfiles()).contains("dev");
@@ -85,41 +120,233 @@ public class PedidoService {
             pedido.setAutomovel(automovel);
         }
 
+        // POST com id de um pedido existente é uma atualização: vale a mesma tabela de transições do PATCH
+        Pedido.StatusPedido anterior = pedido.getId() != null
+                ? pedidoRepository.buscarStatus(pedido.getId()).orElse(null) : null;
+        boolean novo = anterior == null;
+        // Sem versao o merge cairia em persist e daria conflito; quem não manda versão sobrescreve o que está gravado
+        if (!novo && pedido.getVersao() == null) {
+            pedido.setVersao(pedidoRepository.buscarVersao(pedido.getId()).orElse(null));
+        }
+
         // Defaults
         if (pedido.getStatus() == null) {
-            pedido.setStatus(Pedido.StatusPedido.Em_analise);
+            pedido.setStatus(novo ? Pedido.StatusPedido.Em_analise : anterior);
         }
         if (pedido.getDataPedido() == null) {
             pedido.setDataPedido(new Date());
         }
+        validarTransicao(pedido.getId(), anterior, pedido.getStatus());
 
         Pedido salvo = pedidoRepository.save(pedido);
+        coalescedor.invalidar("pedidos");
         log.debug("[PedidoService] Pedido salvo id={} status={} data={}", salvo.getId(), salvo.getStatus(), salvo.getDataPedido());
+        if (novo) {
+            eventos.publishEvent(PedidoEvento.criado(salvo));
+        } else if (salvo.getStatus() != anterior) {
+            eventos.publishEvent(PedidoEvento.statusAlterado(salvo, anterior));
+        }
         return salvo;
     }
 
+    /**
+     * Ingestão em lote: resolve todos os clientes e automóveis referenciados com um findAllById
+     * cada, valida linha a linha e insere os válidos em lotes JDBC (flush/clear a cada lote).
+     * Linhas inválidas não interrompem as demais; o resultado traz o desfecho de cada uma.
+     */
+    @Transactional
+    public ResultadoLote salvarLote(List<Pedido> pedidos) {
+        Set<Long> clienteIds = new HashSet<>();
+        Set<Long> automovelIds = new HashSet<>();
+        for (Pedido p : pedidos) {
+            if (p != null && p.getCliente() != null && p.getCliente().getId() != null) clienteIds.add(p.getCliente().getId());
+            if (p != null && p.getAutomovel() != null && p.getAutomovel().getId() != null) automovelIds.add(p.getAutomovel().getId());
+        }
+        Map<Long, Usuario> clientes = usuarioRepository.findAllById(clienteIds).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        Map<Long, Automovel> automoveis = automovelRepository.findAllById(automovelIds).stream()
+                .collect(Collectors.toMap(Automovel::getId, Function.identity()));
+
+        ResultadoLote.Item[] itens = new ResultadoLote.Item[pedidos.size()];
+        List<Pedido> validos = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        Date agora = new Date();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pedido p = pedidos.get(i);
+            Long clienteId = p != null && p.getCliente() != null ? p.getCliente().getId() : null;
+            Long automovelId = p != null && p.getAutomovel() != null ? p.getAutomovel().getId() : null;
+            if (clienteId == null || automovelId == null) {
+                itens[i] = ResultadoLote.Item.erro(i, "cliente.id e automovel.id são obrigatórios");
+            } else if (!clientes.containsKey(clienteId)) {
+                itens[i] = ResultadoLote.Item.erro(i, "Cliente não encontrado: id=" + clienteId);
+            } else if (!automoveis.containsKey(automovelId)) {
+                itens[i] = ResultadoLote.Item.erro(i, "Automóvel não encontrado: id=" + automovelId);
+            } else {
+                p.setId(null);
+                p.setVersao(null);
+                p.setCliente(clientes.get(clienteId));
+                p.setAutomovel(automoveis.get(automovelId));
+                if (p.getStatus() == null) p.setStatus(Pedido.StatusPedido.Em_analise);
+                if (p.getDataPedido() == null) p.setDataPedido(agora);
+                validos.add(p);
+                indices.add(i);
+            }
+        }
+
+        for (int inicio = 0; inicio < validos.size(); inicio += tamanhoLoteJdbc) {
+            int fim = Math.min(inicio + tamanhoLoteJdbc, validos.size());
+            for (int j = inicio; j < fim; j++) {
+                entityManager.persist(validos.get(j));
+            }
+            entityManager.flush();
+            for (int j = inicio; j < fim; j++) {
+                Pedido salvo = validos.get(j);
+                itens[indices.get(j)] = ResultadoLote.Item.criado(indices.get(j), salvo.getId());
+                eventos.publishEvent(PedidoEvento.criado(salvo));
+                entityManager.detach(salvo);
+            }
+        }
+        coalescedor.invalidar("pedidos");
+        log.debug("[PedidoService] salvarLote: {} recebidos, {} criados", pedidos.size(), validos.size());
+        return new ResultadoLote(pedidos.size(), validos.size(), pedidos.size() - validos.size(), List.of(itens));
+    }
+
     public List<Pedido> listarTodos() {
         List<Pedido> todos = pedidoRepository.findAll();
         log.debug("[PedidoService] listarTodos retornou {} registros", todos.size());
         return todos;
     }
 
+    // Projeções: uma única consulta com join, sem entidades gerenciadas nem coleções lazy
+    public List<PedidoResumo> listarResumos(Long clienteId) {
+        return coalescedor.executar("pedidos.resumos", clienteId, () -> clienteId == null
+                ? pedidoRepository.listarResumos() : pedidoRepository.listarResumosPorCliente(clienteId));
+    }
+
+    public List<PedidoDetalhe> listarDetalhes(Long clienteId) {
+        return coalescedor.executar("pedidos.detalhes", clienteId, () -> clienteId == null
+                ? pedidoRepository.listarDetalhes() : pedidoRepository.listarDetalhesPorCliente(clienteId));
+    }
+
+    /**
+     * Paginação keyset: ordena por id decrescente (mais recentes primeiro) e usa o último id
+     * da página como cursor, então o custo por página não depende do offset.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<Pedido> listarPagina(Pedido.StatusPedido status, Long clienteId,
+                                             LocalDate de, LocalDate ate, Long cursor, Integer limite) {
+        int tamanho = limite == null ? LIMITE_PADRAO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+
+        Specification<Pedido> filtro = (root, query, cb) -> {
+            List<jakarta.persistence.criteria.Predicate> predicados = new ArrayList<>();
+            if (status != null) predicados.add(cb.equal(root.get("status"), status));
+            if (clienteId != null) predicados.add(cb.equal(root.get("cliente").get("id"), clienteId));
+            if (de != null) predicados.add(cb.greaterThanOrEqualTo(root.<Date>get("dataPedido"), java.sql.Date.valueOf(de)));
+            if (ate != null) predicados.add(cb.lessThanOrEqualTo(root.<Date>get("dataPedido"), java.sql.Date.valueOf(ate)));
+            if (cursor != null) predicados.add(cb.lessThan(root.get("id"), cursor));
+            return cb.and(predicados.toArray(new jakarta.persistence.criteria.Predicate[0]));
+        };
+
+        // Busca um registro a mais para saber se existe próxima página sem precisar de count(*)
+        List<Pedido> encontrados = pedidoRepository.findBy(filtro, q -> q
+                .sortBy(Sort.by(Sort.Direction.DESC, "id"))
+                .project("cliente", "automovel")
+                .limit(tamanho + 1)
+                .all());
+
+        String proximo = null;
+        if (encontrados.size() > tamanho) {
+            encontrados = new ArrayList<>(encontrados.subList(0, tamanho));
+            proximo = String.valueOf(encontrados.get(tamanho - 1).getId());
+        }
+        log.debug("[PedidoService] listarPagina retornou {} registros, nextCursor={}", encontrados.size(), proximo);
+        return new PaginaCursor<>(encontrados, proximo);
+    }
+
     public Optional<Pedido> buscarPorId(Long id) {
         return pedidoRepository.findById(id);
     }
 
+    @Transactional
     public Optional<Pedido> atualizar(Long id, Pedido pedidoAtualizado) {
         return pedidoRepository.findById(id)
             .map(pedidoExistente -> {
+                Pedido.StatusPedido statusAnterior = pedidoExistente.getStatus();
+                Long automovelAnterior = pedidoExistente.getAutomovel() != null ? pedidoExistente.getAutomovel().getId() : null;
+                // Sem status no corpo, mantém o atual; com status, só pelas transições permitidas
+                Pedido.StatusPedido novoStatus = pedidoAtualizado.getStatus() != null ? pedidoAtualizado.getStatus() : statusAnterior;
+                validarTransicao(id, statusAnterior, novoStatus);
                 pedidoExistente.setAutomovel(pedidoAtualizado.getAutomovel());
-                pedidoExistente.setStatus(pedidoAtualizado.getStatus());
-                return pedidoRepository.save(pedidoExistente);
+                pedidoExistente.setStatus(novoStatus);
+                Pedido salvo = pedidoRepository.save(pedidoExistente);
+                coalescedor.invalidar("pedidos");
+                if (salvo.getStatus() != statusAnterior) {
+                    eventos.publishEvent(PedidoEvento.statusAlterado(salvo, statusAnterior));
+                }
+                Long automovelAtual = salvo.getAutomovel() != null ? salvo.getAutomovel().getId() : null;
+                if (!java.util.Objects.equals(automovelAtual, automovelAnterior)) {
+                    eventos.publishEvent(PedidoEvento.automovelAlterado(salvo, automovelAnterior));
+                }
+                return salvo;
             });
     }
 
+    /**
+     * Usado pelo PATCH /pedidos/{id}/status. Lê o pedido (com cliente/automóvel, para a resposta)
+     * e grava com um único UPDATE condicional em id + status + versão. Se outra requisição mudou
+     * o pedido entre a leitura e a escrita, nenhuma linha é afetada e a troca é recusada com 409.
+     *
+     * @param versaoEsperada versão vista pelo cliente; null usa a versão lida agora
+     */
+    @Transactional
+    public Optional<Pedido> atualizarStatus(Long id, Pedido.StatusPedido novoStatus, Long versaoEsperada) {
+        Optional<Pedido> encontrado = pedidoRepository.buscarComRelacionamentos(id);
+        if (encontrado.isEmpty()) return Optional.empty();
+        Pedido pedido = encontrado.get();
+        Pedido.StatusPedido anterior = pedido.getStatus();
+        long versao = versaoEsperada != null ? versaoEsperada : pedido.getVersao();
+
+        if (versaoEsperada != null && !versaoEsperada.equals(pedido.getVersao())) {
+            throw new ConflitoException("VERSAO_DESATUALIZADA",
+                    "Pedido " + id + " está na versão " + pedido.getVersao() + ", esperada " + versaoEsperada);
+        }
+        if (anterior == novoStatus) {
+            return Optional.of(pedido); // repetição da mesma decisão: idempotente
+        }
+        if (anterior == null || !anterior.podeIrPara(novoStatus)) {
+            throw new ConflitoException("TRANSICAO_INVALIDA",
+                    "Transição de " + anterior + " para " + novoStatus + " não permitida");
+        }
+
+        int alterados = pedidoRepository.transicionarStatus(id, anterior, versao, novoStatus);
+        if (alterados == 0) {
+            throw new ConflitoException("CONFLITO_CONCORRENCIA",
+                    "Pedido " + id + " foi alterado por outra requisição");
+        }
+        // O UPDATE limpou o contexto de persistência; a instância lida está destacada e só reflete a escrita
+        pedido.setStatus(novoStatus);
+        pedido.setVersao(versao + 1);
+        coalescedor.invalidar("pedidos");
+        eventos.publishEvent(PedidoEvento.statusAlterado(pedido, anterior));
+        return Optional.of(pedido);
+    }
+
+    // Mesma regra do PATCH /pedidos/{id}/status para PUT e POST com id; manter o status não é transição
+    private void validarTransicao(Long id, Pedido.StatusPedido anterior, Pedido.StatusPedido novoStatus) {
+        if (anterior == null || anterior == novoStatus) return;
+        if (!anterior.podeIrPara(novoStatus)) {
+            throw new ConflitoException("TRANSICAO_INVALIDA",
+                    "Pedido " + id + ": transição de " + anterior + " para " + novoStatus + " não permitida");
+        }
+    }
+
+    @Transactional
     public boolean deletar(Long id) {
-        if (pedidoRepository.existsById(id)) {
-            pedidoRepository.deleteById(id);
+        Optional<Pedido> existente = pedidoRepository.findById(id);
+        if (existente.isPresent()) {
+            pedidoRepository.delete(existente.get());
+            coalescedor.invalidar("pedidos");
+            eventos.publishEvent(PedidoEvento.removido(existente.get()));
             return true;
         }
         return false;
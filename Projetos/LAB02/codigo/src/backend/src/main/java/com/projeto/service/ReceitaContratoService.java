@@ -0,0 +1,476 @@
+package com.projeto.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.projeto.dto.RelatorioReceita;
+import com.projeto.event.ContratoValorEvento;
+import com.projeto.model.Contrato;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Receita de contratos (Contrato.valor pela dataInicio) pré-agregada em memória: quantidade, soma,
+ * mínimo e máximo por dia e por mês, no total, por TipoContrato e por automóvel. Cada combinação
+ * granularidade x dimensão é uma TabelaAgregados (chave long, arrays primitivos).
+ *
+ * Os ContratoValorEvento do ContratoService entram como deltas depois do commit. Soma e quantidade
+ * se desfazem por subtração; quando sai o contrato que era o mínimo ou o máximo do período, só os
+ * extremos daquele período são relidos do banco. Contratos sem dataInicio ou sem valor ficam de fora.
+ *
+ * A cada relatorio.receita.persistir-ms os períodos alterados são copiados para contrato_receita.
+ * Na subida, se a última instância parou depois de persistir tudo (contrato_receita_estado),
+ * a memória sai dessa tabela; senão, de um GROUP BY em contrato. Eventos que chegam durante a
+ * carga podem ou não estar na leitura: depois da troca, os períodos deles são relidos inteiros.
+ *
+ * O relatório custa pelo número de períodos pedidos (por automóvel, pelo de períodos com
+ * contrato em memória), nunca pelo de contratos.
+ */
+@Service
+public class ReceitaContratoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceitaContratoService.class);
+
+    public enum Granularidade { DIA, MES }
+
+    public enum Dimensao { TOTAL, TIPO, AUTOMOVEL }
+
+    public static final int MAXIMO_PERIODOS = 3660;
+
+    // Rodadas de releitura dos períodos alterados durante a carga
+    private static final int RELEITURAS = 3;
+
+    private static final int BITS_AUTOMOVEL = 43;
+    private static final long MASCARA_AUTOMOVEL = (1L << BITS_AUTOMOVEL) - 1;
+    private static final long SEM_CHAVE = Long.MIN_VALUE;
+    private static final Contrato.TipoContrato[] TIPOS = Contrato.TipoContrato.values();
+
+    private static final String REMOVER = "delete from contrato_receita where granularidade = ? and dimensao = ? and chave = ?";
+    private static final String INSERIR = "insert into contrato_receita (granularidade, dimensao, chave, periodo,"
+            + " tipo_contrato, automovel, quantidade, soma_centavos, minimo_centavos, maximo_centavos)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transacao;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${relatorio.receita.persistir-ms:60000}")
+    private long persistirMs;
+
+    // Período cujo mínimo ou máximo saiu e precisa ser relido
+    private record Recalculo(Granularidade granularidade, Dimensao dimensao) {}
+
+    // Período de um evento recebido durante a carga, relido inteiro depois da troca
+    private record Periodo(Granularidade granularidade, Dimensao dimensao, long chave, LocalDate dia,
+            Contrato.TipoContrato tipo, Long automovelId) {}
+
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private TabelaAgregados[][] tabelas = novasTabelas();
+
+    // Uma carga por vez
+    private final ReentrantLock carga = new ReentrantLock();
+
+    // Eventos recebidos desde o início da carga em andamento (null fora de carga); com a trava de escrita
+    private List<ContratoValorEvento> duranteCarga;
+    private ScheduledExecutorService persistencia;
+
+    @PostConstruct
+    void registrarMetricas() {
+        Gauge.builder("receita.agregados", this, ReceitaContratoService::agregados)
+                .description("Períodos x dimensão com receita em memória")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        carregar();
+        persistencia = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "receita-persistencia");
+            t.setDaemon(true);
+            return t;
+        });
+        persistencia.scheduleWithFixedDelay(this::persistirComLog, persistirMs, persistirMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (persistencia == null) return;
+        persistencia.shutdownNow();
+        try {
+            persistir();
+            jdbc.update("update contrato_receita_estado set completo = true where id = 1");
+        } catch (RuntimeException e) {
+            log.warn("[Receita] persistência final falhou; a próxima subida reagrega: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Monta a memória da tabela contrato_receita (se completa) ou reagregando contrato. Os
+     * eventos que chegam enquanto isso continuam valendo: os períodos deles são relidos do
+     * banco depois da troca, até uma rodada sem evento novo no meio.
+     */
+    public void carregar() {
+        carga.lock();
+        try {
+            trava.writeLock().lock();
+            try {
+                duranteCarga = new ArrayList<>();
+            } finally {
+                trava.writeLock().unlock();
+            }
+            try {
+                List<ContratoValorEvento> pendentes = ler();
+                for (int rodada = 1; !pendentes.isEmpty(); rodada++) {
+                    reler(pendentes);
+                    pendentes = rodada < RELEITURAS ? retirarGuardados() : List.of();
+                }
+            } finally {
+                // Em falha a memória fica como está: os eventos já foram aplicados nela como deltas
+                pararDeGuardar();
+            }
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    private void pararDeGuardar() {
+        trava.writeLock().lock();
+        try {
+            duranteCarga = null;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private List<ContratoValorEvento> retirarGuardados() {
+        trava.writeLock().lock();
+        try {
+            List<ContratoValorEvento> guardados = duranteCarga;
+            duranteCarga = new ArrayList<>();
+            return guardados;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Lê e troca as tabelas; devolve os eventos recebidos durante a leitura
+    private List<ContratoValorEvento> ler() {
+        long inicio = System.nanoTime();
+        Boolean completo = jdbc.queryForObject("select completo from contrato_receita_estado where id = 1", Boolean.class);
+        TabelaAgregados[][] novas = novasTabelas();
+        if (Boolean.TRUE.equals(completo)) {
+            jdbc.query("select granularidade, dimensao, chave, quantidade, soma_centavos, minimo_centavos, maximo_centavos"
+                    + " from contrato_receita", rs -> {
+                novas[Granularidade.valueOf(rs.getString(1)).ordinal()][Dimensao.valueOf(rs.getString(2)).ordinal()]
+                        .juntar(rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7));
+            });
+            for (TabelaAgregados[] porDimensao : novas) for (TabelaAgregados t : porDimensao) t.retirarSujas();
+        } else {
+            jdbc.query("select data_inicio, tipo_contrato, automovel, count(*), sum(round(valor * 100)), min(valor), max(valor)"
+                    + " from contrato where data_inicio is not null and valor is not null"
+                    + " group by data_inicio, tipo_contrato, automovel", rs -> {
+                LocalDate dia = rs.getDate(1).toLocalDate();
+                String tipo = rs.getString(2);
+                long automovel = rs.getLong(3);
+                Long automovelId = rs.wasNull() ? null : automovel;
+                for (Granularidade g : Granularidade.values()) {
+                    for (Dimensao d : Dimensao.values()) {
+                        long chave = chave(g, d, dia, tipo != null ? Contrato.TipoContrato.valueOf(tipo) : null, automovelId);
+                        if (chave == SEM_CHAVE) continue;
+                        novas[g.ordinal()][d.ordinal()].juntar(chave, rs.getLong(4), rs.getLong(5),
+                                Math.round(rs.getDouble(6) * 100), Math.round(rs.getDouble(7) * 100));
+                    }
+                }
+            });
+            jdbc.update("delete from contrato_receita"); // linhas de períodos que sumiram; tudo é regravado
+        }
+        List<ContratoValorEvento> pendentes;
+        trava.writeLock().lock();
+        try {
+            tabelas = novas;
+            pendentes = duranteCarga;
+            duranteCarga = new ArrayList<>();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        // A partir daqui a memória está à frente da tabela até a persistência final
+        jdbc.update("update contrato_receita_estado set completo = false where id = 1");
+        log.info("[Receita] {} agregados carregados de {} em {} ms ({} eventos durante a carga)", (long) agregados(),
+                Boolean.TRUE.equals(completo) ? "contrato_receita" : "contrato",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), pendentes.size());
+        return pendentes;
+    }
+
+    // Relê do contrato cada período tocado pelos eventos e troca o agregado em memória pelo lido
+    private void reler(List<ContratoValorEvento> eventos) {
+        Map<Recalculo, Map<Long, Periodo>> periodos = new LinkedHashMap<>();
+        for (ContratoValorEvento e : eventos) {
+            LocalDate dia = LocalDate.ofEpochDay(DisponibilidadeService.dia(e.dataInicio()));
+            for (Granularidade g : Granularidade.values()) {
+                for (Dimensao d : Dimensao.values()) {
+                    long chave = chave(g, d, dia, e.tipoContrato(), e.automovelId());
+                    if (chave == SEM_CHAVE) continue;
+                    periodos.computeIfAbsent(new Recalculo(g, d), k -> new LinkedHashMap<>())
+                            .putIfAbsent(chave, new Periodo(g, d, chave, dia, e.tipoContrato(), e.automovelId()));
+                }
+            }
+        }
+        for (Map<Long, Periodo> porChave : periodos.values()) {
+            for (Periodo p : porChave.values()) {
+                List<Object> args = new ArrayList<>();
+                long[] lido = jdbc.queryForObject("select count(*), coalesce(sum(round(valor * 100)), 0), min(valor), max(valor)"
+                        + " from contrato" + filtro(p.granularidade(), p.dimensao(), p.dia(), p.tipo(), p.automovelId(), args),
+                        (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2),
+                                Math.round(rs.getDouble(3) * 100), Math.round(rs.getDouble(4) * 100) }, args.toArray());
+                trava.writeLock().lock();
+                try {
+                    tabelas[p.granularidade().ordinal()][p.dimensao().ordinal()].definir(p.chave(), lido[0], lido[1], lido[2], lido[3]);
+                } finally {
+                    trava.writeLock().unlock();
+                }
+            }
+        }
+        log.info("[Receita] {} eventos recebidos durante a carga: períodos relidos do banco", eventos.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarContrato(ContratoValorEvento evento) {
+        if (evento.dataInicio() == null || evento.valor() == null) return;
+        LocalDate dia = LocalDate.ofEpochDay(DisponibilidadeService.dia(evento.dataInicio()));
+        long centavos = Math.round(evento.valor() * 100);
+        List<Recalculo> recalcular = new ArrayList<>(0);
+        trava.writeLock().lock();
+        try {
+            if (duranteCarga != null) duranteCarga.add(evento);
+            for (Granularidade g : Granularidade.values()) {
+                for (Dimensao d : Dimensao.values()) {
+                    long chave = chave(g, d, dia, evento.tipoContrato(), evento.automovelId());
+                    if (chave == SEM_CHAVE) continue;
+                    TabelaAgregados t = tabelas[g.ordinal()][d.ordinal()];
+                    if (evento.tipo() == ContratoValorEvento.Tipo.ENTRADA) {
+                        t.somar(chave, centavos);
+                    } else if (t.subtrair(chave, centavos)) {
+                        recalcular.add(new Recalculo(g, d));
+                    }
+                }
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+        for (Recalculo r : recalcular) {
+            recalcularExtremos(r.granularidade(), r.dimensao(), dia, evento.tipoContrato(), evento.automovelId());
+        }
+    }
+
+    public RelatorioReceita consultar(Granularidade g, Dimensao d, LocalDate de, LocalDate ate) {
+        long pDe = periodo(g, de);
+        long pAte = periodo(g, ate);
+        if (pAte < pDe) throw new IllegalArgumentException("ate anterior a de");
+        if (pAte - pDe + 1 > MAXIMO_PERIODOS) {
+            throw new IllegalArgumentException("no máximo " + MAXIMO_PERIODOS + " períodos por consulta");
+        }
+        List<RelatorioReceita.Linha> linhas = new ArrayList<>();
+        trava.readLock().lock();
+        try {
+            TabelaAgregados t = tabelas[g.ordinal()][d.ordinal()];
+            switch (d) {
+                case TOTAL -> {
+                    for (long p = pDe; p <= pAte; p++) adicionar(linhas, t, t.buscar(p), g, d);
+                }
+                case TIPO -> {
+                    for (long p = pDe; p <= pAte; p++) {
+                        for (Contrato.TipoContrato tipo : TIPOS) adicionar(linhas, t, t.buscar(p * 4 + tipo.ordinal()), g, d);
+                    }
+                }
+                case AUTOMOVEL -> {
+                    for (int i = 0; i < t.capacidade(); i++) {
+                        if (!t.ocupada(i)) continue;
+                        long p = t.chave(i) >> BITS_AUTOMOVEL;
+                        if (p >= pDe && p <= pAte) adicionar(linhas, t, i, g, d);
+                    }
+                    linhas.sort(Comparator.comparing(RelatorioReceita.Linha::periodo)
+                            .thenComparing(RelatorioReceita.Linha::automovelId));
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        return new RelatorioReceita(g.name().toLowerCase(), d.name().toLowerCase(), de, ate, linhas);
+    }
+
+    /** Copia para contrato_receita os períodos alterados desde a última vez. */
+    public int persistir() {
+        List<Object[]> remover = new ArrayList<>();
+        List<Object[]> inserir = new ArrayList<>();
+        trava.writeLock().lock();
+        try {
+            for (Granularidade g : Granularidade.values()) {
+                for (Dimensao d : Dimensao.values()) {
+                    TabelaAgregados t = tabelas[g.ordinal()][d.ordinal()];
+                    for (int i : t.retirarSujas()) {
+                        long chave = t.chave(i);
+                        remover.add(new Object[] { g.name(), d.name(), chave });
+                        if (t.quantidade(i) == 0) continue;
+                        long p = d == Dimensao.TOTAL ? chave : d == Dimensao.TIPO ? Math.floorDiv(chave, 4) : chave >> BITS_AUTOMOVEL;
+                        inserir.add(new Object[] { g.name(), d.name(), chave, Date.valueOf(primeiroDia(g, p)),
+                                d == Dimensao.TIPO ? TIPOS[(int) Math.floorMod(chave, 4)].name() : null,
+                                d == Dimensao.AUTOMOVEL ? chave & MASCARA_AUTOMOVEL : null,
+                                t.quantidade(i), t.soma(i), t.minimo(i), t.maximo(i) });
+                    }
+                }
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+        if (remover.isEmpty()) return 0;
+        try {
+            transacao.executeWithoutResult(s -> {
+                jdbc.batchUpdate(REMOVER, remover);
+                jdbc.batchUpdate(INSERIR, inserir);
+            });
+        } catch (RuntimeException e) {
+            // Devolve as marcas: a próxima rodada tenta de novo com os valores de então
+            trava.writeLock().lock();
+            try {
+                for (Object[] r : remover) {
+                    tabelas[Granularidade.valueOf((String) r[0]).ordinal()][Dimensao.valueOf((String) r[1]).ordinal()].sujar((long) r[2]);
+                }
+            } finally {
+                trava.writeLock().unlock();
+            }
+            throw e;
+        }
+        return remover.size();
+    }
+
+    private void persistirComLog() {
+        try {
+            int n = persistir();
+            if (n > 0) log.debug("[Receita] {} agregados persistidos", n);
+        } catch (RuntimeException e) {
+            log.warn("[Receita] persistência falhou, nova tentativa em {} ms: {}", persistirMs, e.getMessage());
+        }
+    }
+
+    private void recalcularExtremos(Granularidade g, Dimensao d, LocalDate dia, Contrato.TipoContrato tipo, Long automovelId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "select min(valor), max(valor) from contrato" + filtro(g, d, dia, tipo, automovelId, args);
+        double[] extremos = jdbc.queryForObject(sql, (rs, i) -> {
+            double min = rs.getDouble(1);
+            return rs.wasNull() ? null : new double[] { min, rs.getDouble(2) };
+        }, args.toArray());
+        if (extremos == null) return;
+        trava.writeLock().lock();
+        try {
+            tabelas[g.ordinal()][d.ordinal()].definirExtremos(chave(g, d, dia, tipo, automovelId),
+                    Math.round(extremos[0] * 100), Math.round(extremos[1] * 100));
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Contratos do período de dia na granularidade e na dimensão; preenche args
+    private static String filtro(Granularidade g, Dimensao d, LocalDate dia, Contrato.TipoContrato tipo, Long automovelId,
+                                 List<Object> args) {
+        LocalDate de = g == Granularidade.DIA ? dia : dia.withDayOfMonth(1);
+        LocalDate ate = g == Granularidade.DIA ? dia : dia.withDayOfMonth(dia.lengthOfMonth());
+        StringBuilder sql = new StringBuilder(" where valor is not null and data_inicio between ? and ?");
+        args.add(Date.valueOf(de));
+        args.add(Date.valueOf(ate));
+        if (d == Dimensao.TIPO) {
+            sql.append(" and tipo_contrato = ?");
+            args.add(tipo.name());
+        } else if (d == Dimensao.AUTOMOVEL) {
+            sql.append(" and automovel = ?");
+            args.add(automovelId);
+        }
+        return sql.toString();
+    }
+
+    private static void adicionar(List<RelatorioReceita.Linha> linhas, TabelaAgregados t, int i, Granularidade g, Dimensao d) {
+        if (i < 0 || t.quantidade(i) == 0) return;
+        long chave = t.chave(i);
+        long p = d == Dimensao.TOTAL ? chave : d == Dimensao.TIPO ? Math.floorDiv(chave, 4) : chave >> BITS_AUTOMOVEL;
+        LocalDate dia = primeiroDia(g, p);
+        String periodo = g == Granularidade.DIA ? dia.toString() : dia.toString().substring(0, 7);
+        long q = t.quantidade(i);
+        linhas.add(new RelatorioReceita.Linha(periodo,
+                d == Dimensao.TIPO ? TIPOS[(int) Math.floorMod(chave, 4)].name() : null,
+                d == Dimensao.AUTOMOVEL ? chave & MASCARA_AUTOMOVEL : null,
+                q, t.soma(i) / 100.0, t.minimo(i) / 100.0, t.maximo(i) / 100.0,
+                Amortizacao.centavos(t.soma(i) / 100.0 / q)));
+    }
+
+    // TOTAL: período; TIPO: período * 4 + tipo; AUTOMOVEL: período nos bits altos, id nos 43 baixos
+    private static long chave(Granularidade g, Dimensao d, LocalDate dia, Contrato.TipoContrato tipo, Long automovelId) {
+        long p = periodo(g, dia);
+        return switch (d) {
+            case TOTAL -> p;
+            case TIPO -> tipo == null ? SEM_CHAVE : p * 4 + tipo.ordinal();
+            case AUTOMOVEL -> {
+                if (automovelId == null) yield SEM_CHAVE;
+                if (automovelId < 0 || automovelId > MASCARA_AUTOMOVEL) {
+                    throw new IllegalStateException("id de automóvel fora da faixa da chave: " + automovelId);
+                }
+                yield (p << BITS_AUTOMOVEL) | automovelId;
+            }
+        };
+    }
+
+    private static long periodo(Granularidade g, LocalDate dia) {
+        return g == Granularidade.DIA ? dia.toEpochDay() : dia.getYear() * 12L + dia.getMonthValue() - 1;
+    }
+
+    private static LocalDate primeiroDia(Granularidade g, long periodo) {
+        return g == Granularidade.DIA ? LocalDate.ofEpochDay(periodo)
+                : LocalDate.of((int) Math.floorDiv(periodo, 12), (int) Math.floorMod(periodo, 12) + 1, 1);
+    }
+
+    private double agregados() {
+        trava.readLock().lock();
+        try {
+            long n = 0;
+            for (TabelaAgregados[] porDimensao : tabelas) for (TabelaAgregados t : porDimensao) n += t.tamanho();
+            return n;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private static TabelaAgregados[][] novasTabelas() {
+        TabelaAgregados[][] t = new TabelaAgregados[Granularidade.values().length][Dimensao.values().length];
+        for (TabelaAgregados[] porDimensao : t) {
+            for (int d = 0; d < porDimensao.length; d++) porDimensao[d] = new TabelaAgregados(1024);
+        }
+        return t;
+    }
+}
@@ -1,10 +1,12 @@
 package com.projeto.service;
 
+import com.projeto.event.RendimentoEvento;
 import com.projeto.model.Rendimento;
 import com.projeto.model.Usuario;
 import com.projeto.repository.UsuarioRepository;
 import com.projeto.repository.RendimentoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +21,9 @@ public class RendimentoService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
     public Rendimento salvar(Rendimento rendimento) {
         // Se veio apenas o ID do usuário, carregar entidade gerenciada para evitar TransientPropertyValueException
         if (rendimento.getUsuario() != null && rendimento.getUsuario().getId() != null) {
@@ -27,7 +32,9 @@ public class RendimentoService {
                 .orElseThrow(() -> new IllegalArgumentException("Usuario associado ao rendimento não encontrado: id=" + uid));
             rendimento.setUsuario(managed);
         }
-        return rendimentoRepository.save(rendimento);
+        Rendimento salvo = rendimentoRepository.save(rendimento);
+        eventos.publishEvent(RendimentoEvento.entrada(usuarioId(salvo), salvo.getEmpregador(), salvo.getValor()));
+        return salvo;
     }
 
     public List<Rendimento> listarTodos() {
@@ -39,7 +46,12 @@ public class RendimentoService {
     }
 
     public Optional<Rendimento> atualizar(Long id, Rendimento rendimentoAtualizado) {
-        if (rendimentoRepository.existsById(id)) {
+        Optional<Rendimento> existente = rendimentoRepository.findById(id);
+        if (existente.isPresent()) {
+            Rendimento anterior = existente.get();
+            Long usuarioAnterior = usuarioId(anterior);
+            String empregadorAnterior = anterior.getEmpregador();
+            Double valorAnterior = anterior.getValor();
             rendimentoAtualizado.setId(id);
             if (rendimentoAtualizado.getUsuario() != null && rendimentoAtualizado.getUsuario().getId() != null) {
                 Long uid = rendimentoAtualizado.getUsuario().getId();
@@ -47,16 +59,26 @@ public class RendimentoService {
                         .orElseThrow(() -> new IllegalArgumentException("Usuario associado ao rendimento não encontrado: id=" + uid));
                 rendimentoAtualizado.setUsuario(managed);
             }
-            return Optional.of(rendimentoRepository.save(rendimentoAtualizado));
+            Rendimento salvo = rendimentoRepository.save(rendimentoAtualizado);
+            eventos.publishEvent(RendimentoEvento.saida(usuarioAnterior, empregadorAnterior, valorAnterior));
+            eventos.publishEvent(RendimentoEvento.entrada(usuarioId(salvo), salvo.getEmpregador(), salvo.getValor()));
+            return Optional.of(salvo);
         }
         return Optional.empty();
     }
 
     public boolean deletar(Long id) {
-        if (rendimentoRepository.existsById(id)) {
+        Optional<Rendimento> existente = rendimentoRepository.findById(id);
+        if (existente.isPresent()) {
+            Rendimento r = existente.get();
             rendimentoRepository.deleteById(id);
+            eventos.publishEvent(RendimentoEvento.saida(usuarioId(r), r.getEmpregador(), r.getValor()));
             return true;
         }
         return false;
     }
+
+    private static Long usuarioId(Rendimento r) {
+        return r.getUsuario() == null ? null : r.getUsuario().getId();
+    }
 }
\ No newline at end of file
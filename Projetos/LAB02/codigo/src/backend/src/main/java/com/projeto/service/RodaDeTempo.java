@@ -0,0 +1,158 @@
+package com.projeto.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roda de tempo hierárquica (Varghese e Lauck): agendar, reagendar e cancelar custam O(1)
+ * qualquer que seja o número de prazos pendentes, e avançar um tick só olha uma posição.
+ *
+ * O tempo anda em ticks de tickMs. Cada nível tem 64 posições, e o nível n guarda os prazos
+ * entre 64^n e 64^(n+1) ticks à frente, na posição dada pelos bits do próprio prazo. A cada tick
+ * a posição corrente do nível 0 vence inteira; quando os bits baixos do tick zeram, a posição
+ * corrente dos níveis de cima é redistribuída para baixo. Cada prazo desce no máximo um nível por
+ * vez: com tick de 1 s, seis níveis cobrem mais de dois mil anos.
+ *
+ * Cada posição é uma lista duplamente ligada com sentinela, e um mapa chave -> entrada permite
+ * cancelar sem procurar. Um prazo nunca vence antes da hora e vence no máximo um tick depois.
+ *
+ * Não é thread-safe: quem usa serializa o acesso.
+ */
+public final class RodaDeTempo<T> {
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    private static final int MAXIMO_NIVEIS = 10;
+    private static final long HORIZONTE = (1L << (BITS * MAXIMO_NIVEIS)) - 1; // 2^60 ticks; prazos além disso são truncados
+
+    private static final class Entrada<T> {
+        final T chave;
+        final long prazo; // em ticks
+        Entrada<T> anterior = this;
+        Entrada<T> proxima = this;
+
+        Entrada(T chave, long prazo) {
+            this.chave = chave;
+            this.prazo = prazo;
+        }
+    }
+
+    private final long tickMs;
+    private final Map<T, Entrada<T>> entradas = new HashMap<>();
+    private final List<Entrada<T>[]> niveis = new ArrayList<>();
+    private final Entrada<T> vencidas = new Entrada<>(null, 0);
+    private long tickAtual;
+    private int naRoda; // entradas nos níveis (fora de vencidas)
+
+    public RodaDeTempo(long tickMs, long agoraMs) {
+        if (tickMs <= 0) throw new IllegalArgumentException("tickMs deve ser positivo");
+        this.tickMs = tickMs;
+        this.tickAtual = agoraMs / tickMs;
+        adicionarNivel();
+    }
+
+    /** Agenda a chave para prazoMs, substituindo o prazo anterior dela. Prazo passado vence no próximo avancar. */
+    public void agendar(T chave, long prazoMs) {
+        cancelar(chave);
+        Entrada<T> e = new Entrada<>(chave, Math.min(Math.ceilDiv(prazoMs, tickMs), tickAtual + HORIZONTE));
+        entradas.put(chave, e);
+        inserir(e);
+    }
+
+    public boolean cancelar(T chave) {
+        Entrada<T> e = entradas.remove(chave);
+        if (e == null) return false;
+        if (e.prazo > tickAtual) naRoda--;
+        desligar(e);
+        return true;
+    }
+
+    public boolean contem(T chave) {
+        return entradas.containsKey(chave);
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    /** Avança o relógio até agoraMs e devolve (removendo da roda) as chaves cujo prazo chegou. */
+    public List<T> avancar(long agoraMs) {
+        long alvo = agoraMs / tickMs;
+        while (tickAtual < alvo) {
+            if (naRoda == 0) {
+                tickAtual = alvo; // nada a redistribuir: pula direto
+                break;
+            }
+            tickAtual++;
+            redistribuir();
+            Entrada<T> posicao = niveis.get(0)[(int) (tickAtual & MASCARA)];
+            while (posicao.proxima != posicao) {
+                Entrada<T> e = posicao.proxima;
+                desligar(e);
+                naRoda--;
+                ligar(vencidas, e);
+            }
+        }
+        if (vencidas.proxima == vencidas) return List.of();
+        List<T> saida = new ArrayList<>();
+        while (vencidas.proxima != vencidas) {
+            Entrada<T> e = vencidas.proxima;
+            desligar(e);
+            entradas.remove(e.chave);
+            saida.add(e.chave);
+        }
+        return saida;
+    }
+
+    // Níveis cujos bits do tick zeraram, do mais alto para o mais baixo
+    private void redistribuir() {
+        int n = 1;
+        while (n < niveis.size() && (tickAtual & ((1L << (BITS * n)) - 1)) == 0) n++;
+        for (int nivel = n - 1; nivel >= 1; nivel--) {
+            Entrada<T> posicao = niveis.get(nivel)[(int) ((tickAtual >>> (BITS * nivel)) & MASCARA)];
+            while (posicao.proxima != posicao) {
+                Entrada<T> e = posicao.proxima;
+                desligar(e);
+                naRoda--;
+                inserir(e);
+            }
+        }
+    }
+
+    private void inserir(Entrada<T> e) {
+        long delta = e.prazo - tickAtual;
+        if (delta <= 0) {
+            ligar(vencidas, e);
+            return;
+        }
+        int nivel = 0;
+        while ((delta >>> (BITS * (nivel + 1))) != 0) nivel++;
+        while (niveis.size() <= nivel) adicionarNivel();
+        ligar(niveis.get(nivel)[(int) ((e.prazo >>> (BITS * nivel)) & MASCARA)], e);
+        naRoda++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void adicionarNivel() {
+        Entrada<T>[] posicoes = new Entrada[POSICOES];
+        for (int i = 0; i < POSICOES; i++) posicoes[i] = new Entrada<>(null, 0);
+        niveis.add(posicoes);
+    }
+
+    private static <T> void ligar(Entrada<T> sentinela, Entrada<T> e) {
+        e.anterior = sentinela.anterior;
+        e.proxima = sentinela;
+        sentinela.anterior.proxima = e;
+        sentinela.anterior = e;
+    }
+
+    private static <T> void desligar(Entrada<T> e) {
+        e.anterior.proxima = e.proxima;
+        e.proxima.anterior = e.anterior;
+        e.anterior = e;
+        e.proxima = e;
+    }
+}
@@ -0,0 +1,229 @@
+package com.projeto.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.projeto.dto.PedidoResumo;
+import com.projeto.dto.ScoreCredito;
+import com.projeto.event.RendimentoEvento;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.RendimentoRepository;
+
+/**
+ * Score de crédito a partir da renda do cliente, sem carregar Usuario.rendimentos.
+ *
+ * Mantém por usuário a soma da renda, o número de rendimentos e a soma por empregador
+ * (de onde sai a maior participação). Os agregados são montados com um GROUP BY na subida e
+ * depois só recebem deltas dos RendimentoEvento, aplicados após o commit. Chamar carregar() de
+ * novo reconcilia com o banco sem perder os deltas que chegam durante a consulta.
+ */
+@Service
+public class ScoreCreditoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoreCreditoService.class);
+
+    // Comprometimento máximo da renda com a parcela
+    public static final double COMPROMETIMENTO_MAXIMO = 0.30;
+
+    // Releituras dos usuários que receberam delta durante a consulta anterior
+    private static final int RELEITURAS = 3;
+
+    @Autowired
+    private RendimentoRepository rendimentoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private FilaAprovacaoService filaAprovacaoService;
+
+    private final ConcurrentHashMap<Long, Renda> rendas = new ConcurrentHashMap<>();
+
+    // Deltas e aplicação da carga passam por aqui, um de cada vez
+    private final ReentrantLock trava = new ReentrantLock();
+
+    // Usuários que receberam delta desde o início da consulta em andamento (null fora de carga)
+    private Set<Long> alteradosNaCarga;
+
+    /** Renda agregada de um usuário; imutável, trocada inteira a cada delta. */
+    record Renda(double soma, int quantidade, Map<String, Double> porEmpregador) {
+
+        static final Renda VAZIA = new Renda(0.0, 0, Map.of());
+
+        Renda com(String empregador, double valor, int quantidade) {
+            Map<String, Double> mapa = new HashMap<>(porEmpregador);
+            double atual = mapa.getOrDefault(empregador, 0.0) + valor;
+            if (Math.abs(atual) < 0.005) mapa.remove(empregador);
+            else mapa.put(empregador, atual);
+            return new Renda(soma + valor, Math.max(0, this.quantidade + quantidade), Collections.unmodifiableMap(mapa));
+        }
+
+        double maiorParticipacao() {
+            if (soma <= 0) return 0.0;
+            double maior = 0.0;
+            for (double v : porEmpregador.values()) maior = Math.max(maior, v);
+            return Math.min(1.0, maior / soma);
+        }
+    }
+
+    /**
+     * Lê os agregados do banco e reconcilia: entra a foto, sai quem não está nela, exceto os
+     * usuários que receberam delta durante a consulta (a foto pode ter lido o rendimento antes
+     * ou depois do commit). Esses são relidos sozinhos, até uma releitura sem delta no meio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        Set<Long> alterados = ler(null);
+        for (int i = 0; i < RELEITURAS && !alterados.isEmpty(); i++) {
+            alterados = ler(alterados);
+        }
+        if (!alterados.isEmpty()) {
+            log.warn("[ScoreCredito] {} usuários seguiram recebendo deltas durante a carga e ficaram com eles", alterados.size());
+        }
+        log.info("[ScoreCredito] renda agregada de {} usuários", rendas.size());
+    }
+
+    // usuarioIds null: todos; devolve quem recebeu delta durante a consulta
+    private Set<Long> ler(Set<Long> usuarioIds) {
+        trava.lock();
+        try {
+            alteradosNaCarga = new HashSet<>();
+        } finally {
+            trava.unlock();
+        }
+        Map<Long, Renda> foto = null;
+        Set<Long> alterados;
+        try {
+            foto = agregar(usuarioIds == null
+                    ? rendimentoRepository.somarPorUsuarioEEmpregador()
+                    : rendimentoRepository.somarPorUsuarioEEmpregador(usuarioIds));
+        } finally {
+            alterados = aplicarCarga(foto, usuarioIds);
+        }
+        return alterados;
+    }
+
+    private static Map<Long, Renda> agregar(List<Object[]> linhas) {
+        Map<Long, Renda> novas = new HashMap<>();
+        for (Object[] linha : linhas) {
+            Long usuarioId = (Long) linha[0];
+            double soma = linha[2] == null ? 0.0 : ((Number) linha[2]).doubleValue();
+            int quantidade = ((Number) linha[3]).intValue();
+            novas.merge(usuarioId, Renda.VAZIA.com(chave((String) linha[1]), soma, quantidade),
+                    (a, b) -> a.com(chave((String) linha[1]), soma, quantidade));
+        }
+        return novas;
+    }
+
+    // foto null: a consulta falhou e os agregados ficam como estão
+    private Set<Long> aplicarCarga(Map<Long, Renda> foto, Set<Long> usuarioIds) {
+        trava.lock();
+        try {
+            Set<Long> alterados = alteradosNaCarga;
+            alteradosNaCarga = null;
+            if (foto == null) return alterados;
+            if (usuarioIds == null) {
+                rendas.keySet().removeIf(id -> !foto.containsKey(id) && !alterados.contains(id));
+            } else {
+                for (Long id : usuarioIds) {
+                    if (!foto.containsKey(id) && !alterados.contains(id)) rendas.remove(id);
+                }
+            }
+            foto.forEach((id, r) -> {
+                if (!alterados.contains(id)) rendas.put(id, r);
+            });
+            return alterados;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarRendimento(RendimentoEvento evento) {
+        if (evento.usuarioId() == null) return;
+        double valor = evento.valor() == null ? 0.0 : evento.valor();
+        trava.lock();
+        try {
+            if (alteradosNaCarga != null) alteradosNaCarga.add(evento.usuarioId());
+            switch (evento.tipo()) {
+                case ENTRADA -> rendas.merge(evento.usuarioId(), Renda.VAZIA.com(chave(evento.empregador()), valor, 1),
+                        (a, b) -> a.com(chave(evento.empregador()), valor, 1));
+                case SAIDA -> rendas.computeIfPresent(evento.usuarioId(), (id, r) -> {
+                    Renda nova = r.com(chave(evento.empregador()), -valor, -1);
+                    return nova.quantidade() == 0 ? null : nova;
+                });
+                case USUARIO_REMOVIDO -> rendas.remove(evento.usuarioId());
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public Optional<ScoreCredito> pontuar(Long pedidoId) {
+        List<PedidoResumo> pedidos = pedidoRepository.listarResumosPorIds(List.of(pedidoId));
+        return pedidos.isEmpty() ? Optional.empty() : Optional.of(pontuar(pedidos.get(0)));
+    }
+
+    /**
+     * Pontua vários pedidos com uma consulta só (resumos por id); sem ids, pontua a fila
+     * de aprovação, que já está em memória.
+     */
+    public List<ScoreCredito> pontuar(Collection<Long> pedidoIds) {
+        List<PedidoResumo> pedidos = pedidoIds == null || pedidoIds.isEmpty()
+                ? filaAprovacaoService.resumosPendentes()
+                : pedidoRepository.listarResumosPorIds(pedidoIds);
+        List<ScoreCredito> scores = new ArrayList<>(pedidos.size());
+        for (PedidoResumo p : pedidos) scores.add(pontuar(p));
+        return scores;
+    }
+
+    private ScoreCredito pontuar(PedidoResumo p) {
+        Renda r = p.clienteId() == null ? Renda.VAZIA : rendas.getOrDefault(p.clienteId(), Renda.VAZIA);
+        double renda = Math.max(0.0, r.soma());
+        double participacao = r.maiorParticipacao();
+        int score = score(renda, r.quantidade(), participacao);
+        return new ScoreCredito(p.id(), p.clienteId(), Amortizacao.centavos(renda), r.quantidade(),
+                Math.round(participacao * 1000) / 1000.0, score, risco(score),
+                Amortizacao.centavos(renda * COMPROMETIMENTO_MAXIMO));
+    }
+
+    /**
+     * 0..1000: até 600 pela renda (escala log, R$ 1.500 ~ 200, R$ 15.500 ~ 500), até 150 pelo
+     * número de fontes (50 cada, máx. 3) e até 250 pela diversificação (1 - maior participação).
+     */
+    static int score(double renda, int fontes, double maiorParticipacao) {
+        if (renda <= 0) return 0;
+        double pontos = Math.min(600.0, 100.0 * (Math.log(1.0 + renda / 500.0) / Math.log(2.0)));
+        pontos += 50.0 * Math.min(3, fontes);
+        pontos += 250.0 * (1.0 - maiorParticipacao);
+        return (int) Math.round(Math.min(1000.0, pontos));
+    }
+
+    static String risco(int score) {
+        if (score >= 700) return "BAIXO";
+        if (score >= 500) return "MEDIO";
+        if (score >= 300) return "ALTO";
+        return "MUITO_ALTO";
+    }
+
+    private static String chave(String empregador) {
+        return empregador == null ? "" : empregador.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,146 @@
+package com.projeto.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hash e verificação de senhas com BCrypt.
+ *
+ * Todo cálculo de hash roda num pool próprio e limitado (threads e fila), para que uma rajada
+ * de logins não ocupe as threads do Tomcat: com a fila cheia a chamada falha na hora com 503
+ * em vez de enfileirar sem fim. Linhas antigas com senha em texto puro ainda são aceitas
+ * (comparação em tempo constante, mais um BCrypt descartado para custar o mesmo que as demais)
+ * e o chamador regrava o hash.
+ */
+@Service
+public class SenhaService {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    public enum Verificacao { VALIDA, VALIDA_LEGADA, INVALIDA }
+
+    @Value("${senha.bcrypt.custo:10}")
+    private int custo;
+
+    // 0 = número de CPUs
+    @Value("${senha.hash.threads:0}")
+    private int threads;
+
+    @Value("${senha.hash.fila:64}")
+    private int capacidadeFila;
+
+    @Value("${senha.hash.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    // Hash de uma senha qualquer: CPF inexistente custa o mesmo que senha errada
+    private String hashFicticio;
+
+    private final AtomicLong rejeitadas = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        encoder = new BCryptPasswordEncoder(custo);
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                r -> {
+                    Thread t = new Thread(r, "senha-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        hashFicticio = encoder.encode("senha-ficticia");
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static boolean ehHash(String senha) {
+        return senha != null && BCRYPT.matcher(senha).matches();
+    }
+
+    /**
+     * Hash da senha (null passa direto). Sempre calcula: um texto que já parece BCrypt também é
+     * senha, senão o cliente escolheria o hash e o custo gravados.
+     */
+    public String hash(String senha) {
+        if (senha == null) return null;
+        return executar(() -> encoder.encode(senha));
+    }
+
+    /**
+     * Todo caminho gasta um BCrypt, para que o tempo de resposta não diga se o CPF existe nem se a
+     * conta ainda tem senha legada: armazenada null (CPF não encontrado) e texto puro conferem
+     * contra o hash fictício, cujo resultado é descartado.
+     */
+    public Verificacao verificar(String senha, String armazenada) {
+        if (armazenada != null && !ehHash(armazenada)) {
+            executar(() -> encoder.matches(senha, hashFicticio));
+            boolean igual = MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8),
+                    armazenada.getBytes(StandardCharsets.UTF_8));
+            return igual ? Verificacao.VALIDA_LEGADA : Verificacao.INVALIDA;
+        }
+        String alvo = armazenada != null ? armazenada : hashFicticio;
+        boolean ok = executar(() -> encoder.matches(senha, alvo));
+        return ok && armazenada != null ? Verificacao.VALIDA : Verificacao.INVALIDA;
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarefa);
+        } catch (RejectedExecutionException e) {
+            rejeitadas.incrementAndGet();
+            throw new LimiteExcedidoException(HttpStatus.SERVICE_UNAVAILABLE, "HASH_SATURADO",
+                    "Muitas autenticações simultâneas; tente novamente", 1);
+        }
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new LimiteExcedidoException(HttpStatus.SERVICE_UNAVAILABLE, "HASH_SATURADO",
+                    "Tempo esgotado aguardando verificação de senha", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando hash de senha", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao calcular hash de senha", e.getCause());
+        }
+    }
+
+    public int tamanhoFila() {
+        return executor.getQueue().size();
+    }
+
+    public int ativas() {
+        return executor.getActiveCount();
+    }
+
+    public long rejeitadas() {
+        return rejeitadas.get();
+    }
+}
@@ -0,0 +1,169 @@
+package com.projeto.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.projeto.dto.SimulacaoCredito;
+import com.projeto.model.Credito;
+import com.projeto.service.Amortizacao.Sistema;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Simulação de financiamento (POST /creditos/simular).
+ *
+ * Uma simulação avulsa devolve a tabela inteira. A grade devolve só o resumo de cada cenário,
+ * em arrays paralelos; grades grandes são divididas em um ForkJoinPool próprio, para não
+ * disputar o commonPool com parallel streams do resto da aplicação.
+ */
+@Service
+public class SimulacaoCreditoService {
+
+    public static final int PRAZO_MAXIMO = 600;
+    public static final int CENARIOS_MAXIMOS = 200_000;
+    // Abaixo disso (em parcelas) dividir custa mais que calcular
+    private static final long PARCELAS_POR_TAREFA = 50_000;
+
+    @Autowired
+    private CreditoService creditoService;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+
+    public SimulacaoCredito.Tabela simularCredito(Long creditoId, String sistema) {
+        Credito credito = creditoService.buscarPorId(creditoId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Crédito não encontrado: " + creditoId));
+        return simular(sistema, credito.getValorAprovado(), credito.getPrazoPagamento(), credito.getTaxaJuros());
+    }
+
+    public SimulacaoCredito.Tabela simular(String sistema, Double valor, Integer prazo, Double taxa) {
+        Sistema s = sistema(sistema);
+        validar(valor, prazo, taxa);
+        int n = prazo;
+        double[] parcela = new double[n], amortizacao = new double[n], juros = new double[n], saldo = new double[n];
+        Amortizacao.tabela(s, valor, n, taxa / 100.0, parcela, amortizacao, juros, saldo);
+        double totalPago = 0.0, totalJuros = 0.0;
+        for (int k = 0; k < n; k++) {
+            totalPago += parcela[k];
+            totalJuros += juros[k];
+        }
+        return new SimulacaoCredito.Tabela(s.name(), valor, n, taxa, parcela, amortizacao, juros, saldo,
+                Amortizacao.centavos(totalPago), Amortizacao.centavos(totalJuros));
+    }
+
+    public SimulacaoCredito.Resultado simularGrade(String sistema, SimulacaoCredito.Grade grade) {
+        Sistema s = sistema(sistema);
+        List<Double> valores = grade.valores(), taxas = grade.taxas();
+        List<Integer> prazos = grade.prazos();
+        if (vazia(valores) || vazia(prazos) || vazia(taxas)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Grade precisa de valores, prazos e taxas");
+        }
+        long total = (long) valores.size() * prazos.size() * taxas.size();
+        if (total > CENARIOS_MAXIMOS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Grade com " + total + " cenários (máximo " + CENARIOS_MAXIMOS + ")");
+        }
+        valores.forEach(v -> validar(v, 1, 0.0));
+        prazos.forEach(p -> validar(1.0, p, 0.0));
+        taxas.forEach(t -> validar(1.0, 1, t));
+
+        int cenarios = (int) total;
+        int np = prazos.size(), nt = taxas.size();
+        double[] valor = new double[cenarios], taxa = new double[cenarios];
+        int[] prazo = new int[cenarios];
+        long parcelas = 0;
+        for (int i = 0; i < cenarios; i++) {
+            valor[i] = valores.get(i / (np * nt));
+            prazo[i] = prazos.get((i / nt) % np);
+            taxa[i] = taxas.get(i % nt);
+            parcelas += prazo[i];
+        }
+
+        double[] resumo = new double[cenarios * Amortizacao.CAMPOS_RESUMO];
+        Lote raiz = new Lote(s, valor, prazo, taxa, resumo, 0, cenarios, parcelas / cenarios);
+        if (parcelas <= PARCELAS_POR_TAREFA) raiz.compute();
+        else pool.invoke(raiz);
+
+        double[] primeira = new double[cenarios], ultima = new double[cenarios],
+                totalPago = new double[cenarios], totalJuros = new double[cenarios];
+        for (int i = 0, o = 0; i < cenarios; i++, o += Amortizacao.CAMPOS_RESUMO) {
+            primeira[i] = resumo[o + Amortizacao.PRIMEIRA];
+            ultima[i] = resumo[o + Amortizacao.ULTIMA];
+            totalPago[i] = resumo[o + Amortizacao.TOTAL_PAGO];
+            totalJuros[i] = resumo[o + Amortizacao.TOTAL_JUROS];
+        }
+        return new SimulacaoCredito.Resultado(s.name(), cenarios, parcelas, valor, prazo, taxa,
+                primeira, ultima, totalPago, totalJuros);
+    }
+
+    // Divide o intervalo de cenários ao meio até caber em PARCELAS_POR_TAREFA
+    private static final class Lote extends RecursiveAction {
+        private final Sistema sistema;
+        private final double[] valor, taxa, resumo;
+        private final int[] prazo;
+        private final int de, ate;
+        private final long prazoMedio;
+
+        Lote(Sistema sistema, double[] valor, int[] prazo, double[] taxa, double[] resumo, int de, int ate, long prazoMedio) {
+            this.sistema = sistema;
+            this.valor = valor;
+            this.prazo = prazo;
+            this.taxa = taxa;
+            this.resumo = resumo;
+            this.de = de;
+            this.ate = ate;
+            this.prazoMedio = Math.max(1, prazoMedio);
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (ate - de) * prazoMedio <= PARCELAS_POR_TAREFA || ate - de == 1) {
+                for (int i = de; i < ate; i++) {
+                    Amortizacao.resumir(sistema, valor[i], prazo[i], taxa[i] / 100.0, resumo, i * Amortizacao.CAMPOS_RESUMO);
+                }
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new Lote(sistema, valor, prazo, taxa, resumo, de, meio, prazoMedio),
+                      new Lote(sistema, valor, prazo, taxa, resumo, meio, ate, prazoMedio));
+        }
+    }
+
+    private static Sistema sistema(String sistema) {
+        if (sistema == null || sistema.isBlank()) return Sistema.PRICE;
+        try {
+            return Sistema.valueOf(sistema.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sistema deve ser PRICE ou SAC");
+        }
+    }
+
+    private static void validar(Double valor, Integer prazo, Double taxa) {
+        if (valor == null || prazo == null || taxa == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "valor, prazo e taxa são obrigatórios");
+        }
+        if (!(valor > 0) || valor.isInfinite()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "valor deve ser positivo");
+        }
+        if (prazo < 1 || prazo > PRAZO_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prazo deve estar entre 1 e " + PRAZO_MAXIMO);
+        }
+        if (!(taxa >= 0) || taxa > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "taxa deve estar entre 0 e 100 (% ao período)");
+        }
+    }
+
+    private static boolean vazia(List<?> l) {
+        return l == null || l.isEmpty();
+    }
+}
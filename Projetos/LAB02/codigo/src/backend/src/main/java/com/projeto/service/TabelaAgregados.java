@@ -0,0 +1,191 @@
+package com.projeto.service;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> (quantidade, soma, mínimo, máximo) em arrays primitivos, com endereçamento aberto
+ * e sondagem linear: nenhum objeto por entrada, nenhum Long na chave. Valores em centavos.
+ *
+ * Entradas não são removidas (um período que ficou sem contratos fica com quantidade 0); quem
+ * persiste lê as posições marcadas como sujas desde a última persistência.
+ *
+ * Não é thread-safe: quem usa serializa o acesso.
+ */
+final class TabelaAgregados {
+
+    private static final long LIVRE = Long.MIN_VALUE;
+
+    private long[] chaves;
+    private long[] quantidades;
+    private long[] somas;
+    private long[] minimos;
+    private long[] maximos;
+    private boolean[] sujas;
+    private int tamanho;
+    private int nSujas;
+
+    TabelaAgregados(int capacidadeInicial) {
+        alocar(Integer.highestOneBit(Math.max(16, capacidadeInicial) * 2 - 1));
+    }
+
+    /** Soma um valor à chave. */
+    void somar(long chave, long valor) {
+        int i = posicao(chave, true);
+        if (quantidades[i] == 0) {
+            minimos[i] = valor;
+            maximos[i] = valor;
+        } else {
+            minimos[i] = Math.min(minimos[i], valor);
+            maximos[i] = Math.max(maximos[i], valor);
+        }
+        quantidades[i]++;
+        somas[i] += valor;
+        sujar(i);
+    }
+
+    /** Junta um agregado pronto (carga). */
+    void juntar(long chave, long quantidade, long soma, long minimo, long maximo) {
+        if (quantidade <= 0) return;
+        int i = posicao(chave, true);
+        minimos[i] = quantidades[i] == 0 ? minimo : Math.min(minimos[i], minimo);
+        maximos[i] = quantidades[i] == 0 ? maximo : Math.max(maximos[i], maximo);
+        quantidades[i] += quantidade;
+        somas[i] += soma;
+        sujar(i);
+    }
+
+    /**
+     * Tira um valor da chave. Devolve true se ele era o mínimo ou o máximo e ainda sobram valores:
+     * os extremos não se desfazem por subtração, então quem chamou deve recalculá-los.
+     */
+    boolean subtrair(long chave, long valor) {
+        int i = posicao(chave, false);
+        if (i < 0 || quantidades[i] == 0) return false;
+        quantidades[i]--;
+        somas[i] -= valor;
+        sujar(i);
+        if (quantidades[i] == 0) {
+            somas[i] = 0;
+            return false;
+        }
+        return valor == minimos[i] || valor == maximos[i];
+    }
+
+    /** Troca o agregado da chave pelo relido do banco (quantidade 0: período ficou vazio). */
+    void definir(long chave, long quantidade, long soma, long minimo, long maximo) {
+        int i = posicao(chave, quantidade > 0);
+        if (i < 0) return;
+        quantidades[i] = quantidade;
+        somas[i] = quantidade > 0 ? soma : 0;
+        minimos[i] = minimo;
+        maximos[i] = maximo;
+        sujar(i);
+    }
+
+    void definirExtremos(long chave, long minimo, long maximo) {
+        int i = posicao(chave, false);
+        if (i < 0 || quantidades[i] == 0) return;
+        minimos[i] = minimo;
+        maximos[i] = maximo;
+        sujar(i);
+    }
+
+    /** Posição da chave ou -1. */
+    int buscar(long chave) {
+        return posicao(chave, false);
+    }
+
+    int capacidade() {
+        return chaves.length;
+    }
+
+    boolean ocupada(int i) {
+        return chaves[i] != LIVRE;
+    }
+
+    long chave(int i) { return chaves[i]; }
+    long quantidade(int i) { return quantidades[i]; }
+    long soma(int i) { return somas[i]; }
+    long minimo(int i) { return minimos[i]; }
+    long maximo(int i) { return maximos[i]; }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    /** Posições alteradas desde a última chamada (e desmarca). Em falha, devolva com sujar(chave). */
+    int[] retirarSujas() {
+        int[] saida = new int[nSujas];
+        int n = 0;
+        for (int i = 0; i < sujas.length && n < nSujas; i++) {
+            if (sujas[i]) {
+                sujas[i] = false;
+                saida[n++] = i;
+            }
+        }
+        nSujas = 0;
+        return saida;
+    }
+
+    void sujar(long chave) {
+        int i = posicao(chave, false);
+        if (i >= 0) sujar(i);
+    }
+
+    private void sujar(int i) {
+        if (!sujas[i]) {
+            sujas[i] = true;
+            nSujas++;
+        }
+    }
+
+    private int posicao(long chave, boolean criar) {
+        if (chave == LIVRE) throw new IllegalArgumentException("chave reservada");
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (chaves[i] != LIVRE) {
+            if (chaves[i] == chave) return i;
+            i = (i + 1) & mascara;
+        }
+        if (!criar) return -1;
+        if ((tamanho + 1) * 4 > chaves.length * 3) { // carga máxima 0,75
+            crescer();
+            return posicao(chave, true);
+        }
+        chaves[i] = chave;
+        tamanho++;
+        return i;
+    }
+
+    private static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void crescer() {
+        long[] c = chaves, q = quantidades, s = somas, mi = minimos, ma = maximos;
+        boolean[] su = sujas;
+        alocar(c.length * 2);
+        for (int j = 0; j < c.length; j++) {
+            if (c[j] == LIVRE) continue;
+            int i = posicao(c[j], true);
+            quantidades[i] = q[j];
+            somas[i] = s[j];
+            minimos[i] = mi[j];
+            maximos[i] = ma[j];
+            if (su[j]) sujar(i);
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        Arrays.fill(chaves, LIVRE);
+        quantidades = new long[capacidade];
+        somas = new long[capacidade];
+        minimos = new long[capacidade];
+        maximos = new long[capacidade];
+        sujas = new boolean[capacidade];
+        tamanho = 0;
+        nSujas = 0;
+    }
+}
@@ -0,0 +1,252 @@
+package com.projeto.service;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.projeto.dto.UsuarioPrincipal;
+import com.projeto.model.Usuario;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Tokens de sessão assinados com HMAC-SHA256, verificados só em memória.
+ *
+ * Formato (base64url, sem padding) de 27 bytes de carga seguidos de 32 de assinatura:
+ * versão(1) kid(1) usuarioId(8) tipo(1) expiraEm(8, epoch s) jti(8).
+ * A chave ativa assina; todas as chaves configuradas verificam, o que permite rotacionar
+ * (publica-se a nova, troca-se a ativa, remove-se a velha depois de um TTL).
+ * Sem chave configurada, gera uma aleatória na subida: tokens não sobrevivem a um restart.
+ *
+ * Logout põe o jti num filtro de Bloom com duas gerações que giram a cada TTL; um token
+ * revogado some do filtro só depois de já ter expirado. Falso positivo obriga um novo login.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final byte VERSAO = 1;
+    private static final int CARGA = 27;
+    private static final int ASSINATURA = 32;
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+    private static final Usuario.TipoUsuario[] TIPOS = Usuario.TipoUsuario.values();
+
+    // "kid:segredo-base64,kid:segredo-base64"
+    @Value("${token.chaves:}")
+    private String chavesConfiguradas;
+
+    @Value("${token.chave-ativa:-1}")
+    private int kidAtivo;
+
+    @Value("${token.ttl-minutos:60}")
+    private long ttlMinutos;
+
+    @Value("${token.revogados-esperados:100000}")
+    private int revogadosEsperados;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile Chave[] chaves = new Chave[256];
+    private volatile Chave ativa;
+
+    private volatile Bloom revogadosAtual;
+    private volatile Bloom revogadosAnterior;
+    private volatile long proximoGiro;
+    // Não synchronized: verificar() roda em toda requisição autenticada, inclusive em threads virtuais
+    private final ReentrantLock giro = new ReentrantLock();
+
+    private static final class Chave {
+        final int kid;
+        final ThreadLocal<Mac> mac;
+        // Buffer de saída do HMAC por thread, para a verificação não alocar
+        final ThreadLocal<byte[]> saida = ThreadLocal.withInitial(() -> new byte[ASSINATURA]);
+
+        Chave(int kid, byte[] segredo) {
+            this.kid = kid;
+            SecretKeySpec spec = new SecretKeySpec(segredo, "HmacSHA256");
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac m = Mac.getInstance("HmacSHA256");
+                    m.init(spec);
+                    return m;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    @PostConstruct
+    void iniciar() {
+        Map<Integer, byte[]> segredos = new HashMap<>();
+        if (chavesConfiguradas != null && !chavesConfiguradas.isBlank()) {
+            for (String par : chavesConfiguradas.split(",")) {
+                String[] kv = par.trim().split(":", 2);
+                if (kv.length != 2) throw new IllegalStateException("token.chaves: esperado kid:segredo, veio " + par);
+                int kid = Integer.parseInt(kv[0].trim());
+                byte[] segredo = Base64.getDecoder().decode(kv[1].trim());
+                if (kid < 0 || kid > 255 || segredo.length < 32) {
+                    throw new IllegalStateException("token.chaves: kid entre 0 e 255 e segredo com 32 bytes ou mais");
+                }
+                segredos.put(kid, segredo);
+            }
+        }
+        if (segredos.isEmpty()) {
+            byte[] segredo = new byte[32];
+            random.nextBytes(segredo);
+            segredos.put(0, segredo);
+            log.warn("[Token] token.chaves não configurado; usando chave aleatória (tokens invalidam a cada restart)");
+        }
+        Chave[] novas = new Chave[256];
+        segredos.forEach((kid, s) -> novas[kid] = new Chave(kid, s));
+        int kid = kidAtivo >= 0 ? kidAtivo : segredos.keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+        if (novas[kid] == null) throw new IllegalStateException("token.chave-ativa=" + kid + " não está em token.chaves");
+        chaves = novas;
+        ativa = novas[kid];
+        revogadosAtual = new Bloom(revogadosEsperados);
+        revogadosAnterior = new Bloom(revogadosEsperados);
+        proximoGiro = System.currentTimeMillis() + ttlMinutos * 60_000L;
+    }
+
+    public record Emitido(String token, Instant expiraEm) {
+    }
+
+    public Emitido emitir(Usuario u) {
+        long expira = Instant.now().getEpochSecond() + ttlMinutos * 60L;
+        Chave chave = ativa;
+        ByteBuffer buf = ByteBuffer.allocate(CARGA + ASSINATURA);
+        buf.put(VERSAO).put((byte) chave.kid).putLong(u.getId())
+           .put((byte) u.getTipoUsuario().ordinal()).putLong(expira).putLong(random.nextLong());
+        Mac mac = chave.mac.get();
+        mac.update(buf.array(), 0, CARGA);
+        byte[] assinatura = mac.doFinal();
+        buf.put(assinatura);
+        return new Emitido(B64.encodeToString(buf.array()), Instant.ofEpochSecond(expira));
+    }
+
+    /** null se o token não confere, expirou ou foi revogado. */
+    public UsuarioPrincipal verificar(String token) {
+        if (token == null || token.length() != 79) return null;
+        byte[] b;
+        try {
+            b = B64D.decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (b.length != CARGA + ASSINATURA || b[0] != VERSAO) return null;
+        Chave chave = chaves[b[1] & 0xff];
+        if (chave == null) return null;
+        Mac mac = chave.mac.get();
+        byte[] esperado = chave.saida.get();
+        try {
+            mac.update(b, 0, CARGA);
+            mac.doFinal(esperado, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+        int dif = 0;
+        for (int i = 0; i < ASSINATURA; i++) dif |= esperado[i] ^ b[CARGA + i];
+        if (dif != 0) return null;
+
+        long id = lerLong(b, 2);
+        int tipo = b[10];
+        long expira = lerLong(b, 11);
+        long jti = lerLong(b, 19);
+        if (tipo < 0 || tipo >= TIPOS.length) return null;
+        if (expira < System.currentTimeMillis() / 1000) return null;
+        if (revogado(jti)) return null;
+        return new UsuarioPrincipal(id, TIPOS[tipo], jti, expira);
+    }
+
+    public void revogar(UsuarioPrincipal p) {
+        girarSeNecessario();
+        revogadosAtual.adicionar(p.jti());
+    }
+
+    private boolean revogado(long jti) {
+        girarSeNecessario();
+        return revogadosAtual.contem(jti) || revogadosAnterior.contem(jti);
+    }
+
+    // Cada geração cobre um TTL; um jti adicionado sobrevive a pelo menos um TTL inteiro
+    private void girarSeNecessario() {
+        long agora = System.currentTimeMillis();
+        if (agora < proximoGiro) return;
+        giro.lock();
+        try {
+            if (agora < proximoGiro) return;
+            revogadosAnterior = revogadosAtual;
+            revogadosAtual = new Bloom(revogadosEsperados);
+            proximoGiro = agora + ttlMinutos * 60_000L;
+        } finally {
+            giro.unlock();
+        }
+    }
+
+    private static long lerLong(byte[] b, int o) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) v = (v << 8) | (b[o + i] & 0xffL);
+        return v;
+    }
+
+    /** Bloom de jtis (longs aleatórios) com hashing duplo; ~0,01% de falsos positivos na capacidade. */
+    static final class Bloom {
+        private final AtomicLongArray bits;
+        private final int m;
+        private final int k;
+
+        Bloom(int esperados) {
+            double p = 1e-4;
+            long tamanho = (long) Math.ceil(-esperados * Math.log(p) / (Math.log(2) * Math.log(2)));
+            this.m = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, tamanho));
+            this.k = Math.max(1, (int) Math.round((double) m / esperados * Math.log(2)));
+            this.bits = new AtomicLongArray((m + 63) / 64);
+        }
+
+        void adicionar(long jti) {
+            long h1 = misturar(jti), h2 = misturar(h1) | 1;
+            for (int i = 0; i < k; i++) {
+                int pos = (int) Long.remainderUnsigned(h1 + i * h2, m);
+                int idx = pos >>> 6;
+                long mascara = 1L << pos;
+                long atual;
+                do {
+                    atual = bits.get(idx);
+                    if ((atual & mascara) != 0) break;
+                } while (!bits.compareAndSet(idx, atual, atual | mascara));
+            }
+        }
+
+        boolean contem(long jti) {
+            long h1 = misturar(jti), h2 = misturar(h1) | 1;
+            for (int i = 0; i < k; i++) {
+                int pos = (int) Long.remainderUnsigned(h1 + i * h2, m);
+                if ((bits.get(pos >>> 6) & (1L << pos)) == 0) return false;
+            }
+            return true;
+        }
+
+        // Finalizador do SplitMix64
+        private static long misturar(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
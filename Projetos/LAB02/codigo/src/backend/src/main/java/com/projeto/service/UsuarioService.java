@@ -4,11 +4,19 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.projeto.dto.PedidoResumo;
+import com.projeto.dto.UsuarioResumo;
+import com.projeto.event.AutomoveisRemovidosEvento;
+import com.projeto.event.PedidoEvento;
+import com.projeto.event.RendimentoEvento;
 import com.projeto.model.Rendimento;
 import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
 import com.projeto.repository.UsuarioRepository;
 
 @Service
@@ -17,9 +25,24 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
     @Autowired
     private RendimentoService rendimentoService;
 
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private SenhaService senhaService;
+
+    @Autowired
+    private CoalescedorLeituras coalescedor;
+
     public List<Usuario> listarTodos() {
         return usuarioRepository.findAll();
     }
@@ -28,8 +51,25 @@ public class UsuarioService {
         return usuarioRepository.findById(id);
     }
 
-    public Optional<Usuario> buscarPorCpfESenha(String cpf, String senha) {
-        return usuarioRepository.findByCpfAndSenha(cpf, senha);
+    public Optional<UsuarioResumo> buscarResumo(Long id) {
+        return coalescedor.executar("usuarios.resumo", id, () -> usuarioRepository.buscarResumo(id));
+    }
+
+    /**
+     * Busca só pelo CPF e confere a senha no SenhaService. Senha legada em texto puro que confere
+     * é regravada como hash na mesma chamada.
+     */
+    public Optional<Usuario> autenticar(String cpf, String senha) {
+        Optional<Usuario> usuario = usuarioRepository.findByCpf(cpf);
+        String armazenada = usuario.map(Usuario::getSenha).orElse(null);
+        SenhaService.Verificacao v = senhaService.verificar(senha, armazenada);
+        if (v == SenhaService.Verificacao.INVALIDA) return Optional.empty();
+        if (v == SenhaService.Verificacao.VALIDA_LEGADA) {
+            Usuario u = usuario.get();
+            String hash = senhaService.hash(senha);
+            if (usuarioRepository.trocarSenha(u.getId(), armazenada, hash) == 1) u.setSenha(hash);
+        }
+        return usuario;
     }
 
     public boolean existeCpf(String cpf) {
@@ -37,7 +77,10 @@ public class UsuarioService {
     }
 
     public Usuario salvar(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        usuario.setSenha(senhaService.hash(usuario.getSenha()));
+        Usuario salvo = usuarioRepository.save(usuario);
+        coalescedor.invalidar("usuarios");
+        return salvo;
     }
 
     // New method to handle updates
@@ -49,13 +92,17 @@ public class UsuarioService {
                 usuarioExistente.setRg(usuarioAtualizado.getRg());
                 usuarioExistente.setEndereco(usuarioAtualizado.getEndereco());
                 usuarioExistente.setProfissao(usuarioAtualizado.getProfissao());
-                usuarioExistente.setSenha(usuarioAtualizado.getSenha());
+                if (usuarioAtualizado.getSenha() != null && !usuarioAtualizado.getSenha().isBlank()) {
+                    usuarioExistente.setSenha(senhaService.hash(usuarioAtualizado.getSenha()));
+                }
                 usuarioExistente.setTipoUsuario(usuarioAtualizado.getTipoUsuario());
                 
                 // Note: The rendimentos list will be updated in the new 'adicionarRendimento' method.
                 // It's generally not good practice to update collections via the main update method.
                 
-                return Optional.of(usuarioRepository.save(usuarioExistente));
+                Usuario salvo = usuarioRepository.save(usuarioExistente);
+                coalescedor.invalidar("usuarios", "pedidos");
+                return Optional.of(salvo);
             })
             .orElse(Optional.empty());
     }
@@ -64,7 +111,14 @@ public class UsuarioService {
     @Transactional
     public boolean deletar(Long id) {
         if (usuarioRepository.existsById(id)) {
+            List<Long> automoveis = automovelRepository.listarIdsPorProprietario(id);
+            List<PedidoResumo> pedidos = pedidoRepository.listarResumosPorCliente(id);
             usuarioRepository.deleteById(id);
+            coalescedor.invalidar("usuarios", "automoveis", "pedidos");
+            // rendimentos, automóveis e pedidos saem em cascata, sem passar pelos serviços deles
+            eventos.publishEvent(RendimentoEvento.usuarioRemovido(id));
+            eventos.publishEvent(new AutomoveisRemovidosEvento(id, automoveis));
+            pedidos.forEach(p -> eventos.publishEvent(PedidoEvento.removido(p)));
             return true;
         }
         return false;
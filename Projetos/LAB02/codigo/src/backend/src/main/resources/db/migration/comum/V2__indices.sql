@@ -0,0 +1,18 @@
+-- Postgres não indexa chaves estrangeiras sozinho: sem estes índices cada busca pelo pai
+-- (pedidos de um cliente, rendimentos de um usuário, créditos de um banco...) e cada delete do
+-- pai (checagem da FK) lê a tabela filha inteira. "if not exists" porque bancos vindos do
+-- ddl-auto=update já têm os três índices de pedido declarados em @Table(indexes).
+-- contrato.pedido dispensa índice próprio: a restrição unique já cria um.
+
+-- Paginação keyset de GET /pedidos e fila de aprovação: filtro + id
+create index if not exists idx_pedido_status_id on pedido (status, id);
+create index if not exists idx_pedido_cliente_id on pedido (cliente_id, id);
+create index if not exists idx_pedido_data_pedido on pedido (data_pedido, id);
+
+create index if not exists idx_pedido_automovel on pedido (automovel_id);
+create index if not exists idx_automovel_proprietario on automovel (proprietario_id);
+create index if not exists idx_contrato_automovel on contrato (automovel);
+create index if not exists idx_rendimento_usuario on rendimento (usuario_id);
+create index if not exists idx_credito_banco on credito (banco);
+create index if not exists idx_cliente_entidade_cliente on cliente_entidadeempregadora (idcliente);
+create index if not exists idx_cliente_entidade_entidade on cliente_entidadeempregadora (identidade);
@@ -0,0 +1,15 @@
+-- Chaves de Idempotency-Key (POST /pedidos, POST /usuarios) quando idempotencia.tabela=true:
+-- a resposta gravada sobrevive a reinício e vale para todas as instâncias. status nulo = a
+-- primeira execução ainda está em andamento. Linhas vencidas são apagadas pela própria aplicação.
+create table idempotencia (
+    chave varchar(400) not null,
+    impressao varchar(64) not null,
+    criado_em timestamp(6) not null,
+    status integer,
+    tipo_conteudo varchar(255),
+    location varchar(2000),
+    corpo varchar,
+    primary key (chave)
+);
+
+create index idx_idempotencia_criado_em on idempotencia (criado_em);
@@ -0,0 +1,22 @@
+-- Outbox das mudanças de pedido: gravada na mesma transação da escrita, uma linha por evento e
+-- destino (outbox.destinos). O relay de cada destino lê em ordem de id e apaga o que entregou.
+create table pedido_outbox (
+    id bigint generated by default as identity,
+    destino varchar(50) not null,
+    pedido_id bigint not null,
+    tipo varchar(30) not null,
+    payload varchar not null,
+    criado_em timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_pedido_outbox_destino_id on pedido_outbox (destino, id);
+
+-- Um relay ativo por destino entre todas as instâncias (concessão renovada a cada leitura):
+-- dois relays no mesmo destino entregariam fora de ordem
+create table pedido_outbox_relay (
+    destino varchar(50) not null,
+    dono varchar(100) not null,
+    valido_ate timestamp(6) not null,
+    primary key (destino)
+);
@@ -0,0 +1,43 @@
+-- Histórico de pedido: só insert, nunca update nem delete; a ordem é a do id. Cada linha guarda
+-- a mudança (não o pedido inteiro): CRIADO/IMPORTADO trazem tudo, STATUS_ALTERADO o status,
+-- AUTOMOVEL_ALTERADO o automóvel, REMOVIDO nada. autor_* vem do token de quem fez a chamada.
+create table pedido_historico (
+    id bigint generated by default as identity,
+    pedido_id bigint not null,
+    tipo varchar(30) not null,
+    status varchar(255),
+    status_anterior varchar(255),
+    cliente_id bigint,
+    automovel_id bigint,
+    automovel_anterior_id bigint,
+    data_pedido date,
+    autor_id bigint,
+    autor_tipo varchar(255),
+    ocorrido_em timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_pedido_historico_pedido on pedido_historico (pedido_id, id);
+
+-- Estado do pedido depois do evento ultimo_evento_id; reconstruir parte do snapshot mais recente
+-- e aplica só os eventos seguintes
+create table pedido_snapshot (
+    pedido_id bigint not null,
+    ultimo_evento_id bigint not null,
+    eventos integer not null,
+    ocorrido_em timestamp(6) not null,
+    status varchar(255),
+    cliente_id bigint,
+    automovel_id bigint,
+    data_pedido date,
+    removido boolean not null,
+    autor_id bigint,
+    autor_tipo varchar(255),
+    primary key (pedido_id, ultimo_evento_id)
+);
+
+-- Pedidos anteriores ao histórico entram com o estado atual, datado da migração e sem autor:
+-- antes disso não há o que reconstruir
+insert into pedido_historico (pedido_id, tipo, status, cliente_id, automovel_id, data_pedido, ocorrido_em)
+select id, 'IMPORTADO', status, cliente_id, automovel_id, data_pedido, localtimestamp
+from pedido;
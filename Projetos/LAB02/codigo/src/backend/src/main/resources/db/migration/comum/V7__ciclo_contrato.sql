@@ -0,0 +1,9 @@
+-- Ciclo de vida do contrato: no dia seguinte a data_fim o contrato expira, ou é renovado pelo
+-- mesmo número de dias quando renovacao_automatica. Contratos existentes começam ativos; os já
+-- vencidos são tratados na primeira subida da aplicação.
+alter table contrato add column situacao varchar(20) default 'Ativo' not null;
+alter table contrato add column renovacao_automatica boolean default false not null;
+alter table contrato add constraint ck_contrato_situacao check (situacao in ('Ativo','Expirado'));
+
+-- Carga dos prazos na subida: só os ativos com data_fim
+create index idx_contrato_situacao_fim on contrato (situacao, data_fim);
@@ -0,0 +1,28 @@
+-- Receita de contratos agregada por dia/mês e por dimensão (total, tipo, automóvel), copiada
+-- periodicamente da memória (ReceitaContratoService). chave é a do mapa em memória; periodo,
+-- tipo_contrato e automovel repetem o que ela codifica, para consulta direta. Valores em centavos.
+create table contrato_receita (
+    granularidade varchar(3) not null,
+    dimensao varchar(10) not null,
+    chave bigint not null,
+    periodo date not null,
+    tipo_contrato varchar(255),
+    automovel bigint,
+    quantidade bigint not null,
+    soma_centavos bigint not null,
+    minimo_centavos bigint not null,
+    maximo_centavos bigint not null,
+    primary key (granularidade, dimensao, chave)
+);
+
+-- completo = a última instância parou depois de persistir tudo: a tabela vale para a subida sem
+-- reagregar contrato
+create table contrato_receita_estado (
+    id integer not null,
+    completo boolean not null,
+    primary key (id)
+);
+insert into contrato_receita_estado (id, completo) values (1, false);
+
+-- Recálculo de mínimo/máximo de um período quando o contrato que saiu era o extremo
+create index idx_contrato_data_inicio on contrato (data_inicio);
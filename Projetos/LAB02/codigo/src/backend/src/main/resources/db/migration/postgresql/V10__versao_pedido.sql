@@ -0,0 +1,3 @@
+-- Coluna do @Version de Pedido. Criada na V1, que um banco vindo do ddl-auto=update não executou
+-- (baseline); sem ela o primeiro insert ou update de pedido falha.
+alter table pedido add column if not exists versao bigint default 0 not null;
@@ -0,0 +1,3 @@
+-- Fila de aprovação: só os pedidos em análise, em ordem de id. Índice parcial fica do tamanho da
+-- fila (não da tabela) e o planner o usa quando a consulta filtra status = 'Em_analise'.
+create index if not exists idx_pedido_pendente on pedido (id) where status = 'Em_analise';
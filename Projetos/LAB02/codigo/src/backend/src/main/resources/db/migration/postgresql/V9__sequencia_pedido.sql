@@ -0,0 +1,5 @@
+-- Pedido passou de IDENTITY para pedido_seq (allocationSize 50). Banco criado pelo ddl-auto=update
+-- entra com baseline na V1 e não tem a sequência; em todo caso ela precisa andar para depois do
+-- maior id existente, senão os próximos pedidos colidem com os antigos. Nunca volta a sequência.
+create sequence if not exists pedido_seq start with 1 increment by 50;
+select setval('pedido_seq', greatest(nextval('pedido_seq'), (select coalesce(max(id), 0) + 1 from pedido)));
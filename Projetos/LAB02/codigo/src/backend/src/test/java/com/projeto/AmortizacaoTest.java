@@ -0,0 +1,71 @@
+package com.projeto;
+
+import org.junit.jupiter.api.Test;
+
+import com.projeto.service.Amortizacao;
+import com.projeto.service.Amortizacao.Sistema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Conferência das tabelas Price e SAC contra valores calculados à mão.
+ */
+public class AmortizacaoTest {
+
+    @Test
+    void price_parcelaFixaESaldoZerado() {
+        int n = 12;
+        double[] parcela = new double[n], amort = new double[n], juros = new double[n], saldo = new double[n];
+        Amortizacao.tabela(Sistema.PRICE, 1000.0, n, 0.01, parcela, amort, juros, saldo);
+
+        assertThat(parcela[0]).isEqualTo(88.85);
+        assertThat(juros[0]).isEqualTo(10.0);
+        for (int k = 0; k < n - 1; k++) assertThat(parcela[k]).isEqualTo(88.85);
+        assertThat(parcela[n - 1]).isCloseTo(88.85, within(0.05));
+        assertThat(saldo[n - 1]).isEqualTo(0.0);
+
+        double somaAmort = 0;
+        for (double a : amort) somaAmort += a;
+        assertThat(somaAmort).isCloseTo(1000.0, within(1e-6));
+    }
+
+    @Test
+    void sac_amortizacaoConstanteEJurosDecrescentes() {
+        int n = 12;
+        double[] parcela = new double[n], amort = new double[n], juros = new double[n], saldo = new double[n];
+        Amortizacao.tabela(Sistema.SAC, 1200.0, n, 0.01, parcela, amort, juros, saldo);
+
+        assertThat(amort).containsOnly(100.0);
+        assertThat(parcela[0]).isEqualTo(112.0);
+        assertThat(parcela[n - 1]).isEqualTo(101.0);
+        assertThat(saldo[n - 1]).isEqualTo(0.0);
+    }
+
+    @Test
+    void resumo_bateComATabela() {
+        double[] r = new double[Amortizacao.CAMPOS_RESUMO];
+        Amortizacao.resumir(Sistema.SAC, 1200.0, 12, 0.01, r, 0);
+        assertThat(r[Amortizacao.TOTAL_JUROS]).isEqualTo(78.0);
+        assertThat(r[Amortizacao.TOTAL_PAGO]).isEqualTo(1278.0);
+
+        int n = 360;
+        double[] parcela = new double[n], amort = new double[n], juros = new double[n], saldo = new double[n];
+        Amortizacao.tabela(Sistema.PRICE, 250_000.0, n, 0.0089, parcela, amort, juros, saldo);
+        double total = 0;
+        for (double p : parcela) total += p;
+        Amortizacao.resumir(Sistema.PRICE, 250_000.0, n, 0.0089, r, 0);
+        assertThat(r[Amortizacao.PRIMEIRA]).isEqualTo(parcela[0]);
+        assertThat(r[Amortizacao.ULTIMA]).isEqualTo(parcela[n - 1]);
+        assertThat(r[Amortizacao.TOTAL_PAGO]).isEqualTo(Amortizacao.centavos(total));
+    }
+
+    @Test
+    void taxaZero_divideOValor() {
+        double[] r = new double[Amortizacao.CAMPOS_RESUMO];
+        Amortizacao.resumir(Sistema.PRICE, 100.0, 3, 0.0, r, 0);
+        assertThat(r[Amortizacao.PRIMEIRA]).isEqualTo(33.33);
+        assertThat(r[Amortizacao.ULTIMA]).isEqualTo(33.34);
+        assertThat(r[Amortizacao.TOTAL_PAGO]).isEqualTo(100.0);
+    }
+}
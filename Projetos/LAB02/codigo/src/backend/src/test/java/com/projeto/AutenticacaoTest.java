@@ -0,0 +1,162 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projeto.model.Usuario;
+import com.projeto.service.TokenService;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AutenticacaoFilter com as rotas reais: token do login aceito em /usuarios/me, chamada sem
+ * token segue anônima, token adulterado responde 401 TOKEN_INVALIDO em qualquer rota menos o login
+ * (que ignora um token velho no cabeçalho), /logout revoga só aquele token e, no meio de uma
+ * rotação, a chave velha verifica e a nova assina.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"token.chaves=1:" + AutenticacaoTest.SEGREDO_1 + ",2:" + AutenticacaoTest.SEGREDO_2, "token.chave-ativa=2"})
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class AutenticacaoTest {
+
+    static final String SEGREDO_1 = "AQIDBAUGBwgJCgsMDQ4PEBESExQVFhcYGRobHB0eHyA=";
+    static final String SEGREDO_2 = "ICEiIyQlJicoKSorLC0uLzAxMjM0NTY3ODk6Ozw9Pj8=";
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+
+    private String cpf;
+    private long usuarioId;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        cpf = String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+        Map<String, Object> corpo = Map.of("nome", "Token Teste", "cpf", cpf, "senha", "segredo1", "tipoUsuario", "Agente");
+        ResponseEntity<Map> criado = rest.postForEntity(url("/usuarios"), corpo, Map.class);
+        assertThat(criado.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        usuarioId = ((Number) criado.getBody().get("id")).longValue();
+    }
+
+    private String login() {
+        return login(new HttpHeaders());
+    }
+
+    private String login(HttpHeaders h) {
+        h.setContentType(MediaType.APPLICATION_JSON);
+        // IP próprio por login: o balde por IP é do contexto inteiro
+        h.set("X-Forwarded-For", "198.18." + ThreadLocalRandom.current().nextInt(256) + "." + ThreadLocalRandom.current().nextInt(1, 255));
+        ResponseEntity<Map> r = rest.postForEntity(url("/usuarios/login"), new HttpEntity<>(Map.of("cpf", cpf, "senha", "segredo1"), h), Map.class);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (String) r.getBody().get("token");
+    }
+
+    private ResponseEntity<Map> get(String rota, String token) {
+        HttpHeaders h = new HttpHeaders();
+        if (token != null) h.setBearerAuth(token);
+        return rest.exchange(url(rota), HttpMethod.GET, new HttpEntity<>(h), Map.class);
+    }
+
+    private ResponseEntity<String> getTexto(String rota, String token) {
+        HttpHeaders h = new HttpHeaders();
+        if (token != null) h.setBearerAuth(token);
+        return rest.exchange(url(rota), HttpMethod.GET, new HttpEntity<>(h), String.class);
+    }
+
+    private ResponseEntity<Void> logout(String token) {
+        HttpHeaders h = new HttpHeaders();
+        h.setBearerAuth(token);
+        return rest.exchange(url("/usuarios/logout"), HttpMethod.POST, new HttpEntity<>(h), Void.class);
+    }
+
+    @Test
+    void tokenDoLogin_identificaOUsuario() {
+        ResponseEntity<Map> eu = get("/usuarios/me", login());
+        assertThat(eu.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) eu.getBody().get("id")).longValue()).isEqualTo(usuarioId);
+        assertThat(eu.getBody().get("tipo")).isEqualTo("Agente");
+    }
+
+    @Test
+    void semToken_segueAnonimo() {
+        assertThat(get("/usuarios/me", null).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(getTexto("/automoveis", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void tokenAdulterado_401EmQualquerRota() {
+        byte[] b = Base64.getUrlDecoder().decode(login());
+        b[b.length - 1] ^= 1;
+        String adulterado = Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+        for (String rota : List.of("/usuarios/me", "/automoveis")) {
+            ResponseEntity<Map> r = get(rota, adulterado);
+            assertThat(r.getStatusCode()).as(rota).isEqualTo(HttpStatus.UNAUTHORIZED);
+            assertThat(r.getBody().get("code")).isEqualTo("TOKEN_INVALIDO");
+        }
+        assertThat(get("/usuarios/me", "nao-e-um-token").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void logout_revogaSoAqueleToken() {
+        String a = login();
+        String b = login();
+        assertThat(logout(a).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        ResponseEntity<Map> depois = get("/usuarios/me", a);
+        assertThat(depois.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(depois.getBody().get("code")).isEqualTo("TOKEN_INVALIDO");
+        assertThat(logout(a).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(get("/usuarios/me", b).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // Token emitido fora deste contexto, com outras chaves ou outro prazo
+    private String emitidoPor(String chaves, int ativa, long ttlMinutos) {
+        TokenService emissor = new TokenService();
+        ReflectionTestUtils.setField(emissor, "chavesConfiguradas", chaves);
+        ReflectionTestUtils.setField(emissor, "kidAtivo", ativa);
+        ReflectionTestUtils.setField(emissor, "ttlMinutos", ttlMinutos);
+        ReflectionTestUtils.setField(emissor, "revogadosEsperados", 1000);
+        ReflectionTestUtils.invokeMethod(emissor, "iniciar");
+        Usuario u = new Usuario();
+        u.setId(usuarioId);
+        u.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        return emissor.emitir(u).token();
+    }
+
+    @Test
+    void login_comTokenVelhoNoCabecalho_entraDeNovo() {
+        String vencido = emitidoPor("2:" + SEGREDO_2, 2, -1);
+        // Chave efêmera de antes de um restart sem token.chaves
+        String deOutraChave = emitidoPor("7:" + Base64.getEncoder().encodeToString(new byte[32]), 7, 60);
+        for (String velho : List.of(vencido, deOutraChave, "nao-e-um-token")) {
+            assertThat(get("/usuarios/me", velho).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+            HttpHeaders h = new HttpHeaders();
+            h.setBearerAuth(velho);
+            String novo = login(h);
+            assertThat(get("/usuarios/me", novo).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @Test
+    void rotacao_chaveAntigaVerificaENovaAssina() {
+        // Token emitido antes da rotação, quando só a chave 1 existia
+        String antigo = emitidoPor("1:" + SEGREDO_1, 1, 60);
+
+        assertThat(get("/usuarios/me", antigo).getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Login agora assina com a chave ativa (kid 2)
+        assertThat(Base64.getUrlDecoder().decode(login())[1]).isEqualTo((byte) 2);
+    }
+}
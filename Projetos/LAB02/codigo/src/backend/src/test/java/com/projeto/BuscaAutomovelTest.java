@@ -0,0 +1,195 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projeto.dto.AutomovelResumo;
+import com.projeto.model.Agente;
+import com.projeto.model.Automovel;
+import com.projeto.model.Cliente;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.AgenteService;
+import com.projeto.service.AutomovelService;
+import com.projeto.service.BuscaAutomovelService;
+import com.projeto.service.ClienteService;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET /automoveis/busca e /automoveis/disponiveis servidos pelo índice em memória: prefixo, erro
+ * de digitação, ano, placa, ordem e página; e o automóvel some do índice tanto no DELETE dele
+ * quanto quando sai em cascata com o proprietário (usuário, cliente ou agente). Escritas feitas
+ * enquanto a reconstrução lê o catálogo não se perdem.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BuscaAutomovelTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    AutomovelService automovelService;
+    @Autowired
+    ClienteService clienteService;
+    @Autowired
+    AgenteService agenteService;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    BuscaAutomovelService buscaAutomovelService;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    private static String sufixo() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+    }
+
+    private Usuario usuario(String s) {
+        return usuarioRepository.save(new Usuario("Dono Busca", "BU" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+    }
+
+    private Automovel automovel(String placa, int ano, String marca, String modelo, Usuario dono) {
+        return automovelService.salvar(new Automovel(placa, "M" + placa, ano, marca, modelo, dono));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Number> ids(String consulta) {
+        Map<String, Object> pagina = rest.getForEntity(url("/automoveis/busca?" + consulta), Map.class).getBody();
+        return ((List<Map<String, Object>>) pagina.get("itens")).stream().map(a -> (Number) a.get("id")).toList();
+    }
+
+    private Set<Long> idsLong(String consulta) {
+        Set<Long> ids = new HashSet<>();
+        ids(consulta).forEach(n -> ids.add(n.longValue()));
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> disponiveis() {
+        List<Map<String, Object>> lista = rest.getForEntity(url("/automoveis/disponiveis?inicio=2031-01-01&fim=2031-01-02"), List.class).getBody();
+        Set<Long> ids = new HashSet<>();
+        lista.forEach(a -> ids.add(((Number) a.get("id")).longValue()));
+        return ids;
+    }
+
+    @Test
+    void busca_prefixoErroAnoPlacaOrdemEPagina() {
+        String s = sufixo();
+        String marca = "Marca" + s;          // termo "marca<s>", único deste teste
+        Usuario dono = usuario(s);
+        Automovel a = automovel("AA" + s, 2018, marca, "Sedan Luxo", dono);
+        Automovel b = automovel("BB" + s, 2020, marca, "Hatch", dono);
+        Automovel c = automovel("CC" + s, 2022, marca, "Sedan", dono);
+
+        assertThat(idsLong("q=" + marca.toLowerCase())).containsExactlyInAnyOrder(a.getId(), b.getId(), c.getId());
+        // Prefixo com parte do sufixo, em maiúsculas
+        assertThat(idsLong("marca=" + marca.substring(0, 9).toUpperCase())).containsExactlyInAnyOrder(a.getId(), b.getId(), c.getId());
+        // Uma letra trocada: distância 1 sobre o vocabulário de marcas
+        assertThat(idsLong("marca=Marcb" + s)).containsExactlyInAnyOrder(a.getId(), b.getId(), c.getId());
+        // Todos os termos de q precisam casar
+        assertThat(idsLong("q=" + marca + " sed")).containsExactlyInAnyOrder(a.getId(), c.getId());
+        assertThat(idsLong("q=" + marca + "&anoMin=2019&anoMax=2021")).containsExactly(b.getId());
+        // Placa ignora separadores e caixa
+        assertThat(idsLong("placa=c-c" + s.toLowerCase())).containsExactly(c.getId());
+
+        assertThat(ids("q=" + marca + "&ordenar=ano&direcao=desc&tamanho=2").stream().map(Number::longValue))
+                .containsExactly(c.getId(), b.getId());
+        assertThat(ids("q=" + marca + "&ordenar=ano&direcao=desc&tamanho=2&pagina=1").stream().map(Number::longValue))
+                .containsExactly(a.getId());
+        Map<?, ?> pagina = rest.getForEntity(url("/automoveis/busca?q=" + marca + "&tamanho=2"), Map.class).getBody();
+        assertThat(pagina.get("total")).isEqualTo(3);
+    }
+
+    @Test
+    void deleteDoAutomovel_saiDoIndice() {
+        String s = sufixo();
+        String marca = "Delete" + s;
+        Automovel a = automovel("DA" + s, 2019, marca, "Um", usuario(s));
+        Automovel b = automovel("DB" + s, 2019, marca, "Dois", usuarioRepository.findById(a.getProprietario().getId()).get());
+        assertThat(idsLong("q=" + marca)).containsExactlyInAnyOrder(a.getId(), b.getId());
+
+        assertThat(rest.exchange(url("/automoveis/" + a.getId()), HttpMethod.DELETE, null, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(idsLong("q=" + marca)).containsExactly(b.getId());
+        assertThat(disponiveis()).contains(b.getId()).doesNotContain(a.getId());
+    }
+
+    @Test
+    void exclusaoDoProprietario_tiraOsAutomoveisDoIndice() {
+        String s = sufixo();
+        String marca = "Cascata" + s;
+
+        Usuario usuario = usuario(s);
+        Cliente cliente = new Cliente();
+        cliente.setNome("Cliente Busca");
+        cliente.setCpf("BC" + s);
+        cliente.setSenha("123");
+        cliente.setTipoUsuario(Usuario.TipoUsuario.Cliente);
+        cliente = clienteService.salvar(cliente);
+        Agente agente = new Agente();
+        agente.setNome("Agente Busca");
+        agente.setCpf("BA" + s);
+        agente.setSenha("123");
+        agente.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        agente.setTipoAgente(Agente.TipoAgente.Empresa);
+        agente = agenteService.salvar(agente);
+
+        Automovel doUsuario = automovel("CU" + s, 2021, marca, "Usuario", usuario);
+        Automovel doCliente = automovel("CC" + s, 2021, marca, "Cliente", cliente);
+        Automovel doAgente = automovel("CA" + s, 2021, marca, "Agente", agente);
+        Automovel outro = automovel("CO" + s, 2021, marca, "Outro", usuario(sufixo()));
+        assertThat(idsLong("q=" + marca)).hasSize(4);
+
+        for (String rota : List.of("/usuarios/" + usuario.getId(), "/clientes/" + cliente.getId(), "/agentes/" + agente.getId())) {
+            assertThat(rest.exchange(url(rota), HttpMethod.DELETE, null, Void.class).getStatusCode())
+                    .as(rota).isEqualTo(HttpStatus.NO_CONTENT);
+        }
+
+        assertThat(idsLong("q=" + marca)).containsExactly(outro.getId());
+        assertThat(disponiveis()).contains(outro.getId())
+                .doesNotContain(doUsuario.getId(), doCliente.getId(), doAgente.getId());
+    }
+
+    @Test
+    void escritasDuranteAReconstrucao_naoSePerdem() {
+        String s = sufixo();
+        String marca = "Recarga" + s;
+        Usuario dono = usuario(s);
+        Automovel removido = automovel("RR" + s, 2017, marca, "Removido", dono);
+        Automovel[] novo = new Automovel[1];
+
+        // Repositório próprio do teste: o do contexto é usado por outros serviços ao mesmo tempo
+        AutomovelRepository lento = mock(AutomovelRepository.class);
+        when(lento.listarResumos()).thenAnswer(inv -> {
+            List<AutomovelResumo> foto = automovelRepository.listarResumos();
+            novo[0] = automovel("RN" + s, 2017, marca, "Novo", usuarioRepository.findById(dono.getId()).get());
+            automovelService.deletar(removido.getId());
+            return foto;
+        });
+        ReflectionTestUtils.setField(buscaAutomovelService, "automovelRepository", lento);
+        try {
+            buscaAutomovelService.reconstruir();
+        } finally {
+            ReflectionTestUtils.setField(buscaAutomovelService, "automovelRepository", automovelRepository);
+        }
+
+        assertThat(idsLong("q=" + marca)).containsExactly(novo[0].getId());
+    }
+}
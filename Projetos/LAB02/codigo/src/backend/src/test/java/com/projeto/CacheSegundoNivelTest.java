@@ -0,0 +1,134 @@
+package com.projeto;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Agente;
+import com.projeto.model.Automovel;
+import com.projeto.model.Credito;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.AgenteService;
+import com.projeto.service.CreditoService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache de segundo nível: leituras repetidas não vão ao banco e escritas pelos services
+ * aparecem na leitura seguinte (entidade, coleção Agente.creditos e cache de consultas).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CacheSegundoNivelTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    AgenteService agenteService;
+    @Autowired
+    CreditoService creditoService;
+
+    private Usuario dono;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        dono = usuarioRepository.save(new Usuario("Dono Cache", "CA" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+    }
+
+    private Statistics stats() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private long statementsFor(String path, Class<?> tipo) {
+        stats().clear();
+        ResponseEntity<?> resp = rest.getForEntity(url(path), tipo);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return stats().getPrepareStatementCount();
+    }
+
+    @Test
+    void automovel_releituraVemDoCache_eUpdateInvalida() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        Automovel a = automovelRepository.save(new Automovel("CA" + sufixo, "MCA" + sufixo, 2021, "Fiat", "Uno", dono));
+        String path = "/automoveis/" + a.getId();
+
+        rest.getForEntity(url(path), Map.class);
+        assertThat(statementsFor(path, Map.class)).isZero();
+
+        Map<String,Object> alterado = new HashMap<>();
+        alterado.put("placa", a.getPlaca());
+        alterado.put("matricula", a.getMatricula());
+        alterado.put("ano", 2022);
+        alterado.put("marca", "Fiat");
+        alterado.put("modelo", "Mobi");
+        alterado.put("proprietario", Map.of("id", dono.getId()));
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Map> put = rest.exchange(url(path), HttpMethod.PUT, new HttpEntity<>(alterado, h), Map.class);
+        assertThat(put.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Map<?,?> depois = rest.getForEntity(url(path), Map.class).getBody();
+        assertThat(depois.get("modelo")).isEqualTo("Mobi");
+        assertThat(depois.get("ano")).isEqualTo(2022);
+    }
+
+    @Test
+    void agente_colecaoCreditosInvalidadaAoSalvarCredito() {
+        Agente agente = new Agente();
+        agente.setNome("Banco Cache");
+        agente.setCpf("AG" + UUID.randomUUID().toString().substring(0, 8));
+        agente.setSenha("123");
+        agente.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        agente.setNomeAgente("Banco Cache");
+        agente.setTipoAgente(Agente.TipoAgente.Banco);
+        agente = agenteService.salvar(agente);
+        String path = "/agentes/" + agente.getId();
+
+        creditoService.salvar(new Credito(agente, 10_000.0, 12, 1.5));
+        assertThat((List<?>) rest.getForEntity(url(path), Map.class).getBody().get("creditos")).hasSize(1);
+        assertThat(statementsFor(path, Map.class)).isZero();
+
+        // Credito é o lado dono da associação; a coleção em cache do agente precisa cair
+        creditoService.salvar(new Credito(agente, 20_000.0, 24, 1.2));
+        assertThat((List<?>) rest.getForEntity(url(path), Map.class).getBody().get("creditos")).hasSize(2);
+    }
+
+    @Test
+    void consultaCacheada_invalidadaPorInsert() {
+        String path = "/entidades-empregadoras";
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        rest.postForEntity(url(path), new HttpEntity<>(Map.of("nome", "Empresa A"), h), Map.class);
+
+        int antes = rest.getForEntity(url(path), List.class).getBody().size();
+        assertThat(statementsFor(path, List.class)).isZero();
+
+        rest.postForEntity(url(path), new HttpEntity<>(Map.of("nome", "Empresa B"), h), Map.class);
+        assertThat(rest.getForEntity(url(path), List.class).getBody()).hasSize(antes + 1);
+    }
+}
@@ -0,0 +1,181 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projeto.event.ContratoEvento;
+import com.projeto.model.Contrato;
+import com.projeto.repository.ContratoRepository;
+import com.projeto.service.CicloContratoService;
+import com.projeto.service.ContratoService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vencimento de contratos: gravação já vencida expira, renovação automática estende o período,
+ * exclusão e adiamento reagendam, e contrato vencido com a aplicação parada expira na recarga.
+ * A renovação não desfaz o que outra instância gravou entre a leitura e a gravação dela.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "contratos.ciclo.tick-ms=50")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CicloContratoTest {
+
+    static final List<ContratoEvento> EVENTOS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class Ouvinte {
+        @EventListener
+        void aoVencer(ContratoEvento evento) {
+            EVENTOS.add(evento);
+        }
+    }
+
+    @Autowired
+    ContratoService contratoService;
+    @Autowired
+    CicloContratoService cicloContratoService;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    ContratoRepository contratoRepository;
+
+    private final LocalDate hoje = LocalDate.now();
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicao.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("tempo esgotado esperando o vencimento").isLessThan(limite);
+            Thread.sleep(20);
+        }
+    }
+
+    private Contrato salvar(LocalDate inicio, LocalDate fim, boolean renovar) {
+        Contrato c = new Contrato(null, Contrato.TipoContrato.Cliente, 100.0, Date.valueOf(inicio), Date.valueOf(fim), null);
+        c.setRenovacaoAutomatica(renovar);
+        return contratoService.salvar(c);
+    }
+
+    private String situacao(Long id) {
+        return jdbc.queryForObject("select situacao from contrato where id = ?", String.class, id);
+    }
+
+    private List<ContratoEvento> eventos(Long id) {
+        return EVENTOS.stream().filter(e -> e.contratoId().equals(id)).toList();
+    }
+
+    @Test
+    void vencido_expiraEAvisa() throws Exception {
+        Contrato c = salvar(hoje.minusDays(30), hoje.minusDays(1), false);
+        aguardar(() -> "Expirado".equals(situacao(c.getId())));
+        aguardar(() -> eventos(c.getId()).size() == 1);
+        ContratoEvento e = eventos(c.getId()).get(0);
+        assertThat(e.tipo()).isEqualTo(ContratoEvento.Tipo.EXPIRADO);
+        assertThat(e.dataFim()).isEqualTo(hoje.minusDays(1));
+        assertThat(cicloContratoService.agendado(c.getId())).isFalse();
+    }
+
+    @Test
+    void renovacaoAutomatica_estendePeloMesmoPeriodo() throws Exception {
+        // 10 dias (inclusivos) terminando ontem: o novo fim é ontem + 10
+        Contrato c = salvar(hoje.minusDays(10), hoje.minusDays(1), true);
+        aguardar(() -> eventos(c.getId()).size() == 1);
+        ContratoEvento e = eventos(c.getId()).get(0);
+        assertThat(e.tipo()).isEqualTo(ContratoEvento.Tipo.RENOVADO);
+        assertThat(e.novaDataFim()).isEqualTo(hoje.plusDays(9));
+        assertThat(situacao(c.getId())).isEqualTo("Ativo");
+        assertThat(jdbc.queryForObject("select data_fim from contrato where id = ?", Date.class, c.getId()).toLocalDate())
+                .isEqualTo(hoje.plusDays(9));
+        assertThat(cicloContratoService.agendado(c.getId())).isTrue();
+    }
+
+    @Test
+    void atualizarEDeletar_reagendam() throws Exception {
+        Contrato c = salvar(hoje, hoje.plusDays(5), false);
+        assertThat(cicloContratoService.agendado(c.getId())).isTrue();
+
+        // Fim trazido para o passado: expira sem esperar o prazo antigo
+        Contrato alterado = new Contrato(null, Contrato.TipoContrato.Cliente, 100.0,
+                Date.valueOf(hoje.minusDays(5)), Date.valueOf(hoje.minusDays(2)), null);
+        contratoService.atualizar(c.getId(), alterado);
+        aguardar(() -> "Expirado".equals(situacao(c.getId())));
+
+        // Fim adiado reabre o contrato
+        alterado.setDataFim(Date.valueOf(hoje.plusDays(30)));
+        contratoService.atualizar(c.getId(), alterado);
+        assertThat(situacao(c.getId())).isEqualTo("Ativo");
+        assertThat(cicloContratoService.agendado(c.getId())).isTrue();
+
+        assertThat(contratoService.deletar(c.getId())).isTrue();
+        assertThat(cicloContratoService.agendado(c.getId())).isFalse();
+    }
+
+    @Test
+    void vencidoComAplicacaoParada_expiraNaRecarga() throws Exception {
+        // Gravado direto no banco, como se fosse de antes da subida: a roda não conhece
+        jdbc.update("insert into contrato (tipo_contrato, valor, data_inicio, data_fim) values ('Cliente', 50, ?, ?)",
+                Date.valueOf(hoje.minusDays(60)), Date.valueOf(hoje.minusDays(20)));
+        Long id = jdbc.queryForObject("select max(id) from contrato", Long.class);
+        assertThat(cicloContratoService.agendado(id)).isFalse();
+        Thread.sleep(200);
+        assertThat(situacao(id)).isEqualTo("Ativo");
+
+        assertThat(cicloContratoService.carregar()).isGreaterThanOrEqualTo(1);
+        aguardar(() -> "Expirado".equals(situacao(id)));
+        aguardar(() -> !eventos(id).isEmpty()); // o evento sai depois do update
+        assertThat(eventos(id)).extracting(ContratoEvento::tipo).containsExactly(ContratoEvento.Tipo.EXPIRADO);
+    }
+
+    @Test
+    void renovacao_naoDesfazExpiracaoDeOutraInstancia() throws Exception {
+        double valor = 4321.5; // marca o contrato deste teste antes de o id existir
+        boolean[] expirou = new boolean[1];
+        // Repositório próprio do ciclo: entre a leitura do contrato e a gravação da renovação,
+        // outra instância expira a mesma linha
+        ContratoRepository outraInstancia = mock(ContratoRepository.class);
+        when(outraInstancia.findById(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            Optional<Contrato> lido = contratoRepository.findById(id);
+            if (lido.isPresent() && lido.get().getValor() == valor && !expirou[0]) {
+                jdbc.update("update contrato set situacao = 'Expirado' where id = ?", id);
+                expirou[0] = true;
+            }
+            return lido;
+        });
+        when(outraInstancia.save(any())).thenAnswer(inv -> contratoRepository.save(inv.getArgument(0)));
+        ReflectionTestUtils.setField(cicloContratoService, "contratoRepository", outraInstancia);
+        try {
+            Contrato c = new Contrato(null, Contrato.TipoContrato.Cliente, valor,
+                    Date.valueOf(hoje.minusDays(10)), Date.valueOf(hoje.minusDays(1)), null);
+            c.setRenovacaoAutomatica(true);
+            c = contratoService.salvar(c);
+            Long id = c.getId();
+            aguardar(() -> expirou[0]);
+            Thread.sleep(300);
+
+            assertThat(situacao(id)).isEqualTo("Expirado");
+            assertThat(jdbc.queryForObject("select data_fim from contrato where id = ?", Date.class, id).toLocalDate())
+                    .isEqualTo(hoje.minusDays(1));
+            assertThat(eventos(id)).isEmpty();
+        } finally {
+            ReflectionTestUtils.setField(cicloContratoService, "contratoRepository", contratoRepository);
+        }
+    }
+}
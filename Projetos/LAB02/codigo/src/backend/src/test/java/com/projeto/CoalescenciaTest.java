@@ -0,0 +1,272 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Agente;
+import com.projeto.model.Automovel;
+import com.projeto.model.Cliente;
+import com.projeto.model.Credito;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.AgenteService;
+import com.projeto.service.ClienteService;
+import com.projeto.service.CoalescedorLeituras;
+import com.projeto.service.CreditoService;
+import com.projeto.service.PedidoService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Leituras simultâneas com a mesma chave executam uma vez; escrita pelo serviço solta a leitura em
+ * andamento, inclusive a de cliente e agente; operação desligada por propriedade executa sempre.
+ * Leituras de entidade (agente com créditos lazy) não são compartilhadas entre requisições; as
+ * projeções de automóvel e usuário (view=summary) são.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "coalescencia.usuarios.desligada=false")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CoalescenciaTest {
+
+    @Autowired
+    CoalescedorLeituras coalescedor;
+    @Autowired
+    PedidoService pedidoService;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    AgenteService agenteService;
+    @Autowired
+    ClienteService clienteService;
+    @Autowired
+    CreditoService creditoService;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    TestRestTemplate rest;
+    @LocalServerPort
+    int port;
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @AfterAll
+    void desligar() {
+        pool.shutdownNow();
+    }
+
+    // Líder presa no latch até todas as seguidoras entrarem
+    private Future<Object> lider(String operacao, Object argumento, CountDownLatch liberar, AtomicInteger execucoes)
+            throws InterruptedException {
+        CountDownLatch comecou = new CountDownLatch(1);
+        Future<Object> f = pool.submit(() -> coalescedor.executar(operacao, argumento, () -> {
+            execucoes.incrementAndGet();
+            comecou.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return new Object();
+        }));
+        assertThat(comecou.await(10, TimeUnit.SECONDS)).isTrue();
+        return f;
+    }
+
+    private Future<Object> seguidora(String operacao, Object argumento, AtomicInteger execucoes) {
+        return pool.submit(() -> coalescedor.executar(operacao, argumento, () -> {
+            execucoes.incrementAndGet();
+            return new Object();
+        }));
+    }
+
+    private double leituras(String operacao, String papel) {
+        return registry.counter("coalescencia.leituras", "operacao", operacao, "papel", papel).count();
+    }
+
+    @Test
+    void simultaneas_umaExecucao_mesmoResultado() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<Object> primeira = lider("pedidos.teste", 1L, liberar, execucoes);
+        List<Future<Object>> outras = new ArrayList<>();
+        for (int i = 0; i < 5; i++) outras.add(seguidora("pedidos.teste", 1L, execucoes));
+        Future<Object> outroArgumento = seguidora("pedidos.teste", 2L, execucoes);
+        outroArgumento.get(10, TimeUnit.SECONDS);
+        while (leituras("pedidos.teste", "seguidor") < 5) Thread.sleep(5);
+        liberar.countDown();
+
+        Object resultado = primeira.get(10, TimeUnit.SECONDS);
+        for (Future<Object> f : outras) assertThat(f.get(10, TimeUnit.SECONDS)).isSameAs(resultado);
+        assertThat(execucoes.get()).isEqualTo(2); // a líder e a do argumento 2
+        assertThat(registry.get("coalescencia.razao").tag("operacao", "pedidos.teste").gauge().value())
+                .isEqualTo(5.0 / 7);
+
+        // Terminada a leitura, a próxima executa de novo: não é cache
+        seguidora("pedidos.teste", 1L, execucoes).get(10, TimeUnit.SECONDS);
+        assertThat(execucoes.get()).isEqualTo(3);
+    }
+
+    @Test
+    void excecaoDaLider_chegaAsSeguidoras() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch comecou = new CountDownLatch(1);
+        Future<Object> primeira = pool.submit(() -> coalescedor.executar("automoveis.teste", null, () -> {
+            comecou.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new IllegalArgumentException("falhou");
+        }));
+        assertThat(comecou.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<Object> seguidora = seguidora("automoveis.teste", null, new AtomicInteger());
+        while (leituras("automoveis.teste", "seguidor") < 1) Thread.sleep(5);
+        liberar.countDown();
+        assertThatThrownBy(() -> primeira.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> seguidora.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void escritaNoServico_soltaLeituraEmAndamento() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<Object> antiga = lider("pedidos.escrita", null, liberar, execucoes);
+
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        Usuario cliente = usuarioRepository.save(new Usuario("Cliente Coal", "CO" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        Automovel a = automovelRepository.save(new Automovel("CO" + sufixo, "MCO" + sufixo, 2020, "Marca", "Modelo", cliente));
+        pedidoService.salvar(new Pedido(cliente, a, Pedido.StatusPedido.Em_analise, new Date()));
+
+        // Chegou depois da escrita: não pode receber a leitura que começou antes dela
+        Object nova = seguidora("pedidos.escrita", null, execucoes).get(10, TimeUnit.SECONDS);
+        liberar.countDown();
+        assertThat(antiga.get(10, TimeUnit.SECONDS)).isNotSameAs(nova);
+        assertThat(execucoes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void escritaDeClienteEAgente_soltaLeituraEmAndamento() throws Exception {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<Object> antiga = lider("usuarios.escrita", null, liberar, execucoes);
+        Cliente cliente = new Cliente();
+        cliente.setNome("Cliente Coal");
+        cliente.setCpf("CC" + sufixo);
+        cliente.setSenha("123");
+        cliente.setTipoUsuario(Usuario.TipoUsuario.Cliente);
+        clienteService.salvar(cliente);
+        Object nova = seguidora("usuarios.escrita", null, execucoes).get(10, TimeUnit.SECONDS);
+        liberar.countDown();
+        assertThat(antiga.get(10, TimeUnit.SECONDS)).isNotSameAs(nova);
+
+        // Nome do agente aparece nas projeções de pedido
+        CountDownLatch liberarPedidos = new CountDownLatch(1);
+        Future<Object> pedidos = lider("pedidos.escrita-agente", null, liberarPedidos, execucoes);
+        Agente agente = new Agente();
+        agente.setNome("Agente Coal");
+        agente.setCpf("CG" + sufixo);
+        agente.setSenha("123");
+        agente.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        agente.setTipoAgente(Agente.TipoAgente.Banco);
+        Agente salvo = agenteService.salvar(agente);
+        salvo.setNomeAgente("Banco Coal Renomeado");
+        agenteService.atualizar(salvo.getId(), salvo);
+        Object depois = seguidora("pedidos.escrita-agente", null, execucoes).get(10, TimeUnit.SECONDS);
+        liberarPedidos.countDown();
+        assertThat(pedidos.get(10, TimeUnit.SECONDS)).isNotSameAs(depois);
+        assertThat(execucoes.get()).isEqualTo(4);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumosDeAutomovelEUsuario_passamPeloCoalescedor() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        Usuario dono = usuarioRepository.save(new Usuario("Dono Coal", "CD" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        Automovel carro = automovelRepository.save(new Automovel("CD" + sufixo, "MCD" + sufixo, 2021, "Marca", "Modelo", dono));
+        String base = "http://localhost:" + port;
+        double automoveisAntes = leituras("automoveis.resumos", "lider");
+        double usuariosAntes = leituras("usuarios.resumo", "lider");
+
+        ResponseEntity<List> automoveis = rest.getForEntity(base + "/automoveis?view=summary", List.class);
+        assertThat(automoveis.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> doCarro = ((List<Map<String, Object>>) automoveis.getBody()).stream()
+                .filter(a -> ((Number) a.get("id")).longValue() == carro.getId()).findFirst().orElseThrow();
+        assertThat(doCarro).containsEntry("placa", "CD" + sufixo).doesNotContainKey("proprietario");
+
+        ResponseEntity<Map> usuario = rest.getForEntity(base + "/usuarios/" + dono.getId() + "?view=summary", Map.class);
+        assertThat(usuario.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(usuario.getBody()).containsEntry("nome", "Dono Coal").containsEntry("tipoUsuario", "Cliente")
+                .doesNotContainKey("senha");
+        assertThat(rest.getForEntity(base + "/usuarios/99999999?view=summary", Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(rest.getForEntity(base + "/automoveis?view=full", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertThat(leituras("automoveis.resumos", "lider")).isGreaterThan(automoveisAntes);
+        assertThat(leituras("usuarios.resumo", "lider")).isGreaterThan(usuariosAntes);
+    }
+
+    @Test
+    void operacaoDesligada_executaSempre() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<Object> primeira = lider("usuarios.desligada", null, liberar, execucoes);
+        Object segunda = seguidora("usuarios.desligada", null, execucoes).get(10, TimeUnit.SECONDS);
+        liberar.countDown();
+        assertThat(primeira.get(10, TimeUnit.SECONDS)).isNotSameAs(segunda);
+        assertThat(execucoes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void agenteComCreditos_leiturasHttpSimultaneas() throws Exception {
+        Agente agente = new Agente();
+        agente.setNome("Banco Coal");
+        agente.setCpf("CA" + UUID.randomUUID().toString().substring(0, 8));
+        agente.setSenha("123");
+        agente.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        agente.setNomeAgente("Banco Coal");
+        agente.setTipoAgente(Agente.TipoAgente.Banco);
+        Agente salvo = agenteService.salvar(agente);
+        creditoService.salvar(new Credito(salvo, 10_000.0, 12, 1.5));
+        creditoService.salvar(new Credito(salvo, 20_000.0, 24, 1.2));
+        String url = "http://localhost:" + port + "/usuarios/" + salvo.getId();
+
+        // Todas saem juntas: com a entidade compartilhada, as seguidoras carregariam creditos
+        // pela sessão da líder, de outra thread e às vezes já fechada
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<ResponseEntity<Map>>> respostas = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            respostas.add(pool.submit(() -> {
+                largada.await();
+                return rest.getForEntity(url, Map.class);
+            }));
+        }
+        largada.countDown();
+        for (Future<ResponseEntity<Map>> f : respostas) {
+            ResponseEntity<Map> r = f.get(30, TimeUnit.SECONDS);
+            assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat((List<?>) r.getBody().get("creditos")).hasSize(2);
+        }
+        assertThat(registry.find("coalescencia.leituras").tag("operacao", "usuarios.buscar").counters()).isEmpty();
+    }
+}
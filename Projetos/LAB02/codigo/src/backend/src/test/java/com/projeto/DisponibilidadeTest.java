@@ -0,0 +1,253 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.projeto.dto.ContratoPeriodo;
+import com.projeto.model.Automovel;
+import com.projeto.model.Contrato;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.ContratoRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.ContratoService;
+import com.projeto.service.DisponibilidadeService;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * POST/PUT/DELETE /contratos contra a agenda do automóvel: sobreposição recusada com 409,
+ * períodos inclusivos (mesmo dia de fim e início colide, dia seguinte não), exclusão libera o
+ * período e reservas simultâneas do mesmo automóvel deixam um único contrato gravado. A gravação
+ * é confirmada dentro de reservar(), ainda com a agenda travada, mesmo vinda de outra transação.
+ * carregar() reconcilia com o banco sem desfazer reservas e exclusões feitas durante a consulta.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DisponibilidadeTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    DisponibilidadeService disponibilidadeService;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    ContratoService contratoService;
+    @Autowired
+    TransactionTemplate transacao;
+    @MockitoSpyBean
+    ContratoRepository contratoRepository;
+
+    private Usuario dono;
+
+    // Datas futuras: o ciclo de vencimento não mexe nesses contratos durante o teste
+    private static final LocalDate BASE = LocalDate.of(2041, 3, 1);
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        dono = usuarioRepository.save(new Usuario("Dono Agenda", "DG" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Agente));
+    }
+
+    private Long automovel() {
+        String s = UUID.randomUUID().toString().replace("-", "").substring(0, 7);
+        return automovelRepository.save(new Automovel("AG" + s, "MAG" + s, 2022, "Marca", "Modelo", dono)).getId();
+    }
+
+    private Map<String, Object> contrato(Long automovelId, LocalDate inicio, LocalDate fim) {
+        Map<String, Object> c = new HashMap<>();
+        c.put("tipoContrato", "Cliente");
+        c.put("valor", 100.0);
+        c.put("dataInicio", inicio.toString());
+        c.put("dataFim", fim.toString());
+        c.put("automovel", Map.of("id", automovelId));
+        return c;
+    }
+
+    private ResponseEntity<Map> criar(Long automovelId, LocalDate inicio, LocalDate fim) {
+        return rest.postForEntity(url("/contratos"), contrato(automovelId, inicio, fim), Map.class);
+    }
+
+    private static Long id(ResponseEntity<Map> r) {
+        return ((Number) r.getBody().get("id")).longValue();
+    }
+
+    private long contratosDoAutomovel(Long automovelId) {
+        return jdbc.queryForObject("select count(*) from contrato where automovel = ?", Long.class, automovelId);
+    }
+
+    @Test
+    void sobreposicao_recusadaCom409() {
+        Long carro = automovel();
+        assertThat(criar(carro, BASE, BASE.plusDays(10)).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        for (LocalDate[] p : new LocalDate[][] {
+                {BASE.plusDays(3), BASE.plusDays(5)},       // dentro
+                {BASE.minusDays(5), BASE.plusDays(2)},      // cobre o início
+                {BASE.plusDays(8), BASE.plusDays(20)},      // cobre o fim
+                {BASE.minusDays(1), BASE.plusDays(11)}}) {  // engloba
+            ResponseEntity<Map> r = criar(carro, p[0], p[1]);
+            assertThat(r.getStatusCode()).as(p[0] + ".." + p[1]).isEqualTo(HttpStatus.CONFLICT);
+            assertThat(r.getBody().get("code")).isEqualTo("AUTOMOVEL_INDISPONIVEL");
+        }
+        assertThat(contratosDoAutomovel(carro)).isEqualTo(1);
+        // Outro automóvel no mesmo período não é afetado
+        assertThat(criar(automovel(), BASE, BASE.plusDays(10)).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void periodosQueSeEncostam() {
+        Long carro = automovel();
+        assertThat(criar(carro, BASE, BASE.plusDays(10)).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // Dias inclusivos: devolver e retirar no mesmo dia colide
+        assertThat(criar(carro, BASE.plusDays(10), BASE.plusDays(15)).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(criar(carro, BASE.minusDays(5), BASE).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        // Dia seguinte e dia anterior estão livres
+        assertThat(criar(carro, BASE.plusDays(11), BASE.plusDays(15)).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(criar(carro, BASE.minusDays(5), BASE.minusDays(1)).getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Contrato de um dia só entre dois ocupados
+        assertThat(criar(carro, BASE.minusDays(20), BASE.minusDays(20)).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(criar(carro, BASE.minusDays(20), BASE.minusDays(20)).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(disponibilidadeService.disponivel(carro, BASE.plusDays(16), BASE.plusDays(30))).isTrue();
+        assertThat(disponibilidadeService.disponivel(carro, BASE.plusDays(15), BASE.plusDays(30))).isFalse();
+        assertThat(contratosDoAutomovel(carro)).isEqualTo(4);
+    }
+
+    @Test
+    void exclusaoEAlteracao_liberamOPeriodo() {
+        Long carro = automovel();
+        Long primeiro = id(criar(carro, BASE, BASE.plusDays(10)));
+        assertThat(criar(carro, BASE.plusDays(5), BASE.plusDays(6)).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(rest.exchange(url("/contratos/" + primeiro), HttpMethod.DELETE, null, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        ResponseEntity<Map> segundo = criar(carro, BASE.plusDays(5), BASE.plusDays(6));
+        assertThat(segundo.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // PUT muda o período: o antigo fica livre e o novo passa a colidir; o próprio contrato não colide com ele mesmo
+        ResponseEntity<Map> movido = rest.exchange(url("/contratos/" + id(segundo)), HttpMethod.PUT,
+                new HttpEntity<>(contrato(carro, BASE.plusDays(6), BASE.plusDays(8))), Map.class);
+        assertThat(movido.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(criar(carro, BASE.plusDays(5), BASE.plusDays(5)).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(criar(carro, BASE.plusDays(8), BASE.plusDays(9)).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void gravacaoConfirmadaAntesDeSoltarATrava_mesmoDentroDeOutraTransacao() throws Exception {
+        Long carro = automovel();
+        ExecutorService outra = Executors.newSingleThreadExecutor();
+        try {
+            transacao.executeWithoutResult(t -> {
+                Contrato c = new Contrato(null, Contrato.TipoContrato.Cliente, 100.0,
+                        java.sql.Date.valueOf(BASE), java.sql.Date.valueOf(BASE.plusDays(3)), automovelRepository.findById(carro).get());
+                contratoService.salvar(c);
+                // Outra conexão, com a transação de fora ainda aberta, já vê o contrato que a agenda registrou
+                try {
+                    assertThat(outra.submit(() -> contratosDoAutomovel(carro)).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                t.setRollbackOnly();
+            });
+        } finally {
+            outra.shutdownNow();
+        }
+        // O rollback de fora não desfaz a reserva: ela já estava confirmada
+        assertThat(contratosDoAutomovel(carro)).isEqualTo(1);
+        assertThat(criar(carro, BASE.plusDays(3), BASE.plusDays(4)).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void reservasSimultaneas_soUmaGrava() throws Exception {
+        int concorrentes = 16;
+        for (int rodada = 0; rodada < 3; rodada++) {
+            Long carro = automovel();
+            ExecutorService pool = Executors.newFixedThreadPool(concorrentes);
+            try {
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<ResponseEntity<Map>>> respostas = new ArrayList<>();
+                for (int i = 0; i < concorrentes; i++) {
+                    // Períodos diferentes, todos cobrindo BASE+10
+                    int deslocamento = i % 5;
+                    respostas.add(pool.submit(() -> {
+                        largada.await();
+                        return criar(carro, BASE.plusDays(10 - deslocamento), BASE.plusDays(10 + deslocamento));
+                    }));
+                }
+                largada.countDown();
+                int gravados = 0;
+                for (Future<ResponseEntity<Map>> f : respostas) {
+                    ResponseEntity<Map> r = f.get(30, TimeUnit.SECONDS);
+                    if (r.getStatusCode() == HttpStatus.OK) gravados++;
+                    else assertThat(r.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                }
+                assertThat(gravados).isEqualTo(1);
+                assertThat(contratosDoAutomovel(carro)).isEqualTo(1);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void carregar_reconciliaSemDesfazerAlteracoesDuranteAConsulta() {
+        LocalDate inicio = BASE.plusDays(100);
+        LocalDate fim = BASE.plusDays(101);
+        Long excluidoNaCarga = automovel();
+        Long excluidoDoCarro = id(criar(excluidoNaCarga, inicio, fim));
+        Long apagadoSemServico = automovel();
+        Long apagado = id(criar(apagadoSemServico, inicio, fim));
+        Long inseridoSemServico = automovel();
+        Long reservadoNaCarga = automovel();
+        // Alterações direto no banco, sem passar pela agenda: só a recarga as enxerga
+        jdbc.update("delete from contrato where id = ?", apagado);
+        jdbc.update("insert into contrato (tipo_contrato, valor, data_inicio, data_fim, automovel) values ('Cliente', 100.0, ?, ?, ?)",
+                java.sql.Date.valueOf(inicio), java.sql.Date.valueOf(fim), inseridoSemServico);
+
+        // A foto é lida com o contrato ainda gravado e sem o que é criado logo depois;
+        // a exclusão e a reserva chegam antes de a foto ser aplicada
+        doAnswer(inv -> {
+            // Mesmo conteúdo da consulta real (o espião de um repositório não chama o método original)
+            List<ContratoPeriodo> foto = jdbc.query("select id, automovel, data_inicio, data_fim from contrato"
+                    + " where automovel is not null and data_inicio is not null and data_fim is not null",
+                    (rs, i) -> new ContratoPeriodo(rs.getLong(1), rs.getLong(2), rs.getDate(3), rs.getDate(4)));
+            assertThat(rest.exchange(url("/contratos/" + excluidoDoCarro), HttpMethod.DELETE, null, Void.class).getStatusCode())
+                    .isEqualTo(HttpStatus.NO_CONTENT);
+            assertThat(criar(reservadoNaCarga, inicio, fim).getStatusCode()).isEqualTo(HttpStatus.OK);
+            return foto;
+        }).when(contratoRepository).listarPeriodos();
+
+        disponibilidadeService.carregar();
+
+        assertThat(disponibilidadeService.disponivel(excluidoNaCarga, inicio, fim)).isTrue();
+        assertThat(disponibilidadeService.disponivel(reservadoNaCarga, inicio, fim)).isFalse();
+        assertThat(disponibilidadeService.disponivel(apagadoSemServico, inicio, fim)).isTrue();
+        assertThat(disponibilidadeService.disponivel(inseridoSemServico, inicio, fim)).isFalse();
+        assertThat(criar(inseridoSemServico, fim, fim).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,138 @@
+package com.projeto;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projeto.model.Automovel;
+import com.projeto.model.Contrato;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.ContratoRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /.../exportar: NDJSON com o mesmo objeto do GET da coleção, CSV escapado, gzip opcional.
+ * fetch-size=2 força várias limpezas do contexto de persistência no meio da exportação.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = { "exportacao.fetch-size=2", "spring.jpa.properties.hibernate.generate_statistics=true" })
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ExportacaoTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+    @Autowired
+    ContratoRepository contratoRepository;
+
+    private Long clienteId;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < 5; i++) {
+            String sufixo = UUID.randomUUID().toString().substring(0, 6);
+            Usuario u = new Usuario("Silva, \"Exp\" " + i, "EX" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente);
+            u = usuarioRepository.save(u);
+            Automovel a = automovelRepository.save(new Automovel("EX" + sufixo, "MEX" + sufixo, 2020, "Marca" + i, "Modelo" + i, u));
+            Pedido p = pedidoRepository.save(new Pedido(u, a, Pedido.StatusPedido.Aprovado, new Date()));
+            contratoRepository.save(new Contrato(p, Contrato.TipoContrato.Cliente, 1000.0 + i, null, null, a));
+            clienteId = u.getId();
+        }
+    }
+
+    private static List<String> linhas(String corpo) {
+        return corpo.isEmpty() ? List.of() : List.of(corpo.split("\r?\n"));
+    }
+
+    @Test
+    void pedidosNdjson_mesmoConteudoDoGet_emUmaConsulta() throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        ResponseEntity<String> resp = rest.getForEntity(url("/pedidos/exportar"), String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        assertThat(resp.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("pedidos.ndjson");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        List<String> linhas = linhas(resp.getBody());
+        assertThat(linhas).hasSize((int) pedidoRepository.count());
+        List<Map<String,Object>> todos = rest.exchange(url("/pedidos"), HttpMethod.GET, null,
+                new org.springframework.core.ParameterizedTypeReference<List<Map<String,Object>>>() {}).getBody();
+        Map<Object, Map<String,Object>> porId = new HashMap<>();
+        todos.forEach(p -> porId.put(p.get("id"), p));
+        for (String linha : linhas) {
+            Map<?,?> exportado = objectMapper.readValue(linha, Map.class);
+            assertThat(exportado).isEqualTo(porId.get(exportado.get("id")));
+        }
+    }
+
+    @Test
+    void usuariosCsv_escapaEOmiteSenha() {
+        ResponseEntity<String> resp = rest.getForEntity(url("/usuarios/exportar?formato=csv"), String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getHeaders().getContentType().toString()).startsWith("text/csv");
+        List<String> linhas = linhas(resp.getBody());
+        assertThat(linhas.get(0)).isEqualTo("id,tipoUsuario,nome,cpf,rg,endereco,profissao");
+        assertThat(linhas).hasSize((int) usuarioRepository.count() + 1);
+        assertThat(linhas).anyMatch(l -> l.startsWith(clienteId + ",Cliente,\"Silva, \"\"Exp\"\" 4\","));
+    }
+
+    @Test
+    void contratosGzip_quandoAceito() throws Exception {
+        HttpResponse<byte[]> resp = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(url("/contratos/exportar")))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(resp.statusCode()).isEqualTo(200);
+        assertThat(resp.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+        String corpo;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(resp.body()))) {
+            corpo = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> linhas = linhas(corpo);
+        assertThat(linhas).hasSize((int) contratoRepository.count());
+        Map<String,Object> primeiro = objectMapper.readValue(linhas.get(0), Map.class);
+        assertThat(primeiro).containsKeys("id", "pedido", "automovel");
+    }
+
+    @Test
+    void formatoInvalido_400() {
+        assertThat(rest.getForEntity(url("/pedidos/exportar?formato=xml"), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
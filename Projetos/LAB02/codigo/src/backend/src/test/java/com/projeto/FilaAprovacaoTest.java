@@ -0,0 +1,239 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.projeto.dto.PedidoResumo;
+import com.projeto.model.Automovel;
+import com.projeto.model.Cliente;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.ClienteRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.FilaAprovacaoService;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * GET /agentes/fila e /agentes/fila/stream: pendentes em ordem de id com cursor, eventos SSE de
+ * entrada e saída, saída dos pedidos apagados em cascata com o cliente, e carregar() reconciliando
+ * com o banco sem desfazer eventos que chegaram enquanto a consulta rodava.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FilaAprovacaoTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    ClienteRepository clienteRepository;
+    @MockitoSpyBean
+    PedidoRepository pedidoRepository;
+    @Autowired
+    FilaAprovacaoService fila;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private Usuario cliente;
+    private Automovel automovel;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        cliente = usuarioRepository.save(new Usuario("Cliente Fila", "FA" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        automovel = automovelRepository.save(new Automovel("FA" + s, "MFA" + s, 2022, "Marca", "Modelo", cliente));
+    }
+
+    private Long novoPedido() {
+        return novoPedido(cliente, automovel);
+    }
+
+    private Long novoPedido(Usuario cliente, Automovel automovel) {
+        Map<String, Object> corpo = Map.of("cliente", Map.of("id", cliente.getId()), "automovel", Map.of("id", automovel.getId()));
+        ResponseEntity<Map> r = rest.postForEntity(url("/pedidos"), corpo, Map.class);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((Number) r.getBody().get("id")).longValue();
+    }
+
+    private void mudarStatus(Long id, String status) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        assertThat(rest.exchange(url("/pedidos/" + id + "/status"), HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("status", status), h), Map.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // Percorre a fila inteira pelo cursor
+    @SuppressWarnings("unchecked")
+    private List<Long> filaCompleta(int limite) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, Object> pagina = rest.getForEntity(url("/agentes/fila?limite=" + limite
+                    + (cursor != null ? "&cursor=" + cursor : "")), Map.class).getBody();
+            List<Map<String, Object>> itens = (List<Map<String, Object>>) pagina.get("itens");
+            assertThat(itens.size()).isLessThanOrEqualTo(limite);
+            itens.forEach(p -> ids.add(((Number) p.get("id")).longValue()));
+            cursor = (String) pagina.get("nextCursor");
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void fila_emOrdemDeIdComCursor_eSaidaNaDecisao() {
+        List<Long> meus = new ArrayList<>();
+        for (int i = 0; i < 5; i++) meus.add(novoPedido());
+
+        List<Long> ids = filaCompleta(2);
+        assertThat(ids).doesNotHaveDuplicates().isSorted().containsAll(meus);
+        assertThat(ids.stream().filter(meus::contains).toList()).containsExactlyElementsOf(meus);
+
+        mudarStatus(meus.get(1), "APROVADO");
+        mudarStatus(meus.get(3), "REJEITADO");
+        assertThat(filaCompleta(3)).contains(meus.get(0), meus.get(2), meus.get(4))
+                .doesNotContain(meus.get(1), meus.get(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exclusaoDoCliente_tiraSeusPedidosDaFila() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        Usuario usuario = usuarioRepository.save(new Usuario("Cliente Excluido", "FX" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        Cliente doCadastro = new Cliente();
+        doCadastro.setNome("Cliente Excluido");
+        doCadastro.setCpf("FY" + s);
+        doCadastro.setTipoUsuario(Usuario.TipoUsuario.Cliente);
+        doCadastro = clienteRepository.save(doCadastro);
+
+        // Os pedidos saem pela cascata de Usuario.pedidos, sem passar pelo PedidoService
+        Map<String, Usuario> porRota = new LinkedHashMap<>();
+        porRota.put("/usuarios/", usuario);
+        porRota.put("/clientes/", doCadastro);
+        porRota.forEach((rota, dono) -> {
+            Automovel carro = automovelRepository.save(new Automovel("FX" + dono.getId(), "MFX" + dono.getId(), 2022, "Marca", "Modelo", dono));
+            Long id = novoPedido(dono, carro);
+            assertThat(filaCompleta(50)).contains(id);
+
+            assertThat(rest.exchange(url(rota + dono.getId()), HttpMethod.DELETE, null, Void.class).getStatusCode())
+                    .as(rota).isEqualTo(HttpStatus.NO_CONTENT);
+            assertThat(rest.getForEntity(url("/pedidos/" + id), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+            assertThat(filaCompleta(50)).as(rota).doesNotContain(id);
+            Map<String, Object> historico = rest.getForEntity(url("/pedidos/" + id + "/historico"), Map.class).getBody();
+            assertThat(((Map<String, Object>) historico.get("estado")).get("removido")).as(rota).isEqualTo(true);
+        });
+    }
+
+    @Test
+    void stream_enviaEntradaESaida() throws Exception {
+        BlockingQueue<String> dados = new LinkedBlockingQueue<>();
+        HttpURLConnection conexao = (HttpURLConnection) URI.create(url("/agentes/fila/stream")).toURL().openConnection();
+        conexao.setRequestProperty("Accept", MediaType.TEXT_EVENT_STREAM_VALUE);
+        conexao.setReadTimeout(15_000);
+        assertThat(conexao.getResponseCode()).isEqualTo(200);
+        Thread leitor = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8))) {
+                String linha;
+                while ((linha = in.readLine()) != null) {
+                    if (linha.startsWith("data:")) dados.add(linha.substring(5));
+                }
+            } catch (Exception e) {
+                // conexão fechada no fim do teste
+            }
+        });
+        leitor.setDaemon(true);
+        leitor.start();
+        try {
+            Long id = novoPedido();
+            assertThat(proximoDoPedido(dados, id)).contains("\"tipo\":\"ENTRADA\"").contains("\"status\":\"PENDENTE\"");
+            mudarStatus(id, "CANCELADO");
+            assertThat(proximoDoPedido(dados, id)).contains("\"tipo\":\"SAIDA\"").contains("\"status\":\"CANCELADO\"");
+        } finally {
+            conexao.disconnect();
+        }
+    }
+
+    @Test
+    void fechamentoDoContexto_encerraOsStreams() throws Exception {
+        HttpURLConnection conexao = (HttpURLConnection) URI.create(url("/agentes/fila/stream")).toURL().openConnection();
+        conexao.setRequestProperty("Accept", MediaType.TEXT_EVENT_STREAM_VALUE);
+        conexao.setReadTimeout(15_000);
+        assertThat(conexao.getResponseCode()).isEqualTo(200);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8))) {
+            assertThat(in.readLine()).isEqualTo(":inscrito");
+            // O que o ContextClosedEvent dispara: sem isso o shutdown gracioso espera o SSE até o timeout
+            fila.fecharInscritos();
+            long limite = System.currentTimeMillis() + 10_000;
+            while (in.readLine() != null) {
+                assertThat(System.currentTimeMillis()).as("stream não terminou").isLessThan(limite);
+            }
+        } finally {
+            conexao.disconnect();
+        }
+    }
+
+    // Outros testes do mesmo contexto também geram eventos: filtra pelo id
+    private static String proximoDoPedido(BlockingQueue<String> dados, Long id) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite) {
+            String d = dados.poll(200, TimeUnit.MILLISECONDS);
+            if (d != null && d.contains("\"id\":" + id + ",")) return d;
+        }
+        throw new AssertionError("evento SSE do pedido " + id + " não chegou");
+    }
+
+    @Test
+    void carregar_reconciliaSemDesfazerEventosDuranteAConsulta() {
+        Long decididoNaCarga = novoPedido();
+        Long decididoSemEvento = novoPedido();
+        // Alterações direto no banco, sem PedidoEvento: só a recarga as enxerga
+        jdbc.update("update pedido set status = 'Aprovado' where id = ?", decididoSemEvento);
+        Long pendenteSemEvento = pedidoRepository.save(new Pedido(cliente, automovel,
+                Pedido.StatusPedido.Em_analise, new Date())).getId();
+        assertThat(fila.idsPendentes()).contains(decididoNaCarga, decididoSemEvento).doesNotContain(pendenteSemEvento);
+
+        // A foto é lida com decididoNaCarga pendente e sem o pedido criado logo depois;
+        // os eventos dos dois chegam antes de a foto ser aplicada
+        Long[] criadoNaCarga = new Long[1];
+        doAnswer(inv -> {
+            // Mesmo conteúdo da consulta real (o espião de um repositório não chama o método original)
+            List<PedidoResumo> foto = pedidoRepository.listarResumos().stream()
+                    .filter(p -> p.status() == Pedido.StatusPedido.Em_analise).toList();
+            mudarStatus(decididoNaCarga, "APROVADO");
+            criadoNaCarga[0] = novoPedido();
+            return foto;
+        }).when(pedidoRepository).listarResumosPendentes();
+
+        fila.carregar();
+
+        assertThat(fila.idsPendentes())
+                .doesNotContain(decididoNaCarga, decididoSemEvento)
+                .contains(criadoNaCarga[0], pendenteSemEvento)
+                .isSorted();
+    }
+}
@@ -0,0 +1,185 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Agente;
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AgenteRepository;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.PedidoService;
+import com.projeto.service.TokenService;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /pedidos/{id}/historico: quem mudou o quê e quando, estado em um instante passado (asOf),
+ * histórico que sobrevive à remoção e snapshot a cada historico.snapshot-a-cada eventos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "historico.snapshot-a-cada=3")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HistoricoPedidoTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    PedidoService pedidoService;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AgenteRepository agenteRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+
+    private Usuario cliente;
+    private Agente agente;
+    private Automovel automovel;
+    private Automovel outroAutomovel;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        cliente = usuarioRepository.save(new Usuario("Cliente Hist", "HI" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        automovel = automovelRepository.save(new Automovel("HI" + sufixo, "MHI" + sufixo, 2022, "Marca", "Modelo", cliente));
+        outroAutomovel = automovelRepository.save(new Automovel("HJ" + sufixo, "MHJ" + sufixo, 2023, "Marca", "Outro", cliente));
+        agente = new Agente();
+        agente.setNome("Agente Hist");
+        agente.setCpf("HA" + sufixo);
+        agente.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        agente.setTipoAgente(Agente.TipoAgente.Banco);
+        agente = agenteRepository.save(agente);
+    }
+
+    private HttpHeaders cabecalhos(Usuario autor) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        h.setBearerAuth(tokenService.emitir(autor).token());
+        return h;
+    }
+
+    private Long criarPedido() {
+        String corpo = "{\"cliente\":{\"id\":" + cliente.getId() + "},\"automovel\":{\"id\":" + automovel.getId() + "}}";
+        ResponseEntity<Map> r = rest.exchange(url("/pedidos"), HttpMethod.POST, new HttpEntity<>(corpo, cabecalhos(cliente)), Map.class);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((Number) r.getBody().get("id")).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> historico(Long id, Instant asOf) {
+        ResponseEntity<Map> r = rest.getForEntity(url("/pedidos/" + id + "/historico" + (asOf != null ? "?asOf=" + asOf : "")), Map.class);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return r.getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> estado(Map<String, Object> historico) {
+        return (Map<String, Object>) historico.get("estado");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> eventos(Map<String, Object> historico) {
+        return (List<Map<String, Object>>) historico.get("eventos");
+    }
+
+    private static void passarDoRelogio() throws InterruptedException {
+        Thread.sleep(20);
+    }
+
+    @Test
+    void aprovacao_registraAutorEAsOfVoltaNoTempo() throws Exception {
+        Instant antes = Instant.now();
+        passarDoRelogio();
+        Long id = criarPedido();
+        passarDoRelogio();
+        Instant pendente = Instant.now();
+        passarDoRelogio();
+        ResponseEntity<Map> aprovado = rest.exchange(url("/pedidos/" + id + "/status"), HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("status", "APROVADO"), cabecalhos(agente)), Map.class);
+        assertThat(aprovado.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Map<String, Object> agora = historico(id, null);
+        assertThat(eventos(agora)).extracting(e -> e.get("tipo")).containsExactly("CRIADO", "STATUS_ALTERADO");
+        Map<String, Object> aprovacao = eventos(agora).get(1);
+        assertThat(aprovacao.get("statusAnterior")).isEqualTo("PENDENTE");
+        assertThat(aprovacao.get("status")).isEqualTo("APROVADO");
+        assertThat(((Number) aprovacao.get("autorId")).longValue()).isEqualTo(agente.getId());
+        assertThat(aprovacao.get("autorTipo")).isEqualTo("Agente");
+        assertThat(((Number) eventos(agora).get(0).get("autorId")).longValue()).isEqualTo(cliente.getId());
+        assertThat(estado(agora).get("status")).isEqualTo("APROVADO");
+        assertThat(((Number) estado(agora).get("alteradoPor")).longValue()).isEqualTo(agente.getId());
+
+        Map<String, Object> naquelaHora = historico(id, pendente);
+        assertThat(eventos(naquelaHora)).hasSize(1);
+        assertThat(estado(naquelaHora).get("status")).isEqualTo("PENDENTE");
+        assertThat(((Number) estado(naquelaHora).get("automovelId")).longValue()).isEqualTo(automovel.getId());
+
+        assertThat(rest.getForEntity(url("/pedidos/" + id + "/historico?asOf=" + antes), Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(rest.getForEntity(url("/pedidos/" + id + "/historico?asOf=ontem"), Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void remocao_mantemHistorico() {
+        Long id = criarPedido();
+        assertThat(pedidoService.deletar(id)).isTrue();
+        Map<String, Object> h = historico(id, null);
+        assertThat(eventos(h)).extracting(e -> e.get("tipo")).containsExactly("CRIADO", "REMOVIDO");
+        assertThat(estado(h).get("removido")).isEqualTo(true);
+        assertThat(estado(h).get("status")).isEqualTo("PENDENTE");
+    }
+
+    @Test
+    void snapshot_aCadaTresEventos_mesmoEstado() throws Exception {
+        Long id = criarPedido();
+        Instant meio = null;
+        for (int i = 0; i < 7; i++) {
+            Pedido troca = new Pedido();
+            troca.setStatus(Pedido.StatusPedido.Em_analise);
+            troca.setAutomovel(i % 2 == 0 ? outroAutomovel : automovel);
+            pedidoService.atualizar(id, troca);
+            if (i == 3) {
+                passarDoRelogio();
+                meio = Instant.now();
+                passarDoRelogio();
+            }
+        }
+        // 1 criado + 7 trocas de automóvel: snapshots a partir do 3º evento, gravados em segundo plano
+        long limite = System.currentTimeMillis() + 10_000;
+        while (jdbc.queryForObject("select coalesce(max(eventos), 0) from pedido_snapshot where pedido_id = ?", Integer.class, id) < 6) {
+            assertThat(System.currentTimeMillis()).as("snapshot não apareceu").isLessThan(limite);
+            Thread.sleep(20);
+        }
+
+        Map<String, Object> atual = historico(id, null);
+        assertThat(eventos(atual)).hasSize(8);
+        assertThat(((Number) estado(atual).get("eventos")).intValue()).isEqualTo(8);
+        assertThat(((Number) estado(atual).get("automovelId")).longValue()).isEqualTo(outroAutomovel.getId()); // última troca (i = 6) foi para o outro
+        Map<String, Object> passado = historico(id, meio);
+        assertThat(eventos(passado)).hasSize(5);
+        assertThat(((Number) estado(passado).get("eventos")).intValue()).isEqualTo(5);
+        assertThat(((Number) estado(passado).get("automovelId")).longValue()).isEqualTo(automovel.getId());
+    }
+}
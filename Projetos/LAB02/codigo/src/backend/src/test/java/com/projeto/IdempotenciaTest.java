@@ -0,0 +1,178 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.IdempotenciaService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Idempotency-Key em POST /pedidos e /usuarios, com a tabela ligada: repetição devolve a mesma
+ * resposta sem criar de novo, inclusive em paralelo e quando a chave veio de outra instância;
+ * falha da tabela na reserva não deixa a chave presa em memória.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "idempotencia.tabela=true")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IdempotenciaTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+    @Autowired
+    IdempotenciaService idempotenciaService;
+
+    private Usuario cliente;
+    private Automovel automovel;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        cliente = usuarioRepository.save(new Usuario("Cliente Idem", "ID" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        automovel = automovelRepository.save(new Automovel("ID" + sufixo, "MID" + sufixo, 2022, "Marca", "Modelo", cliente));
+    }
+
+    private ResponseEntity<String> post(String rota, String corpo, String chave) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        if (chave != null) h.set("Idempotency-Key", chave);
+        return rest.exchange(url(rota), HttpMethod.POST, new HttpEntity<>(corpo, h), String.class);
+    }
+
+    private static String usuario(String cpf) {
+        return "{\"nome\":\"Idem\",\"cpf\":\"" + cpf + "\",\"rg\":\"RG\",\"endereco\":\"Rua\",\"profissao\":\"Dev\","
+                + "\"senha\":\"abc123\",\"tipoUsuario\":\"Cliente\"}";
+    }
+
+    private static String cpfNovo() {
+        return String.valueOf(10_000_000_000L + ThreadLocalRandom.current().nextLong(89_999_999_999L));
+    }
+
+    @Test
+    void pedidoRepetido_mesmaResposta_umaInsercao() {
+        String corpo = "{\"cliente\":{\"id\":" + cliente.getId() + "},\"automovel\":{\"id\":" + automovel.getId() + "}}";
+        int antes = pedidoRepository.findByClienteId(cliente.getId()).size();
+        String chave = UUID.randomUUID().toString();
+
+        ResponseEntity<String> primeira = post("/pedidos", corpo, chave);
+        ResponseEntity<String> segunda = post("/pedidos", corpo, chave);
+
+        assertThat(primeira.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(primeira.getHeaders().getFirst("Idempotent-Replayed")).isNull();
+        assertThat(segunda.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(segunda.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(segunda.getBody()).isEqualTo(primeira.getBody());
+        assertThat(pedidoRepository.findByClienteId(cliente.getId())).hasSize(antes + 1);
+
+        // Sem a chave continua criando
+        assertThat(post("/pedidos", corpo, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(pedidoRepository.findByClienteId(cliente.getId())).hasSize(antes + 2);
+        assertThat(jdbc.queryForObject("select status from idempotencia where chave = ?", Integer.class,
+                "POST /pedidos " + chave)).isEqualTo(200);
+    }
+
+    @Test
+    void usuarioEmParalelo_executaUmaVez() throws Exception {
+        String corpo = usuario(cpfNovo());
+        String chave = UUID.randomUUID().toString();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<String>>> futuros = new ArrayList<>();
+            for (int i = 0; i < 8; i++) futuros.add(pool.submit(() -> post("/usuarios", corpo, chave)));
+            Set<String> corpos = new HashSet<>();
+            int originais = 0;
+            for (Future<ResponseEntity<String>> f : futuros) {
+                ResponseEntity<String> r = f.get(30, TimeUnit.SECONDS);
+                // Sem idempotência as repetições dariam 409 CPF_DUPLICADO
+                assertThat(r.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+                corpos.add(r.getBody());
+                if (r.getHeaders().getFirst("Idempotent-Replayed") == null) originais++;
+            }
+            assertThat(originais).isEqualTo(1);
+            assertThat(corpos).hasSize(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void mesmaChaveOutroCorpo_422() {
+        String chave = UUID.randomUUID().toString();
+        assertThat(post("/usuarios", usuario(cpfNovo()), chave).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        ResponseEntity<String> outro = post("/usuarios", usuario(cpfNovo()), chave);
+        assertThat(outro.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(outro.getBody()).contains("IDEMPOTENCY_KEY_REUTILIZADA");
+    }
+
+    @Test
+    void chaveInvalida_400() {
+        ResponseEntity<String> r = post("/usuarios", usuario(cpfNovo()), "x".repeat(256));
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(r.getBody()).contains("IDEMPOTENCY_KEY_INVALIDA");
+    }
+
+    @Test
+    void chaveGravadaPorOutraInstancia_repeteDaTabela() throws Exception {
+        String cpf = cpfNovo();
+        String corpo = usuario(cpf);
+        String chave = UUID.randomUUID().toString();
+        String impressao = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo.getBytes(StandardCharsets.UTF_8)));
+        jdbc.update("insert into idempotencia (chave, impressao, criado_em, status, tipo_conteudo, corpo) values (?, ?, ?, ?, ?, ?)",
+                "POST /usuarios " + chave, impressao, Timestamp.from(Instant.now()), 201, "application/json", "{\"id\":-1}");
+
+        ResponseEntity<String> r = post("/usuarios", corpo, chave);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(r.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(r.getBody()).isEqualTo("{\"id\":-1}");
+        assertThat(usuarioRepository.findByCpf(cpf)).isEmpty();
+    }
+
+    @Test
+    void falhaDaTabelaNaReserva_naoPrendeAChave() {
+        String chave = "POST /usuarios " + UUID.randomUUID();
+        jdbc.execute("alter table idempotencia rename to idempotencia_fora");
+        try {
+            assertThatThrownBy(() -> idempotenciaService.reservar(chave, "impressao"))
+                    .isInstanceOf(DataAccessException.class);
+        } finally {
+            jdbc.execute("alter table idempotencia_fora rename to idempotencia");
+        }
+        // Antes ficava em memória como em andamento, sem ninguém para concluir
+        IdempotenciaService.Reserva reserva = idempotenciaService.reservar(chave, "impressao");
+        assertThat(reserva.situacao()).isEqualTo(IdempotenciaService.Situacao.NOVA);
+        idempotenciaService.concluir(chave, reserva, null);
+    }
+}
@@ -0,0 +1,178 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Usuario;
+import com.projeto.repository.UsuarioRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /usuarios e /usuarios/login: senha sempre gravada como BCrypt (inclusive texto que já parece
+ * hash), senha legada regravada no primeiro login, 429 com Retry-After por CPF e por IP (cliente do
+ * X-Forwarded-For) e 503 HASH_SATURADO com o pool de hash cheio.
+ * Cada login sai de um IP próprio, já que os baldes duram o contexto inteiro.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"login.limite.ip.capacidade=3", "login.limite.ip.por-minuto=1", "senha.hash.threads=1", "senha.hash.fila=1", "senha.bcrypt.custo=12"})
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class LoginSenhaTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    private final AtomicInteger ips = new AtomicInteger();
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    private static String cpfAleatorio() {
+        return String.format("%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+    }
+
+    private String ipNovo() {
+        int n = ips.incrementAndGet();
+        return "203.0." + (113 + n / 250) + "." + (1 + n % 250);
+    }
+
+    private ResponseEntity<Map> login(String cpf, String senha) {
+        return login(cpf, senha, ipNovo());
+    }
+
+    private ResponseEntity<Map> login(String cpf, String senha, String ip) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        h.set("X-Forwarded-For", ip);
+        return rest.postForEntity(url("/usuarios/login"), new HttpEntity<>(Map.of("cpf", cpf, "senha", senha), h), Map.class);
+    }
+
+    private ResponseEntity<Map> criarUsuario(String cpf, String senha) {
+        Map<String, Object> corpo = Map.of("nome", "Login Teste", "cpf", cpf, "senha", senha, "tipoUsuario", "Cliente");
+        return rest.postForEntity(url("/usuarios"), corpo, Map.class);
+    }
+
+    private String senhaGravada(String cpf) {
+        return jdbc.queryForObject("select senha from usuario where cpf = ?", String.class, cpf);
+    }
+
+    @Test
+    void cadastro_gravaBCryptENaoDevolveSenha() {
+        String cpf = cpfAleatorio();
+        ResponseEntity<Map> criado = criarUsuario(cpf, "minhaSenha1");
+        assertThat(criado.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(criado.getBody()).doesNotContainKey("senha");
+        assertThat(senhaGravada(cpf)).startsWith("$2").isNotEqualTo("minhaSenha1");
+        assertThat(bcrypt.matches("minhaSenha1", senhaGravada(cpf))).isTrue();
+
+        assertThat(login(cpf, "minhaSenha1").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(login(cpf, "outra").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void senhaComCaraDeHash_tambemViraHash() {
+        // Se fosse gravado como veio, o cliente escolheria hash e custo, e entraria com "x"
+        String enviado = new BCryptPasswordEncoder(4).encode("x");
+        String cpf = cpfAleatorio();
+        assertThat(criarUsuario(cpf, enviado).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(senhaGravada(cpf)).isNotEqualTo(enviado);
+        assertThat(bcrypt.matches(enviado, senhaGravada(cpf))).isTrue();
+
+        assertThat(login(cpf, enviado).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(login(cpf, "x").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void senhaLegada_regravadaNoLogin() {
+        String cpf = cpfAleatorio();
+        // Gravado pelo repositório, sem passar pelo SenhaService: texto puro como nas linhas antigas
+        usuarioRepository.save(new Usuario("Legado", cpf, "RG", "Rua", "Dev", "segredo", Usuario.TipoUsuario.Cliente));
+        assertThat(senhaGravada(cpf)).isEqualTo("segredo");
+
+        assertThat(login(cpf, "errada").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(senhaGravada(cpf)).isEqualTo("segredo");
+
+        assertThat(login(cpf, "segredo").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(senhaGravada(cpf)).startsWith("$2");
+        assertThat(bcrypt.matches("segredo", senhaGravada(cpf))).isTrue();
+        assertThat(login(cpf, "segredo").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void limitePorCpf_429ComRetryAfter() {
+        String cpf = cpfAleatorio();
+        for (int i = 0; i < 5; i++) {
+            assertThat(login(cpf, "errada").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+        // Mesmo vindo de outro IP
+        ResponseEntity<Map> bloqueado = login(cpf, "errada");
+        assertThat(bloqueado.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(bloqueado.getBody().get("code")).isEqualTo("LOGIN_BLOQUEADO");
+        // Recarga de 5 por minuto: uma ficha em até 12 s
+        long retryAfter = Long.parseLong(bloqueado.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertThat(retryAfter).isBetween(1L, 12L);
+        assertThat(((Number) bloqueado.getBody().get("retryAfter")).longValue()).isEqualTo(retryAfter);
+    }
+
+    @Test
+    void limitePorIp_contaOClienteDoXForwardedFor() {
+        // CPFs diferentes: só o balde do IP enche
+        for (int i = 0; i < 3; i++) {
+            assertThat(login(cpfAleatorio(), "errada", "198.51.100.10").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+        ResponseEntity<Map> bloqueado = login(cpfAleatorio(), "errada", "198.51.100.10");
+        assertThat(bloqueado.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(bloqueado.getBody().get("code")).isEqualTo("LOGIN_BLOQUEADO");
+        assertThat(bloqueado.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+        // Outro cliente atrás do mesmo proxy segue com o próprio balde
+        assertThat(login(cpfAleatorio(), "errada", "198.51.100.11").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void poolDeHashCheio_503HashSaturado() throws Exception {
+        // Uma thread de hash e fila de 1: numa rajada simultânea, a terceira em diante é recusada
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<ResponseEntity<Map>>> respostas = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String ip = ipNovo();
+                respostas.add(pool.submit(() -> {
+                    largada.await();
+                    return login(cpfAleatorio(), "errada", ip);
+                }));
+            }
+            largada.countDown();
+            List<ResponseEntity<Map>> saturadas = new ArrayList<>();
+            for (Future<ResponseEntity<Map>> f : respostas) {
+                ResponseEntity<Map> r = f.get(60, TimeUnit.SECONDS);
+                if (r.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) saturadas.add(r);
+                else assertThat(r.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+            }
+            assertThat(saturadas).isNotEmpty();
+            assertThat(saturadas.get(0).getBody().get("code")).isEqualTo("HASH_SATURADO");
+            assertThat(saturadas.get(0).getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
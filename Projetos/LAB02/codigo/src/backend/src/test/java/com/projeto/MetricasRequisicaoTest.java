@@ -0,0 +1,142 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MetricasRequisicaoFilter: http.server.sql.statements e http.server.response.size por requisição,
+ * com a uri como padrão da rota (NOT_FOUND sem rota) e o teto de valores de uri por métrica.
+ * A contagem é no JDBC, então comandos do JdbcTemplate entram junto com os do Hibernate.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "metricas.uri.maximo=4")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MetricasRequisicaoTest {
+
+    private static final String SQL = "http.server.sql.statements";
+    private static final String TAMANHO = "http.server.response.size";
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+
+    private final List<Long> pedidos = new ArrayList<>();
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        Usuario cliente = usuarioRepository.save(new Usuario("Cliente Metricas", "MT" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        Automovel automovel = automovelRepository.save(new Automovel("MT" + s, "MMT" + s, 2022, "Marca", "Modelo", cliente));
+        for (int i = 0; i < 3; i++) {
+            pedidos.add(pedidoRepository.save(new Pedido(cliente, automovel, Pedido.StatusPedido.Em_analise, new Date())).getId());
+        }
+    }
+
+    private DistributionSummary resumo(String nome, String method, String uri, String status) {
+        return registry.find(nome).tags("method", method, "uri", uri, "status", status).summary();
+    }
+
+    private long contagem(String nome, String method, String uri, String status) {
+        DistributionSummary d = resumo(nome, method, uri, status);
+        return d == null ? 0 : d.count();
+    }
+
+    private double total(String nome, String method, String uri, String status) {
+        DistributionSummary d = resumo(nome, method, uri, status);
+        return d == null ? 0 : d.totalAmount();
+    }
+
+    private Set<String> uris(String nome) {
+        Set<String> uris = new HashSet<>();
+        registry.find(nome).summaries().forEach(d -> uris.add(d.getId().getTag("uri")));
+        return uris;
+    }
+
+    @Test
+    void sqlETamanho_porPadraoDeRota() {
+        long antes = contagem(SQL, "GET", "/pedidos/{id}", "200");
+        double sqlAntes = total(SQL, "GET", "/pedidos/{id}", "200");
+        double bytesAntes = total(TAMANHO, "GET", "/pedidos/{id}", "200");
+
+        long bytes = 0;
+        for (Long id : pedidos) {
+            ResponseEntity<String> r = rest.getForEntity(url("/pedidos/" + id), String.class);
+            assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+            bytes += r.getBody().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        // Três ids, uma série só: a uri é o padrão da rota, não a URL
+        assertThat(contagem(SQL, "GET", "/pedidos/{id}", "200") - antes).isEqualTo(pedidos.size());
+        assertThat(contagem(TAMANHO, "GET", "/pedidos/{id}", "200")).isEqualTo(contagem(SQL, "GET", "/pedidos/{id}", "200"));
+        assertThat(total(SQL, "GET", "/pedidos/{id}", "200") - sqlAntes).isGreaterThanOrEqualTo(pedidos.size());
+        assertThat(total(TAMANHO, "GET", "/pedidos/{id}", "200") - bytesAntes).isEqualTo((double) bytes);
+        assertThat(uris(SQL)).noneMatch(u -> u.matches(".*/\\d+.*"));
+    }
+
+    @Test
+    void jdbcTemplate_tambemConta() {
+        // Histórico de pedido inexistente: um select do JdbcTemplate e nenhum do Hibernate
+        String uri = "/pedidos/{id}/historico";
+        double antes = total(SQL, "GET", uri, "404");
+        assertThat(rest.getForEntity(url("/pedidos/-1/historico"), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(total(SQL, "GET", uri, "404") - antes).isEqualTo(1.0);
+    }
+
+    @Test
+    void semSql_registraZero() {
+        // /usuarios/me sem token responde 401 sem ir ao banco
+        double antes = total(SQL, "GET", "/usuarios/me", "401");
+        long contagemAntes = contagem(SQL, "GET", "/usuarios/me", "401");
+        assertThat(rest.getForEntity(url("/usuarios/me"), String.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(contagem(SQL, "GET", "/usuarios/me", "401")).isEqualTo(contagemAntes + 1);
+        assertThat(total(SQL, "GET", "/usuarios/me", "401")).isEqualTo(antes);
+    }
+
+    @Test
+    void semRota_uriFixaEComTeto() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(rest.getForEntity(url("/rota-inexistente-" + UUID.randomUUID() + "/" + i), String.class).getStatusCode())
+                    .isEqualTo(HttpStatus.NOT_FOUND);
+        }
+        assertThat(uris(SQL)).noneMatch(u -> u.contains("rota-inexistente")).doesNotContain("/**");
+        assertThat(contagem(SQL, "GET", "NOT_FOUND", "404")).isGreaterThanOrEqualTo(20);
+
+        // Rotas distintas além do teto (metricas.uri.maximo=4): as séries novas são descartadas
+        for (String rota : List.of("/pedidos", "/automoveis", "/usuarios", "/contratos", "/rendimentos", "/agentes", "/clientes")) {
+            rest.getForEntity(url(rota), String.class);
+        }
+        assertThat(uris(SQL)).hasSizeLessThanOrEqualTo(4);
+        assertThat(uris(TAMANHO)).hasSizeLessThanOrEqualTo(4);
+    }
+}
@@ -0,0 +1,142 @@
+package com.projeto;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banco criado pelo ddl-auto=update (db/esquema_ddl_auto.sql), com pedidos já gravados, migrado
+ * como no perfil postgres: baseline na V1 e as demais por cima. Roda no H2 em modo PostgreSQL,
+ * com setval emulado por um alias; a V3 (índice parcial, que o H2 não tem) fica de fora.
+ * No fim o esquema precisa ter as mesmas colunas de um banco criado do zero pelas migrações.
+ */
+public class MigracaoBaselineTest {
+
+    private static final int ALOCACAO = 50; // @SequenceGenerator de Pedido
+
+    private DriverManagerDataSource ds;
+    private JdbcTemplate jdbc;
+
+    // setval do Postgres com is_called = true: o próximo nextval devolve valor + incremento
+    public static long setval(Connection c, String sequencia, long valor) throws SQLException {
+        long incremento;
+        try (PreparedStatement ps = c.prepareStatement(
+                "select increment from information_schema.sequences where sequence_name = ?")) {
+            ps.setString(1, sequencia);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                incremento = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement ps = c.prepareStatement("alter sequence " + sequencia + " restart with " + (valor + incremento))) {
+            ps.execute();
+        }
+        return valor;
+    }
+
+    @BeforeEach
+    void criar() {
+        ds = banco();
+        new ResourceDatabasePopulator(new ClassPathResource("db/esquema_ddl_auto.sql")).execute(ds);
+        jdbc = new JdbcTemplate(ds);
+    }
+
+    @AfterEach
+    void fechar() {
+        jdbc.execute("shutdown");
+    }
+
+    private void migrar() {
+        migrar(ds);
+    }
+
+    private static void migrar(DriverManagerDataSource ds) {
+        Flyway.configure().dataSource(ds).locations("classpath:db/migration/comum")
+                .baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        // Específicas do Postgres depois da V3, com histórico próprio
+        Flyway.configure().dataSource(ds).locations("classpath:db/migration/postgresql")
+                .table("flyway_postgresql").baselineOnMigrate(true).baselineVersion("3").load().migrate();
+    }
+
+    private static DriverManagerDataSource banco() {
+        DriverManagerDataSource banco = new DriverManagerDataSource("jdbc:h2:mem:baseline-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(banco).execute("create alias setval for 'com.projeto.MigracaoBaselineTest.setval'");
+        return banco;
+    }
+
+    private static List<String> colunas(JdbcTemplate jdbc) {
+        return jdbc.queryForList("select table_name || '.' || column_name || ' ' || data_type || ' ' || is_nullable"
+                + " from information_schema.columns where table_schema = 'public'"
+                + " and table_name not like 'flyway%' order by table_name, column_name", String.class);
+    }
+
+    private void inserirPedido(long id) {
+        jdbc.update("insert into pedido (id, status, data_pedido) values (?, 'Em_analise', current_date)", id);
+    }
+
+    // Primeiro id do bloco que o otimizador pooled do Hibernate tira de um nextval
+    private long proximoBloco() {
+        return jdbc.queryForObject("select nextval('pedido_seq')", Long.class) - ALOCACAO + 1;
+    }
+
+    @Test
+    void pedidosDoIdentity_sequenciaComecaDepoisDoMaiorId() {
+        for (long id : new long[] {1, 2, 3, 70}) inserirPedido(id);
+        migrar();
+
+        long inicio = proximoBloco();
+        assertThat(inicio).isGreaterThan(70);
+        inserirPedido(inicio);
+        inserirPedido(inicio + ALOCACAO - 1);
+        assertThat(jdbc.queryForObject("select count(*) from pedido", Long.class)).isEqualTo(6);
+    }
+
+    @Test
+    void sequenciaJaAdiantada_naoVolta() {
+        // Banco do ddl-auto=update já com o @SequenceGenerator: a sequência existe e está à frente
+        jdbc.execute("create sequence pedido_seq start with 1000 increment by 50");
+        inserirPedido(5);
+        migrar();
+        assertThat(proximoBloco()).isGreaterThan(1000);
+    }
+
+    @Test
+    void pedidosAntigos_recebemVersaoEAceitamUpdateOtimista() {
+        inserirPedido(1);
+        migrar();
+        assertThat(jdbc.queryForObject("select versao from pedido where id = 1", Long.class)).isZero();
+        // O update que o Hibernate gera para @Version
+        assertThat(jdbc.update("update pedido set status = 'Aprovado', versao = ? where id = ? and versao = ?", 1, 1, 0))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void esquemaMigrado_igualAoCriadoDoZero() {
+        migrar();
+        DriverManagerDataSource novo = banco();
+        JdbcTemplate jdbcNovo = new JdbcTemplate(novo);
+        try {
+            migrar(novo);
+            assertThat(colunas(jdbc)).isNotEmpty().containsExactlyElementsOf(colunas(jdbcNovo));
+            assertThat(jdbc.queryForObject("select count(*) from information_schema.sequences"
+                    + " where sequence_name = 'pedido_seq'", Long.class)).isEqualTo(1);
+        } finally {
+            jdbcNovo.execute("shutdown");
+        }
+    }
+}
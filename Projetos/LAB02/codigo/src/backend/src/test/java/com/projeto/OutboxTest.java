@@ -0,0 +1,242 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projeto.event.EventoOutbox;
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.DestinoOutbox;
+import com.projeto.service.PedidoService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox de pedidos: evento gravado junto com a mudança (e descartado no rollback), entregue em
+ * ordem a cada destino, repetido quando o webhook falha, sem a requisição esperar pela entrega.
+ * O webhook é um HttpServer local; "teste" é um destino a mais registrado só aqui.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"outbox.destinos=teste,webhook,arquivo", "outbox.intervalo-ms=50", "outbox.espera-maxima-ms=200",
+                "outbox.arquivo.caminho=target/outbox-teste/pedidos.ndjson"})
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OutboxTest {
+
+    static final HttpServer WEBHOOK;
+    static final List<JsonNode> RECEBIDOS_WEBHOOK = new CopyOnWriteArrayList<>();
+    static final AtomicInteger FALHAS_A_DAR = new AtomicInteger();
+    static volatile CountDownLatch segurarWebhook = new CountDownLatch(0);
+    static final List<EventoOutbox> RECEBIDOS_TESTE = new CopyOnWriteArrayList<>();
+
+    static {
+        try {
+            Files.deleteIfExists(Path.of("target/outbox-teste/pedidos.ndjson"));
+            WEBHOOK = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+        ObjectMapper leitor = new ObjectMapper();
+        WEBHOOK.createContext("/eventos", troca -> {
+            byte[] corpo = troca.getRequestBody().readAllBytes();
+            try {
+                segurarWebhook.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int status = 204;
+            if (FALHAS_A_DAR.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                status = 503;
+            } else {
+                leitor.readTree(corpo).forEach(RECEBIDOS_WEBHOOK::add);
+            }
+            troca.sendResponseHeaders(status, -1);
+            troca.close();
+        });
+        WEBHOOK.start();
+    }
+
+    @DynamicPropertySource
+    static void webhook(DynamicPropertyRegistry registry) {
+        registry.add("outbox.webhook.url", () -> "http://127.0.0.1:" + WEBHOOK.getAddress().getPort() + "/eventos");
+    }
+
+    @TestConfiguration
+    static class DestinoTeste {
+        @Bean
+        DestinoOutbox destinoTeste() {
+            return new DestinoOutbox() {
+                @Override
+                public String nome() {
+                    return "teste";
+                }
+
+                @Override
+                public void entregar(List<EventoOutbox> lote) {
+                    RECEBIDOS_TESTE.addAll(lote);
+                }
+            };
+        }
+    }
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    TransactionTemplate tx;
+    @Autowired
+    PedidoService pedidoService;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+
+    private Usuario cliente;
+    private Automovel automovel;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        cliente = usuarioRepository.save(new Usuario("Cliente Outbox", "OB" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        automovel = automovelRepository.save(new Automovel("OB" + sufixo, "MOB" + sufixo, 2022, "Marca", "Modelo", cliente));
+    }
+
+    @AfterAll
+    void desligar() {
+        segurarWebhook.countDown();
+        WEBHOOK.stop(0);
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 15_000;
+        while (!condicao.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("tempo esgotado esperando a entrega").isLessThan(limite);
+            Thread.sleep(20);
+        }
+    }
+
+    private Long criarPedido() {
+        String corpo = "{\"cliente\":{\"id\":" + cliente.getId() + "},\"automovel\":{\"id\":" + automovel.getId() + "}}";
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Map> r = rest.exchange(url("/pedidos"), HttpMethod.POST, new HttpEntity<>(corpo, h), Map.class);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((Number) r.getBody().get("id")).longValue();
+    }
+
+    private void mudarStatus(Long id, String status) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        assertThat(rest.exchange(url("/pedidos/" + id + "/status"), HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("status", status), h), Map.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private List<String> tiposNoWebhook(Long pedidoId) {
+        return RECEBIDOS_WEBHOOK.stream().filter(n -> n.get("pedidoId").asLong() == pedidoId)
+                .map(n -> n.get("tipo").asText()).toList();
+    }
+
+    @Test
+    void entregaEmOrdem_todosOsDestinos_mesmoComWebhookFalhando() throws Exception {
+        FALHAS_A_DAR.set(2);
+        Long id = criarPedido();
+        mudarStatus(id, "APROVADO");
+        mudarStatus(id, "CANCELADO");
+
+        aguardar(() -> tiposNoWebhook(id).size() >= 3);
+        assertThat(tiposNoWebhook(id)).containsExactly("CRIADO", "STATUS_ALTERADO", "STATUS_ALTERADO");
+        List<JsonNode> doPedido = RECEBIDOS_WEBHOOK.stream().filter(n -> n.get("pedidoId").asLong() == id).toList();
+        assertThat(doPedido.get(1).get("evento").get("pedido").get("status").asText()).isEqualTo("APROVADO");
+        assertThat(doPedido.get(2).get("evento").get("statusAnterior").asText()).isEqualTo("APROVADO");
+        assertThat(FALHAS_A_DAR.get()).isZero();
+
+        aguardar(() -> RECEBIDOS_TESTE.stream().filter(e -> e.pedidoId().equals(id)).count() == 3);
+        List<Long> ids = RECEBIDOS_TESTE.stream().filter(e -> e.pedidoId().equals(id)).map(EventoOutbox::id).toList();
+        assertThat(ids).isSorted();
+
+        aguardar(() -> jdbc.queryForObject("select count(*) from pedido_outbox where pedido_id = ?", Long.class, id) == 0);
+        List<String> linhas = Files.readAllLines(Path.of("target/outbox-teste/pedidos.ndjson"), StandardCharsets.UTF_8);
+        assertThat(linhas.stream().filter(l -> l.contains("\"pedidoId\":" + id + ",")).count()).isEqualTo(3);
+    }
+
+    @Test
+    void exclusaoDoCliente_gravaRemovidoDosPedidos() throws Exception {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        Usuario dono = usuarioRepository.save(new Usuario("Cliente Removido", "OR" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        Automovel carro = automovelRepository.save(new Automovel("OR" + sufixo, "MOR" + sufixo, 2022, "Marca", "Modelo", dono));
+        String corpo = "{\"cliente\":{\"id\":" + dono.getId() + "},\"automovel\":{\"id\":" + carro.getId() + "}}";
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        Long id = ((Number) rest.exchange(url("/pedidos"), HttpMethod.POST, new HttpEntity<>(corpo, h), Map.class).getBody().get("id")).longValue();
+
+        // Pedido apagado pela cascata do usuário, não pelo PedidoService
+        assertThat(rest.exchange(url("/usuarios/" + dono.getId()), HttpMethod.DELETE, null, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        aguardar(() -> tiposNoWebhook(id).size() >= 2);
+        assertThat(tiposNoWebhook(id)).containsExactly("CRIADO", "REMOVIDO");
+    }
+
+    @Test
+    void rollback_naoGravaEvento() throws Exception {
+        Long[] id = new Long[1];
+        tx.executeWithoutResult(s -> {
+            id[0] = pedidoService.salvar(new Pedido(cliente, automovel, Pedido.StatusPedido.Em_analise, new Date())).getId();
+            s.setRollbackOnly();
+        });
+        Long marco = criarPedido(); // entregue depois do que teria sido o evento desfeito
+        aguardar(() -> RECEBIDOS_TESTE.stream().anyMatch(e -> e.pedidoId().equals(marco)));
+        assertThat(RECEBIDOS_TESTE).noneMatch(e -> e.pedidoId().equals(id[0]));
+        assertThat(jdbc.queryForObject("select count(*) from pedido_outbox where pedido_id = ?", Long.class, id[0])).isZero();
+    }
+
+    @Test
+    void requisicaoNaoEsperaEntrega() throws Exception {
+        segurarWebhook = new CountDownLatch(1);
+        try {
+            Long primeiro = criarPedido();
+            aguardar(() -> jdbc.queryForObject("select count(*) from pedido_outbox where pedido_id = ? and destino = 'teste'",
+                    Long.class, primeiro) == 0);
+            // O webhook está preso no primeiro pedido; a próxima escrita responde do mesmo jeito
+            long inicio = System.nanoTime();
+            Long segundo = criarPedido();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(5_000);
+            assertThat(jdbc.queryForObject("select count(*) from pedido_outbox where pedido_id = ? and destino = 'webhook'",
+                    Long.class, segundo)).isEqualTo(1);
+            assertThat(tiposNoWebhook(segundo)).isEmpty();
+        } finally {
+            segurarWebhook.countDown();
+        }
+        aguardar(() -> jdbc.queryForObject("select count(*) from pedido_outbox where destino = 'webhook'", Long.class) == 0);
+    }
+}
@@ -0,0 +1,187 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.PedidoService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /pedidos paginado por cursor (keyset em id decrescente): continuidade entre páginas com a
+ * mesma data, última página sem nextCursor, filtros de status, cliente e período (inclusivos),
+ * limites de tamanho e a tabela inteira percorrida sem repetir nem pular pedidos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PaginacaoPedidosTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private Automovel automovel;
+
+    private static final LocalDate DIA = LocalDate.of(2030, 6, 15);
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        Usuario dono = usuarioRepository.save(new Usuario("Dono Pagina", "PD" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Agente));
+        automovel = automovelRepository.save(new Automovel("PG" + s, "MPG" + s, 2022, "Marca", "Modelo", dono));
+    }
+
+    private Usuario cliente() {
+        String s = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        return usuarioRepository.save(new Usuario("Cliente Pagina", "PC" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+    }
+
+    private List<Long> pedidos(Usuario cliente, int n, Pedido.StatusPedido status, LocalDate dia) {
+        List<Pedido> novos = new ArrayList<>();
+        for (int i = 0; i < n; i++) novos.add(new Pedido(cliente, automovel, status, Date.valueOf(dia)));
+        return pedidoRepository.saveAll(novos).stream().map(Pedido::getId).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> pagina(String consulta) {
+        ResponseEntity<Map> r = rest.getForEntity(url("/pedidos?view=summary&" + consulta), Map.class);
+        assertThat(r.getStatusCode()).as(consulta).isEqualTo(HttpStatus.OK);
+        return r.getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> ids(Map<String, Object> pagina) {
+        return ((List<Map<String, Object>>) pagina.get("itens")).stream().map(p -> ((Number) p.get("id")).longValue()).toList();
+    }
+
+    // Segue nextCursor até o fim, guardando o tamanho de cada página
+    private List<Long> percorrer(String filtro, int limite, List<Integer> tamanhos) {
+        List<Long> todos = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, Object> p = pagina((filtro.isEmpty() ? "" : filtro + "&") + "limite=" + limite + (cursor != null ? "&cursor=" + cursor : ""));
+            List<Long> ids = ids(p);
+            tamanhos.add(ids.size());
+            todos.addAll(ids);
+            cursor = (String) p.get("nextCursor");
+            if (cursor != null) assertThat(cursor).isEqualTo(String.valueOf(ids.get(ids.size() - 1)));
+        } while (cursor != null);
+        return todos;
+    }
+
+    @Test
+    void mesmaData_paginasContinuasAteAUltima() {
+        Usuario c = cliente();
+        List<Long> criados = pedidos(c, 7, Pedido.StatusPedido.Em_analise, DIA);
+        List<Integer> tamanhos = new ArrayList<>();
+        List<Long> vistos = percorrer("clienteId=" + c.getId(), 3, tamanhos);
+
+        assertThat(tamanhos).containsExactly(3, 3, 1);
+        List<Long> esperado = new ArrayList<>(criados);
+        esperado.sort(Comparator.reverseOrder());
+        assertThat(vistos).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void ultimaPaginaCheia_semNextCursor() {
+        Usuario c = cliente();
+        pedidos(c, 6, Pedido.StatusPedido.Em_analise, DIA);
+        List<Integer> tamanhos = new ArrayList<>();
+        percorrer("clienteId=" + c.getId(), 3, tamanhos);
+        // Sem página vazia no fim: o registro a mais da consulta já diz que acabou
+        assertThat(tamanhos).containsExactly(3, 3);
+
+        Map<String, Object> vazio = pagina("clienteId=" + cliente().getId());
+        assertThat(ids(vazio)).isEmpty();
+        assertThat(vazio.get("nextCursor")).isNull();
+    }
+
+    @Test
+    void filtros_statusClienteEPeriodoInclusivo() {
+        Usuario c = cliente();
+        List<Long> pendentes = pedidos(c, 2, Pedido.StatusPedido.Em_analise, DIA);
+        List<Long> aprovados = pedidos(c, 2, Pedido.StatusPedido.Aprovado, DIA.plusDays(1));
+        List<Long> antigos = pedidos(c, 1, Pedido.StatusPedido.Aprovado, DIA.minusDays(10));
+        pedidos(cliente(), 3, Pedido.StatusPedido.Aprovado, DIA);
+
+        String doCliente = "clienteId=" + c.getId();
+        assertThat(ids(pagina(doCliente))).containsExactlyInAnyOrderElementsOf(concat(pendentes, aprovados, antigos));
+        assertThat(ids(pagina(doCliente + "&status=PENDENTE"))).containsExactlyInAnyOrderElementsOf(pendentes);
+        assertThat(ids(pagina(doCliente + "&status=APROVADO"))).containsExactlyInAnyOrderElementsOf(concat(aprovados, antigos));
+        // de e ate inclusivos
+        assertThat(ids(pagina(doCliente + "&de=" + DIA + "&ate=" + DIA.plusDays(1)))).containsExactlyInAnyOrderElementsOf(concat(pendentes, aprovados));
+        assertThat(ids(pagina(doCliente + "&de=" + DIA.plusDays(1)))).containsExactlyInAnyOrderElementsOf(aprovados);
+        assertThat(ids(pagina(doCliente + "&ate=" + DIA.minusDays(1)))).containsExactlyInAnyOrderElementsOf(antigos);
+        assertThat(ids(pagina(doCliente + "&status=PENDENTE&de=" + DIA.plusDays(1)))).isEmpty();
+
+        // Filtro combinado com cursor
+        List<Integer> tamanhos = new ArrayList<>();
+        assertThat(percorrer(doCliente + "&status=APROVADO", 1, tamanhos)).containsExactlyInAnyOrderElementsOf(concat(aprovados, antigos));
+        assertThat(tamanhos).containsExactly(1, 1, 1);
+
+        assertThat(rest.getForEntity(url("/pedidos?status=QUALQUER"), String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rest.getForEntity(url("/pedidos?cursor=abc"), String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void limite_entreUmEMaximo() {
+        Usuario c = cliente();
+        pedidos(c, PedidoService.LIMITE_MAXIMO + 5, Pedido.StatusPedido.Em_analise, DIA);
+        String doCliente = "clienteId=" + c.getId();
+
+        assertThat(ids(pagina(doCliente + "&limite=0"))).hasSize(1);
+        assertThat(ids(pagina(doCliente + "&limite=-3"))).hasSize(1);
+        assertThat(ids(pagina(doCliente + "&limite=5000"))).hasSize(PedidoService.LIMITE_MAXIMO);
+        assertThat(ids(pagina(doCliente + "&cursor="))).hasSize(PedidoService.LIMITE_PADRAO);
+
+        List<Integer> tamanhos = new ArrayList<>();
+        assertThat(percorrer(doCliente, 5000, tamanhos)).hasSize(PedidoService.LIMITE_MAXIMO + 5).doesNotHaveDuplicates();
+        assertThat(tamanhos).containsExactly(PedidoService.LIMITE_MAXIMO, 5);
+    }
+
+    @Test
+    void tabelaInteira_semRepetirNemPular() {
+        pedidos(cliente(), 30, Pedido.StatusPedido.Em_analise, DIA);
+        List<Long> noBanco = jdbc.queryForList("select id from pedido order by id desc", Long.class);
+
+        List<Integer> tamanhos = new ArrayList<>();
+        List<Long> vistos = percorrer("", 17, tamanhos);
+        assertThat(vistos).doesNotHaveDuplicates().containsExactlyElementsOf(noBanco);
+        assertThat(tamanhos.subList(0, tamanhos.size() - 1)).allMatch(t -> t == 17);
+    }
+
+    @SafeVarargs
+    private static List<Long> concat(List<Long>... listas) {
+        List<Long> todos = new ArrayList<>();
+        for (List<Long> l : listas) todos.addAll(l);
+        return todos;
+    }
+}
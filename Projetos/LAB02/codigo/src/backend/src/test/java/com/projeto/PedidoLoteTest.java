@@ -0,0 +1,135 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.PedidoService;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /pedidos/lote: array JSON e NDJSON dão o mesmo relatório; linha com cliente ou automóvel
+ * inválido vira ERRO no índice dela sem impedir as outras; acima de LOTE_MAXIMO responde 413 e
+ * nada é gravado; corpo malformado responde 400.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PedidoLoteTest {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private Automovel automovel;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        Usuario dono = usuarioRepository.save(new Usuario("Dono Lote", "LD" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Agente));
+        automovel = automovelRepository.save(new Automovel("LT" + s, "MLT" + s, 2023, "Marca", "Modelo", dono));
+    }
+
+    private Usuario cliente() {
+        String s = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        return usuarioRepository.save(new Usuario("Cliente Lote", "LC" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+    }
+
+    private static String item(Long clienteId, Long automovelId) {
+        return "{\"cliente\":{\"id\":" + clienteId + "},\"automovel\":{\"id\":" + automovelId + "}}";
+    }
+
+    @SuppressWarnings("rawtypes")
+    private ResponseEntity<Map> enviar(String corpo, MediaType tipo) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(tipo);
+        return rest.postForEntity(url("/pedidos/lote"), new HttpEntity<>(corpo, h), Map.class);
+    }
+
+    private int pedidosDo(Usuario cliente) {
+        return jdbc.queryForObject("select count(*) from pedido where cliente_id = ?", Integer.class, cliente.getId());
+    }
+
+    // Duas válidas, cliente inexistente, automóvel inexistente e linha sem automóvel, misturadas
+    private List<String> linhas(Usuario c) {
+        return List.of(item(c.getId(), automovel.getId()), item(-1L, automovel.getId()),
+                item(c.getId(), -1L), "{\"cliente\":{\"id\":" + c.getId() + "}}", item(c.getId(), automovel.getId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void conferir(ResponseEntity<Map> r, Usuario c) {
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> corpo = r.getBody();
+        assertThat(corpo.get("total")).isEqualTo(5);
+        assertThat(corpo.get("criados")).isEqualTo(2);
+        assertThat(corpo.get("erros")).isEqualTo(3);
+        List<Map<String, Object>> itens = (List<Map<String, Object>>) corpo.get("itens");
+        assertThat(itens).extracting(i -> i.get("indice")).containsExactly(0, 1, 2, 3, 4);
+        assertThat(itens).extracting(i -> i.get("status")).containsExactly("CRIADO", "ERRO", "ERRO", "ERRO", "CRIADO");
+        assertThat((String) itens.get(1).get("erro")).contains("Cliente não encontrado");
+        assertThat((String) itens.get(2).get("erro")).contains("Automóvel não encontrado");
+        assertThat((String) itens.get(3).get("erro")).contains("obrigatórios");
+
+        List<Long> criados = List.of(((Number) itens.get(0).get("id")).longValue(), ((Number) itens.get(4).get("id")).longValue());
+        assertThat(jdbc.queryForList("select status from pedido where id in (?, ?)", String.class, criados.get(0), criados.get(1)))
+                .containsExactly("Em_analise", "Em_analise");
+        assertThat(pedidosDo(c)).isEqualTo(2);
+    }
+
+    @Test
+    void arrayJson_errosPorLinhaNaoInterrompemOLote() {
+        Usuario c = cliente();
+        conferir(enviar("[" + String.join(",", linhas(c)) + "]", MediaType.APPLICATION_JSON), c);
+    }
+
+    @Test
+    void ndjson_mesmoRelatorioQueOArray() {
+        Usuario c = cliente();
+        conferir(enviar(String.join("\n", linhas(c)) + "\n", NDJSON), c);
+    }
+
+    @Test
+    void acimaDoMaximo_413SemGravarNada() {
+        Usuario c = cliente();
+        StringBuilder corpo = new StringBuilder();
+        String linha = item(c.getId(), automovel.getId());
+        for (int i = 0; i <= PedidoService.LOTE_MAXIMO; i++) corpo.append(linha).append('\n');
+
+        ResponseEntity<Map> r = enviar(corpo.toString(), NDJSON);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(r.getBody().get("code")).isEqualTo("LOTE_EXCEDIDO");
+        assertThat(pedidosDo(c)).isZero();
+    }
+
+    @Test
+    void corpoMalformado_400() {
+        Usuario c = cliente();
+        ResponseEntity<Map> r = enviar(item(c.getId(), automovel.getId()) + "\n{\"cliente\":", NDJSON);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(r.getBody().get("code")).isEqualTo("LOTE_INVALIDO");
+        assertThat(pedidosDo(c)).isZero();
+    }
+}
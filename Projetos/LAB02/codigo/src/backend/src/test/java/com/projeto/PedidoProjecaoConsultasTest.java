@@ -0,0 +1,120 @@
+package com.projeto;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fixa o número de comandos SQL por requisição das views de pedido.
+ * Com a projeção via join, a quantidade não cresce com o número de pedidos/clientes/automóveis.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PedidoProjecaoConsultasTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+
+    private Long clienteId;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        // vários clientes/automóveis distintos para que um N+1 apareça na contagem
+        for (int i = 0; i < 4; i++) {
+            String sufixo = UUID.randomUUID().toString().substring(0, 6);
+            Usuario u = new Usuario("Cliente Proj " + i, "PJ" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente);
+            u = usuarioRepository.save(u);
+            Automovel a = automovelRepository.save(new Automovel("PJ" + sufixo, "MPJ" + sufixo, 2020 + i, "Marca" + i, "Modelo" + i, u));
+            pedidoRepository.save(new Pedido(u, a, Pedido.StatusPedido.Em_analise, new Date()));
+            pedidoRepository.save(new Pedido(u, a, Pedido.StatusPedido.Aprovado, new Date()));
+            clienteId = u.getId();
+        }
+    }
+
+    private long statementsFor(String path) {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        ResponseEntity<List> resp = rest.getForEntity(url(path), List.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody()).isNotEmpty();
+        return stats.getPrepareStatementCount();
+    }
+
+    @Test
+    void summaryUsaUmaConsulta() {
+        assertThat(statementsFor("/pedidos?view=summary")).isEqualTo(1);
+        assertThat(statementsFor("/pedidos/cliente/" + clienteId + "?view=summary")).isEqualTo(1);
+    }
+
+    @Test
+    void fullUsaUmaConsulta() {
+        assertThat(statementsFor("/pedidos?view=full")).isEqualTo(1);
+        assertThat(statementsFor("/pedidos/cliente/" + clienteId + "?view=full")).isEqualTo(1);
+    }
+
+    @Test
+    void summaryNaoExpoeColecoesNemSenha() {
+        for (String path : List.of("/pedidos?view=summary", "/pedidos/cliente/" + clienteId + "?view=summary")) {
+            ResponseEntity<List> resp = rest.getForEntity(url(path), List.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+            for (Object item : resp.getBody()) {
+                // Só campos planos: nem cliente/automóvel aninhados, nem senha, rendimentos ou créditos
+                assertThat(((Map<String,Object>) item).keySet()).as(path).containsExactlyInAnyOrder(
+                        "id", "status", "dataPedido", "clienteId", "clienteNome",
+                        "automovelId", "automovelPlaca", "automovelMarca", "automovelModelo");
+            }
+        }
+        Map<String,Object> primeiro = (Map<String,Object>) rest.getForEntity(
+                url("/pedidos/cliente/" + clienteId + "?view=summary"), List.class).getBody().get(0);
+        assertThat(((Number) primeiro.get("clienteId")).longValue()).isEqualTo(clienteId);
+        assertThat(primeiro.get("status")).isIn("PENDENTE", "APROVADO");
+    }
+
+    @Test
+    void fullNaoExpoeSenhaNemProprietario() {
+        ResponseEntity<List> resp = rest.getForEntity(url("/pedidos/cliente/" + clienteId + "?view=full"), List.class);
+        Map<String,Object> primeiro = (Map<String,Object>) resp.getBody().get(0);
+        assertThat(primeiro.get("status")).isIn("PENDENTE", "APROVADO");
+        assertThat((Map<String,Object>) primeiro.get("cliente")).doesNotContainKey("senha");
+        assertThat((Map<String,Object>) primeiro.get("automovel")).doesNotContainKey("proprietario");
+    }
+
+    @Test
+    void viewInvalidaRetorna400() {
+        ResponseEntity<String> resp = rest.getForEntity(url("/pedidos?view=xpto"), String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
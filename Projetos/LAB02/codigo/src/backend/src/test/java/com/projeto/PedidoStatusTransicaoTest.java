@@ -0,0 +1,185 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.UsuarioRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PATCH /pedidos/{id}/status: tabela de transições, versão otimista e corrida entre dois agentes.
+ * PUT /pedidos/{id} e POST /pedidos com id seguem a mesma tabela e registram o status anterior real.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PedidoStatusTransicaoTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+
+    private Usuario cliente;
+    private Automovel automovel;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        cliente = usuarioRepository.save(new Usuario("Cliente ST", "ST" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        automovel = automovelRepository.save(new Automovel("ST" + sufixo, "MST" + sufixo, 2022, "Marca", "Modelo", cliente));
+    }
+
+    private Long novoPedidoPendente() {
+        return pedidoRepository.save(new Pedido(cliente, automovel, Pedido.StatusPedido.Em_analise, new Date())).getId();
+    }
+
+    private ResponseEntity<Map> patch(Long id, Map<String,Object> payload) {
+        HttpHeaders h = new HttpHeaders();
+        h.setContentType(MediaType.APPLICATION_JSON);
+        return rest.exchange(url("/pedidos/"+id+"/status"), HttpMethod.PATCH, new HttpEntity<>(payload, h), Map.class);
+    }
+
+    @Test
+    void aprovarIncrementaVersao_eRejeitarDepoisEhInvalido() {
+        Long id = novoPedidoPendente();
+        ResponseEntity<Map> ok = patch(id, Map.of("status", "APROVADO"));
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ok.getBody().get("status")).isEqualTo("APROVADO");
+        assertThat(((Number) ok.getBody().get("versao")).longValue()).isEqualTo(1L);
+
+        ResponseEntity<Map> invalida = patch(id, Map.of("status", "REJEITADO"));
+        assertThat(invalida.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(invalida.getBody().get("code")).isEqualTo("TRANSICAO_INVALIDA");
+
+        // repetir a mesma decisão não é conflito
+        assertThat(patch(id, Map.of("status", "APROVADO")).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void versaoDesatualizadaRetorna409() {
+        Long id = novoPedidoPendente();
+        ResponseEntity<Map> resp = patch(id, Map.of("status", "CANCELADO", "versao", 7));
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(resp.getBody().get("code")).isEqualTo("VERSAO_DESATUALIZADA");
+        assertThat(pedidoRepository.findById(id).get().getStatus()).isEqualTo(Pedido.StatusPedido.Em_analise);
+    }
+
+    @Test
+    void aprovarERejeitarAoMesmoTempo_apenasUmVence() throws Exception {
+        for (int rodada = 0; rodada < 5; rodada++) {
+            Long id = novoPedidoPendente();
+            CountDownLatch largada = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            Future<ResponseEntity<Map>> aprova = pool.submit(() -> { largada.await(); return patch(id, Map.of("status", "APROVADO", "versao", 0)); });
+            Future<ResponseEntity<Map>> rejeita = pool.submit(() -> { largada.await(); return patch(id, Map.of("status", "REJEITADO", "versao", 0)); });
+            largada.countDown();
+            List<HttpStatusCode> codigos = List.of(aprova.get().getStatusCode(), rejeita.get().getStatusCode());
+            pool.shutdown();
+
+            assertThat(codigos).containsExactlyInAnyOrder(HttpStatus.OK, HttpStatus.CONFLICT);
+            Pedido finalizado = pedidoRepository.findById(id).get();
+            Pedido.StatusPedido vencedor = aprova.get().getStatusCode() == HttpStatus.OK ? Pedido.StatusPedido.Aprovado : Pedido.StatusPedido.Rejeitado;
+            assertThat(finalizado.getStatus()).isEqualTo(vencedor);
+            assertThat(finalizado.getVersao()).isEqualTo(1L);
+        }
+    }
+
+    private Map<String, Object> corpo(Long id, String status) {
+        Map<String, Object> corpo = new HashMap<>();
+        if (id != null) {
+            corpo.put("id", id);
+            corpo.put("versao", pedidoRepository.findById(id).get().getVersao());
+        }
+        corpo.put("cliente", Map.of("id", cliente.getId()));
+        corpo.put("automovel", Map.of("id", automovel.getId()));
+        if (status != null) corpo.put("status", status);
+        return corpo;
+    }
+
+    private ResponseEntity<Map> put(Long id, String status) {
+        return rest.exchange(url("/pedidos/" + id), HttpMethod.PUT, new HttpEntity<>(corpo(null, status)), Map.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> ultimoEvento(Long id) {
+        List<Map<String, Object>> eventos = (List<Map<String, Object>>) rest
+                .getForEntity(url("/pedidos/" + id + "/historico"), Map.class).getBody().get("eventos");
+        return eventos.get(eventos.size() - 1);
+    }
+
+    @Test
+    void put_respeitaTransicoesERegistraStatusAnterior() {
+        Long id = novoPedidoPendente();
+        assertThat(put(id, "APROVADO").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ultimoEvento(id)).containsEntry("status", "APROVADO").containsEntry("statusAnterior", "PENDENTE");
+
+        ResponseEntity<Map> volta = put(id, "PENDENTE");
+        assertThat(volta.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(volta.getBody().get("code")).isEqualTo("TRANSICAO_INVALIDA");
+        assertThat(put(id, "REJEITADO").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(pedidoRepository.findById(id).get().getStatus()).isEqualTo(Pedido.StatusPedido.Aprovado);
+
+        // Mesmo status ou sem status: não é transição
+        assertThat(put(id, "APROVADO").getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<Map> semStatus = put(id, null);
+        assertThat(semStatus.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(semStatus.getBody().get("status")).isEqualTo("APROVADO");
+
+        assertThat(put(id, "CANCELADO").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ultimoEvento(id)).containsEntry("statusAnterior", "APROVADO");
+    }
+
+    @Test
+    void postComId_respeitaTransicoesERegistraStatusAnterior() {
+        Long id = novoPedidoPendente();
+        ResponseEntity<Map> aprovado = rest.postForEntity(url("/pedidos"), corpo(id, "APROVADO"), Map.class);
+        assertThat(aprovado.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) aprovado.getBody().get("id")).longValue()).isEqualTo(id);
+        assertThat(ultimoEvento(id)).containsEntry("tipo", "STATUS_ALTERADO").containsEntry("statusAnterior", "PENDENTE");
+
+        ResponseEntity<Map> volta = rest.postForEntity(url("/pedidos"), corpo(id, "PENDENTE"), Map.class);
+        assertThat(volta.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(volta.getBody().get("code")).isEqualTo("TRANSICAO_INVALIDA");
+        assertThat(pedidoRepository.findById(id).get().getStatus()).isEqualTo(Pedido.StatusPedido.Aprovado);
+    }
+
+    @Test
+    void postComIdSemVersao_atualizaOPedidoGravado() {
+        Long id = novoPedidoPendente();
+        Map<String, Object> semVersao = corpo(id, "APROVADO");
+        semVersao.remove("versao");
+        ResponseEntity<Map> aprovado = rest.postForEntity(url("/pedidos"), semVersao, Map.class);
+        assertThat(aprovado.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) aprovado.getBody().get("id")).longValue()).isEqualTo(id);
+        assertThat(pedidoRepository.findById(id).get().getStatus()).isEqualTo(Pedido.StatusPedido.Aprovado);
+        assertThat(ultimoEvento(id)).containsEntry("statusAnterior", "PENDENTE");
+    }
+
+    @Test
+    void pedidoInexistenteRetorna404() {
+        assertThat(patch(99999999L, Map.of("status", "APROVADO")).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
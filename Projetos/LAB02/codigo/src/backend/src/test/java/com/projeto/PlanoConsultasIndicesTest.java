@@ -0,0 +1,172 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.projeto.model.Agente;
+import com.projeto.model.Automovel;
+import com.projeto.model.Credito;
+import com.projeto.model.Pedido;
+import com.projeto.model.Rendimento;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AgenteRepository;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.CreditoRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.RendimentoRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.PedidoService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Todo finder com filtro precisa de índice: captura o SQL que o Hibernate gerou (QUERY_STATISTICS
+ * do H2), roda EXPLAIN de cada comando e falha se alguma tabela for lida inteira, pela tabela ou
+ * por um índice sem condição.
+ * Listagens sem filtro (findAll, listarResumos, listarPeriodos, agregados) leem tudo de propósito
+ * e ficam de fora.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PlanoConsultasIndicesTest {
+
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    TransactionTemplate tx;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AgenteRepository agenteRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+    @Autowired
+    RendimentoRepository rendimentoRepository;
+    @Autowired
+    CreditoRepository creditoRepository;
+    @Autowired
+    PedidoService pedidoService;
+
+    // H2 anota cada tabela do plano: "/* PUBLIC.IDX_X: COL = ?1 */" é busca no índice; sem a condição
+    // ("/* PUBLIC.PEDIDO.tableScan */", "/* PUBLIC.PRIMARY_KEY_8 */") é varredura completa
+    private static final Pattern ACESSO = Pattern.compile("/\\* (PUBLIC\\.[^*]*)\\*/");
+
+    private Usuario cliente;
+    private Agente banco;
+    private Pedido pedido;
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        cliente = usuarioRepository.save(new Usuario("Cliente Plano", "PL" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        Automovel a = automovelRepository.save(new Automovel("PL" + sufixo, "MPL" + sufixo, 2021, "Marca", "Modelo", cliente));
+        pedido = pedidoRepository.save(new Pedido(cliente, a, Pedido.StatusPedido.Em_analise, new Date()));
+        rendimentoRepository.save(new Rendimento(1000.0, "Empresa Plano", cliente));
+        banco = new Agente();
+        banco.setNome("Banco Plano");
+        banco.setCpf("PB" + sufixo);
+        banco.setTipoUsuario(Usuario.TipoUsuario.Agente);
+        banco.setTipoAgente(Agente.TipoAgente.Banco);
+        banco = agenteRepository.save(banco);
+        creditoRepository.save(new Credito(banco, 5000.0, 24, 1.5));
+    }
+
+    @AfterAll
+    void desligar() {
+        jdbc.execute("SET QUERY_STATISTICS FALSE");
+    }
+
+    // SQL (com ?) de tudo que o finder executou no banco
+    private List<String> capturar(Runnable finder) {
+        emf.getCache().evictAll(); // sem isso o cache de segundo nível esconderia as consultas
+        jdbc.execute("SET QUERY_STATISTICS FALSE");
+        jdbc.execute("SET QUERY_STATISTICS TRUE");
+        finder.run();
+        List<String> sqls = jdbc.queryForList("select SQL_STATEMENT from INFORMATION_SCHEMA.QUERY_STATISTICS", String.class);
+        return sqls.stream()
+                .filter(s -> s.regionMatches(true, 0, "select", 0, 6) && !s.contains("INFORMATION_SCHEMA"))
+                .toList();
+    }
+
+    private String explicar(String sql) {
+        return jdbc.execute((java.sql.Connection con) -> {
+            try (PreparedStatement ps = con.prepareStatement("EXPLAIN " + sql)) {
+                int n = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= n; i++) ps.setObject(i, null);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+
+    private void assertUsaIndice(String finder, Runnable execucao) {
+        List<String> sqls = capturar(execucao);
+        assertThat(sqls).as(finder + " não executou SQL").isNotEmpty();
+        for (String sql : sqls) {
+            String plano = explicar(sql);
+            Matcher acesso = ACESSO.matcher(plano);
+            while (acesso.find()) {
+                assertThat(acesso.group(1)).as(finder + ": " + plano).contains(":");
+            }
+        }
+    }
+
+    @Test
+    void pedidoFinders() {
+        Long id = pedido.getId();
+        Long clienteId = cliente.getId();
+        assertUsaIndice("findById", () -> pedidoRepository.findById(id));
+        assertUsaIndice("buscarComRelacionamentos", () -> pedidoRepository.buscarComRelacionamentos(id));
+        assertUsaIndice("findByClienteId", () -> pedidoRepository.findByClienteId(clienteId));
+        assertUsaIndice("listarResumosPorCliente", () -> pedidoRepository.listarResumosPorCliente(clienteId));
+        assertUsaIndice("listarDetalhesPorCliente", () -> pedidoRepository.listarDetalhesPorCliente(clienteId));
+        assertUsaIndice("listarResumosPendentes", () -> pedidoRepository.listarResumosPendentes());
+        assertUsaIndice("listarResumosPorIds", () -> pedidoRepository.listarResumosPorIds(List.of(id)));
+    }
+
+    @Test
+    void paginaPedidosPorFiltro() {
+        LocalDate hoje = LocalDate.now();
+        assertUsaIndice("listarPagina(status)", () -> pedidoService.listarPagina(Pedido.StatusPedido.Em_analise, null, null, null, null, 20));
+        assertUsaIndice("listarPagina(cliente)", () -> pedidoService.listarPagina(null, cliente.getId(), null, null, null, 20));
+        assertUsaIndice("listarPagina(data)", () -> pedidoService.listarPagina(null, null, hoje.minusDays(1), hoje, null, 20));
+    }
+
+    @Test
+    void usuarioFinders() {
+        assertUsaIndice("findByCpf", () -> usuarioRepository.findByCpf(cliente.getCpf()));
+    }
+
+    // Coleções carregadas pela chave estrangeira do filho
+    @Test
+    void colecoesPorChaveEstrangeira() {
+        assertUsaIndice("Usuario.rendimentos", () -> tx.executeWithoutResult(s ->
+                usuarioRepository.findById(cliente.getId()).get().getRendimentos().size()));
+        assertUsaIndice("Usuario.automoveis", () -> tx.executeWithoutResult(s ->
+                usuarioRepository.findById(cliente.getId()).get().getAutomoveis().size()));
+        assertUsaIndice("Usuario.pedidos", () -> tx.executeWithoutResult(s ->
+                usuarioRepository.findById(cliente.getId()).get().getPedidos().size()));
+        assertUsaIndice("Agente.creditos", () -> tx.executeWithoutResult(s ->
+                agenteRepository.findById(banco.getId()).get().getCreditos().size()));
+    }
+}
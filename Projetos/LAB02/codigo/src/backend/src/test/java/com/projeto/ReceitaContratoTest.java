@@ -0,0 +1,198 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projeto.model.Automovel;
+import com.projeto.model.Contrato;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.ContratoService;
+import com.projeto.service.ReceitaContratoService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * GET /contratos/relatorio: receita por mês/dia, tipo e automóvel mantida pelas gravações do
+ * ContratoService (inclusive mínimo/máximo quando o extremo sai), igual depois de persistir e
+ * recarregar da tabela ou de contrato, sem perder gravações feitas durante a recarga. Os contratos
+ * ficam em 1991 para não cruzar com os dos outros testes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReceitaContratoTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    ContratoService contratoService;
+    @Autowired
+    ReceitaContratoService receitaContratoService;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+
+    private Automovel a1;
+    private Automovel a2;
+    private Contrato c1;
+    private Contrato c2;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @BeforeAll
+    void seed() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 6);
+        Usuario cliente = usuarioRepository.save(new Usuario("Cliente Receita", "RC" + sufixo, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+        a1 = automovelRepository.save(new Automovel("RC" + sufixo, "MRC" + sufixo, 2020, "Marca", "Modelo", cliente));
+        a2 = automovelRepository.save(new Automovel("RD" + sufixo, "MRD" + sufixo, 2021, "Marca", "Outro", cliente));
+        c1 = salvar("1991-03-05", Contrato.TipoContrato.Cliente, a1, 100.0);
+        c2 = salvar("1991-03-20", Contrato.TipoContrato.Banco, a2, 250.5);
+        salvar("1991-04-02", Contrato.TipoContrato.Cliente, a1, 80.0);
+    }
+
+    private Contrato salvar(String dia, Contrato.TipoContrato tipo, Automovel automovel, double valor) {
+        Date d = Date.valueOf(dia);
+        return contratoService.salvar(new Contrato(null, tipo, valor, d, d, automovel));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> linhas(String consulta) {
+        ResponseEntity<Map> r = rest.getForEntity(url("/contratos/relatorio?" + consulta), Map.class);
+        assertThat(r.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (List<Map<String, Object>>) r.getBody().get("linhas");
+    }
+
+    private static String resumo(Map<String, Object> l) {
+        return l.get("periodo") + (l.get("tipoContrato") != null ? " " + l.get("tipoContrato") : "")
+                + (l.get("automovelId") != null ? " #" + l.get("automovelId") : "")
+                + " q=" + l.get("quantidade") + " soma=" + l.get("soma") + " min=" + l.get("minimo") + " max=" + l.get("maximo");
+    }
+
+    private List<String> resumos(String consulta) {
+        return linhas(consulta).stream().map(ReceitaContratoTest::resumo).toList();
+    }
+
+    @Test @Order(1)
+    void porMes_tipo_automovel_e_dia() {
+        assertThat(resumos("de=1991-01&ate=1991-12")).containsExactly(
+                "1991-03 q=2 soma=350.5 min=100.0 max=250.5",
+                "1991-04 q=1 soma=80.0 min=80.0 max=80.0");
+        assertThat(linhas("de=1991-01&ate=1991-12").get(0).get("media")).isEqualTo(175.25);
+        assertThat(resumos("de=1991-03&ate=1991-04&dimensao=tipo")).containsExactly(
+                "1991-03 Cliente q=1 soma=100.0 min=100.0 max=100.0",
+                "1991-03 Banco q=1 soma=250.5 min=250.5 max=250.5",
+                "1991-04 Cliente q=1 soma=80.0 min=80.0 max=80.0");
+        assertThat(resumos("de=1991-03&ate=1991-04&dimensao=automovel")).containsExactly(
+                "1991-03 #" + a1.getId() + " q=1 soma=100.0 min=100.0 max=100.0",
+                "1991-03 #" + a2.getId() + " q=1 soma=250.5 min=250.5 max=250.5",
+                "1991-04 #" + a1.getId() + " q=1 soma=80.0 min=80.0 max=80.0");
+        assertThat(resumos("granularidade=dia&de=1991-03-19&ate=1991-03-21")).containsExactly(
+                "1991-03-20 q=1 soma=250.5 min=250.5 max=250.5");
+    }
+
+    @Test @Order(2)
+    void atualizarERemover_ajustamSomaEExtremos() {
+        Contrato alterado = new Contrato(null, Contrato.TipoContrato.Banco, 300.0, c2.getDataInicio(), c2.getDataFim(), a2);
+        contratoService.atualizar(c2.getId(), alterado);
+        assertThat(resumos("de=1991-03&ate=1991-03")).containsExactly("1991-03 q=2 soma=400.0 min=100.0 max=300.0");
+
+        // Sai o máximo do mês: o novo máximo vem do banco
+        assertThat(contratoService.deletar(c2.getId())).isTrue();
+        assertThat(resumos("de=1991-03&ate=1991-03")).containsExactly("1991-03 q=1 soma=100.0 min=100.0 max=100.0");
+        assertThat(resumos("de=1991-03&ate=1991-03&dimensao=tipo")).containsExactly("1991-03 Cliente q=1 soma=100.0 min=100.0 max=100.0");
+
+        // Troca de mês
+        Contrato movido = new Contrato(null, Contrato.TipoContrato.Cliente, 100.0, Date.valueOf("1991-05-10"), Date.valueOf("1991-05-10"), a1);
+        contratoService.atualizar(c1.getId(), movido);
+        assertThat(resumos("de=1991-01&ate=1991-12")).containsExactly(
+                "1991-04 q=1 soma=80.0 min=80.0 max=80.0",
+                "1991-05 q=1 soma=100.0 min=100.0 max=100.0");
+    }
+
+    @Test @Order(3)
+    void persistirERecarregar_mesmoRelatorio() {
+        List<String> antes = resumos("de=1991-01&ate=1991-12&dimensao=tipo");
+        assertThat(receitaContratoService.persistir()).isGreaterThan(0);
+        assertThat(jdbc.queryForObject("select soma_centavos from contrato_receita where granularidade = 'MES'"
+                + " and dimensao = 'TOTAL' and periodo = ?", Long.class, Date.valueOf("1991-05-01"))).isEqualTo(10000L);
+        assertThat(jdbc.queryForObject("select count(*) from contrato_receita where granularidade = 'MES'"
+                + " and dimensao = 'TOTAL' and periodo = ?", Long.class, Date.valueOf("1991-03-01"))).isZero();
+
+        // Da tabela (parada limpa) e do zero (parada sem persistir)
+        jdbc.update("update contrato_receita_estado set completo = true where id = 1");
+        receitaContratoService.carregar();
+        assertThat(resumos("de=1991-01&ate=1991-12&dimensao=tipo")).isEqualTo(antes);
+        assertThat(jdbc.queryForObject("select completo from contrato_receita_estado where id = 1", Boolean.class)).isFalse();
+        receitaContratoService.carregar();
+        assertThat(resumos("de=1991-01&ate=1991-12&dimensao=tipo")).isEqualTo(antes);
+    }
+
+    @Test @Order(4)
+    void parametrosInvalidos_400() {
+        assertThat(rest.getForEntity(url("/contratos/relatorio?granularidade=semana"), Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rest.getForEntity(url("/contratos/relatorio?de=ontem"), Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rest.getForEntity(url("/contratos/relatorio?granularidade=dia&de=1990-01-01&ate=2020-01-01"), Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rest.getForEntity(url("/contratos/relatorio?de=1991-05&ate=1991-01"), Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test @Order(5)
+    void gravacoesDuranteACarga_naoSePerdem() {
+        Contrato removido = salvar("1991-06-03", Contrato.TipoContrato.Cliente, a1, 40.0);
+        jdbc.update("update contrato_receita_estado set completo = false where id = 1");
+
+        // Depois do GROUP BY e antes da troca: um contrato entra e outro sai, fora da leitura.
+        // Espião só do serviço: o JdbcTemplate do contexto é usado também pelas threads do outbox
+        JdbcTemplate espiao = spy(new JdbcTemplate(jdbc.getDataSource()));
+        boolean[] primeira = {true};
+        doAnswer(inv -> {
+            inv.callRealMethod();
+            if (primeira[0]) {
+                primeira[0] = false;
+                salvar("1991-06-10", Contrato.TipoContrato.Banco, a2, 70.0);
+                assertThat(contratoService.deletar(removido.getId())).isTrue();
+            }
+            return null;
+        }).when(espiao).query(startsWith("select data_inicio, tipo_contrato"), any(RowCallbackHandler.class));
+
+        ReflectionTestUtils.setField(receitaContratoService, "jdbc", espiao);
+        try {
+            receitaContratoService.carregar();
+        } finally {
+            ReflectionTestUtils.setField(receitaContratoService, "jdbc", jdbc);
+        }
+
+        assertThat(resumos("de=1991-06&ate=1991-06")).containsExactly("1991-06 q=1 soma=70.0 min=70.0 max=70.0");
+        assertThat(resumos("de=1991-06&ate=1991-06&dimensao=tipo")).containsExactly("1991-06 Banco q=1 soma=70.0 min=70.0 max=70.0");
+        assertThat(resumos("granularidade=dia&de=1991-06-01&ate=1991-06-30&dimensao=automovel"))
+                .containsExactly("1991-06-10 #" + a2.getId() + " q=1 soma=70.0 min=70.0 max=70.0");
+    }
+}
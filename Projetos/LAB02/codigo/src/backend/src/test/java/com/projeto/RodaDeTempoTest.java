@@ -0,0 +1,74 @@
+package com.projeto;
+
+import org.junit.jupiter.api.Test;
+
+import com.projeto.service.RodaDeTempo;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda de tempo com relógio controlado: todo prazo vence uma vez, nunca antes da hora e no
+ * máximo um tick depois, inclusive os que atravessam vários níveis; cancelado e reagendado valem.
+ */
+public class RodaDeTempoTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void prazosEmVariosNiveis_vencemNaHora() {
+        long inicio = 1_700_000_000_123L;
+        RodaDeTempo<Long> roda = new RodaDeTempo<>(TICK, inicio);
+        Random r = new Random(42);
+        Map<Long, Long> prazos = new HashMap<>();
+        for (long id = 0; id < 100_000; id++) {
+            // até ~ 3 dias à frente: níveis 0 a 2
+            long prazo = inicio + (long) (Math.pow(r.nextDouble(), 3) * 3 * 86_400_000L);
+            prazos.put(id, prazo);
+            roda.agendar(id, prazo);
+        }
+        assertThat(roda.tamanho()).isEqualTo(100_000);
+
+        Set<Long> vencidos = new HashSet<>();
+        long agora = inicio;
+        long fim = inicio + 3 * 86_400_000L + 2 * TICK;
+        while (agora < fim) {
+            agora += 1 + r.nextInt(5 * (int) TICK);
+            for (Long id : roda.avancar(agora)) {
+                assertThat(vencidos.add(id)).isTrue();
+                long prazo = prazos.get(id);
+                assertThat(agora).isGreaterThanOrEqualTo(prazo);
+                assertThat(agora - prazo).isLessThan(TICK + 5 * TICK);
+            }
+        }
+        assertThat(vencidos).hasSize(100_000);
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    void cancelarEReagendar() {
+        long inicio = 0;
+        RodaDeTempo<String> roda = new RodaDeTempo<>(TICK, inicio);
+        roda.agendar("a", 10 * TICK);
+        roda.agendar("b", 10 * TICK);
+        roda.agendar("c", 5_000 * TICK);
+        roda.agendar("c", 20 * TICK); // reagendado para antes, de nível 2 para 0
+        roda.agendar("d", 400_000 * TICK);
+        assertThat(roda.cancelar("b")).isTrue();
+        assertThat(roda.cancelar("b")).isFalse();
+
+        assertThat(roda.avancar(9 * TICK)).isEmpty();
+        assertThat(roda.avancar(10 * TICK)).containsExactly("a");
+        assertThat(roda.avancar(19 * TICK)).isEmpty();
+        assertThat(roda.avancar(20 * TICK)).containsExactly("c");
+        assertThat(roda.avancar(399_999 * TICK)).isEmpty();
+        assertThat(roda.avancar(400_000 * TICK + 1)).containsExactly("d");
+
+        // Prazo já passado vence no próximo avanço, mesmo sem o relógio andar
+        roda.agendar("e", 0);
+        assertThat(roda.contem("e")).isTrue();
+        assertThat(roda.avancar(400_000 * TICK + 1)).containsExactly("e");
+        assertThat(roda.contem("e")).isFalse();
+    }
+}
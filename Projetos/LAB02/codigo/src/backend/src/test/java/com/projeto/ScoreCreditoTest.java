@@ -0,0 +1,192 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.projeto.dto.ScoreCredito;
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Rendimento;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.PedidoRepository;
+import com.projeto.repository.RendimentoRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.RendimentoService;
+import com.projeto.service.ScoreCreditoService;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Agregados de renda do ScoreCreditoService mantidos por delta (inserção, atualização com troca de
+ * usuário/empregador/valor e exclusão de rendimentos) comparados com o GROUP BY recalculado do zero:
+ * pelo próprio carregar() e por uma soma direta no banco. carregar() não perde deltas que chegam
+ * durante a consulta.
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ScoreCreditoTest {
+
+    @Autowired
+    ScoreCreditoService scoreCreditoService;
+    @Autowired
+    RendimentoService rendimentoService;
+    @Autowired
+    UsuarioRepository usuarioRepository;
+    @Autowired
+    AutomovelRepository automovelRepository;
+    @Autowired
+    PedidoRepository pedidoRepository;
+    @Autowired
+    JdbcTemplate jdbc;
+    @MockitoSpyBean
+    RendimentoRepository rendimentoRepository;
+
+    // Variações de caixa e espaço do mesmo empregador contam juntas
+    private static final String[] EMPREGADORES = {"Acme", " acme ", "ACME", "Globex", "Initech", null};
+
+    private final List<Usuario> usuarios = new ArrayList<>();
+    private final Map<Long, Long> pedidoPorUsuario = new HashMap<>();
+    private Automovel automovel;
+
+    @BeforeAll
+    void seed() {
+        String s = UUID.randomUUID().toString().substring(0, 6);
+        Usuario dono = usuarioRepository.save(new Usuario("Dono Score", "SD" + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Agente));
+        automovel = automovelRepository.save(new Automovel("SC" + s, "MSC" + s, 2022, "Marca", "Modelo", dono));
+        for (int i = 0; i < 4; i++) {
+            Usuario u = usuarioRepository.save(new Usuario("Cliente Score " + i, "SC" + i + s, "RG", "Rua", "Dev", "123", Usuario.TipoUsuario.Cliente));
+            usuarios.add(u);
+            pedidoPorUsuario.put(u.getId(), pedidoRepository.save(new Pedido(u, automovel, Pedido.StatusPedido.Em_analise, new Date())).getId());
+        }
+    }
+
+    private Rendimento novo(Random r) {
+        double valor = Math.round((100 + r.nextDouble() * 9_900) * 100) / 100.0;
+        return new Rendimento(valor, EMPREGADORES[r.nextInt(EMPREGADORES.length)], usuarios.get(r.nextInt(usuarios.size())));
+    }
+
+    // Sorteia inserção, atualização ou exclusão sobre os rendimentos da lista (que pertencem só a quem chama)
+    private void operar(Random r, List<Long> meus, int operacoes) {
+        for (int i = 0; i < operacoes; i++) {
+            int op = meus.isEmpty() ? 0 : r.nextInt(3);
+            if (op == 0) {
+                meus.add(rendimentoService.salvar(novo(r)).getId());
+            } else if (op == 1) {
+                Long id = meus.get(r.nextInt(meus.size()));
+                assertThat(rendimentoService.atualizar(id, novo(r))).isPresent();
+            } else {
+                Long id = meus.remove(r.nextInt(meus.size()));
+                assertThat(rendimentoService.deletar(id)).isTrue();
+            }
+        }
+    }
+
+    private Map<Long, ScoreCredito> scores() {
+        Map<Long, ScoreCredito> porUsuario = new HashMap<>();
+        for (ScoreCredito s : scoreCreditoService.pontuar(pedidoPorUsuario.values())) porUsuario.put(s.clienteId(), s);
+        assertThat(porUsuario).hasSize(usuarios.size());
+        return porUsuario;
+    }
+
+    private void compararComRecalculo() {
+        Map<Long, ScoreCredito> porDelta = scores();
+
+        // Soma direta no banco, sem passar pelo serviço
+        for (Usuario u : usuarios) {
+            ScoreCredito s = porDelta.get(u.getId());
+            Map<String, Object> total = jdbc.queryForMap(
+                    "select coalesce(sum(valor), 0) soma, count(*) quantidade from rendimento where usuario_id = ?", u.getId());
+            double soma = ((Number) total.get("soma")).doubleValue();
+            assertThat(s.rendaTotal()).as("renda de %s", u.getId()).isCloseTo(soma, within(0.01));
+            assertThat(s.fontesRenda()).isEqualTo(((Number) total.get("quantidade")).intValue());
+            double maior = jdbc.queryForList("select sum(valor) from rendimento where usuario_id = ?"
+                    + " group by lower(trim(coalesce(empregador, '')))", Double.class, u.getId())
+                    .stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+            assertThat(s.maiorParticipacao()).isCloseTo(soma > 0 ? Math.min(1.0, maior / soma) : 0.0, within(0.001));
+        }
+
+        // GROUP BY do carregar(): o mesmo score que os deltas produziram
+        scoreCreditoService.carregar();
+        Map<Long, ScoreCredito> recalculado = scores();
+        for (Usuario u : usuarios) {
+            ScoreCredito a = porDelta.get(u.getId());
+            ScoreCredito b = recalculado.get(u.getId());
+            assertThat(a.rendaTotal()).isCloseTo(b.rendaTotal(), within(0.01));
+            assertThat(a.fontesRenda()).isEqualTo(b.fontesRenda());
+            assertThat(a.maiorParticipacao()).isCloseTo(b.maiorParticipacao(), within(0.001));
+            assertThat(a.score()).as("score de %s", u.getId()).isEqualTo(b.score());
+            assertThat(a.risco()).isEqualTo(b.risco());
+        }
+    }
+
+    @Test
+    void deltasSequenciais_igualAoRecalculo() {
+        Random r = new Random(42);
+        List<Long> meus = new ArrayList<>();
+        operar(r, meus, 200);
+        compararComRecalculo();
+
+        // Esvazia tudo: usuário sem rendimento volta a score 0
+        for (Long id : meus) assertThat(rendimentoService.deletar(id)).isTrue();
+        meus.clear();
+        scores().values().forEach(s -> {
+            assertThat(s.fontesRenda()).isZero();
+            assertThat(s.score()).isZero();
+        });
+        compararComRecalculo();
+    }
+
+    @Test
+    void deltasConcorrentes_igualAoRecalculo() throws Exception {
+        // Cada thread mexe só nos próprios rendimentos, mas todas nos mesmos usuários
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long semente = 100 + t;
+                tarefas.add(pool.submit(() -> operar(new Random(semente), new ArrayList<>(), 60)));
+            }
+            for (Future<?> f : tarefas) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        compararComRecalculo();
+    }
+
+    @Test
+    void carregar_naoPerdeDeltasDuranteAConsulta() {
+        Random r = new Random(7);
+        List<Long> meus = new ArrayList<>();
+        operar(r, meus, 20);
+
+        // A primeira foto é lida antes de um rendimento novo e de uma exclusão, cujos deltas chegam
+        // antes de ela ser aplicada; a do recálculo em compararComRecalculo() é lida sem nada no meio
+        boolean[] primeira = {true};
+        doAnswer(inv -> {
+            // Mesmo conteúdo da consulta real (o espião de um repositório não chama o método original)
+            List<Object[]> foto = jdbc.query("select usuario_id, empregador, sum(valor), count(*) from rendimento"
+                    + " group by usuario_id, empregador",
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getDouble(3), rs.getLong(4)});
+            if (primeira[0]) {
+                primeira[0] = false;
+                meus.add(rendimentoService.salvar(novo(r)).getId());
+                assertThat(rendimentoService.deletar(meus.remove(0))).isTrue();
+            }
+            return foto;
+        }).when(rendimentoRepository).somarPorUsuarioEEmpregador();
+
+        scoreCreditoService.carregar();
+        compararComRecalculo();
+    }
+}
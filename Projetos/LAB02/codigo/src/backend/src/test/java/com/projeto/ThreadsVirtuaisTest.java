@@ -0,0 +1,85 @@
+package com.projeto;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projeto.config.ContadorSql;
+import com.projeto.config.LimiteConexoesDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modo threads virtuais: o DataSource ganha o semáforo, a API responde normalmente e, com as
+ * permissões esgotadas, quem precisa de conexão recebe 503 em vez de esperar indefinidamente.
+ * Fechar o DataSource envolvido fecha o pool por baixo dele.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "conexoes.limite.maximo=2",
+        "conexoes.limite.espera-ms=300"
+})
+@ActiveProfiles("dev")
+public class ThreadsVirtuaisTest {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    TestRestTemplate rest;
+    @Autowired
+    DataSource dataSource;
+
+    private String url(String p){ return "http://localhost:"+port+p; }
+
+    @Test
+    void dataSourceLimitado_eApiResponde() {
+        assertThat(dataSource).isInstanceOf(LimiteConexoesDataSource.class);
+        ResponseEntity<Map> resp = rest.getForEntity(url("/pedidos?limite=5"), Map.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((LimiteConexoesDataSource) dataSource).disponiveis()).isEqualTo(2);
+    }
+
+    @Test
+    void semPermissoes_responde503_eRecuperaAoDevolver() throws Exception {
+        LimiteConexoesDataSource limite = (LimiteConexoesDataSource) dataSource;
+        Connection a = dataSource.getConnection();
+        Connection b = dataSource.getConnection();
+        try {
+            assertThat(limite.disponiveis()).isZero();
+            ResponseEntity<Map> resp = rest.getForEntity(url("/pedidos?limite=5"), Map.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(resp.getBody()).containsEntry("code", "CONEXOES_ESGOTADAS");
+            assertThat(resp.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        } finally {
+            a.close();
+            b.close();
+            b.close(); // fechar duas vezes não devolve permissão a mais
+        }
+        // Uma thread de fundo (relay do outbox, ciclo de contratos) pode pegar a permissão devolvida
+        long limiteEspera = System.currentTimeMillis() + 5_000;
+        while (limite.disponiveis() < 2 && System.currentTimeMillis() < limiteEspera) Thread.sleep(10);
+        assertThat(limite.disponiveis()).isEqualTo(2);
+        assertThat(rest.getForEntity(url("/pedidos?limite=5"), Map.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void close_fechaOPoolEnvolvido() throws Exception {
+        HikariDataSource hikari = new HikariDataSource();
+        hikari.setJdbcUrl("jdbc:h2:mem:limite-" + UUID.randomUUID());
+        LimiteConexoesDataSource limite = new LimiteConexoesDataSource(new ContadorSql(hikari), 1, 100);
+        try (Connection c = limite.getConnection()) {
+            assertThat(c.isValid(1)).isTrue();
+        }
+        limite.close();
+        assertThat(hikari.isClosed()).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.projeto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projeto.dto.UsuarioPrincipal;
+import com.projeto.model.Usuario;
+import com.projeto.service.TokenService;
+
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TokenService fora do Spring, configurado como pelas propriedades token.*: assinatura e
+ * verificação, expiração, adulteração, kid desconhecido, rotação de chaves e revogação.
+ */
+public class TokenServiceTest {
+
+    private static final String SEGREDO_1 = segredo(1);
+    private static final String SEGREDO_2 = segredo(2);
+
+    private static String segredo(int semente) {
+        byte[] b = new byte[32];
+        for (int i = 0; i < b.length; i++) b[i] = (byte) (semente * 31 + i);
+        return Base64.getEncoder().encodeToString(b);
+    }
+
+    private static TokenService servico(String chaves, int ativa, long ttlMinutos) {
+        TokenService s = new TokenService();
+        ReflectionTestUtils.setField(s, "chavesConfiguradas", chaves);
+        ReflectionTestUtils.setField(s, "kidAtivo", ativa);
+        ReflectionTestUtils.setField(s, "ttlMinutos", ttlMinutos);
+        ReflectionTestUtils.setField(s, "revogadosEsperados", 1000);
+        ReflectionTestUtils.invokeMethod(s, "iniciar");
+        return s;
+    }
+
+    private static Usuario usuario(long id, Usuario.TipoUsuario tipo) {
+        Usuario u = new Usuario("Token", "0", "RG", "Rua", "Dev", null, tipo);
+        u.setId(id);
+        return u;
+    }
+
+    private static byte[] bytes(String token) {
+        return Base64.getUrlDecoder().decode(token);
+    }
+
+    private static String token(byte[] b) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+    }
+
+    @Test
+    void emitido_verificaComIdTipoEExpiracao() {
+        TokenService s = servico("1:" + SEGREDO_1, 1, 60);
+        TokenService.Emitido e = s.emitir(usuario(42, Usuario.TipoUsuario.Agente));
+        assertThat(e.expiraEm()).isBetween(Instant.now().plusSeconds(59 * 60), Instant.now().plusSeconds(61 * 60));
+
+        UsuarioPrincipal p = s.verificar(e.token());
+        assertThat(p).isNotNull();
+        assertThat(p.id()).isEqualTo(42L);
+        assertThat(p.tipo()).isEqualTo(Usuario.TipoUsuario.Agente);
+        assertThat(p.expiraEm()).isEqualTo(e.expiraEm().getEpochSecond());
+        // jti aleatório: dois logins do mesmo usuário dão tokens distintos
+        assertThat(s.emitir(usuario(42, Usuario.TipoUsuario.Agente)).token()).isNotEqualTo(e.token());
+    }
+
+    @Test
+    void expirado_recusado() {
+        TokenService s = servico("1:" + SEGREDO_1, 1, -1);
+        assertThat(s.verificar(s.emitir(usuario(1, Usuario.TipoUsuario.Cliente)).token())).isNull();
+    }
+
+    @Test
+    void adulterado_recusado() {
+        TokenService s = servico("1:" + SEGREDO_1, 1, 60);
+        byte[] original = bytes(s.emitir(usuario(7, Usuario.TipoUsuario.Cliente)).token());
+
+        byte[] assinatura = original.clone();
+        assinatura[assinatura.length - 1] ^= 1;
+        assertThat(s.verificar(token(assinatura))).isNull();
+
+        // Outro usuário e outro tipo com a assinatura original
+        byte[] id = original.clone();
+        id[9] = 8;
+        assertThat(s.verificar(token(id))).isNull();
+        byte[] tipo = original.clone();
+        tipo[10] = (byte) Usuario.TipoUsuario.Agente.ordinal();
+        assertThat(s.verificar(token(tipo))).isNull();
+
+        assertThat(s.verificar(null)).isNull();
+        assertThat(s.verificar("")).isNull();
+        assertThat(s.verificar(token(original).substring(1))).isNull();
+        assertThat(s.verificar("!".repeat(79))).isNull();
+        // Assinado por outra chave com o mesmo kid
+        assertThat(s.verificar(servico("1:" + SEGREDO_2, 1, 60).emitir(usuario(7, Usuario.TipoUsuario.Cliente)).token())).isNull();
+    }
+
+    @Test
+    void kidDesconhecido_recusado() {
+        TokenService s = servico("1:" + SEGREDO_1, 1, 60);
+        byte[] b = bytes(s.emitir(usuario(3, Usuario.TipoUsuario.Cliente)).token());
+        b[1] = 9;
+        assertThat(s.verificar(token(b))).isNull();
+        // Emitido por uma chave que este serviço não tem
+        assertThat(s.verificar(servico("2:" + SEGREDO_2, 2, 60).emitir(usuario(3, Usuario.TipoUsuario.Cliente)).token())).isNull();
+    }
+
+    @Test
+    void rotacao_chaveVelhaVerificaNovaAssina() {
+        // Antes: só a chave 1
+        String antigo = servico("1:" + SEGREDO_1, 1, 60).emitir(usuario(5, Usuario.TipoUsuario.Cliente)).token();
+
+        // Durante: as duas publicadas, a 2 ativa
+        TokenService durante = servico("1:" + SEGREDO_1 + ", 2:" + SEGREDO_2, 2, 60);
+        assertThat(durante.verificar(antigo)).isNotNull();
+        String novo = durante.emitir(usuario(5, Usuario.TipoUsuario.Cliente)).token();
+        assertThat(bytes(novo)[1]).isEqualTo((byte) 2);
+        assertThat(durante.verificar(novo)).isNotNull();
+
+        // Sem chave-ativa explícita, assina o maior kid
+        assertThat(bytes(servico("1:" + SEGREDO_1 + ",2:" + SEGREDO_2, -1, 60)
+                .emitir(usuario(5, Usuario.TipoUsuario.Cliente)).token())[1]).isEqualTo((byte) 2);
+
+        // Depois: a chave 1 removida, tokens antigos deixam de valer
+        TokenService depois = servico("2:" + SEGREDO_2, 2, 60);
+        assertThat(depois.verificar(novo)).isNotNull();
+        assertThat(depois.verificar(antigo)).isNull();
+    }
+
+    @Test
+    void revogado_recusadoSemAfetarOutros() {
+        TokenService s = servico("1:" + SEGREDO_1, 1, 60);
+        String a = s.emitir(usuario(11, Usuario.TipoUsuario.Cliente)).token();
+        String b = s.emitir(usuario(11, Usuario.TipoUsuario.Cliente)).token();
+        s.revogar(s.verificar(a));
+        assertThat(s.verificar(a)).isNull();
+        assertThat(s.verificar(b)).isNotNull();
+    }
+}
@@ -0,0 +1,103 @@
+-- Esquema de um banco criado pelo ddl-auto=update antes do Flyway (Pedido ainda com IDENTITY,
+-- sem pedido_seq e sem versao). É o estado que o baseline do perfil postgres marca como V1.
+
+create table usuario (
+    id bigint generated by default as identity,
+    cpf varchar(255) unique,
+    endereco varchar(255),
+    nome varchar(255),
+    profissao varchar(255),
+    rg varchar(255),
+    senha varchar(255),
+    tipo_usuario varchar(255) check (tipo_usuario in ('Cliente','Agente')),
+    primary key (id)
+);
+
+create table cliente (
+    id bigint not null,
+    primary key (id)
+);
+
+create table agente (
+    id bigint not null,
+    nome_agente varchar(255),
+    tipo_agente varchar(255) check (tipo_agente in ('Empresa','Banco')),
+    primary key (id)
+);
+
+create table entidadeempregadora (
+    id bigint generated by default as identity,
+    nome varchar(255),
+    primary key (id)
+);
+
+create table cliente_entidadeempregadora (
+    idcliente bigint not null,
+    identidade bigint not null
+);
+
+create table automovel (
+    ano integer,
+    id bigint generated by default as identity,
+    proprietario_id bigint,
+    marca varchar(255),
+    matricula varchar(255) not null unique,
+    modelo varchar(255),
+    placa varchar(255) not null unique,
+    primary key (id)
+);
+
+create table pedido (
+    data_pedido date,
+    automovel_id bigint,
+    cliente_id bigint,
+    id bigint generated by default as identity,
+    status varchar(255) check (status in ('Em_analise','Aprovado','Rejeitado','Cancelado')),
+    primary key (id)
+);
+
+create table contrato (
+    data_fim date,
+    data_inicio date,
+    valor float(53),
+    automovel bigint,
+    id bigint generated by default as identity,
+    pedido bigint unique,
+    tipo_contrato varchar(255) check (tipo_contrato in ('Cliente','Empresa','Banco')),
+    primary key (id)
+);
+
+create table credito (
+    prazo_pagamento integer,
+    taxa_juros float(53),
+    valor_aprovado float(53),
+    banco bigint,
+    id bigint generated by default as identity,
+    primary key (id)
+);
+
+create table rendimento (
+    valor float(53),
+    id bigint generated by default as identity,
+    usuario_id bigint not null,
+    empregador varchar(255),
+    primary key (id)
+);
+
+create table sistema (
+    id bigint generated by default as identity,
+    descricao varchar(255),
+    primary key (id)
+);
+
+alter table agente add constraint FKlp5t9necyey35p80fsvutrfcj foreign key (id) references usuario;
+alter table cliente add constraint FKsitxst8o302fspskxfjatuyrl foreign key (id) references usuario;
+alter table automovel add constraint FK8khvkloy05crhrgq550busoj8 foreign key (proprietario_id) references usuario;
+alter table cliente_entidadeempregadora add constraint FK3hvlwv1urbxxaj4ct4t9vsgyb foreign key (identidade) references entidadeempregadora;
+alter table cliente_entidadeempregadora add constraint FKbh03rkx1axlowbokpl4shabvp foreign key (idcliente) references cliente;
+alter table contrato add constraint FKo6fqdln19ffikla2gltpqjwfn foreign key (automovel) references automovel;
+alter table contrato add constraint FK15si21i4dsp0yjp66d5y6c259 foreign key (pedido) references pedido;
+alter table credito add constraint FKro6wnocgj893efodt2pf1uv2e foreign key (banco) references agente;
+alter table pedido add constraint FKawdxovghqv4rbjl2nblyg6r9g foreign key (automovel_id) references automovel;
+alter table pedido add constraint FK37ms39e5dvx6m05hftvx9uavk foreign key (cliente_id) references usuario;
+alter table rendimento add constraint FKpjer3wdqjoys9gh9xqkdub51j foreign key (usuario_id) references usuario;
@@ -0,0 +1,121 @@
+package com.projeto.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compara dois resultados JSON do JMH (-rf json) e escreve uma tabela Markdown.
+ *
+ * Uso: ComparadorResultados baseline.json atual.json [tolerancia%] [saida.md]
+ *
+ * Um benchmark regride quando piora mais que a tolerância E a diferença passa da soma das
+ * margens de erro (99.9%) das duas execuções; ruído dentro da margem não reprova. O processo sai
+ * com código 1 se houver regressão, para servir de gate em CI.
+ */
+public final class ComparadorResultados {
+
+    private ComparadorResultados() {
+    }
+
+    record Medida(String modo, double valor, double erro, String unidade) {
+        // avgt/sample/ss medem tempo (menor é melhor); thrpt mede vazão (maior é melhor)
+        boolean menorEhMelhor() {
+            return !"thrpt".equals(modo);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("uso: ComparadorResultados <baseline.json> <atual.json> [tolerancia%] [saida.md]");
+            System.exit(2);
+        }
+        Map<String, Medida> base = ler(Path.of(args[0]));
+        Map<String, Medida> atual = ler(Path.of(args[1]));
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        StringBuilder md = new StringBuilder();
+        md.append("| Benchmark | Baseline | Atual | Variação | Situação |\n");
+        md.append("|---|---:|---:|---:|---|\n");
+        int regressoes = 0, melhorias = 0;
+        Map<String, Medida> todos = new TreeMap<>(base);
+        atual.forEach(todos::putIfAbsent);
+        for (String nome : todos.keySet()) {
+            Medida b = base.get(nome), a = atual.get(nome);
+            if (b == null) {
+                md.append(linha(nome, "—", formatar(a), "—", "novo"));
+                continue;
+            }
+            if (a == null) {
+                md.append(linha(nome, formatar(b), "—", "—", "removido"));
+                continue;
+            }
+            if (!b.unidade().equals(a.unidade()) || !b.modo().equals(a.modo())) {
+                md.append(linha(nome, formatar(b), formatar(a), "—", "unidade/modo diferente"));
+                continue;
+            }
+            double variacao = (a.valor() - b.valor()) / b.valor() * 100.0;
+            double piora = b.menorEhMelhor() ? variacao : -variacao;
+            boolean foraDaMargem = Math.abs(a.valor() - b.valor()) > a.erro() + b.erro();
+            String situacao;
+            if (piora > tolerancia && foraDaMargem) {
+                situacao = "**REGRESSÃO**";
+                regressoes++;
+            } else if (piora < -tolerancia && foraDaMargem) {
+                situacao = "melhora";
+                melhorias++;
+            } else {
+                situacao = "ok";
+            }
+            md.append(linha(nome, formatar(b), formatar(a), String.format(Locale.ROOT, "%+.1f%%", variacao), situacao));
+        }
+        md.append(String.format(Locale.ROOT, "%n%d regressões, %d melhorias (tolerância %.0f%% além da margem de erro)%n",
+                regressoes, melhorias, tolerancia));
+
+        System.out.print(md);
+        if (args.length > 3) {
+            Path saida = Path.of(args[3]);
+            if (saida.getParent() != null) Files.createDirectories(saida.getParent());
+            Files.writeString(saida, md, StandardCharsets.UTF_8);
+        }
+        System.exit(regressoes > 0 ? 1 : 0);
+    }
+
+    // Chave: nome do benchmark + parâmetros (o mesmo método roda uma vez por combinação de @Param)
+    static Map<String, Medida> ler(Path arquivo) throws IOException {
+        Map<String, Medida> medidas = new LinkedHashMap<>();
+        for (JsonNode r : new ObjectMapper().readTree(arquivo.toFile())) {
+            StringBuilder nome = new StringBuilder(r.get("benchmark").asText().replace("com.projeto.benchmarks.", ""));
+            JsonNode params = r.get("params");
+            if (params != null) {
+                Map<String, String> ordenados = new TreeMap<>();
+                params.properties().forEach(e -> ordenados.put(e.getKey(), e.getValue().asText()));
+                StringJoiner p = new StringJoiner(", ", " (", ")");
+                ordenados.forEach((k, v) -> p.add(k + "=" + v));
+                nome.append(p);
+            }
+            JsonNode m = r.get("primaryMetric");
+            double erro = m.get("scoreError").asDouble();
+            medidas.put(nome.toString(), new Medida(r.get("mode").asText(), m.get("score").asDouble(),
+                    Double.isNaN(erro) ? 0.0 : erro, m.get("scoreUnit").asText()));
+        }
+        return medidas;
+    }
+
+    private static String formatar(Medida m) {
+        return String.format(Locale.ROOT, "%.3f ± %.3f %s", m.valor(), m.erro(), m.unidade());
+    }
+
+    private static String linha(String nome, String base, String atual, String variacao, String situacao) {
+        return "| " + nome + " | " + base + " | " + atual + " | " + variacao + " | " + situacao + " |\n";
+    }
+}
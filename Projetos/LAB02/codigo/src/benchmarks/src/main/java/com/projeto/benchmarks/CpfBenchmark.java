@@ -0,0 +1,42 @@
+package com.projeto.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projeto.controller.UsuarioController;
+
+/**
+ * Normalização de CPF feita no cadastro e em todo login. regex reproduz a implementação
+ * anterior (replaceAll("\\D", "")) como referência para a atual.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpfBenchmark {
+
+    @Param({ "12345678901", "123.456.789-01", " 123 456 789 01 " })
+    public String cpf;
+
+    @Benchmark
+    public String normalizarCpf() {
+        return UsuarioController.normalizarCpf(cpf);
+    }
+
+    @Benchmark
+    public String regex() {
+        return cpf.replaceAll("\\D", "");
+    }
+}
@@ -0,0 +1,91 @@
+package com.projeto.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.service.PedidoService;
+
+/**
+ * Serialização dos corpos mais frequentes da API com o mesmo ObjectMapper que o Spring Boot
+ * monta (Jackson2ObjectMapperBuilder): um Pedido com cliente e automóvel embutidos, uma página
+ * de GET /pedidos e um Usuario; e a leitura do corpo de POST /pedidos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private ObjectMapper mapper;
+    private ObjectReader leitorPedido;
+    private Pedido pedido;
+    private Usuario usuario;
+    private List<Pedido> pagina;
+    private byte[] corpoPedido;
+
+    @Setup
+    public void preparar() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        leitorPedido = mapper.readerFor(Pedido.class);
+
+        usuario = new Usuario("Maria da Silva", "12345678901", "MG-12.345.678", "Rua das Acácias, 120 - Belo Horizonte",
+                "Analista de Sistemas", "$2a$10$abcdefghijklmnopqrstuv0123456789ABCDEFGHIJKLMNOPQRSTU", Usuario.TipoUsuario.Cliente);
+        usuario.setId(1L);
+        pagina = new ArrayList<>(PedidoService.LIMITE_PADRAO);
+        for (int i = 0; i < PedidoService.LIMITE_PADRAO; i++) {
+            Automovel a = new Automovel("ABC-" + (1000 + i), "MAT-" + i, 2015 + i % 10, "Toyota", "Corolla", usuario);
+            a.setId((long) i + 1);
+            Pedido p = new Pedido(usuario, a, Pedido.StatusPedido.values()[i % 4], new Date(1_700_000_000_000L + i * 86_400_000L));
+            p.setId(10_000L - i);
+            p.setVersao((long) i % 3);
+            pagina.add(p);
+        }
+        pedido = pagina.get(0);
+        corpoPedido = "{\"cliente\":{\"id\":1},\"automovel\":{\"id\":2},\"status\":\"PENDENTE\",\"dataPedido\":\"2025-03-10\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializarPedido() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(pedido);
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaPedidos() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] serializarUsuario() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(usuario);
+    }
+
+    @Benchmark
+    public Pedido desserializarPedido() throws IOException {
+        return leitorPedido.readValue(corpoPedido);
+    }
+}
@@ -0,0 +1,173 @@
+package com.projeto.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.projeto.Application;
+import com.projeto.dto.PaginaCursor;
+import com.projeto.dto.ResultadoLote;
+import com.projeto.model.Automovel;
+import com.projeto.model.Pedido;
+import com.projeto.model.Usuario;
+import com.projeto.repository.AutomovelRepository;
+import com.projeto.repository.UsuarioRepository;
+import com.projeto.service.PedidoService;
+
+/**
+ * PedidoService de ponta a ponta (transação, Hibernate, cache de segundo nível, eventos) sobre
+ * H2 em memória, com o contexto Spring real sem a camada web.
+ *
+ * A base é semeada uma vez por fork com volumes próximos aos de produção e semente fixa, então
+ * todas as execuções partem dos mesmos dados. Os benchmarks de escrita fazem a tabela crescer
+ * durante a medição (alguns milhares de linhas sobre a base), o que não muda a ordem de grandeza.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class PedidoServiceBenchmark {
+
+    private static final int SEMENTE = 42;
+
+    @Param({ "50000" })
+    public int pedidos;
+
+    @Param({ "2000" })
+    public int clientes;
+
+    @Param({ "1000" })
+    public int automoveis;
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoService pedidoService;
+    private long[] clienteIds;
+    private long[] automovelIds;
+    private long menorPedido;
+    private long maiorPedido;
+    private SplittableRandom aleatorio;
+
+    @Setup(Level.Trial)
+    public void subir() {
+        contexto = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.open-in-view=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        pedidoService = contexto.getBean(PedidoService.class);
+        semear(contexto.getBean(UsuarioRepository.class), contexto.getBean(AutomovelRepository.class));
+        aleatorio = new SplittableRandom(SEMENTE);
+    }
+
+    @TearDown(Level.Trial)
+    public void descer() {
+        contexto.close();
+    }
+
+    private void semear(UsuarioRepository usuarios, AutomovelRepository carros) {
+        SplittableRandom r = new SplittableRandom(SEMENTE);
+        String[][] modelos = { { "Toyota", "Corolla" }, { "Honda", "Civic" }, { "Volkswagen", "Gol" },
+                { "Fiat", "Argo" }, { "Chevrolet", "Onix" }, { "Hyundai", "HB20" }, { "Jeep", "Renegade" } };
+
+        List<Usuario> novosClientes = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            novosClientes.add(new Usuario("Cliente " + i, String.format("%011d", 10_000_000_000L + i), "MG-" + i,
+                    "Rua " + r.nextInt(500) + ", " + r.nextInt(2000), "Profissão " + r.nextInt(40),
+                    // hash BCrypt fixo: a semeadura não deve pagar o custo do hash
+                    "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8CH9bWJ/9bE7b6qWxL0pQ7e", Usuario.TipoUsuario.Cliente));
+        }
+        clienteIds = usuarios.saveAll(novosClientes).stream().mapToLong(Usuario::getId).toArray();
+
+        List<Automovel> novosCarros = new ArrayList<>(automoveis);
+        for (int i = 0; i < automoveis; i++) {
+            String[] m = modelos[r.nextInt(modelos.length)];
+            Usuario dono = new Usuario();
+            dono.setId(clienteIds[r.nextInt(clienteIds.length)]);
+            novosCarros.add(new Automovel(String.format("BEN%04d", i), "MAT-" + i, 2010 + r.nextInt(16), m[0], m[1], dono));
+        }
+        automovelIds = carros.saveAll(novosCarros).stream().mapToLong(Automovel::getId).toArray();
+
+        // Distribuição de status aproximada: 60% pendentes, 25% aprovados, 10% rejeitados, 5% cancelados
+        long agora = System.currentTimeMillis();
+        menorPedido = Long.MAX_VALUE;
+        for (int feitos = 0; feitos < pedidos; ) {
+            int n = Math.min(PedidoService.LOTE_MAXIMO, pedidos - feitos);
+            List<Pedido> lote = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int sorteio = r.nextInt(100);
+                Pedido.StatusPedido status = sorteio < 60 ? Pedido.StatusPedido.Em_analise
+                        : sorteio < 85 ? Pedido.StatusPedido.Aprovado
+                        : sorteio < 95 ? Pedido.StatusPedido.Rejeitado
+                        : Pedido.StatusPedido.Cancelado;
+                lote.add(novoPedido(r, status, new Date(agora - r.nextLong(730L * 86_400_000L))));
+            }
+            ResultadoLote resultado = pedidoService.salvarLote(lote);
+            for (ResultadoLote.Item item : resultado.itens()) {
+                menorPedido = Math.min(menorPedido, item.id());
+                maiorPedido = Math.max(maiorPedido, item.id());
+            }
+            feitos += n;
+        }
+    }
+
+    private Pedido novoPedido(SplittableRandom r, Pedido.StatusPedido status, Date data) {
+        Usuario cliente = new Usuario();
+        cliente.setId(clienteIds[r.nextInt(clienteIds.length)]);
+        Automovel automovel = new Automovel();
+        automovel.setId(automovelIds[r.nextInt(automovelIds.length)]);
+        return new Pedido(cliente, automovel, status, data);
+    }
+
+    @Benchmark
+    public Pedido salvar() {
+        return pedidoService.salvar(novoPedido(aleatorio, null, null));
+    }
+
+    @Benchmark
+    public ResultadoLote salvarLote100() {
+        List<Pedido> lote = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) lote.add(novoPedido(aleatorio, null, null));
+        return pedidoService.salvarLote(lote);
+    }
+
+    @Benchmark
+    public PaginaCursor<Pedido> listarPaginaPendentes() {
+        return pedidoService.listarPagina(Pedido.StatusPedido.Em_analise, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public PaginaCursor<Pedido> listarPaginaPorCliente() {
+        long cliente = clienteIds[aleatorio.nextInt(clienteIds.length)];
+        return pedidoService.listarPagina(null, cliente, null, null, null, null);
+    }
+
+    @Benchmark
+    public Object buscarPorId() {
+        return pedidoService.buscarPorId(menorPedido + aleatorio.nextLong(maiorPedido - menorPedido + 1)).orElse(null);
+    }
+}
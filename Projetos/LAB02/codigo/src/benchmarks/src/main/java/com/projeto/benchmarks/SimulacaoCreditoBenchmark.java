@@ -0,0 +1,87 @@
+package com.projeto.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projeto.dto.SimulacaoCredito;
+import com.projeto.service.Amortizacao;
+import com.projeto.service.SimulacaoCreditoService;
+
+/**
+ * POST /creditos/simular: uma tabela de 360 parcelas e grades de cenários (a grande passa do
+ * limiar de divisão e vai para o ForkJoinPool do serviço).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulacaoCreditoBenchmark {
+
+    @Param({ "PRICE", "SAC" })
+    public String sistema;
+
+    private SimulacaoCreditoService servico;
+    private SimulacaoCredito.Grade gradePequena;
+    private SimulacaoCredito.Grade gradeGrande;
+    private final double[] parcela = new double[360], amortizacao = new double[360],
+            juros = new double[360], saldo = new double[360];
+
+    @Setup
+    public void preparar() {
+        // simularGrade não usa o CreditoService injetado
+        servico = new SimulacaoCreditoService();
+        gradePequena = grade(5, List.of(12, 24, 36, 48), 5);
+        gradeGrande = grade(50, List.of(12, 24, 36, 48, 60, 72, 84, 96, 120, 360), 40);
+    }
+
+    @TearDown
+    public void encerrar() {
+        servico.encerrar();
+    }
+
+    private static SimulacaoCredito.Grade grade(int nValores, List<Integer> prazos, int nTaxas) {
+        List<Double> valores = new ArrayList<>(), taxas = new ArrayList<>();
+        for (int i = 0; i < nValores; i++) valores.add(20_000.0 + i * 2_500.0);
+        for (int i = 0; i < nTaxas; i++) taxas.add(0.8 + i * 0.05);
+        return new SimulacaoCredito.Grade(valores, prazos, taxas);
+    }
+
+    @Benchmark
+    public double[] tabela360() {
+        Amortizacao.tabela(Amortizacao.Sistema.valueOf(sistema), 85_000.0, 360, 0.011, parcela, amortizacao, juros, saldo);
+        return saldo;
+    }
+
+    @Benchmark
+    public SimulacaoCredito.Tabela simularAvulsa() {
+        return servico.simular(sistema, 85_000.0, 360, 1.1);
+    }
+
+    // 100 cenários: abaixo do limiar, calculado na thread chamadora
+    @Benchmark
+    public SimulacaoCredito.Resultado gradePequena() {
+        return servico.simularGrade(sistema, gradePequena);
+    }
+
+    // 20.000 cenários, ~1,8 milhão de parcelas
+    @Benchmark
+    public SimulacaoCredito.Resultado gradeGrande() {
+        return servico.simularGrade(sistema, gradeGrande);
+    }
+}
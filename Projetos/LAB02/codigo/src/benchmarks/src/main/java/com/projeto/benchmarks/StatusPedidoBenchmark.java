@@ -0,0 +1,60 @@
+package com.projeto.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.projeto.model.Pedido.StatusPedido;
+
+/**
+ * StatusPedido.fromString roda em todo PATCH /pedidos/{id}/status e em todo corpo de pedido
+ * desserializado (@JsonCreator); toJson em todo pedido serializado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusPedidoBenchmark {
+
+    // Formas que o frontend e os clientes da API realmente mandam; só fromString varia com elas
+    @State(Scope.Thread)
+    public static class Entrada {
+        @Param({ "PENDENTE", "aprovado", " Em análise ", "CANCELADO" })
+        public String valor;
+    }
+
+    private final StatusPedido[] todos = StatusPedido.values();
+
+    @Benchmark
+    public StatusPedido fromString(Entrada entrada) {
+        return StatusPedido.fromString(entrada.valor);
+    }
+
+    @Benchmark
+    public Object fromStringInvalido() {
+        try {
+            return StatusPedido.fromString("ARQUIVADO");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public void toJson(Blackhole bh) {
+        for (StatusPedido s : todos) {
+            bh.consume(s.toJson());
+        }
+    }
+}
@@ -1,5 +1,5 @@
 import React, { createContext, useContext, useState, useCallback, useEffect } from 'react';
-import { login, Usuario, TipoUsuario, sanitizeUsuario } from '../lib/api';
+import { login, logout as logoutApi, Usuario, TipoUsuario, sanitizeUsuario } from '../lib/api';
 
 interface AuthState {
       usuario?: Usuario;
@@ -47,6 +47,7 @@ export const AuthProvider: React.FC<{ children: React.ReactNode }> = ({ children
       }, []);
 
       const logout = useCallback(() => {
+            void logoutApi();
             setUsuario(undefined);
             setTipo(undefined);
             try { localStorage.removeItem('auth.usuario'); localStorage.removeItem('auth.tipo'); } catch { }
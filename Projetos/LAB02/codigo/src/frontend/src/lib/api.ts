@@ -16,8 +16,18 @@ export class ApiError extends Error {
   }
 }
 
+// Token de sessão devolvido pelo login; vai no Authorization de todas as chamadas
+export const TOKEN_KEY = 'auth.token';
+
+function authHeader(): Record<string, string> {
+  try {
+    const token = localStorage.getItem(TOKEN_KEY);
+    return token ? { Authorization: `Bearer ${token}` } : {};
+  } catch { return {}; }
+}
+
 async function request<T>(path: string, init?: RequestInit): Promise<T> {
-  const res = await fetch(`${API_BASE}${path}`, init);
+  const res = await fetch(`${API_BASE}${path}`, { ...init, headers: { ...authHeader(), ...(init?.headers as Record<string, string> | undefined) } });
   if (!res.ok) {
     let raw = '';
     try { raw = await res.text(); } catch { }
@@ -25,6 +35,10 @@ async function request<T>(path: string, init?: RequestInit): Promise<T> {
     if (raw) {
       try { parsed = JSON.parse(raw); } catch { }
     }
+    // Token vencido, revogado ou assinado por chave que o backend não tem mais: esquece e segue anônimo
+    if (res.status === 401 && parsed?.code === 'TOKEN_INVALIDO') {
+      try { localStorage.removeItem(TOKEN_KEY); } catch { }
+    }
     const baseMsg = parsed?.erro || parsed?.message || res.statusText || 'Erro na requisição';
     const err = new ApiError(baseMsg, res.status, path, raw);
     throw err;
@@ -146,8 +160,11 @@ export function sanitizeUsuario(u: Usuario): Usuario {
 
 export async function login(cpf: string, senha: string) {
   const cleanCpf = (cpf || '').replace(/\D/g, '');
+  // O login substitui a sessão: não manda o token antigo, que pode já ter vencido
+  try { localStorage.removeItem(TOKEN_KEY); } catch { }
   try {
-    const resp = await api.post<{ usuario: Usuario; tipo: TipoUsuario }>(`/usuarios/login`, { cpf: cleanCpf, senha });
+    const resp = await api.post<{ usuario: Usuario; tipo: TipoUsuario; token?: string; expiraEm?: string }>(`/usuarios/login`, { cpf: cleanCpf, senha });
+    try { if (resp.token) localStorage.setItem(TOKEN_KEY, resp.token); } catch { }
     return { ...resp, usuario: sanitizeUsuario(resp.usuario) };
   } catch (e: any) {
     if (e instanceof ApiError) {
@@ -162,6 +179,12 @@ export async function login(cpf: string, senha: string) {
   }
 }
 
+// Revoga o token no backend (melhor esforço) e o esquece localmente
+export async function logout() {
+  try { await api.post<void>(`/usuarios/logout`); } catch { }
+  try { localStorage.removeItem(TOKEN_KEY); } catch { }
+}
+
 // Cadastro (Cliente ou Agente)
 export async function registerCliente(data: {
   nome: string; cpf: string; rg: string; endereco: string; profissao: string; senha: string;
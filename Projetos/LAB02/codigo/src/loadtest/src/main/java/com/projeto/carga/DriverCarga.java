@@ -0,0 +1,298 @@
+package com.projeto.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projeto.Application;
+import com.projeto.config.CargaDataLoader;
+
+/**
+ * Driver de carga: replays de um workload misto contra o backend.
+ *
+ * Sem --url sobe o backend embutido neste mesmo processo, com o profile "carga" (gerador
+ * sintético) numa porta aleatória; com --url usa um servidor já rodando com o mesmo profile e a
+ * mesma semente/volumes. Cada thread é um usuário: faz login como um cliente (Zipf sobre os
+ * clientes gerados) e sorteia operações conforme --mix:
+ *
+ *   login      POST /usuarios/login (troca de cliente)
+ *   dashboard  GET /pedidos?clienteId=..&limite=20 e, na visão do agente, a fila de pendentes
+ *   status     PATCH /pedidos/{id}/status de um pendente (409 conta como conflito, não erro)
+ *   criar      POST /pedidos
+ *
+ * Com --taxa > 0 o ritmo é aberto (cada thread tem horários planejados) e a latência conta a
+ * partir do horário planejado, sem omissão coordenada; com --taxa=0 cada thread dispara a
+ * próxima assim que a anterior volta.
+ */
+public final class DriverCarga {
+
+    enum Operacao { LOGIN, DASHBOARD, STATUS, CRIAR }
+
+    private final Map<String, String> opcoes;
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Medidas medidas = new Medidas();
+
+    private String url;
+    private int clientes;
+    private String senha;
+    private CargaDataLoader.Zipf zipfCliente;
+    private CargaDataLoader.Zipf zipfAutomovel;
+    private long menorAutomovel;
+    private volatile long maiorPedido;
+    private final EnumMap<Operacao, Integer> mix = new EnumMap<>(Operacao.class);
+    private int somaMix;
+
+    private volatile boolean medindo;
+    private volatile boolean parar;
+
+    private DriverCarga(Map<String, String> opcoes) {
+        this.opcoes = opcoes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new LinkedHashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--")) throw new IllegalArgumentException("argumento inválido: " + a);
+            int igual = a.indexOf('=');
+            opcoes.put(igual < 0 ? a.substring(2) : a.substring(2, igual), igual < 0 ? "true" : a.substring(igual + 1));
+        }
+        new DriverCarga(opcoes).executar();
+    }
+
+    private String opcao(String nome, String padrao) {
+        return opcoes.getOrDefault(nome, padrao);
+    }
+
+    private void executar() throws Exception {
+        int threads = Integer.parseInt(opcao("threads", "16"));
+        int aquecimento = Integer.parseInt(opcao("aquecimento", "15"));
+        int duracao = Integer.parseInt(opcao("duracao", "60"));
+        double taxa = Double.parseDouble(opcao("taxa", "0"));
+        long semente = Long.parseLong(opcao("semente", "42"));
+        clientes = Integer.parseInt(opcao("carga.clientes", "200000"));
+        senha = opcao("carga.senha", "carga123");
+        for (String parte : opcao("mix", "login:5,dashboard:60,status:15,criar:20").split(",")) {
+            String[] kv = parte.split(":");
+            mix.put(Operacao.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        somaMix = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        ConfigurableApplicationContext backend = null;
+        url = opcoes.get("url");
+        if (url == null) {
+            backend = subirBackend();
+            url = "http://localhost:" + backend.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            descobrir();
+            zipfCliente = new CargaDataLoader.Zipf(clientes, 0.9);
+            System.out.printf("%s | %d threads | %s | aquecimento %ds, medição %ds | mix %s%n", url, threads,
+                    taxa > 0 ? String.format("%.0f req/s planejadas", taxa) : "ritmo fechado", aquecimento, duracao, mix);
+
+            SplittableRandom raiz = new SplittableRandom(semente);
+            List<Thread> trabalhadores = new ArrayList<>();
+            long intervalo = taxa > 0 ? (long) (threads * 1e9 / taxa) : 0;
+            for (int t = 0; t < threads; t++) {
+                Trabalhador w = new Trabalhador(raiz.split(), intervalo, t * (intervalo / Math.max(1, threads)));
+                Thread th = new Thread(w, "carga-" + t);
+                th.setDaemon(true);
+                trabalhadores.add(th);
+                th.start();
+            }
+            Thread.sleep(aquecimento * 1000L);
+            medidas.reiniciar();
+            medindo = true;
+            long inicio = System.nanoTime();
+            Thread.sleep(duracao * 1000L);
+            medindo = false;
+            long fim = System.nanoTime();
+            parar = true;
+            for (Thread th : trabalhadores) th.join(10_000);
+
+            medidas.relatorio((fim - inicio) / 1e9, System.out);
+            Path saida = Path.of(opcao("saida", "target/carga"));
+            medidas.gravarDistribuicoes(saida);
+            System.out.println("Distribuições de percentis (.hgrm) em " + saida.toAbsolutePath());
+        } finally {
+            if (backend != null) backend.close();
+        }
+    }
+
+    // Repassa ao backend embutido as opções que são propriedades dele (carga.*, spring.*, login.* ...)
+    private ConfigurableApplicationContext subirBackend() {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--management.server.port=0",
+                "--spring.main.banner-mode=off"));
+        opcoes.forEach((k, v) -> {
+            if (k.contains(".")) args.add("--" + k + "=" + v);
+        });
+        System.out.println("Subindo backend embutido (profile carga)...");
+        return new SpringApplicationBuilder(Application.class).profiles("carga").run(args.toArray(String[]::new));
+    }
+
+    // Faixa de automóveis e maior pedido existentes, para sortear alvos válidos
+    private void descobrir() throws IOException, InterruptedException {
+        JsonNode desc = getJson("/automoveis/busca?ordenar=id&direcao=desc&tamanho=1").get("itens");
+        JsonNode asc = getJson("/automoveis/busca?ordenar=id&direcao=asc&tamanho=1").get("itens");
+        if (desc.isEmpty()) throw new IllegalStateException("Nenhum automóvel; o servidor está com o profile carga?");
+        menorAutomovel = asc.get(0).get("id").asLong();
+        zipfAutomovel = new CargaDataLoader.Zipf((int) (desc.get(0).get("id").asLong() - menorAutomovel + 1), 0.8);
+        JsonNode pedidos = getJson("/pedidos?limite=1").get("itens");
+        maiorPedido = pedidos.isEmpty() ? 1 : pedidos.get(0).get("id").asLong();
+    }
+
+    private JsonNode getJson(String caminho) throws IOException, InterruptedException {
+        HttpResponse<byte[]> r = http.send(HttpRequest.newBuilder(URI.create(url + caminho)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (r.statusCode() != 200) throw new IllegalStateException("GET " + caminho + " respondeu " + r.statusCode());
+        return json.readTree(r.body());
+    }
+
+    private final class Trabalhador implements Runnable {
+        private final SplittableRandom aleatorio;
+        private final long intervalo;
+        private long planejado;
+        private String token;
+        private long clienteId;
+        private final Deque<Long> pendentes = new ArrayDeque<>();
+
+        Trabalhador(SplittableRandom aleatorio, long intervalo, long defasagem) {
+            this.aleatorio = aleatorio;
+            this.intervalo = intervalo;
+            this.planejado = System.nanoTime() + defasagem;
+        }
+
+        @Override
+        public void run() {
+            executar(Operacao.LOGIN);
+            while (!parar) {
+                int sorteio = aleatorio.nextInt(somaMix);
+                Operacao op = null;
+                for (Map.Entry<Operacao, Integer> e : mix.entrySet()) {
+                    sorteio -= e.getValue();
+                    if (sorteio < 0) {
+                        op = e.getKey();
+                        break;
+                    }
+                }
+                if (op == Operacao.STATUS && pendentes.isEmpty()) {
+                    // a fila do agente também é uma listagem de dashboard
+                    executar(Operacao.DASHBOARD, true);
+                }
+                executar(op);
+            }
+        }
+
+        private void executar(Operacao op) {
+            executar(op, false);
+        }
+
+        private void executar(Operacao op, boolean filaAgente) {
+            long inicio;
+            if (intervalo > 0) {
+                long agora = System.nanoTime();
+                if (planejado > agora) LockSupport.parkNanos(planejado - agora);
+                inicio = planejado;
+                planejado += intervalo;
+            } else {
+                inicio = System.nanoTime();
+            }
+            int codigo;
+            try {
+                codigo = switch (op) {
+                    case LOGIN -> login();
+                    case DASHBOARD -> filaAgente ? filaPendentes() : dashboard();
+                    case STATUS -> status();
+                    case CRIAR -> criar();
+                };
+            } catch (IOException e) {
+                codigo = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (medindo) medidas.registrar(op, codigo, (System.nanoTime() - inicio) / 1_000);
+        }
+
+        private HttpRequest.Builder requisicao(String caminho) {
+            HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(url + caminho)).timeout(Duration.ofSeconds(30));
+            if (token != null) b.header("Authorization", "Bearer " + token);
+            return b;
+        }
+
+        private HttpResponse<byte[]> enviar(HttpRequest.Builder b) throws IOException, InterruptedException {
+            return http.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        private HttpRequest.Builder comCorpo(HttpRequest.Builder b, String metodo, String corpo) {
+            return b.header("Content-Type", "application/json").method(metodo, HttpRequest.BodyPublishers.ofString(corpo));
+        }
+
+        private int login() throws IOException, InterruptedException {
+            String cpf = CargaDataLoader.cpf(zipfCliente.sortear(aleatorio));
+            token = null;
+            HttpResponse<byte[]> r = enviar(comCorpo(requisicao("/usuarios/login"), "POST",
+                    "{\"cpf\":\"" + cpf + "\",\"senha\":\"" + senha + "\"}"));
+            if (r.statusCode() == 200) {
+                JsonNode corpo = json.readTree(r.body());
+                token = corpo.get("token").asText();
+                clienteId = corpo.get("usuario").get("id").asLong();
+            }
+            return r.statusCode();
+        }
+
+        private int dashboard() throws IOException, InterruptedException {
+            return enviar(requisicao("/pedidos?clienteId=" + clienteId + "&limite=20").GET()).statusCode();
+        }
+
+        // Página de pendentes a partir de um ponto aleatório, para as threads não disputarem os mesmos
+        private int filaPendentes() throws IOException, InterruptedException {
+            long cursor = 1 + aleatorio.nextLong(maiorPedido + 1);
+            HttpResponse<byte[]> r = enviar(requisicao("/pedidos?status=PENDENTE&view=summary&limite=50&cursor=" + cursor).GET());
+            if (r.statusCode() == 200) {
+                for (JsonNode p : json.readTree(r.body()).get("itens")) pendentes.add(p.get("id").asLong());
+            }
+            return r.statusCode();
+        }
+
+        private int status() throws IOException, InterruptedException {
+            Long id = pendentes.poll();
+            if (id == null) id = 1 + aleatorio.nextLong(maiorPedido);
+            int sorteio = aleatorio.nextInt(100);
+            String novo = sorteio < 70 ? "APROVADO" : sorteio < 95 ? "REJEITADO" : "CANCELADO";
+            return enviar(comCorpo(requisicao("/pedidos/" + id + "/status"), "PATCH", "{\"status\":\"" + novo + "\"}")).statusCode();
+        }
+
+        private int criar() throws IOException, InterruptedException {
+            long automovel = menorAutomovel + zipfAutomovel.sortear(aleatorio);
+            HttpResponse<byte[]> r = enviar(comCorpo(requisicao("/pedidos"), "POST",
+                    "{\"cliente\":{\"id\":" + clienteId + "},\"automovel\":{\"id\":" + automovel + "}}"));
+            if (r.statusCode() / 100 == 2) {
+                long id = json.readTree(r.body()).get("id").asLong();
+                if (id > maiorPedido) maiorPedido = id;
+            }
+            return r.statusCode();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.projeto.carga;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.projeto.carga.DriverCarga.Operacao;
+
+/**
+ * Latências (em microssegundos, HdrHistogram com 3 dígitos significativos) e códigos HTTP por
+ * operação. Recorder permite gravar de várias threads sem trava.
+ */
+final class Medidas {
+
+    private final EnumMap<Operacao, Recorder> latencias = new EnumMap<>(Operacao.class);
+    private final EnumMap<Operacao, Map<Integer, LongAdder>> codigos = new EnumMap<>(Operacao.class);
+    private final EnumMap<Operacao, Histogram> finais = new EnumMap<>(Operacao.class);
+    private Histogram geral;
+
+    Medidas() {
+        for (Operacao op : Operacao.values()) {
+            latencias.put(op, new Recorder(3));
+            codigos.put(op, new ConcurrentHashMap<>());
+        }
+    }
+
+    /** codigo -1 = falha de rede/timeout. */
+    void registrar(Operacao op, int codigo, long micros) {
+        latencias.get(op).recordValue(Math.max(1, micros));
+        codigos.get(op).computeIfAbsent(codigo, c -> new LongAdder()).increment();
+    }
+
+    // Descarta o que foi gravado no aquecimento
+    void reiniciar() {
+        latencias.values().forEach(Recorder::reset);
+        codigos.values().forEach(Map::clear);
+    }
+
+    void relatorio(double segundos, PrintStream out) {
+        Histogram total = new Histogram(3);
+        long erros = 0;
+        out.printf("%n%-10s %9s %9s %7s %9s %9s %9s %9s %9s %9s%n", "operação", "total", "req/s", "erros",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms", "conflitos");
+        for (Operacao op : Operacao.values()) {
+            Histogram h = latencias.get(op).getIntervalHistogram();
+            finais.put(op, h);
+            total.add(h);
+            long errosOp = 0, conflitos = 0;
+            for (Map.Entry<Integer, LongAdder> e : codigos.get(op).entrySet()) {
+                int c = e.getKey();
+                if (c == 409) conflitos += e.getValue().sum();
+                else if (c < 200 || c >= 300) errosOp += e.getValue().sum();
+            }
+            erros += errosOp;
+            linha(out, op.name().toLowerCase(), h, segundos, errosOp, conflitos);
+        }
+        linha(out, "total", total, segundos, erros, -1);
+        geral = total;
+
+        out.println();
+        for (Operacao op : Operacao.values()) {
+            Map<Integer, Long> porCodigo = new TreeMap<>();
+            codigos.get(op).forEach((c, n) -> porCodigo.put(c, n.sum()));
+            if (!porCodigo.isEmpty()) out.printf("%-10s códigos %s%n", op.name().toLowerCase(), porCodigo);
+        }
+    }
+
+    private static void linha(PrintStream out, String nome, Histogram h, double segundos, long erros, long conflitos) {
+        out.printf("%-10s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9s%n", nome, h.getTotalCount(),
+                h.getTotalCount() / segundos, erros,
+                ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()), conflitos < 0 ? "" : String.valueOf(conflitos));
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Uma distribuição por operação, no formato .hgrm (valores em ms), para plotar/comparar execuções
+    void gravarDistribuicoes(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        for (Map.Entry<Operacao, Histogram> e : finais.entrySet()) {
+            gravar(diretorio.resolve(e.getKey().name().toLowerCase() + ".hgrm"), e.getValue());
+        }
+        gravar(diretorio.resolve("total.hgrm"), geral);
+    }
+
+    private static void gravar(Path arquivo, Histogram h) throws IOException {
+        try (PrintStream ps = new PrintStream(Files.newOutputStream(arquivo), true, "UTF-8")) {
+            h.outputPercentileDistribution(ps, 1000.0);
+        }
+    }
+}